@@ -0,0 +1,45 @@
+package bujo.bench;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.nio.file.Path;
+
+/**
+ * Builds synthetic weeks for the benchmarks
+ */
+final class BenchWeeks {
+
+  /**
+   * Private constructor to prevent class from instantiation
+   */
+  private BenchWeeks() {}
+
+  /**
+   * Builds a week with the given number of items on every day, half tasks and half events
+   *
+   * @param itemsPerDay number of items to place on each day
+   * @return the populated week
+   */
+  static Week week(int itemsPerDay) {
+    Week week = new Week("bench", Path.of("bench.bujo"));
+    for (DayOfWeek day : DayOfWeek.values()) {
+      for (int i = 0; i < itemsPerDay; i++) {
+        String description = "Notes for item " + i + " - see www.example.com/notes/" + i;
+        if (i % 2 == 0) {
+          week.addItem(new Task("task " + i, description, day));
+        } else {
+          int minuteOfDay = (i * 7) % (24 * 60);
+          int hour = minuteOfDay / 60 % 12 == 0 ? 12 : minuteOfDay / 60 % 12;
+          String startTime = String.format("%d:%02d %s", hour, minuteOfDay % 60,
+              minuteOfDay < 12 * 60 ? "AM" : "PM");
+          week.addItem(new Event("event " + i, description, day,
+              startTime, "1 hr 15 mins", ItemType.EVENT));
+        }
+      }
+    }
+    return week;
+  }
+}
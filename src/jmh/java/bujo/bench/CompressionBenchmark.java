@@ -0,0 +1,93 @@
+package bujo.bench;
+
+import bujo.controller.Compression;
+import bujo.controller.StorageFormat;
+import bujo.controller.StorageManager;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Weighs the CPU cost of compressing .bujo files against the bytes it saves on disk, by
+ * comparing encode time, decode time and file size of each compression over both formats.
+ * File sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+  @Param({"10", "1000"})
+  private int itemsPerDay;
+  @Param({"JSON", "BINARY"})
+  private StorageFormat format;
+  @Param({"NONE", "GZIP", "DEFLATE"})
+  private Compression compression;
+  private Week week;
+  private Path readFile;
+  private Path writeFile;
+
+  /**
+   * Builds the week and writes it in the benchmarked format and compression
+   *
+   * @throws IOException if the scratch files cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    week = BenchWeeks.week(itemsPerDay);
+    readFile = Files.createTempFile("bench-read", ".bujo");
+    writeFile = Files.createTempFile("bench-write", ".bujo");
+    StorageManager.writeFile(week, readFile, format, compression);
+    System.out.println(format + "/" + compression + " size for " + itemsPerDay + " items/day: "
+        + Files.size(readFile) + " bytes");
+  }
+
+  /**
+   * Removes the scratch files
+   *
+   * @throws IOException if the scratch files cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(readFile);
+    Files.deleteIfExists(writeFile);
+  }
+
+  /**
+   * Encodes the week into a file
+   *
+   * @throws IOException if the write fails
+   */
+  @Benchmark
+  public void encode() throws IOException {
+    StorageManager.writeFile(week, writeFile, format, compression);
+  }
+
+  /**
+   * Decodes the week from a file
+   *
+   * @return the decoded week
+   * @throws IOException if the read fails
+   */
+  @Benchmark
+  public Week decode() throws IOException {
+    return StorageManager.readFile(readFile);
+  }
+}
@@ -0,0 +1,254 @@
+package bujo.bench;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how adding, removing, overbooking checks and conflict checks on a Day scale with its
+ * item count, against the former list that was re-sorted and rescanned on every change, and
+ * against pairwise conflict checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DayMutationBenchmark {
+  @Param({"10", "100", "1000", "10000"})
+  private int itemCount;
+  private List<Item> toAdd;
+  private Day day;
+  private Event churned;
+  private List<Item> resorted;
+
+  /**
+   * Builds the items, half tasks and half events, and a day holding all of them
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    toAdd = new ArrayList<>(itemCount);
+    for (int i = 0; i < itemCount; i++) {
+      if (i % 2 == 0) {
+        toAdd.add(new Task("task " + i, "", DayOfWeek.MONDAY));
+      } else {
+        int minuteOfDay = (i * 7) % (24 * 60);
+        int hour = minuteOfDay / 60 % 12 == 0 ? 12 : minuteOfDay / 60 % 12;
+        String startTime = String.format("%d:%02d %s", hour, minuteOfDay % 60,
+            minuteOfDay < 12 * 60 ? "AM" : "PM");
+        toAdd.add(new Event("event " + i, "", DayOfWeek.MONDAY, startTime, "1 hr",
+            ItemType.EVENT));
+      }
+    }
+    day = new Day(DayOfWeek.MONDAY);
+    for (Item item : toAdd) {
+      day.addItem(item, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    churned = (Event) toAdd.get(1);
+    resorted = resort(toAdd);
+  }
+
+  /**
+   * Builds a day of itemCount items, one add at a time
+   *
+   * @return the built day
+   */
+  @Benchmark
+  public Day buildDay() {
+    Day built = new Day(DayOfWeek.MONDAY);
+    for (Item item : toAdd) {
+      built.addItem(item, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    return built;
+  }
+
+  /**
+   * Removes an event from a full day and adds it back
+   *
+   * @throws IllegalAccessException never, the event is always there
+   */
+  @Benchmark
+  public void removeAndAddEvent() throws IllegalAccessException {
+    day.removeItemById(churned.getId());
+    day.addItem(churned, Integer.MAX_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Removes an event from a full day and adds it back the way Day did before: scan for the
+   * name, re-sort after the removal, then append, rescan both counts and re-sort again
+   */
+  @Benchmark
+  public void removeAndAddEventResorting() {
+    for (Item item : resorted) {
+      if (item.getName().equals(churned.getName())) {
+        resorted.remove(item);
+        break;
+      }
+    }
+    resorted = resort(resorted);
+    for (Item item : resorted) {
+      if (item.getName().equals(churned.getName())) {
+        throw new IllegalStateException("Duplicate");
+      }
+    }
+    resorted.add(churned);
+    countType(resorted, ItemType.EVENT);
+    countType(resorted, ItemType.TASK);
+    resorted = resort(resorted);
+  }
+
+  /**
+   * Checks a full day for overbooking, as each day column of the week view does
+   *
+   * @return true if the day is overbooked
+   */
+  @Benchmark
+  public boolean checkOverbooked() {
+    return day.getOverbooked(itemCount / 4, itemCount / 4);
+  }
+
+  /**
+   * Checks a full day for overbooking the way Day did before, rescanning it for each type
+   *
+   * @return true if the day is overbooked
+   */
+  @Benchmark
+  public boolean checkOverbookedRescanning() {
+    return countType(resorted, ItemType.EVENT) > itemCount / 4
+        || countType(resorted, ItemType.TASK) > itemCount / 4;
+  }
+
+  /**
+   * Finds the events overlapping one event through the day's interval index
+   *
+   * @return the number of overlapping events
+   */
+  @Benchmark
+  public int findConflicts() {
+    return day.getConflicts(churned).size();
+  }
+
+  /**
+   * Finds the events overlapping one event by scanning every event of the day
+   *
+   * @return the number of overlapping events
+   */
+  @Benchmark
+  public int findConflictsScanning() {
+    int conflicts = 0;
+    for (Item item : resorted) {
+      if (item != churned && item.getType() == ItemType.EVENT && overlap(churned, (Event) item)) {
+        conflicts++;
+      }
+    }
+    return conflicts;
+  }
+
+  /**
+   * Checks a full day for overlapping events, as each day column of the week view does
+   *
+   * @return true if two events overlap
+   */
+  @Benchmark
+  public boolean checkConflicts() {
+    return day.hasConflicts();
+  }
+
+  /**
+   * Checks a full day for overlapping events by comparing every pair of events
+   *
+   * @return true if two events overlap
+   */
+  @Benchmark
+  public boolean checkConflictsPairwise() {
+    for (int i = 0; i < resorted.size(); i++) {
+      if (resorted.get(i).getType() != ItemType.EVENT) {
+        continue;
+      }
+      for (int j = i + 1; j < resorted.size(); j++) {
+        if (resorted.get(j).getType() == ItemType.EVENT
+            && overlap((Event) resorted.get(i), (Event) resorted.get(j))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Tells whether two events overlap in time
+   *
+   * @param first an event
+   * @param second another event
+   * @return true if their spans of time overlap
+   */
+  private static boolean overlap(Event first, Event second) {
+    return first.getStartMinutes() < second.getStartMinutes() + second.getDurationMinutes()
+        && second.getStartMinutes() < first.getStartMinutes() + first.getDurationMinutes();
+  }
+
+  /**
+   * Counts the items of one type, as the former overbooking checks did
+   *
+   * @param items the items
+   * @param type the type to count
+   * @return the number of items of the type
+   */
+  private static int countType(List<Item> items, ItemType type) {
+    int count = 0;
+    for (Item item : items) {
+      if (item.getType() == type) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Sorts items the way Day.sortItems did before: events by parsed start time, then tasks
+   *
+   * @param items the items
+   * @return a new list in display order
+   */
+  private static List<Item> resort(List<Item> items) {
+    List<Event> events = new ArrayList<>();
+    List<Item> tasks = new ArrayList<>();
+    for (Item i : items) {
+      if (i.getType() == ItemType.EVENT) {
+        events.add((Event) i);
+      } else {
+        tasks.add(i);
+      }
+    }
+    Collections.sort(events, (o1, o2) -> {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mm a");
+      return LocalTime.parse(o1.getStartTime(), formatter)
+          .compareTo(LocalTime.parse(o2.getStartTime(), formatter));
+    });
+    List<Item> sorted = new ArrayList<>(events);
+    sorted.addAll(tasks);
+    return sorted;
+  }
+}
@@ -0,0 +1,133 @@
+package bujo.bench;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.EventTimes;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.TimeSlot;
+import bujo.model.Week;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures finding free time in days of hundreds of events, against collecting and sorting the
+ * events of a day on every query. Run with the gc profiler to see that a query allocates
+ * nothing but its result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FreeSlotBenchmark {
+  private static final int WORK_START = 9 * 60;
+  private static final int WORK_END = 17 * 60;
+
+  @Param({"100", "300", "1000"})
+  private int eventsPerDay;
+  @Param({"15", "120"})
+  private int windowMinutes;
+  private Week week;
+
+  /**
+   * Builds a week of eventsPerDay events on each day, of 5 to 20 minutes each, at random times
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    week = new Week("week", null);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      for (int i = 0; i < eventsPerDay; i++) {
+        week.addItem(new Event("event " + i, "", day,
+            EventTimes.formatStartTime(random.nextInt(24 * 60)),
+            EventTimes.formatDuration(5 + random.nextInt(16)), ItemType.EVENT));
+      }
+    }
+    // Fill the read-only snapshots, as any render of the week does
+    for (Day day : week.getDays()) {
+      day.getItems();
+    }
+  }
+
+  /**
+   * Finds the earliest free window in working hours of one day
+   *
+   * @return the window, or null
+   */
+  @Benchmark
+  public TimeSlot findFreeSlotInDay() {
+    return week.findFreeSlot(DayOfWeek.WEDNESDAY, windowMinutes, WORK_START, WORK_END);
+  }
+
+  /**
+   * Finds the earliest free window in working hours across the week
+   *
+   * @return the window, or null
+   */
+  @Benchmark
+  public TimeSlot findFreeSlotInWeek() {
+    return week.findFreeSlot(windowMinutes, WORK_START, WORK_END);
+  }
+
+  /**
+   * Lists every free interval of at least the window's length in a whole day
+   *
+   * @return the intervals
+   */
+  @Benchmark
+  public List<TimeSlot> getFreeSlots() {
+    return week.getFreeSlots(DayOfWeek.WEDNESDAY, windowMinutes, TimeSlot.START_OF_DAY,
+        TimeSlot.END_OF_DAY);
+  }
+
+  /**
+   * Finds the earliest free window in working hours across the week by collecting and sorting
+   * the events of each day, then sweeping them
+   *
+   * @return the window, or null
+   */
+  @Benchmark
+  public TimeSlot findFreeSlotInWeekSorting() {
+    for (Day day : week.getDays()) {
+      List<Event> events = new ArrayList<>();
+      for (Item item : day.getItems()) {
+        if (item.getType() == ItemType.EVENT) {
+          events.add((Event) item);
+        }
+      }
+      events.sort(Comparator.comparingInt(Event::getStartMinutes));
+      int free = WORK_START;
+      for (Event event : events) {
+        if (event.getStartMinutes() >= WORK_END) {
+          break;
+        }
+        if (event.getStartMinutes() - free >= windowMinutes) {
+          return new TimeSlot(day.getDayOfWeek(), free, event.getStartMinutes());
+        }
+        free = Math.max(free, event.getStartMinutes() + event.getDurationMinutes());
+      }
+      if (WORK_END - free >= windowMinutes) {
+        return new TimeSlot(day.getDayOfWeek(), free, WORK_END);
+      }
+    }
+    return null;
+  }
+}
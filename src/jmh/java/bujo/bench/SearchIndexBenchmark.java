@@ -0,0 +1,166 @@
+package bujo.bench;
+
+import bujo.controller.SearchHit;
+import bujo.controller.SearchIndex;
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Item;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures word, prefix and multi-word queries on a search index over hundreds of thousands of
+ * items, against scanning every item's text for the word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchIndexBenchmark {
+  private static final int ITEMS_PER_WEEK = 100;
+  private static final int VOCABULARY = 20_000;
+
+  @Param({"100000", "300000"})
+  private int itemCount;
+  private SearchIndex index;
+  private List<Week> weeks;
+  private String rareWord;
+
+  /**
+   * Builds weeks of tasks named and described with random words, skewed so that a few words
+   * are common and most are rare, and indexes them
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    String[] words = new String[VOCABULARY];
+    for (int i = 0; i < VOCABULARY; i++) {
+      words[i] = word(random);
+    }
+    rareWord = words[VOCABULARY - 1];
+
+    index = new SearchIndex();
+    weeks = new ArrayList<>();
+    for (int w = 0; w * ITEMS_PER_WEEK < itemCount; w++) {
+      Week week = new Week("week " + w, null);
+      for (int i = 0; i < ITEMS_PER_WEEK; i++) {
+        String name = pick(words, random) + " " + pick(words, random) + " " + i;
+        String description = pick(words, random) + " " + pick(words, random) + " "
+            + pick(words, random) + " " + pick(words, random);
+        week.addItem(new Task(name, description, DayOfWeek.values()[i % 7]));
+      }
+      index.addWeek(week);
+      weeks.add(week);
+    }
+  }
+
+  /**
+   * Finds the items holding a common word
+   *
+   * @return the hits
+   */
+  @Benchmark
+  public List<SearchHit> searchCommonWord() {
+    return index.search("plan", 50);
+  }
+
+  /**
+   * Finds the items holding a rare word
+   *
+   * @return the hits
+   */
+  @Benchmark
+  public List<SearchHit> searchRareWord() {
+    return index.search(rareWord, 50);
+  }
+
+  /**
+   * Finds the items holding a word starting with a short prefix
+   *
+   * @return the hits
+   */
+  @Benchmark
+  public List<SearchHit> searchPrefix() {
+    return index.search("ba*", 50);
+  }
+
+  /**
+   * Finds the items holding two words
+   *
+   * @return the hits
+   */
+  @Benchmark
+  public List<SearchHit> searchTwoWords() {
+    return index.search("plan meet*", 50);
+  }
+
+  /**
+   * Finds the items holding a rare word by scanning the name and description of every item
+   *
+   * @return the hits
+   */
+  @Benchmark
+  public List<Item> scanRareWord() {
+    List<Item> hits = new ArrayList<>();
+    for (Week week : weeks) {
+      for (Day day : week.getDays()) {
+        for (Item item : day.getItems()) {
+          if (item.getName().toLowerCase(Locale.ROOT).contains(rareWord)
+              || item.getDescription().toLowerCase(Locale.ROOT).contains(rareWord)) {
+            hits.add(item);
+          }
+        }
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Picks a word, the first words of the vocabulary far more often than the last ones
+   *
+   * @param words the vocabulary
+   * @param random the random source
+   * @return the word
+   */
+  private static String pick(String[] words, Random random) {
+    double skewed = Math.pow(random.nextDouble(), 3);
+    if (random.nextInt(50) == 0) {
+      return random.nextBoolean() ? "plan" : "meeting";
+    }
+    return words[(int) (skewed * words.length)];
+  }
+
+  /**
+   * Makes up a word of 3 to 9 letters
+   *
+   * @param random the random source
+   * @return the word
+   */
+  private static String word(Random random) {
+    StringBuilder word = new StringBuilder();
+    int length = 3 + random.nextInt(7);
+    for (int i = 0; i < length; i++) {
+      word.append((char) ('a' + random.nextInt(26)));
+    }
+    return word.toString();
+  }
+}
@@ -0,0 +1,89 @@
+package bujo.bench;
+
+import bujo.controller.StorageFormat;
+import bujo.controller.StorageManager;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares encode time, decode time and file size of the JSON and binary .bujo formats.
+ * File sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageFormatBenchmark {
+  @Param({"10", "1000"})
+  private int itemsPerDay;
+  @Param({"JSON", "BINARY"})
+  private StorageFormat format;
+  private Week week;
+  private Path readFile;
+  private Path writeFile;
+
+  /**
+   * Builds the week and writes it in the benchmarked format
+   *
+   * @throws IOException if the scratch files cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    week = BenchWeeks.week(itemsPerDay);
+    readFile = Files.createTempFile("bench-read", ".bujo");
+    writeFile = Files.createTempFile("bench-write", ".bujo");
+    StorageManager.writeFile(week, readFile, format);
+    System.out.println(format + " size for " + itemsPerDay + " items/day: "
+        + Files.size(readFile) + " bytes");
+  }
+
+  /**
+   * Removes the scratch files
+   *
+   * @throws IOException if the scratch files cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(readFile);
+    Files.deleteIfExists(writeFile);
+  }
+
+  /**
+   * Encodes the week into a file
+   *
+   * @throws IOException if the write fails
+   */
+  @Benchmark
+  public void encode() throws IOException {
+    StorageManager.writeFile(week, writeFile, format);
+  }
+
+  /**
+   * Decodes the week from a file
+   *
+   * @return the decoded week
+   * @throws IOException if the read fails
+   */
+  @Benchmark
+  public Week decode() throws IOException {
+    return StorageManager.readFile(readFile);
+  }
+}
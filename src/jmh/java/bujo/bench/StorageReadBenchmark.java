@@ -0,0 +1,83 @@
+package bujo.bench;
+
+import bujo.controller.StorageManager;
+import bujo.model.Week;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the single-pass .bujo reader against the former tree-then-convert reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageReadBenchmark {
+  @Param({"10", "1000"})
+  private int itemsPerDay;
+  private Path file;
+
+  /**
+   * Writes the week to be read into a scratch file
+   *
+   * @throws IOException if the scratch file cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = Files.createTempFile("bench", ".bujo");
+    StorageManager.writeFile(BenchWeeks.week(itemsPerDay), file);
+  }
+
+  /**
+   * Removes the scratch file
+   *
+   * @throws IOException if the scratch file cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Loads through StorageManager
+   *
+   * @return the loaded week
+   * @throws IOException if the read fails
+   */
+  @Benchmark
+  public Week streamingRead() throws IOException {
+    return StorageManager.readFile(file);
+  }
+
+  /**
+   * Loads the way StorageManager did before: fresh mapper, JsonNode tree, then convertValue
+   *
+   * @return the loaded week
+   * @throws IOException if the read fails
+   */
+  @Benchmark
+  public Week treeRead() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode weekSerialized = mapper.readTree(file.toFile());
+    return mapper.convertValue(weekSerialized, Week.class);
+  }
+}
@@ -0,0 +1,86 @@
+package bujo.bench;
+
+import bujo.controller.StorageManager;
+import bujo.model.Week;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the streaming .bujo writer against the former tree-and-string writer.
+ * Run with the gc profiler (enabled in build.gradle) to see the allocation rate per save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageWriteBenchmark {
+  @Param({"10", "1000"})
+  private int itemsPerDay;
+  private Week week;
+  private Path file;
+
+  /**
+   * Builds the week and the scratch file
+   *
+   * @throws IOException if the scratch file cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    week = BenchWeeks.week(itemsPerDay);
+    file = Files.createTempFile("bench", ".bujo");
+  }
+
+  /**
+   * Removes the scratch file
+   *
+   * @throws IOException if the scratch file cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Saves through StorageManager
+   *
+   * @throws IOException if the write fails
+   */
+  @Benchmark
+  public void streamingWrite() throws IOException {
+    StorageManager.writeFile(week, file);
+  }
+
+  /**
+   * Saves the way StorageManager did before: fresh mapper, JsonNode tree, String, FileWriter
+   *
+   * @throws IOException if the write fails
+   */
+  @Benchmark
+  public void treeWrite() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    FileWriter writer = new FileWriter(file.toFile());
+    JsonNode weekSerialized = mapper.convertValue(week, JsonNode.class);
+    writer.write(weekSerialized.toString());
+    writer.close();
+  }
+}
@@ -0,0 +1,161 @@
+package bujo.bench;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading every item of a week the way the week view renders it, against the former
+ * deep copies of the day list and of every item, and reading the taskbar, against the former
+ * collect-and-sort. Run with the gc profiler to compare the bytes allocated per render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeekRenderBenchmark {
+  @Param({"10", "100", "1000"})
+  private int itemsPerDay;
+  private Week week;
+  private Task toggled;
+
+  /**
+   * Builds a week with itemsPerDay items on each day, half tasks and half events
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    week = new Week("week", null);
+    week.setMaxNumEvents(Integer.MAX_VALUE);
+    week.setMaxNumTasks(Integer.MAX_VALUE);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      for (int i = 0; i < itemsPerDay; i++) {
+        if (i % 2 == 0) {
+          week.addItem(new Task("task " + i, "", day));
+        } else {
+          int minuteOfDay = (i * 7) % (24 * 60);
+          int hour = minuteOfDay / 60 % 12 == 0 ? 12 : minuteOfDay / 60 % 12;
+          String startTime = String.format("%d:%02d %s", hour, minuteOfDay % 60,
+              minuteOfDay < 12 * 60 ? "AM" : "PM");
+          week.addItem(new Event("event " + i, "", day, startTime, "1 hr", ItemType.EVENT));
+        }
+      }
+    }
+    toggled = week.getTaskList().get(week.getTaskCount() / 2);
+  }
+
+  /**
+   * Reads every day and item of the week once, as displayWeekItems does
+   *
+   * @return a value depending on every item read
+   */
+  @Benchmark
+  public int render() {
+    int seen = 0;
+    List<Day> days = week.getDays();
+    for (int i = 0; i < days.size(); i++) {
+      for (Item item : days.get(i).getItems()) {
+        seen += item.getName().length();
+      }
+    }
+    return seen;
+  }
+
+  /**
+   * Reads every day and item of the week the way the week view did before: copying the day
+   * list once per day and deep-copying the items of each day
+   *
+   * @return a value depending on every item read
+   */
+  @Benchmark
+  public int renderCopying() {
+    int seen = 0;
+    for (int i = 0; i < DayOfWeek.values().length; i++) {
+      Day day = new ArrayList<>(week.getDays()).get(i);
+      ArrayList<Item> items = new ArrayList<>(day.getItems().size());
+      for (Item item : day.getItems()) {
+        items.add(item.copy());
+      }
+      for (Item item : items) {
+        seen += item.getName().length();
+      }
+    }
+    return seen;
+  }
+
+  /**
+   * Reads the taskbar and its progress, as displayTaskbarItems does
+   *
+   * @return a value depending on every task read
+   */
+  @Benchmark
+  public int taskbar() {
+    int seen = week.getCompletedTaskCount() + week.getTaskCount();
+    for (Task task : week.getTaskList()) {
+      seen += task.getName().length();
+    }
+    return seen;
+  }
+
+  /**
+   * Completes a task, reopens it as the week view does, and reads the taskbar again
+   *
+   * @return a value depending on every task read
+   * @throws IllegalAccessException never, the task is always there
+   */
+  @Benchmark
+  public int toggleAndReadTaskbar() throws IllegalAccessException {
+    week.markComplete(toggled);
+    week.removeItem(toggled.getDay(), toggled.getId());
+    week.addItem(toggled);
+    return taskbar();
+  }
+
+  /**
+   * Reads the taskbar the way the week view did before: collecting and sorting the tasks of
+   * every day, then counting the completed ones in another pass
+   *
+   * @return a value depending on every task read
+   */
+  @Benchmark
+  public int taskbarSorting() {
+    List<Task> tasks = new ArrayList<>();
+    for (Day day : week.getDays()) {
+      for (Item item : day.getItems()) {
+        if (item.getType().equals(ItemType.TASK)) {
+          tasks.add((Task) item);
+        }
+      }
+    }
+    tasks.sort(Comparator.comparing((Task task) -> !task.getComplete())
+        .thenComparing(Task::getName));
+    int completed = 0;
+    int seen = 0;
+    for (Task task : tasks) {
+      completed += task.getComplete() ? 1 : 0;
+      seen += task.getName().length();
+    }
+    return seen + completed + tasks.size();
+  }
+}
@@ -0,0 +1,73 @@
+package bujo;
+
+import bujo.controller.BulkReport;
+import bujo.controller.BulkTransfer;
+import bujo.controller.IcsImporter;
+import bujo.controller.StorageFormat;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless entry point for bulk export and import of .bujo files, and for exporting their events
+ * as a calendar, without starting JavaFX.
+ *
+ * <pre>
+ *   export &lt;journal-dir&gt; &lt;rows.csv|rows.jsonl&gt; [parallelism]
+ *   import &lt;rows.csv|rows.jsonl|events.ics&gt; &lt;journal-dir&gt; [parallelism]
+ *   calendar &lt;journal-dir&gt; &lt;events.ics&gt; &lt;first-sunday&gt; [parallelism]
+ * </pre>
+ */
+public class BulkDriver {
+
+  /**
+   * The program entry point
+   *
+   * @param args the command, its input and output, and optionally the parallelism
+   */
+  public static void main(String[] args) {
+    int argCount = args.length > 0 && args[0].equals("calendar") ? 4 : 3;
+    if (args.length < argCount || args.length > argCount + 1
+        || !List.of("export", "import", "calendar").contains(args[0])) {
+      System.err.println("Usage: export <journal-dir> <rows.csv|rows.jsonl> [parallelism]");
+      System.err.println(
+          "       import <rows.csv|rows.jsonl|events.ics> <journal-dir> [parallelism]");
+      System.err.println(
+          "       calendar <journal-dir> <events.ics> <first-sunday> [parallelism]");
+      System.exit(2);
+    }
+
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    try {
+      if (args.length > argCount) {
+        parallelism = Integer.parseInt(args[argCount]);
+      }
+      Path source = Path.of(args[1]);
+      Path target = Path.of(args[2]);
+      if (args[0].equals("import") && source.toString().toLowerCase(Locale.ROOT).endsWith(".ics")) {
+        try (IcsImporter importer = new IcsImporter(parallelism,
+            IcsImporter.DEFAULT_MAX_BUFFERED_EVENTS)) {
+          BulkReport report = importer.importCalendar(source, target, ZoneId.systemDefault());
+          System.out.println(report.getDescription() + ", " + importer.getEventsRenamed()
+              + " renamed, " + importer.getEventsSkipped() + " skipped");
+        }
+        return;
+      }
+      try (BulkTransfer transfer = new BulkTransfer(parallelism)) {
+        BulkReport report = switch (args[0]) {
+          case "export" -> transfer.exportDirectory(source, target);
+          case "import" -> transfer.importRows(source, target, StorageFormat.JSON);
+          default -> transfer.exportCalendar(source, target, LocalDate.parse(args[3]));
+        };
+        System.out.println(report.getDescription());
+      }
+    } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+      System.err.println(e.getMessage());
+      System.exit(1);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
@@ -68,6 +69,25 @@ public final class AppUtils {
     }
   }
 
+  /**
+   * Summons DirectoryChooser window and allows the user to select a directory
+   *
+   * @param callerStage stage that called the directory chooser
+   * @return Path selected by the user
+   */
+  public static Path getUserChosenDirectory(Stage callerStage) {
+    DirectoryChooser chooser = new DirectoryChooser();
+    chooser.setInitialDirectory(new File(lastVisitedDirectory));
+
+    File chosenDirectory = chooser.showDialog(callerStage);
+    if (chosenDirectory != null) {
+      lastVisitedDirectory = chosenDirectory.toString();
+      return chosenDirectory.toPath();
+    } else {
+      return null;
+    }
+  }
+
   /**
    * Sets up the timeline for the splash screen
    *
@@ -166,13 +186,18 @@ public final class AppUtils {
 
 
   /**
-   * @param indicator Label indicator of whether the day is overbooked
+   * @param indicator Label indicator of whether the day is overbooked or has overlapping events
    * @param isOverbooked boolean, true if overbooked
+   * @param hasConflicts boolean, true if two events of the day overlap in time
    */
-  public static void setCommitmentIndicator(Label indicator, boolean isOverbooked) {
+  public static void setCommitmentIndicator(Label indicator, boolean isOverbooked,
+                                            boolean hasConflicts) {
     if (isOverbooked) {
-      indicator.setText("Overbooked!");
+      indicator.setText(hasConflicts ? "Overbooked! Conflicts!" : "Overbooked!");
       indicator.setStyle("-fx-background-color: #f09ca1; -fx-border-color: #d1e8eb;");
+    } else if (hasConflicts) {
+      indicator.setText("Conflicts!");
+      indicator.setStyle("-fx-background-color: #f3d58f; -fx-border-color: #d1e8eb;");
     } else {
       indicator.setText("");
       indicator.setStyle("-fx-background-color:  #A0CA92; -fx-border-color: #d1e8eb;");
@@ -0,0 +1,334 @@
+package bujo.controller;
+
+import bujo.model.Week;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and saves weeks without blocking the calling thread.
+ *
+ * <p>File IO goes through {@link AsynchronousFileChannel}s whose completions run on a bounded IO
+ * executor. At most the configured number of loads and saves are in flight at once; the others
+ * wait in line without holding a thread. Cancelling a returned future closes the channel of an
+ * operation in flight, or drops an operation still waiting. A cancelled save never replaces the
+ * target file, unless it had already done so.
+ */
+public class AsyncStorage implements AutoCloseable {
+  /**
+   * Default number of loads and saves in flight at once
+   */
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  private final ExecutorService io;
+  private final int concurrencyLimit;
+  private final Queue<Runnable> waiting;
+  private int inFlight;
+  private boolean closed;
+  // Metrics
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+
+  /**
+   * Creates a new asynchronous storage with the default concurrency limit.
+   */
+  public AsyncStorage() {
+    this(DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Creates a new asynchronous storage. IO threads are started on demand and stop when idle.
+   *
+   * @param concurrencyLimit number of loads and saves in flight at once
+   */
+  public AsyncStorage(int concurrencyLimit) {
+    if (concurrencyLimit < 1) {
+      throw new IllegalArgumentException("Concurrency limit must be at least 1");
+    }
+    this.concurrencyLimit = concurrencyLimit;
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrencyLimit, concurrencyLimit,
+        1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> new Thread(r, "bujo-storage-io"));
+    executor.allowCoreThreadTimeOut(true);
+    this.io = executor;
+    this.waiting = new ArrayDeque<>();
+  }
+
+  /**
+   * Loads a .bujo file of any storage format or compression, replaying the mutations logged
+   * beside it.
+   *
+   * @param filePath the path to the file, including filename and extension
+   * @return a future completed with the week
+   */
+  public CompletableFuture<Week> load(Path filePath) {
+    if (!filePath.toString().endsWith(".bujo")) {
+      return CompletableFuture.failedFuture(
+          new IllegalArgumentException("File must be a .bujo file"));
+    }
+
+    return schedule(result -> {
+      AsynchronousFileChannel channel = AsynchronousFileChannel.open(filePath,
+          Set.of(StandardOpenOption.READ), io);
+      closeOnCompletion(result, channel);
+      ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+      read(channel, buffer, () -> {
+        result.complete(StorageManager.decodeFile(
+            new ByteArrayInputStream(buffer.array(), 0, buffer.position()), filePath));
+      }, result);
+    });
+  }
+
+  /**
+   * Saves a week at the given path, in the storage format and compression it was read with,
+   * replacing the file atomically. The week is captured before this method returns, so it must
+   * be called from the thread that edits the week, and the week may be edited again right away.
+   *
+   * @param week the week to save
+   * @param filePath the path to the file, including filename and extension
+   * @return a future completed once the file is on disk
+   */
+  public CompletableFuture<Void> save(Week week, Path filePath) {
+    ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    SectionChecksums checksums;
+    try {
+      checksums = StorageManager.encode(week, contents, week.getStorageFormat(),
+          week.getCompression());
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    Path target = filePath.toAbsolutePath();
+    return schedule(result -> {
+      Path temp = StorageManager.createTempSibling(target);
+      result.whenComplete((ignored, e) -> {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignoredDelete) {
+          // Only a stray temporary file is left behind
+        }
+      });
+      AsynchronousFileChannel channel = AsynchronousFileChannel.open(temp,
+          Set.of(StandardOpenOption.WRITE), io);
+      closeOnCompletion(result, channel);
+      write(channel, ByteBuffer.wrap(contents.toByteArray()), () -> {
+        channel.force(true);
+        channel.close();
+        if (!result.isDone()) {
+          StorageManager.moveIntoPlace(temp, target);
+          SectionChecksums.write(target, checksums);
+          result.complete(null);
+        }
+      }, result);
+    });
+  }
+
+  /**
+   * Stops accepting operations. Operations already accepted still run to completion, after
+   * which the IO threads stop.
+   */
+  @Override
+  public void close() {
+    synchronized (waiting) {
+      closed = true;
+      if (inFlight > 0) {
+        return;
+      }
+    }
+    io.shutdown();
+  }
+
+  /**
+   *
+   * @return highest number of loads and saves that were in flight at once
+   */
+  public int getPeakInFlight() {
+    return peakInFlight.get();
+  }
+
+  /**
+   * Runs an operation once it is within the concurrency limit.
+   *
+   * @param operation the operation, which completes the given future when done
+   * @param <T> the result type of the operation
+   * @return the future of the operation
+   */
+  private <T> CompletableFuture<T> schedule(Operation<T> operation) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Runnable start = () -> {
+      result.whenComplete((ignored, e) -> release());
+      if (!result.isDone()) {
+        try {
+          operation.start(result);
+        } catch (IOException | RuntimeException e) {
+          result.completeExceptionally(e);
+        }
+      }
+    };
+
+    synchronized (waiting) {
+      if (closed) {
+        return CompletableFuture.failedFuture(new IOException("Storage is closed"));
+      }
+      if (inFlight == concurrencyLimit) {
+        waiting.add(start);
+        return result;
+      }
+      inFlight++;
+      peakInFlight.accumulateAndGet(inFlight, Math::max);
+    }
+    io.execute(start);
+    return result;
+  }
+
+  /**
+   * Frees the slot of a finished operation, handing it to the next waiting one.
+   */
+  private void release() {
+    Runnable next;
+    synchronized (waiting) {
+      next = waiting.poll();
+      if (next == null) {
+        inFlight--;
+        if (closed && inFlight == 0) {
+          io.shutdown();
+        }
+        return;
+      }
+    }
+    io.execute(next);
+  }
+
+  /**
+   * Closes the channel once the operation completes in any way, which also aborts a pending
+   * read or write when the operation is cancelled.
+   *
+   * @param result the future of the operation
+   * @param channel the channel of the operation
+   */
+  private static void closeOnCompletion(CompletableFuture<?> result,
+                                        AsynchronousFileChannel channel) {
+    result.whenComplete((ignored, e) -> {
+      try {
+        channel.close();
+      } catch (IOException ignoredClose) {
+        // Nothing more to release
+      }
+    });
+  }
+
+  /**
+   * Reads from the channel until the buffer is full or the file ends.
+   *
+   * @param channel the channel to read from
+   * @param buffer the buffer to fill, from its position onwards
+   * @param then the step to run once reading is done
+   * @param result the future to fail if reading fails
+   */
+  private static void read(AsynchronousFileChannel channel, ByteBuffer buffer, Step then,
+                           CompletableFuture<?> result) {
+    if (!buffer.hasRemaining()) {
+      run(then, result);
+      return;
+    }
+    channel.read(buffer, buffer.position(), null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(Integer read, Void attachment) {
+        if (read < 0) {
+          run(then, result);
+        } else {
+          read(channel, buffer, then, result);
+        }
+      }
+
+      @Override
+      public void failed(Throwable e, Void attachment) {
+        result.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * Writes the whole buffer to the channel.
+   *
+   * @param channel the channel to write to
+   * @param buffer the bytes to write, from its position onwards
+   * @param then the step to run once writing is done
+   * @param result the future to fail if writing fails
+   */
+  private static void write(AsynchronousFileChannel channel, ByteBuffer buffer, Step then,
+                            CompletableFuture<?> result) {
+    if (!buffer.hasRemaining()) {
+      run(then, result);
+      return;
+    }
+    channel.write(buffer, buffer.position(), null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(Integer written, Void attachment) {
+        write(channel, buffer, then, result);
+      }
+
+      @Override
+      public void failed(Throwable e, Void attachment) {
+        result.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * Runs the next step of an operation unless it was already completed or cancelled.
+   *
+   * @param step the step to run
+   * @param result the future of the operation, failed if the step fails
+   */
+  private static void run(Step step, CompletableFuture<?> result) {
+    if (result.isDone()) {
+      return;
+    }
+    try {
+      step.run();
+    } catch (IOException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * An asynchronous load or save
+   *
+   * @param <T> the result type of the operation
+   */
+  private interface Operation<T> {
+    /**
+     * Starts the operation, which completes the given future when done.
+     *
+     * @param result the future of the operation
+     * @throws IOException if the operation cannot be started
+     */
+    void start(CompletableFuture<T> result) throws IOException;
+  }
+
+  /**
+   * A step of an operation that may fail with an IO error
+   */
+  private interface Step {
+    /**
+     * Runs the step.
+     *
+     * @throws IOException if the step fails
+     */
+    void run() throws IOException;
+  }
+}
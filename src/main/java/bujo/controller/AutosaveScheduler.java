@@ -0,0 +1,169 @@
+package bujo.controller;
+
+import bujo.model.Week;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves a week automatically once edits to it settle down.
+ * A save happens after the week has been left alone for the quiet period, or at the latest
+ * after the maximum delay since the first unsaved change, whichever comes first.
+ */
+public class AutosaveScheduler implements AutoCloseable {
+  /**
+   * Default time without changes after which the week is saved
+   */
+  public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofSeconds(2);
+  /**
+   * Default longest time a change may stay unsaved while edits keep coming
+   */
+  public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+
+  private final Week week;
+  private final SaveService saveService;
+  private final Executor modelThread;
+  private final long quietPeriodNanos;
+  private final long maxDelayNanos;
+  private final ScheduledExecutorService timer;
+  private ScheduledFuture<?> pendingFlush;
+  private long firstChangeNanos;
+  private boolean suspended;
+  // Metrics
+  private final AtomicLong savesPerformed = new AtomicLong();
+  private final AtomicLong savesCoalesced = new AtomicLong();
+  private final AtomicLong savesFailed = new AtomicLong();
+  private final AtomicLong lastSaveLatencyNanos = new AtomicLong();
+
+  /**
+   * Creates a new autosave scheduler for a week.
+   *
+   * @param week the week to keep saved
+   * @param saveService service performing the writes
+   * @param modelThread executor running tasks on the thread that edits the week
+   * @param quietPeriod time without changes after which the week is saved
+   * @param maxDelay longest time a change may stay unsaved while edits keep coming
+   */
+  public AutosaveScheduler(Week week, SaveService saveService, Executor modelThread,
+                           Duration quietPeriod, Duration maxDelay) {
+    if (quietPeriod.isNegative() || maxDelay.compareTo(quietPeriod) < 0) {
+      throw new IllegalArgumentException("Max delay must be at least the quiet period");
+    }
+    this.week = week;
+    this.saveService = saveService;
+    this.modelThread = modelThread;
+    this.quietPeriodNanos = quietPeriod.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "bujo-autosave");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Notifies the scheduler that the week was just changed, (re)starting the quiet period.
+   */
+  public synchronized void notifyChanged() {
+    long now = System.nanoTime();
+    if (pendingFlush == null) {
+      firstChangeNanos = now;
+    } else {
+      pendingFlush.cancel(false);
+      savesCoalesced.incrementAndGet();
+    }
+
+    long delay = Math.min(quietPeriodNanos, firstChangeNanos + maxDelayNanos - now);
+    pendingFlush = timer.schedule(() -> modelThread.execute(this::flush),
+        Math.max(0, delay), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops or resumes saving. While suspended, changes are still tracked but nothing is written,
+   * such as while the file on disk holds changes the week in memory conflicts with.
+   *
+   * @param suspended true to stop saving, false to resume
+   */
+  public synchronized void setSuspended(boolean suspended) {
+    this.suspended = suspended;
+  }
+
+  /**
+   * Saves the week right away if it has unsaved changes, unless saving is suspended. Must run on
+   * the model thread.
+   *
+   * @return a future completed once the save finished, or right away if nothing was saved
+   */
+  public CompletableFuture<Void> flush() {
+    synchronized (this) {
+      if (pendingFlush != null) {
+        pendingFlush.cancel(false);
+        pendingFlush = null;
+      }
+      if (suspended) {
+        return CompletableFuture.completedFuture(null);
+      }
+    }
+    if (!week.isDirty() || week.getPath() == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    long revision = week.getRevision();
+    long start = System.nanoTime();
+    return saveService.save(week, week.getPath()).whenComplete((ignored, e) -> {
+      if (e == null) {
+        lastSaveLatencyNanos.set(System.nanoTime() - start);
+        savesPerformed.incrementAndGet();
+        modelThread.execute(() -> week.markSaved(revision));
+      } else {
+        savesFailed.incrementAndGet();
+      }
+    });
+  }
+
+  /**
+   * Saves any pending changes and stops scheduling saves. Must run on the model thread.
+   */
+  @Override
+  public void close() {
+    flush();
+    timer.shutdownNow();
+  }
+
+  /**
+   *
+   * @return number of autosaves written to disk
+   */
+  public long getSavesPerformed() {
+    return savesPerformed.get();
+  }
+
+  /**
+   *
+   * @return number of changes folded into an already scheduled autosave
+   */
+  public long getSavesCoalesced() {
+    return savesCoalesced.get();
+  }
+
+  /**
+   *
+   * @return number of autosaves that failed to reach the disk
+   */
+  public long getSavesFailed() {
+    return savesFailed.get();
+  }
+
+  /**
+   *
+   * @return time between starting the last successful autosave and it reaching the disk
+   */
+  public Duration getLastSaveLatency() {
+    return Duration.ofNanos(lastSaveLatencyNanos.get());
+  }
+}
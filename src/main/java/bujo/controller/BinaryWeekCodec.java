@@ -0,0 +1,529 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Checksum;
+
+/**
+ * Encodes weeks in the compact binary .bujo format.
+ *
+ * <p>A binary file starts with {@link #MAGIC} and a version byte, followed by a table of every
+ * distinct string in the week, and then the week itself. Strings are written as indices into
+ * the table (0 standing for null), enums as their ordinals, and all integers as varints.
+ * Since version 2, the header (everything up to the day count) and each day are followed by
+ * the CRC32C of their bytes. Since version 3, each item starts with its ID; items of older files
+ * are given IDs derived from their day and name.
+ */
+final class BinaryWeekCodec {
+  /**
+   * Leading bytes of every binary .bujo file, chosen so they can never start a JSON document
+   */
+  static final byte[] MAGIC = {(byte) 0x89, 'B', 'J', 'O'};
+  private static final int VERSION = 3;
+  private static final int FIRST_CHECKSUMMED_VERSION = 2;
+  private static final int FIRST_ITEM_ID_VERSION = 3;
+  // Bounds on counts and lengths read from a file, far above anything a week holds
+  private static final int MAX_COUNT = 1 << 24;
+  // Space reserved up front for a count read from a file, more is grown into as elements arrive
+  private static final int MAX_PRESIZE = 1024;
+  private static final DayOfWeek[] DAYS = DayOfWeek.values();
+  private static final ItemType[] TYPES = ItemType.values();
+
+  /**
+   * Private constructor to prevent class from instantiation
+   */
+  private BinaryWeekCodec() {}
+
+  /**
+   * Checks whether the given leading bytes of a file mark it as a binary .bujo file
+   *
+   * @param header the leading bytes of the file
+   * @return true if the file is in the binary format
+   */
+  static boolean isBinary(byte[] header) {
+    return header.length >= MAGIC.length
+        && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+  }
+
+  /**
+   * Writes a week in the binary format into the given stream. The stream is not closed.
+   *
+   * @param week the week to write
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written to
+   */
+  static void write(Week week, OutputStream out) throws IOException {
+    Map<String, Integer> strings = collectStrings(week);
+    DataOutputStream raw = new DataOutputStream(new BufferedOutputStream(out));
+    CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32C());
+    DataOutputStream data = new DataOutputStream(checked);
+
+    data.write(MAGIC);
+    data.writeByte(VERSION);
+    writeVarInt(data, strings.size());
+    for (String s : strings.keySet()) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(data, bytes.length);
+      data.write(bytes);
+    }
+
+    writeString(data, strings, week.getName());
+    writeString(data, strings, week.getHashedPassword());
+    writeString(data, strings, week.getSaltPassword());
+    writeVarInt(data, zigZag(week.getMaxNumEvents()));
+    writeVarInt(data, zigZag(week.getMaxNumTasks()));
+
+    List<Day> days = week.getDays();
+    writeVarInt(data, days.size());
+    writeChecksum(raw, checked.getChecksum());
+    for (Day day : days) {
+      data.writeByte(day.getDayOfWeek().ordinal());
+      List<Item> items = day.getItems();
+      writeVarInt(data, items.size());
+      for (Item item : items) {
+        data.writeByte(item.getType().ordinal());
+        writeString(data, strings, item.getId());
+        writeString(data, strings, item.getName());
+        writeString(data, strings, item.getDescription());
+        data.writeByte(item.getDay().ordinal());
+        if (item.getType() == ItemType.TASK) {
+          data.writeBoolean(((Task) item).getComplete());
+        } else {
+          writeString(data, strings, ((Event) item).getStartTime());
+          writeString(data, strings, ((Event) item).getDuration());
+        }
+      }
+      writeChecksum(raw, checked.getChecksum());
+    }
+    raw.flush();
+  }
+
+  /**
+   * Reads a week in the binary format from the given stream, including its magic header.
+   *
+   * @param in the stream to read from
+   * @return the week read from the stream
+   * @throws IOException if the stream cannot be read or does not hold a valid binary week
+   */
+  static Week read(InputStream in) throws IOException {
+    DataInputStream raw = new DataInputStream(
+        in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    CheckedInputStream checked = new CheckedInputStream(raw, new CRC32C());
+    DataInputStream data = new DataInputStream(checked);
+
+    int version = readVersion(data);
+    boolean checksummed = version >= FIRST_CHECKSUMMED_VERSION;
+    boolean hasItemIds = version >= FIRST_ITEM_ID_VERSION;
+    String[] strings = readStrings(data);
+
+    String name = readString(data, strings);
+    String hashedPassword = readString(data, strings);
+    String saltPassword = readString(data, strings);
+    int maxNumEvents = unZigZag(readVarInt(data));
+    int maxNumTasks = unZigZag(readVarInt(data));
+
+    int dayCount = readCount(data, "day");
+    if (checksummed && !checksumMatches(raw, checked.getChecksum())) {
+      throw new IOException("Binary .bujo file is damaged: week fields fail their checksum");
+    }
+    ArrayList<Day> days = new ArrayList<>(Math.min(dayCount, MAX_PRESIZE));
+    for (int d = 0; d < dayCount; d++) {
+      DayOfWeek dayOfWeek = readEnum(data, DAYS);
+      int itemCount = readCount(data, "item");
+      ArrayList<Item> items = new ArrayList<>(Math.min(itemCount, MAX_PRESIZE));
+      for (int i = 0; i < itemCount; i++) {
+        ItemType type = readEnum(data, TYPES);
+        String id = hasItemIds ? readString(data, strings) : null;
+        String itemName = readString(data, strings);
+        String description = readString(data, strings);
+        DayOfWeek itemDay = readEnum(data, DAYS);
+        if (type == ItemType.TASK) {
+          items.add(new Task(id, itemName, description, itemDay, data.readBoolean(), type));
+        } else {
+          items.add(new Event(id, itemName, description, itemDay,
+              readString(data, strings), readString(data, strings), type));
+        }
+      }
+      if (checksummed && !checksumMatches(raw, checked.getChecksum())) {
+        throw new IOException("Binary .bujo file is damaged: " + dayOfWeek
+            + " fails its checksum");
+      }
+      days.add(new Day(dayOfWeek, items));
+    }
+
+    return new Week(name, hashedPassword, saltPassword, maxNumEvents, maxNumTasks, days);
+  }
+
+  /**
+   * Reads the week fields of a week in the binary format and walks its items into a tally,
+   * without building the week or its items.
+   *
+   * @param in the stream to read from
+   * @param file path to the .bujo file, for the summary
+   * @param tally the tally to count the items into
+   * @return the summary of the week, with the counts of the tally
+   * @throws IOException if the stream cannot be read or does not hold a valid binary week
+   */
+  static WeekSummary summarize(InputStream in, Path file, ItemTally tally) throws IOException {
+    DataInputStream raw = new DataInputStream(
+        in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    CheckedInputStream checked = new CheckedInputStream(raw, new CRC32C());
+    DataInputStream data = new DataInputStream(checked);
+
+    int version = readVersion(data);
+    boolean checksummed = version >= FIRST_CHECKSUMMED_VERSION;
+    boolean hasItemIds = version >= FIRST_ITEM_ID_VERSION;
+    String[] strings = readStrings(data);
+
+    String name = readString(data, strings);
+    String hashedPassword = readString(data, strings);
+    readString(data, strings);
+    int maxNumEvents = unZigZag(readVarInt(data));
+    int maxNumTasks = unZigZag(readVarInt(data));
+
+    int dayCount = readCount(data, "day");
+    if (checksummed && !checksumMatches(raw, checked.getChecksum())) {
+      throw new IOException("Binary .bujo file is damaged: week fields fail their checksum");
+    }
+    for (int d = 0; d < dayCount; d++) {
+      readEnum(data, DAYS);
+      int itemCount = readCount(data, "item");
+      for (int i = 0; i < itemCount; i++) {
+        ItemType type = readEnum(data, TYPES);
+        String id = hasItemIds ? readString(data, strings) : null;
+        String itemName = readString(data, strings);
+        readString(data, strings);
+        DayOfWeek itemDay = readEnum(data, DAYS);
+        if (type == ItemType.TASK) {
+          data.readBoolean();
+        } else {
+          readString(data, strings);
+          readString(data, strings);
+        }
+        tally.add(itemDay, id, itemName, type == ItemType.TASK);
+      }
+      if (checksummed && !checksumMatches(raw, checked.getChecksum())) {
+        throw new IOException("Binary .bujo file is damaged: day " + d + " fails its checksum");
+      }
+    }
+
+    return new WeekSummary(file, name, hashedPassword != null && !hashedPassword.isEmpty(),
+        maxNumEvents, maxNumTasks, tally.getTaskCount(), tally.getEventCount());
+  }
+
+  /**
+   * Walks a week in the binary format and checks each section against its checksum, without
+   * building the week. Days are reported by their position in the week.
+   *
+   * @param in the stream to read from
+   * @return the report of what is damaged
+   */
+  static IntegrityReport verify(InputStream in) {
+    DataInputStream raw = new DataInputStream(
+        in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    CheckedInputStream checked = new CheckedInputStream(raw, new CRC32C());
+    DataInputStream data = new DataInputStream(checked);
+    List<DayOfWeek> damaged = new ArrayList<>();
+    boolean checksummed = false;
+    int d = 0;
+
+    try {
+      int version = readVersion(data);
+      checksummed = version >= FIRST_CHECKSUMMED_VERSION;
+      int itemStrings = version >= FIRST_ITEM_ID_VERSION ? 3 : 2;
+      String[] strings = readStrings(data);
+      for (int i = 0; i < 3; i++) {
+        readString(data, strings);
+      }
+      readVarInt(data);
+      readVarInt(data);
+      int dayCount = readCount(data, "day");
+      boolean headerDamaged = checksummed && !checksumMatches(raw, checked.getChecksum());
+
+      for (; d < dayCount; d++) {
+        readEnum(data, DAYS);
+        int itemCount = readCount(data, "item");
+        for (int i = 0; i < itemCount; i++) {
+          ItemType type = readEnum(data, TYPES);
+          for (int j = 0; j < itemStrings; j++) {
+            readString(data, strings);
+          }
+          readEnum(data, DAYS);
+          if (type == ItemType.TASK) {
+            data.readBoolean();
+          } else {
+            readString(data, strings);
+            readString(data, strings);
+          }
+        }
+        if (checksummed && !checksumMatches(raw, checked.getChecksum()) && d < DAYS.length) {
+          damaged.add(DAYS[d]);
+        }
+      }
+      return new IntegrityReport(checksummed, headerDamaged, damaged, null);
+    } catch (IOException e) {
+      // The structure is lost from here on, so every remaining day is unreadable
+      for (int i = d; i < DAYS.length; i++) {
+        damaged.add(DAYS[i]);
+      }
+      return new IntegrityReport(checksummed, d == 0, damaged,
+          "file is truncated or malformed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads and checks the magic header and version.
+   *
+   * @param data the stream to read from
+   * @return the format version of the week
+   * @throws IOException if the stream does not hold a supported binary week
+   */
+  private static int readVersion(DataInputStream data) throws IOException {
+    byte[] magic = new byte[MAGIC.length];
+    data.readFully(magic);
+    if (!isBinary(magic)) {
+      throw new IOException("Not a binary .bujo file");
+    }
+    int version = data.readUnsignedByte();
+    if (version < 1 || version > VERSION) {
+      throw new IOException("Unsupported binary .bujo version " + version);
+    }
+    return version;
+  }
+
+  /**
+   * Reads the string table. Space is taken as strings are read rather than as the counts
+   * announce, so a damaged count runs into the end of the file instead of exhausting memory.
+   *
+   * @param data the stream to read from
+   * @return the string table, with null at index 0
+   * @throws IOException if the stream cannot be read or the table is malformed
+   */
+  private static String[] readStrings(DataInputStream data) throws IOException {
+    int count = readCount(data, "string");
+    List<String> strings = new ArrayList<>(Math.min(count, MAX_PRESIZE) + 1);
+    strings.add(null);
+    for (int i = 0; i < count; i++) {
+      int length = readCount(data, "string byte");
+      byte[] bytes = data.readNBytes(length);
+      if (bytes.length < length) {
+        throw new EOFException("Truncated string");
+      }
+      strings.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return strings.toArray(new String[0]);
+  }
+
+  /**
+   * Reads the number of elements that follow.
+   *
+   * @param data the stream to read from
+   * @param element what is being counted, for the error message
+   * @return the count
+   * @throws IOException if the stream cannot be read or the count is out of range
+   */
+  private static int readCount(DataInputStream data, String element) throws IOException {
+    int count = readVarInt(data);
+    if (count < 0 || count > MAX_COUNT) {
+      throw new IOException("Invalid " + element + " count: " + Integer.toUnsignedString(count));
+    }
+    return count;
+  }
+
+  /**
+   * Writes the checksum of the section just written, and starts the next section.
+   *
+   * @param raw the stream to write the checksum to, bypassing the checksum itself
+   * @param checksum the running checksum of the section
+   * @throws IOException if the stream cannot be written to
+   */
+  private static void writeChecksum(DataOutputStream raw, Checksum checksum)
+      throws IOException {
+    raw.writeInt((int) checksum.getValue());
+    checksum.reset();
+  }
+
+  /**
+   * Reads the checksum stored after the section just read, and starts the next section.
+   *
+   * @param raw the stream to read the checksum from, bypassing the checksum itself
+   * @param checksum the running checksum of the section
+   * @return true if the stored checksum matches the section
+   * @throws IOException if the stream cannot be read
+   */
+  private static boolean checksumMatches(DataInputStream raw, Checksum checksum)
+      throws IOException {
+    boolean matches = raw.readInt() == (int) checksum.getValue();
+    checksum.reset();
+    return matches;
+  }
+
+  /**
+   * Collects every distinct string of the week, in the order they are first written.
+   *
+   * @param week the week to scan
+   * @return map from each string to its index in the string table, starting at 1
+   */
+  private static Map<String, Integer> collectStrings(Week week) {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    addString(strings, week.getName());
+    addString(strings, week.getHashedPassword());
+    addString(strings, week.getSaltPassword());
+    for (Day day : week.getDays()) {
+      for (Item item : day.getItems()) {
+        addString(strings, item.getId());
+        addString(strings, item.getName());
+        addString(strings, item.getDescription());
+        if (item.getType() == ItemType.EVENT) {
+          addString(strings, ((Event) item).getStartTime());
+          addString(strings, ((Event) item).getDuration());
+        }
+      }
+    }
+    return strings;
+  }
+
+  /**
+   * Adds a string to the string table unless it is null or already present.
+   *
+   * @param strings the string table
+   * @param s the string to add
+   */
+  private static void addString(Map<String, Integer> strings, String s) {
+    if (s != null) {
+      strings.putIfAbsent(s, strings.size() + 1);
+    }
+  }
+
+  /**
+   * Writes a reference to a string in the string table.
+   *
+   * @param data the stream to write to
+   * @param strings the string table
+   * @param s the string to reference, may be null
+   * @throws IOException if the stream cannot be written to
+   */
+  private static void writeString(DataOutputStream data, Map<String, Integer> strings, String s)
+      throws IOException {
+    writeVarInt(data, s == null ? 0 : strings.get(s));
+  }
+
+  /**
+   * Reads a reference to a string in the string table.
+   *
+   * @param data the stream to read from
+   * @param strings the string table, with null at index 0
+   * @return the referenced string
+   * @throws IOException if the stream cannot be read or the reference is out of range
+   */
+  private static String readString(DataInputStream data, String[] strings) throws IOException {
+    int index = readVarInt(data);
+    if (index < 0 || index >= strings.length) {
+      throw new IOException("String reference out of range: "
+          + Integer.toUnsignedString(index));
+    }
+    return strings[index];
+  }
+
+  /**
+   * Reads an enum constant stored as its ordinal.
+   *
+   * @param data the stream to read from
+   * @param values the constants of the enum
+   * @param <T> the enum type
+   * @return the constant read
+   * @throws IOException if the stream cannot be read or the ordinal is out of range
+   */
+  private static <T extends Enum<T>> T readEnum(DataInputStream data, T[] values)
+      throws IOException {
+    int ordinal = data.readUnsignedByte();
+    if (ordinal >= values.length) {
+      throw new IOException("Invalid " + values[0].getDeclaringClass().getSimpleName()
+          + " ordinal: " + ordinal);
+    }
+    return values[ordinal];
+  }
+
+  /**
+   * Writes an unsigned integer using 7 bits per byte, low bits first.
+   *
+   * @param data the stream to write to
+   * @param value the value to write
+   * @throws IOException if the stream cannot be written to
+   */
+  static void writeVarInt(DataOutputStream data, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      data.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    data.writeByte(value);
+  }
+
+  /**
+   * Reads an unsigned integer written by {@link #writeVarInt}.
+   *
+   * @param data the stream to read from
+   * @return the value read
+   * @throws IOException if the stream cannot be read or the varint is malformed
+   */
+  static int readVarInt(DataInputStream data) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = data.read();
+      if (b < 0) {
+        throw new EOFException("Truncated varint");
+      }
+      if (shift == 28 && (b & 0x70) != 0) {
+        break; // Bits beyond the 32 of an int
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Maps a signed integer to an unsigned one so that small magnitudes stay small.
+   *
+   * @param value the signed value
+   * @return the zigzag-encoded value
+   */
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  /**
+   * Reverses {@link #zigZag}.
+   *
+   * @param value the zigzag-encoded value
+   * @return the signed value
+   */
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
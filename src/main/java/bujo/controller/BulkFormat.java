@@ -0,0 +1,35 @@
+package bujo.controller;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Enumeration of the row formats weeks can be bulk exported to and imported from.
+ */
+public enum BulkFormat {
+  /**
+   * Represents comma-separated values with a header row
+   */
+  CSV,
+  /**
+   * Represents one JSON object per line
+   */
+  JSON_LINES;
+
+  /**
+   * Picks the format matching a file's extension
+   *
+   * @param file a .csv, .jsonl or .ndjson file
+   * @return the format of the file
+   * @throws IllegalArgumentException if the extension is not a known row format
+   */
+  public static BulkFormat forPath(Path file) {
+    String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+    if (name.endsWith(".csv")) {
+      return CSV;
+    } else if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+      return JSON_LINES;
+    }
+    throw new IllegalArgumentException("Expected a .csv, .jsonl or .ndjson file: " + file);
+  }
+}
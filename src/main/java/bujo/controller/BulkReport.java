@@ -0,0 +1,75 @@
+package bujo.controller;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Outcome of a bulk export or import: how much was moved and how fast
+ */
+public class BulkReport {
+  private final long files;
+  private final long items;
+  private final long elapsedNanos;
+
+  /**
+   * Creates a new bulk report.
+   *
+   * @param files number of .bujo files read or written
+   * @param items number of items moved
+   * @param elapsedNanos wall-clock time the transfer took, in nanoseconds
+   */
+  BulkReport(long files, long items, long elapsedNanos) {
+    this.files = files;
+    this.items = items;
+    this.elapsedNanos = Math.max(1, elapsedNanos);
+  }
+
+  /**
+   *
+   * @return number of .bujo files read or written
+   */
+  public long getFiles() {
+    return files;
+  }
+
+  /**
+   *
+   * @return number of items moved
+   */
+  public long getItems() {
+    return items;
+  }
+
+  /**
+   *
+   * @return wall-clock time the transfer took
+   */
+  public Duration getElapsed() {
+    return Duration.ofNanos(elapsedNanos);
+  }
+
+  /**
+   *
+   * @return .bujo files moved per second
+   */
+  public double getFilesPerSecond() {
+    return files * 1e9 / elapsedNanos;
+  }
+
+  /**
+   *
+   * @return items moved per second
+   */
+  public double getItemsPerSecond() {
+    return items * 1e9 / elapsedNanos;
+  }
+
+  /**
+   *
+   * @return human-readable summary of the transfer
+   */
+  public String getDescription() {
+    return String.format(Locale.ROOT, "%d files, %d items in %.3f s (%.1f files/s, %.1f items/s)",
+        files, items, elapsedNanos / 1e9, getFilesPerSecond(), getItemsPerSecond());
+  }
+}
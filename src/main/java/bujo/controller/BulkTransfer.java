@@ -0,0 +1,366 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.IsoWeek;
+import bujo.model.Item;
+import bujo.model.Week;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless bulk export of journal directories to CSV or JSON lines, and import back into .bujo
+ * files, with one item per row. Rows are keyed by the .bujo file they came from and carry the
+ * week's name and limits, so every file comes back as its own week, even an empty one, but not
+ * its password. Events can also be exported as an iCalendar file.
+ *
+ * <p>Each .bujo file is read or written as its own task on a bounded pool. Only a fixed window
+ * of files is in flight at a time: an export stops reading files while the rows of earlier files
+ * are still waiting to be written, and an import stops reading rows while too many weeks are
+ * still waiting to be written. Memory therefore stays bounded no matter how large the corpus is,
+ * and exported rows keep the order of the file names.
+ */
+public class BulkTransfer implements AutoCloseable {
+  private final ThreadPoolExecutor workers;
+  private final int window;
+
+  /**
+   * Creates a new transfer working with one thread per available processor.
+   */
+  public BulkTransfer() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new transfer. Worker threads are started on demand and stop when idle.
+   *
+   * @param parallelism number of .bujo files read or written at the same time
+   */
+  public BulkTransfer(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1");
+    }
+    this.workers = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "bujo-bulk-worker");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.workers.allowCoreThreadTimeOut(true);
+    this.window = parallelism * 2;
+  }
+
+  /**
+   * Writes every item of every .bujo file in a directory as a row, in file name order, and a
+   * single row without an item for each week that has none.
+   *
+   * @param directory the journal directory to export
+   * @param output the .csv, .jsonl or .ndjson file to write
+   * @return what was exported and how fast
+   * @throws IOException if a .bujo file cannot be read or the output cannot be written
+   */
+  public BulkReport exportDirectory(Path directory, Path output) throws IOException {
+    long start = System.nanoTime();
+    BulkFormat format = BulkFormat.forPath(output);
+    List<Path> files = listWeekFiles(directory);
+    long[] items = {0};
+
+    try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+      ItemRows.writeHeader(out, format);
+      forEachWeek(files, (file, week) -> {
+        String fileName = file.getFileName().toString();
+        long before = items[0];
+        for (Day day : week.getDays()) {
+          for (Item item : day.getItems()) {
+            ItemRows.writeRow(out, format, ItemRows.toRow(fileName, week, item));
+            items[0]++;
+          }
+        }
+        if (items[0] == before) {
+          ItemRows.writeRow(out, format, ItemRows.toRow(fileName, week, null));
+        }
+      });
+    }
+    return new BulkReport(files.size(), items[0], System.nanoTime() - start);
+  }
+
+  /**
+   * Writes the events of every .bujo file in a directory as one iCalendar (.ics) file.
+   * A file named after its week's Sunday, as in a journal, is placed on that week. Other weeks
+   * do not record their dates, so they are laid out on consecutive calendar weeks in file name
+   * order, the first one starting on the given Sunday.
+   *
+   * @param directory the journal directory to export
+   * @param output the .ics file to write
+   * @param firstWeekStart the date of the Sunday of the first file not named after its week
+   * @return what was exported and how fast, counting events as items
+   * @throws IOException if a .bujo file cannot be read or the output cannot be written
+   */
+  public BulkReport exportCalendar(Path directory, Path output, LocalDate firstWeekStart)
+      throws IOException {
+    long start = System.nanoTime();
+    List<Path> files = listWeekFiles(directory);
+    long events;
+
+    try (IcsWriter out = new IcsWriter(Files.newOutputStream(output))) {
+      LocalDate[] undatedStart = {firstWeekStart};
+      forEachWeek(files, (file, week) -> {
+        IsoWeek isoWeek = Journal.weekOf(file);
+        if (isoWeek != null) {
+          out.writeWeek(week, isoWeek.getJournalSunday());
+        } else {
+          out.writeWeek(week, undatedStart[0]);
+          undatedStart[0] = undatedStart[0].plusWeeks(1);
+        }
+      });
+      events = out.getEventsWritten();
+    }
+    return new BulkReport(files.size(), events, System.nanoTime() - start);
+  }
+
+  /**
+   * Builds .bujo files from the rows of an export, one file per week.
+   * The rows of each week must be next to each other, as they are in an export. Each week is
+   * written to a file named after the file it was exported from, or after the week when rows
+   * do not name a file, with a numbered suffix when two weeks map to the same file name.
+   *
+   * @param input the .csv, .jsonl or .ndjson file to read
+   * @param directory the directory to write the .bujo files to
+   * @param storageFormat the encoding to write the .bujo files in
+   * @return what was imported and how fast
+   * @throws IOException if a row is not valid, the rows of a week are not next to each other,
+   *     a .bujo file already exists, or a file cannot be read or written
+   */
+  public BulkReport importRows(Path input, Path directory, StorageFormat storageFormat)
+      throws IOException {
+    long start = System.nanoTime();
+    BulkFormat format = BulkFormat.forPath(input);
+    Semaphore permits = new Semaphore(window);
+    List<CompletableFuture<Void>> writes = new ArrayList<>();
+    Set<String> finishedWeeks = new HashSet<>();
+    Set<String> fileNames = new HashSet<>();
+    long items = 0;
+    long rowNumber = 0;
+
+    try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+      ItemRows.readHeader(in, format);
+      Week week = null;
+      String weekKey = null;
+      String[] row;
+      while ((row = ItemRows.readRow(in, format)) != null) {
+        rowNumber++;
+        String key = row[0].isEmpty() ? row[1] : row[0];
+        try {
+          if (week == null || !weekKey.equals(key)) {
+            if (week != null) {
+              writes.add(write(week, permits, storageFormat));
+            }
+            if (!finishedWeeks.add(key)) {
+              throw new IOException("Rows of week " + key + " are not next to each other");
+            }
+            weekKey = key;
+            String name = key.toLowerCase(Locale.ROOT).endsWith(".bujo")
+                ? key.substring(0, key.length() - ".bujo".length()) : key;
+            week = ItemRows.weekFromRow(row, directory.resolve(uniqueFileName(name, fileNames)));
+            if (Files.exists(week.getPath())) {
+              throw new IOException("Refusing to overwrite " + week.getPath());
+            }
+          }
+
+          Item item = ItemRows.fromRow(row);
+          if (item != null) {
+            week.addItem(item);
+            items++;
+          }
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Invalid row " + rowNumber + ": " + e.getMessage(), e);
+        }
+      }
+      if (week != null) {
+        writes.add(write(week, permits, storageFormat));
+      }
+    } finally {
+      // Let every started write finish, so that no file is still being written on return
+      CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]))
+          .exceptionally(e -> null).join();
+    }
+
+    for (CompletableFuture<Void> write : writes) {
+      await(write);
+    }
+    return new BulkReport(writes.size(), items, System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the worker threads.
+   */
+  @Override
+  public void close() {
+    workers.shutdown();
+  }
+
+  /**
+   * Lists the .bujo files in a directory, sorted by file name.
+   *
+   * @param directory the journal directory
+   * @return the .bujo files
+   * @throws IOException if the directory cannot be listed
+   */
+  static List<Path> listWeekFiles(Path directory) throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.bujo")) {
+      for (Path file : entries) {
+        if (Files.isRegularFile(file)) {
+          files.add(file);
+        }
+      }
+    }
+    files.sort(null);
+    return files;
+  }
+
+  /**
+   * Picks a .bujo file name for a week that no other week of the same import uses.
+   * Characters that are not safe in file names are replaced, and a numbered suffix is added
+   * when the name is already taken, so the same rows always map to the same files.
+   *
+   * @param name name of the week or of its exported file, without the extension
+   * @param taken file names already used, lower-cased; the picked name is added to it
+   * @return the file name
+   */
+  static String uniqueFileName(String name, Set<String> taken) {
+    String base = name.replaceAll("[^A-Za-z0-9._ -]", "_").strip();
+    if (base.isEmpty() || base.startsWith(".")) {
+      base = "week" + base;
+    }
+
+    String fileName = base + ".bujo";
+    for (int suffix = 2; !taken.add(fileName.toLowerCase(Locale.ROOT)); suffix++) {
+      fileName = base + "-" + suffix + ".bujo";
+    }
+    return fileName;
+  }
+
+  /**
+   * Reads .bujo files on the workers and hands the weeks to a sink in file order, keeping only
+   * a bounded window of files read ahead of the sink.
+   *
+   * @param files the files to read
+   * @param sink consumer of the weeks, called on the calling thread
+   * @throws IOException if a file cannot be read or the sink fails
+   */
+  private void forEachWeek(List<Path> files, WeekSink sink) throws IOException {
+    Iterator<Path> remaining = files.iterator();
+    ArrayDeque<CompletableFuture<Week>> pending = new ArrayDeque<>();
+    int sunk = 0;
+    try {
+      while (remaining.hasNext() || !pending.isEmpty()) {
+        while (pending.size() < window && remaining.hasNext()) {
+          pending.add(read(remaining.next()));
+        }
+        sink.accept(files.get(sunk++), await(pending.remove()));
+      }
+    } finally {
+      pending.forEach(read -> read.cancel(false));
+    }
+  }
+
+  /**
+   * Reads a .bujo file on a worker thread.
+   *
+   * @param file the file to read
+   * @return a future completed with the week
+   */
+  private CompletableFuture<Week> read(Path file) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return StorageManager.readFile(file);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read " + file, e);
+      }
+    }, workers);
+  }
+
+  /**
+   * Writes a week to its .bujo file on a worker thread, first waiting for a free permit so that
+   * only a bounded number of weeks wait in memory.
+   *
+   * @param week the week to write
+   * @param permits permits bounding the weeks in flight
+   * @param storageFormat the encoding to write the file in
+   * @return a future completed once the file is written
+   * @throws IOException if the import was interrupted while waiting for a permit
+   */
+  private CompletableFuture<Void> write(Week week, Semaphore permits,
+                                        StorageFormat storageFormat) throws IOException {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while importing", e);
+    }
+
+    return CompletableFuture.runAsync(() -> {
+      try {
+        StorageManager.writeFile(week, week.getPath(), storageFormat);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to write " + week.getPath(), e);
+      } finally {
+        permits.release();
+      }
+    }, workers);
+  }
+
+  /**
+   * Waits for a file task, unwrapping its failure.
+   *
+   * @param task the task to wait for
+   * @param <T> type of the task's result
+   * @return the task's result
+   * @throws IOException if the task failed or the wait was interrupted
+   */
+  private static <T> T await(CompletableFuture<T> task) throws IOException {
+    try {
+      return task.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException unchecked) {
+        throw new IOException(unchecked.getMessage(), unchecked.getCause());
+      }
+      throw new IOException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Consumer of the weeks read by an export
+   */
+  private interface WeekSink {
+    /**
+     * Consumes one week.
+     *
+     * @param file the file the week was read from
+     * @param week the week
+     * @throws IOException if the week cannot be written out
+     */
+    void accept(Path file, Week week) throws IOException;
+  }
+}
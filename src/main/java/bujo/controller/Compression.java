@@ -0,0 +1,42 @@
+package bujo.controller;
+
+/**
+ * Enumeration of the compressions a .bujo payload can be wrapped in.
+ */
+public enum Compression {
+  /**
+   * Represents an uncompressed payload
+   */
+  NONE,
+  /**
+   * Represents a gzip-compressed payload
+   */
+  GZIP,
+  /**
+   * Represents a zlib-wrapped deflate payload
+   */
+  DEFLATE;
+
+  /**
+   * Detects the compression of a payload from its leading bytes. Neither JSON nor the binary
+   * format can start with a gzip or zlib header, so the detection is unambiguous.
+   *
+   * @param header the leading bytes of the payload, at least two of them
+   * @return the compression the payload is wrapped in
+   */
+  static Compression detect(byte[] header) {
+    if (header.length < 2) {
+      return NONE;
+    }
+    int first = header[0] & 0xFF;
+    int second = header[1] & 0xFF;
+    if (first == 0x1F && second == 0x8B) {
+      return GZIP;
+    }
+    // zlib: deflate method with a 32K window, and a header checksum that divides by 31
+    if (first == 0x78 && ((first << 8) | second) % 31 == 0) {
+      return DEFLATE;
+    }
+    return NONE;
+  }
+}
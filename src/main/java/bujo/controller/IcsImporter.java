@@ -0,0 +1,275 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.EventTimes;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports the events of an iCalendar (.ics) file into .bujo weeks, one file per calendar week.
+ *
+ * <p>The calendar is read one event at a time and events are buffered per week. Once more than
+ * a fixed number of events are buffered, the weeks touched longest ago are written out on a
+ * bounded pool of writer threads; should more events for such a week turn up later, they are
+ * merged into its file. Memory therefore stays bounded however large the calendar is, while a
+ * calendar sorted by date writes every week exactly once. Writes of the same week are chained,
+ * so they happen in calendar order.
+ *
+ * <p>Each week is stored as "YYYY-MM-DD.bujo", named after its Sunday, and events are merged
+ * into such a file if it already exists. An event whose name is already taken on its day is
+ * renamed with a numbered suffix, such as "Standup (2)", rather than failing the import.
+ */
+public class IcsImporter implements AutoCloseable {
+  /**
+   * Default number of events buffered before weeks are written out
+   */
+  public static final int DEFAULT_MAX_BUFFERED_EVENTS = 100_000;
+
+  private final ThreadPoolExecutor writers;
+  private final int window;
+  private final int maxBufferedEvents;
+  // Metrics
+  private final AtomicLong eventsRenamed = new AtomicLong();
+  private final AtomicLong weekWrites = new AtomicLong();
+  private long eventsSkipped;
+
+  /**
+   * Creates a new importer writing with one thread per available processor.
+   */
+  public IcsImporter() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_BUFFERED_EVENTS);
+  }
+
+  /**
+   * Creates a new importer. Writer threads are started on demand and stop when idle.
+   *
+   * @param parallelism number of weeks written at the same time
+   * @param maxBufferedEvents number of events buffered before weeks are written out
+   */
+  public IcsImporter(int parallelism, int maxBufferedEvents) {
+    if (parallelism < 1 || maxBufferedEvents < 1) {
+      throw new IllegalArgumentException("Parallelism and buffer size must be at least 1");
+    }
+    this.writers = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "bujo-ics-writer");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.writers.allowCoreThreadTimeOut(true);
+    this.window = parallelism * 2;
+    this.maxBufferedEvents = maxBufferedEvents;
+  }
+
+  /**
+   * Imports every event of a calendar into weeks in the given directory.
+   *
+   * @param calendar the .ics file to read
+   * @param directory the directory holding the .bujo weeks
+   * @param zone the time zone event times are converted to
+   * @return the number of weeks and events imported, and how fast
+   * @throws IOException if the calendar cannot be read or a week cannot be written
+   */
+  public BulkReport importCalendar(Path calendar, Path directory, ZoneId zone)
+      throws IOException {
+    long start = System.nanoTime();
+    Semaphore permits = new Semaphore(window);
+    // Access order, so that the weeks touched longest ago are written out first
+    Map<LocalDate, List<Event>> buffered = new LinkedHashMap<>(16, 0.75f, true);
+    Map<LocalDate, CompletableFuture<Void>> writes = new HashMap<>();
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    int bufferedEvents = 0;
+    long events = 0;
+
+    try (IcsReader reader = new IcsReader(Files.newInputStream(calendar), zone)) {
+      IcsReader.IcsEvent read;
+      while ((read = reader.next()) != null && failure.get() == null) {
+        LocalDate date = read.getStart().toLocalDate();
+        LocalDate sunday = date.minusDays(date.getDayOfWeek().getValue() % 7);
+        buffered.computeIfAbsent(sunday, ignored -> new ArrayList<>()).add(toEvent(read));
+        bufferedEvents++;
+        events++;
+
+        if (bufferedEvents > maxBufferedEvents) {
+          Iterator<Map.Entry<LocalDate, List<Event>>> eldest = buffered.entrySet().iterator();
+          while (bufferedEvents > maxBufferedEvents / 2) {
+            Map.Entry<LocalDate, List<Event>> entry = eldest.next();
+            bufferedEvents -= entry.getValue().size();
+            write(entry.getKey(), entry.getValue(), directory, permits, writes, failure);
+            eldest.remove();
+          }
+        }
+      }
+      eventsSkipped += reader.getSkipped();
+
+      for (Map.Entry<LocalDate, List<Event>> entry : buffered.entrySet()) {
+        write(entry.getKey(), entry.getValue(), directory, permits, writes, failure);
+      }
+    } finally {
+      // Let every started write finish, so that no file is still being written on return
+      CompletableFuture.allOf(writes.values().toArray(new CompletableFuture<?>[0]))
+          .join();
+    }
+
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return new BulkReport(writes.size(), events, System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the writer threads.
+   */
+  @Override
+  public void close() {
+    writers.shutdown();
+  }
+
+  /**
+   * Returns the name an item can be stored under on a day, given the names already taken there.
+   *
+   * @param name the item's own name
+   * @param taken names already used on the day; the returned name is added to it
+   * @return the name itself if it is free, otherwise the name with the first free suffix
+   */
+  static String uniqueItemName(String name, Set<String> taken) {
+    String unique = name;
+    for (int suffix = 2; !taken.add(unique); suffix++) {
+      unique = name + " (" + suffix + ")";
+    }
+    return unique;
+  }
+
+  /**
+   *
+   * @return number of events renamed because their name was already taken on their day
+   */
+  public long getEventsRenamed() {
+    return eventsRenamed.get();
+  }
+
+  /**
+   *
+   * @return number of calendar events skipped because their time could not be read
+   */
+  public long getEventsSkipped() {
+    return eventsSkipped;
+  }
+
+  /**
+   * A week written out early and merged into later is counted once per write
+   *
+   * @return number of times a week file was written
+   */
+  public long getWeekWrites() {
+    return weekWrites.get();
+  }
+
+  /**
+   * Converts a calendar event into a journal event.
+   *
+   * @param read the calendar event
+   * @return the journal event, on the weekday of its start
+   */
+  private static Event toEvent(IcsReader.IcsEvent read) {
+    DayOfWeek day = DayOfWeek.values()[read.getStart().getDayOfWeek().getValue() % 7];
+    String name = read.getSummary().isBlank() ? "Untitled event" : read.getSummary();
+    int startMinutes = read.getStart().getHour() * 60 + read.getStart().getMinute();
+    return new Event(name, read.getDescription(), day, EventTimes.formatStartTime(startMinutes),
+        EventTimes.formatDuration(read.getDurationMinutes()), ItemType.EVENT);
+  }
+
+  /**
+   * Schedules the buffered events of a week to be merged into its file, after any earlier write
+   * of the same week. Waits for a free permit first, so that only a bounded number of weeks wait
+   * to be written.
+   *
+   * @param sunday the Sunday of the week
+   * @param events the week's buffered events
+   * @param directory the directory holding the .bujo weeks
+   * @param permits permits bounding the weeks in flight
+   * @param writes the latest write of each week, updated with this one
+   * @param failure holder of the first failed write
+   * @throws IOException if the import was interrupted while waiting for a permit
+   */
+  private void write(LocalDate sunday, List<Event> events, Path directory, Semaphore permits,
+                     Map<LocalDate, CompletableFuture<Void>> writes,
+                     AtomicReference<IOException> failure) throws IOException {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while importing", e);
+    }
+
+    Path file = directory.resolve(sunday + ".bujo");
+    Runnable task = () -> {
+      try {
+        mergeInto(file, "Week of " + sunday, events);
+      } catch (IOException | RuntimeException e) {
+        failure.compareAndSet(null, new IOException("Failed to write " + file, e));
+      } finally {
+        permits.release();
+      }
+    };
+    CompletableFuture<Void> previous = writes.get(sunday);
+    writes.put(sunday, previous == null
+        ? CompletableFuture.runAsync(task, writers)
+        : previous.thenRunAsync(task, writers));
+  }
+
+  /**
+   * Adds events to the week stored in a file, creating the week if the file does not exist. The
+   * file is replaced atomically, so an import cut short never leaves a week half written.
+   *
+   * @param file the .bujo file of the week
+   * @param weekName name to give the week if it is created
+   * @param events the events to add
+   * @throws IOException if the file cannot be read or written
+   */
+  private void mergeInto(Path file, String weekName, List<Event> events) throws IOException {
+    Week week = Files.exists(file) ? StorageManager.readFile(file) : new Week(weekName, file);
+    List<Set<String>> names = new ArrayList<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      Set<String> taken = new HashSet<>();
+      for (Item item : week.getDays().get(day.ordinal()).getItems()) {
+        taken.add(item.getName());
+      }
+      names.add(taken);
+    }
+
+    for (Event event : events) {
+      String name = uniqueItemName(event.getName(), names.get(event.getDay().ordinal()));
+      if (!name.equals(event.getName())) {
+        eventsRenamed.incrementAndGet();
+        event = new Event(name, event.getDescription(), event.getDay(), event.getStartTime(),
+            event.getDuration(), ItemType.EVENT);
+      }
+      week.addItem(event);
+    }
+    StorageManager.writeFileAtomically(week, file);
+    weekWrites.incrementAndGet();
+  }
+}
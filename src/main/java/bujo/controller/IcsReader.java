@@ -0,0 +1,419 @@
+package bujo.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Reads the VEVENTs of an RFC 5545 iCalendar (.ics) stream one at a time.
+ *
+ * <p>Only the current content line and the event being read are held in memory, so calendars of
+ * any size can be read. Times given in UTC or with a known TZID are converted to the target time
+ * zone; floating times are taken as they are. All-day events start at midnight. Recurrence rules
+ * are not expanded, so a recurring event is read as its first occurrence.
+ */
+class IcsReader implements Closeable {
+  /**
+   * Longest unfolded content line accepted, in characters. A longer line is rejected as soon as
+   * it passes this length, without reading the rest of it.
+   */
+  static final int MAX_LINE_LENGTH = 1 << 20;
+
+  private final Reader in;
+  private final ZoneId zone;
+  private final char[] buffer = new char[1 << 16];
+  private int position;
+  private int limit;
+  // The last line ended with a carriage return, so a line feed right after it is part of it
+  private boolean skipLineFeed;
+  private long skipped;
+
+  /**
+   * Creates a reader over a calendar stream.
+   *
+   * @param in the calendar, encoded as UTF-8
+   * @param zone the time zone event times are converted to
+   */
+  IcsReader(InputStream in, ZoneId zone) {
+    this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+    this.zone = zone;
+  }
+
+  /**
+   * Reads the next event of the calendar. Events without a valid start are skipped and counted.
+   *
+   * @return the next event, or null at the end of the calendar
+   * @throws IOException if the calendar cannot be read or a content line is too long
+   */
+  IcsEvent next() throws IOException {
+    String line;
+    while ((line = readContentLine()) != null) {
+      if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+        IcsEvent event = readEvent();
+        if (event != null) {
+          return event;
+        }
+        skipped++;
+      }
+    }
+    return null;
+  }
+
+  /**
+   *
+   * @return number of events skipped because their start or length could not be read
+   */
+  long getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Closes the underlying stream.
+   *
+   * @throws IOException if the stream cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Reads the properties of an event, up to its END:VEVENT line.
+   *
+   * @return the event, or null if it has no valid start
+   * @throws IOException if the calendar cannot be read
+   */
+  private IcsEvent readEvent() throws IOException {
+    String summary = "";
+    String description = "";
+    String start = null;
+    String end = null;
+    String duration = null;
+    int depth = 0;
+
+    String line;
+    while ((line = readContentLine()) != null) {
+      int colon = valueStart(line);
+      if (colon < 0) {
+        continue;
+      }
+      String nameAndParams = line.substring(0, colon);
+      String value = line.substring(colon + 1);
+      int semicolon = nameAndParams.indexOf(';');
+      String name = (semicolon < 0 ? nameAndParams : nameAndParams.substring(0, semicolon))
+          .toUpperCase(Locale.ROOT);
+
+      if (name.equals("BEGIN")) {
+        depth++; // Nested components such as VALARM
+      } else if (name.equals("END")) {
+        if (depth == 0) {
+          break;
+        }
+        depth--;
+      } else if (depth > 0) {
+        continue;
+      } else if (name.equals("SUMMARY")) {
+        summary = unescape(value);
+      } else if (name.equals("DESCRIPTION")) {
+        description = unescape(value);
+      } else if (name.equals("DTSTART")) {
+        start = line;
+      } else if (name.equals("DTEND")) {
+        end = line;
+      } else if (name.equals("DURATION")) {
+        duration = value.strip();
+      }
+    }
+
+    try {
+      if (start == null) {
+        return null;
+      }
+      LocalDateTime startTime = dateTime(start);
+      long minutes;
+      if (end != null) {
+        minutes = Duration.between(startTime, dateTime(end)).toMinutes();
+      } else if (duration != null) {
+        // Durations in weeks are not understood by Duration.parse
+        minutes = Duration.parse(duration.replaceFirst("^([+-]?)P(\\d+)W$", "$1P$2D"))
+            .toMinutes();
+      } else {
+        minutes = isDate(start) ? 24 * 60 : 0;
+      }
+      if (minutes < 0 || minutes > Integer.MAX_VALUE) {
+        return null;
+      }
+      return new IcsEvent(startTime, (int) minutes, summary, description);
+    } catch (DateTimeException | ArithmeticException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Reads a date or date-time property into a local time in the target zone.
+   *
+   * @param line the whole content line of the property
+   * @return the local date and time
+   * @throws DateTimeException if the value is not a valid date or date-time
+   */
+  private LocalDateTime dateTime(String line) {
+    int colon = valueStart(line);
+    String params = line.substring(0, colon).toUpperCase(Locale.ROOT);
+    String value = line.substring(colon + 1).strip();
+
+    if (value.length() == 8) {
+      return LocalDate.of(number(value, 0, 4), number(value, 4, 6), number(value, 6, 8))
+          .atStartOfDay();
+    }
+    if (value.length() < 15 || value.charAt(8) != 'T') {
+      throw new DateTimeException("Invalid date-time: " + value);
+    }
+
+    LocalDateTime local = LocalDateTime.of(
+        LocalDate.of(number(value, 0, 4), number(value, 4, 6), number(value, 6, 8)),
+        LocalTime.of(number(value, 9, 11), number(value, 11, 13), number(value, 13, 15)));
+    if (value.endsWith("Z")) {
+      return local.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDateTime();
+    }
+    int tzid = params.indexOf(";TZID=");
+    if (tzid >= 0) {
+      String id = line.substring(tzid + 6, colon);
+      int end = id.indexOf(';');
+      id = (end < 0 ? id : id.substring(0, end)).replace("\"", "");
+      try {
+        return local.atZone(ZoneId.of(id)).withZoneSameInstant(zone).toLocalDateTime();
+      } catch (DateTimeException e) {
+        return local; // Custom VTIMEZONE names are not resolved, the time is taken as is
+      }
+    }
+    return local;
+  }
+
+  /**
+   * Checks whether a date or date-time property holds a date only.
+   *
+   * @param line the whole content line of the property
+   * @return true if the value is a date without a time
+   */
+  private static boolean isDate(String line) {
+    return line.substring(valueStart(line) + 1).strip().length() == 8;
+  }
+
+  /**
+   * Finds the colon separating a content line's name and parameters from its value, skipping
+   * colons inside quoted parameter values.
+   *
+   * @param line the content line
+   * @return the index of the colon, or -1 if there is none
+   */
+  private static int valueStart(String line) {
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ':' && !quoted) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Parses a run of decimal digits.
+   *
+   * @param s the string holding the digits
+   * @param from index of the first digit
+   * @param to index after the last digit
+   * @return the value of the digits
+   * @throws DateTimeException if a character in the range is not a digit
+   */
+  private static int number(String s, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new DateTimeException("Invalid date-time: " + s);
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Undoes the escaping of a text value.
+   *
+   * @param value the escaped value
+   * @return the text
+   */
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder text = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        text.append(next == 'n' || next == 'N' ? '\n' : next);
+      } else {
+        text.append(c);
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Reads the next content line, joining folded continuation lines.
+   *
+   * @return the unfolded line, or null at the end of the stream
+   * @throws IOException if the stream cannot be read or the line is too long
+   */
+  private String readContentLine() throws IOException {
+    String line = readLine(MAX_LINE_LENGTH);
+    if (line == null) {
+      return null;
+    }
+
+    StringBuilder unfolded = null;
+    int next;
+    while ((next = peek()) == ' ' || next == '\t') {
+      int length = unfolded == null ? line.length() : unfolded.length();
+      // The white space starting a continuation line is dropped when unfolding
+      String continuation = readLine(MAX_LINE_LENGTH - length + 1);
+      if (unfolded == null) {
+        unfolded = new StringBuilder(line);
+      }
+      unfolded.append(continuation, 1, continuation.length());
+    }
+    return unfolded == null ? line : unfolded.toString();
+  }
+
+  /**
+   * Reads the next physical line, ended by a line feed, a carriage return or both. The line is
+   * rejected as soon as it passes the given length, so a line without an end is never held
+   * whole.
+   *
+   * @param maxLength longest line accepted, in characters
+   * @return the line without its end, or null at the end of the stream
+   * @throws IOException if the stream cannot be read or the line is too long
+   */
+  private String readLine(int maxLength) throws IOException {
+    StringBuilder line = null;
+    while (peek() >= 0) {
+      int start = position;
+      while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+        position++;
+      }
+      int length = position - start;
+      if ((line == null ? 0 : line.length()) + length > maxLength) {
+        throw new IOException("Calendar content line longer than " + MAX_LINE_LENGTH);
+      }
+      if (position < limit) {
+        skipLineFeed = buffer[position++] == '\r';
+        return line == null
+            ? new String(buffer, start, length)
+            : line.append(buffer, start, length).toString();
+      }
+      if (line == null) {
+        line = new StringBuilder();
+      }
+      line.append(buffer, start, length);
+    }
+    return line == null ? null : line.toString();
+  }
+
+  /**
+   * Returns the next character of the stream without consuming it, reading more of the stream
+   * when the buffer is used up.
+   *
+   * @return the next character, or -1 at the end of the stream
+   * @throws IOException if the stream cannot be read
+   */
+  private int peek() throws IOException {
+    while (true) {
+      if (position == limit) {
+        position = 0;
+        limit = Math.max(0, in.read(buffer, 0, buffer.length));
+        if (limit == 0) {
+          return -1;
+        }
+      }
+      if (!skipLineFeed) {
+        return buffer[position];
+      }
+      skipLineFeed = false;
+      if (buffer[position] == '\n') {
+        position++;
+      }
+    }
+  }
+
+  /**
+   * An event read from a calendar
+   */
+  static class IcsEvent {
+    private final LocalDateTime start;
+    private final int durationMinutes;
+    private final String summary;
+    private final String description;
+
+    /**
+     * Creates a new calendar event.
+     *
+     * @param start local start date and time
+     * @param durationMinutes length of the event in minutes
+     * @param summary title of the event
+     * @param description description of the event
+     */
+    IcsEvent(LocalDateTime start, int durationMinutes, String summary, String description) {
+      this.start = start;
+      this.durationMinutes = durationMinutes;
+      this.summary = summary;
+      this.description = description;
+    }
+
+    /**
+     *
+     * @return local start date and time
+     */
+    LocalDateTime getStart() {
+      return start;
+    }
+
+    /**
+     *
+     * @return length of the event in minutes
+     */
+    int getDurationMinutes() {
+      return durationMinutes;
+    }
+
+    /**
+     *
+     * @return title of the event
+     */
+    String getSummary() {
+      return summary;
+    }
+
+    /**
+     *
+     * @return description of the event
+     */
+    String getDescription() {
+      return description;
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.Week;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams the events of weeks as an RFC 5545 iCalendar (.ics) calendar.
+ *
+ * <p>Each event is written as a VEVENT as soon as its week is handed over, so a calendar of any
+ * size is never held in memory. Start times and durations are taken as the minutes each event
+ * parsed when it was created, and dates are formatted once per day rather than once per event.
+ * Start times are written as floating local times, since weeks do not record a time zone.
+ * Each event's UID is derived from its item ID and the date of its week, so exporting a week
+ * again after editing, renaming or moving its events updates them in a calendar instead of
+ * adding copies.
+ * Events whose start time or duration cannot be parsed are skipped and counted.
+ */
+public class IcsWriter implements Closeable {
+  private static final int MAX_LINE_OCTETS = 75;
+
+  private final Writer out;
+  private final String timestamp;
+  private final StringBuilder line = new StringBuilder(256);
+  private long eventsWritten;
+  private long eventsSkipped;
+
+  /**
+   * Starts a calendar on the given stream.
+   *
+   * @param out the stream to write the calendar to
+   * @throws IOException if the calendar header cannot be written
+   */
+  public IcsWriter(OutputStream out) throws IOException {
+    this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    this.timestamp = dateTime(LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC)) + "Z";
+    writeLine("BEGIN", "VCALENDAR");
+    writeLine("VERSION", "2.0");
+    writeLine("PRODID", "-//bujo//Bullet Journal//EN");
+    writeLine("CALSCALE", "GREGORIAN");
+  }
+
+  /**
+   * Writes the events of a week.
+   *
+   * @param week the week to write
+   * @param weekStart the date of the week's Sunday
+   * @throws IOException if the events cannot be written
+   */
+  public void writeWeek(Week week, LocalDate weekStart) throws IOException {
+    List<Day> days = week.getDays();
+    String weekText = date(weekStart);
+    for (Day day : days) {
+      LocalDate date = weekStart.plusDays(day.getDayOfWeek().ordinal());
+      String dateText = date(date);
+      for (Item item : day.getItems()) {
+        if (item instanceof Event event) {
+          writeEvent(weekText, event, dateText);
+        }
+      }
+    }
+  }
+
+  /**
+   * Ends the calendar and closes the stream.
+   *
+   * @throws IOException if the calendar cannot be ended
+   */
+  @Override
+  public void close() throws IOException {
+    writeLine("END", "VCALENDAR");
+    out.close();
+  }
+
+  /**
+   *
+   * @return number of events written so far
+   */
+  public long getEventsWritten() {
+    return eventsWritten;
+  }
+
+  /**
+   *
+   * @return number of events skipped because their time or duration could not be parsed
+   */
+  public long getEventsSkipped() {
+    return eventsSkipped;
+  }
+
+  /**
+   * Writes one event as a VEVENT.
+   *
+   * @param week the date of the week's Sunday, formatted as: "YYYYMMDD"
+   * @param event the event
+   * @param date the event's date, formatted as: "YYYYMMDD"
+   * @throws IOException if the event cannot be written
+   */
+  private void writeEvent(String week, Event event, String date) throws IOException {
+    int start = event.getStartMinutes();
+    int duration = event.getDurationMinutes();
+    if (start == Event.UNKNOWN_MINUTES || duration == Event.UNKNOWN_MINUTES) {
+      eventsSkipped++;
+      return;
+    }
+
+    // IDs are only unique within a week, and copies of a week or of a legacy file share them
+    String uid = UUID.nameUUIDFromBytes((week + '\n' + event.getId())
+        .getBytes(StandardCharsets.UTF_8)) + "@bujo";
+    writeLine("BEGIN", "VEVENT");
+    writeLine("UID", uid);
+    writeLine("DTSTAMP", timestamp);
+    writeLine("DTSTART", date + 'T' + twoDigits(start / 60) + twoDigits(start % 60) + "00");
+    writeLine("DURATION", duration(duration));
+    writeText("SUMMARY", event.getName());
+    if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+      writeText("DESCRIPTION", event.getDescription());
+    }
+    writeLine("END", "VEVENT");
+    eventsWritten++;
+  }
+
+  /**
+   * Writes a property holding free text, escaping the characters RFC 5545 reserves.
+   *
+   * @param name the property name
+   * @param text the text
+   * @throws IOException if the property cannot be written
+   */
+  private void writeText(String name, String text) throws IOException {
+    line.setLength(0);
+    line.append(name).append(':');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\', ';', ',' -> line.append('\\').append(c);
+        case '\n' -> line.append("\\n");
+        case '\r' -> {
+          // Dropped, a CRLF becomes a single \n
+        }
+        default -> line.append(c);
+      }
+    }
+    writeFolded();
+  }
+
+  /**
+   * Writes a property whose value needs no escaping.
+   *
+   * @param name the property name
+   * @param value the value
+   * @throws IOException if the property cannot be written
+   */
+  private void writeLine(String name, String value) throws IOException {
+    line.setLength(0);
+    line.append(name).append(':').append(value);
+    writeFolded();
+  }
+
+  /**
+   * Writes the pending content line, folding it so that no line exceeds 75 octets.
+   *
+   * @throws IOException if the line cannot be written
+   */
+  private void writeFolded() throws IOException {
+    int octets = 0;
+    int from = 0;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      int size;
+      if (c < 0x80) {
+        size = 1;
+      } else if (c < 0x800) {
+        size = 2;
+      } else if (Character.isHighSurrogate(c)) {
+        size = 4;
+      } else if (Character.isLowSurrogate(c)) {
+        size = 0;
+      } else {
+        size = 3;
+      }
+
+      if (octets + size > MAX_LINE_OCTETS) {
+        out.append(line, from, i).append("\r\n ");
+        from = i;
+        octets = 1;
+      }
+      octets += size;
+    }
+    out.append(line, from, line.length()).append("\r\n");
+  }
+
+  /**
+   * Formats a duration as an RFC 5545 duration value.
+   *
+   * @param minutes the duration in minutes
+   * @return the duration value
+   */
+  private static String duration(int minutes) {
+    if (minutes == 0) {
+      return "PT0M";
+    }
+    StringBuilder value = new StringBuilder("PT");
+    if (minutes >= 60) {
+      value.append(minutes / 60).append('H');
+    }
+    if (minutes % 60 != 0) {
+      value.append(minutes % 60).append('M');
+    }
+    return value.toString();
+  }
+
+  /**
+   * Formats a date as: "YYYYMMDD"
+   *
+   * @param date the date
+   * @return the formatted date
+   */
+  private static String date(LocalDate date) {
+    return String.valueOf(date.getYear()) + twoDigits(date.getMonthValue())
+        + twoDigits(date.getDayOfMonth());
+  }
+
+  /**
+   * Formats a date and time as: "YYYYMMDDTHHMMSS"
+   *
+   * @param dateTime the date and time
+   * @return the formatted date and time
+   */
+  private static String dateTime(LocalDateTime dateTime) {
+    return date(dateTime.toLocalDate()) + 'T' + twoDigits(dateTime.getHour())
+        + twoDigits(dateTime.getMinute()) + twoDigits(dateTime.getSecond());
+  }
+
+  /**
+   * Formats a number below 100 with two digits.
+   *
+   * @param value the number
+   * @return the formatted number
+   */
+  private static String twoDigits(int value) {
+    return value < 10 ? "0" + value : Integer.toString(value);
+  }
+}
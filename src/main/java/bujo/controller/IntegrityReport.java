@@ -0,0 +1,86 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of verifying a .bujo file against its section checksums
+ */
+public class IntegrityReport {
+  private final boolean checksummed;
+  private final boolean headerDamaged;
+  private final List<DayOfWeek> damagedDays;
+  private final String problem;
+
+  /**
+   * Creates a new integrity report.
+   *
+   * @param checksummed true if the file carries section checksums
+   * @param headerDamaged true if the week fields are damaged
+   * @param damagedDays the days that are damaged or missing
+   * @param problem description of a structural problem, or null if there is none
+   */
+  IntegrityReport(boolean checksummed, boolean headerDamaged, List<DayOfWeek> damagedDays,
+                  String problem) {
+    this.checksummed = checksummed;
+    this.headerDamaged = headerDamaged;
+    this.damagedDays = new ArrayList<>(damagedDays);
+    this.problem = problem;
+  }
+
+  /**
+   *
+   * @return true if nothing damaged was found
+   */
+  public boolean isIntact() {
+    return !headerDamaged && damagedDays.isEmpty() && problem == null;
+  }
+
+  /**
+   * Files written before checksums were introduced can only be checked for well-formedness
+   *
+   * @return true if the file carries section checksums
+   */
+  public boolean isChecksummed() {
+    return checksummed;
+  }
+
+  /**
+   *
+   * @return true if the week fields, such as its name and limits, are damaged
+   */
+  public boolean isHeaderDamaged() {
+    return headerDamaged;
+  }
+
+  /**
+   *
+   * @return the days that are damaged or missing, in week order
+   */
+  public List<DayOfWeek> getDamagedDays() {
+    return new ArrayList<>(damagedDays);
+  }
+
+  /**
+   *
+   * @return human-readable summary of what is damaged
+   */
+  public String getDescription() {
+    if (isIntact()) {
+      return checksummed ? "No damage found" : "Well-formed, but written without checksums";
+    }
+
+    List<String> parts = new ArrayList<>();
+    if (problem != null) {
+      parts.add(problem);
+    }
+    if (headerDamaged) {
+      parts.add("week fields are damaged");
+    }
+    if (!damagedDays.isEmpty()) {
+      parts.add("damaged days: " + damagedDays);
+    }
+    return String.join(", ", parts);
+  }
+}
@@ -0,0 +1,300 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Conversion between items and the flat rows of a bulk export, one item per row.
+ * Every row holds the columns in {@link #COLUMNS}, with empty strings for columns that do not
+ * apply to the item's type. The leading columns describe the week the item is in: the name of
+ * the .bujo file it is stored in, which tells weeks sharing a name apart, its name and its
+ * limits. A week without items is written as a single row with empty item columns. Passwords
+ * are deliberately left out, since the rows hold every item in plain text anyway.
+ */
+final class ItemRows {
+  /**
+   * Names of the row columns, in order
+   */
+  static final List<String> COLUMNS = List.of("file", "week", "max-events", "max-tasks", "day",
+      "type", "name", "description", "start-time", "duration", "complete");
+  // Number of leading columns describing the week
+  private static final int WEEK_COLUMNS = 4;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private ItemRows() {
+  }
+
+  /**
+   * Flattens an item into a row.
+   *
+   * @param file name of the .bujo file the week is stored in
+   * @param week the week the item is in
+   * @param item the item, or null for the row of a week without items
+   * @return the row, one value per column
+   */
+  static String[] toRow(String file, Week week, Item item) {
+    String[] row = new String[COLUMNS.size()];
+    row[0] = file;
+    row[1] = week.getName();
+    row[2] = Integer.toString(week.getMaxNumEvents());
+    row[3] = Integer.toString(week.getMaxNumTasks());
+    if (item == null) {
+      Arrays.fill(row, WEEK_COLUMNS, row.length, "");
+    } else {
+      String[] values = itemValues(item);
+      System.arraycopy(values, 0, row, WEEK_COLUMNS, values.length);
+    }
+    return row;
+  }
+
+  /**
+   * Flattens an item into the values of the item columns.
+   *
+   * @param item the item
+   * @return the values of the columns from "day" on
+   */
+  static String[] itemValues(Item item) {
+    String[] values = new String[COLUMNS.size() - WEEK_COLUMNS];
+    values[0] = item.getDay().name();
+    values[1] = item.getType().name().toLowerCase(Locale.ROOT);
+    values[2] = item.getName();
+    values[3] = item.getDescription() == null ? "" : item.getDescription();
+    if (item instanceof Event event) {
+      values[4] = event.getStartTime();
+      values[5] = event.getDuration();
+      values[6] = "";
+    } else {
+      values[4] = "";
+      values[5] = "";
+      values[6] = Boolean.toString(((Task) item).getComplete());
+    }
+    return values;
+  }
+
+  /**
+   * Builds an empty week from the week columns of a row.
+   *
+   * @param row the row, one value per column
+   * @param path the path of the week's .bujo file
+   * @return the week, without items
+   * @throws IllegalArgumentException if a limit is not a number
+   */
+  static Week weekFromRow(String[] row, Path path) {
+    Week week = new Week(row[1], path);
+    week.setMaxNumEvents(Integer.parseInt(row[2].trim()));
+    week.setMaxNumTasks(Integer.parseInt(row[3].trim()));
+    return week;
+  }
+
+  /**
+   * Builds the item a row describes.
+   *
+   * @param row the row, one value per column
+   * @return the item, or null for the row of a week without items
+   * @throws IllegalArgumentException if the day or type is not valid
+   */
+  static Item fromRow(String[] row) {
+    if (row[5].isBlank()) {
+      return null;
+    }
+    DayOfWeek day = DayOfWeek.valueOf(row[4].trim().toUpperCase(Locale.ROOT));
+    ItemType type = ItemType.valueOf(row[5].trim().toUpperCase(Locale.ROOT));
+    if (type == ItemType.EVENT) {
+      return new Event(row[6], row[7], day, row[8], row[9], ItemType.EVENT);
+    }
+
+    Task task = new Task(row[6], row[7], day);
+    if (Boolean.parseBoolean(row[10].trim())) {
+      task.markComplete();
+    }
+    return task;
+  }
+
+  /**
+   * Writes the header line of a format, if it has one.
+   *
+   * @param out the writer to write to
+   * @param format the row format
+   * @throws IOException if the header cannot be written
+   */
+  static void writeHeader(Writer out, BulkFormat format) throws IOException {
+    if (format == BulkFormat.CSV) {
+      writeRow(out, format, COLUMNS.toArray(new String[0]));
+    }
+  }
+
+  /**
+   * Writes one row as a line.
+   *
+   * @param out the writer to write to
+   * @param format the row format
+   * @param row the row, one value per column
+   * @throws IOException if the row cannot be written
+   */
+  static void writeRow(Writer out, BulkFormat format, String[] row) throws IOException {
+    if (format == BulkFormat.JSON_LINES) {
+      ObjectNode line = MAPPER.createObjectNode();
+      for (int i = 0; i < row.length; i++) {
+        line.put(COLUMNS.get(i), row[i]);
+      }
+      out.write(MAPPER.writeValueAsString(line));
+      out.write('\n');
+      return;
+    }
+
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      String value = row[i];
+      if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+          || value.indexOf('\r') >= 0) {
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+      } else {
+        out.write(value);
+      }
+    }
+    out.write("\r\n");
+  }
+
+  /**
+   * Reads the header line of a format, if it has one, and checks it.
+   *
+   * @param in the reader to read from
+   * @param format the row format
+   * @throws IOException if the header is missing or does not name the expected columns
+   */
+  static void readHeader(BufferedReader in, BulkFormat format) throws IOException {
+    if (format == BulkFormat.CSV) {
+      String[] header = readRow(in, format);
+      if (header == null || !COLUMNS.equals(List.of(header))) {
+        throw new IOException("Expected a CSV header of " + String.join(",", COLUMNS));
+      }
+    }
+  }
+
+  /**
+   * Reads the next row. Blank lines are skipped.
+   *
+   * @param in the reader to read from
+   * @param format the row format
+   * @return the row, one value per column, or null at the end of the input
+   * @throws IOException if the row cannot be read or has the wrong number of columns
+   */
+  static String[] readRow(BufferedReader in, BulkFormat format) throws IOException {
+    String[] row = format == BulkFormat.CSV ? readCsvRow(in) : readJsonRow(in);
+    if (row != null && row.length != COLUMNS.size()) {
+      throw new IOException("Expected " + COLUMNS.size() + " columns but found " + row.length);
+    }
+    return row;
+  }
+
+  /**
+   * Reads the next JSON object line as a row.
+   *
+   * @param in the reader to read from
+   * @return the row, or null at the end of the input
+   * @throws IOException if the line is not a JSON object
+   */
+  private static String[] readJsonRow(BufferedReader in) throws IOException {
+    String line;
+    do {
+      line = in.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isBlank());
+
+    JsonNode node;
+    try {
+      node = MAPPER.readTree(line);
+    } catch (JsonProcessingException e) {
+      throw new IOException("Not a JSON object: " + line, e);
+    }
+    if (!node.isObject()) {
+      throw new IOException("Not a JSON object: " + line);
+    }
+    String[] row = new String[COLUMNS.size()];
+    for (int i = 0; i < row.length; i++) {
+      row[i] = node.path(COLUMNS.get(i)).asText("");
+    }
+    return row;
+  }
+
+  /**
+   * Reads the next CSV record, which may span lines inside quoted values.
+   *
+   * @param in the reader to read from
+   * @return the row, or null at the end of the input
+   * @throws IOException if a quoted value is not closed
+   */
+  private static String[] readCsvRow(BufferedReader in) throws IOException {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    boolean started = false;
+    int c;
+    while ((c = in.read()) != -1) {
+      started = true;
+      if (quoted) {
+        if (c != '"') {
+          value.append((char) c);
+        } else {
+          in.mark(1);
+          if (in.read() == '"') {
+            value.append('"');
+          } else {
+            in.reset();
+            quoted = false;
+          }
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(value.toString());
+        value.setLength(0);
+      } else if (c == '\n' || c == '\r') {
+        if (c == '\r') {
+          in.mark(1);
+          if (in.read() != '\n') {
+            in.reset();
+          }
+        }
+        if (values.isEmpty() && value.length() == 0) {
+          started = false;
+          continue; // Blank line
+        }
+        break;
+      } else {
+        value.append((char) c);
+      }
+    }
+
+    if (quoted) {
+      throw new IOException("Unterminated quoted CSV value");
+    }
+    if (!started) {
+      return null;
+    }
+    values.add(value.toString());
+    return values.toArray(new String[0]);
+  }
+}
@@ -0,0 +1,126 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the tasks and events of a week while it is streamed, without binding its items.
+ *
+ * <p>When the week has logged mutations still to be replayed, each item is also remembered by
+ * its day, ID and name, which is all a replay needs to tell which item a record overwrites, so
+ * that the counts follow the log the way {@link MutationLog#replay} would.
+ */
+final class ItemTally {
+  // Per day, each item by its ID; null when items are only counted
+  private final List<Map<String, TalliedItem>> itemsById;
+  // Per day, the ID of each item, by item name
+  private final List<Map<String, String>> idsByName;
+  private int taskCount;
+  private int eventCount;
+
+  /**
+   * Creates an empty tally.
+   *
+   * @param trackItems true to remember each item so that log records can be replayed
+   */
+  ItemTally(boolean trackItems) {
+    if (trackItems) {
+      itemsById = new ArrayList<>();
+      idsByName = new ArrayList<>();
+      for (int i = 0; i < DayOfWeek.values().length; i++) {
+        itemsById.add(new HashMap<>());
+        idsByName.add(new HashMap<>());
+      }
+    } else {
+      itemsById = null;
+      idsByName = null;
+    }
+  }
+
+  /**
+   * Counts an item of the week.
+   *
+   * @param day the day the item is on
+   * @param id the ID of the item, or null for an item of a file written before items had IDs
+   * @param name the name of the item
+   * @param task true if the item is a task, false if it is an event
+   */
+  void add(DayOfWeek day, String id, String name, boolean task) {
+    if (itemsById != null) {
+      // Without an ID, the item can only be found by its name
+      String key = id != null ? id : "\0" + name;
+      itemsById.get(day.ordinal()).put(key, new TalliedItem(name, task));
+      idsByName.get(day.ordinal()).put(name, key);
+    }
+    if (task) {
+      taskCount++;
+    } else {
+      eventCount++;
+    }
+  }
+
+  /**
+   * Uncounts the item with the given ID on a day, or failing that the given name, if there is
+   * one. Only has an effect on a tally that tracks items.
+   *
+   * @param day the day the item is on
+   * @param id the ID of the item, may be null
+   * @param name the name of the item
+   */
+  void remove(DayOfWeek day, String id, String name) {
+    if (itemsById == null) {
+      return;
+    }
+    Map<String, TalliedItem> items = itemsById.get(day.ordinal());
+    Map<String, String> ids = idsByName.get(day.ordinal());
+    String key = id != null && items.containsKey(id) ? id : ids.get(name);
+    TalliedItem item = key == null ? null : items.remove(key);
+    if (item == null) {
+      return;
+    }
+    ids.remove(item.name, key);
+    if (item.task) {
+      taskCount--;
+    } else {
+      eventCount--;
+    }
+  }
+
+  /**
+   *
+   * @return number of tasks counted
+   */
+  int getTaskCount() {
+    return taskCount;
+  }
+
+  /**
+   *
+   * @return number of events counted
+   */
+  int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * What the tally remembers of an item
+   */
+  private static class TalliedItem {
+    private final String name;
+    private final boolean task;
+
+    /**
+     * Creates a new tallied item.
+     *
+     * @param name the name of the item
+     * @param task true if the item is a task
+     */
+    TalliedItem(String name, boolean task) {
+      this.name = name;
+      this.task = task;
+    }
+  }
+}
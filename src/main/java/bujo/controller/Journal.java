@@ -0,0 +1,399 @@
+package bujo.controller;
+
+import bujo.model.IsoWeek;
+import bujo.model.Item;
+import bujo.model.Task;
+import bujo.model.Week;
+import bujo.model.WeekListener;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * A journal of many weeks, kept as one .bujo file per week in a directory and keyed by ISO week.
+ *
+ * <p>Each week is stored as "YYYY-MM-DD.bujo", named after the Sunday it starts on, as the
+ * calendar importer writes them; other files in the directory are left alone. Opening a journal
+ * only lists the directory, so weeks that were never written take no space and an index of years
+ * of weeks costs a few bytes per week. Week bodies are read through {@link StorageManager} when
+ * first asked for, and at most a fixed number of them are kept loaded, the weeks used longest ago
+ * being dropped first. Iterating over a range of weeks, such as a quarter or years of them,
+ * therefore holds a bounded number of weeks however long the range. A week whose items change is
+ * kept loaded, or loaded again if it was dropped, until {@link #flush()} saves it, so no change
+ * is lost. A dropped week is only forgotten once nothing else holds it, so asking for it again
+ * returns the same instance rather than a second copy, and changes made to it in the meantime
+ * are saved by the next flush.
+ *
+ * <p>A journal is not thread-safe; it is meant to be used from the model thread.
+ */
+public class Journal {
+  /**
+   * Default number of week bodies kept loaded
+   */
+  public static final int DEFAULT_MAX_LOADED_WEEKS = 16;
+
+  private final Path directory;
+  private final int maxLoadedWeeks;
+  // Every week in the directory, by ISO week
+  private final TreeMap<IsoWeek, Path> files;
+  // Access order, so that the weeks used longest ago are dropped first
+  private final LinkedHashMap<IsoWeek, Week> loaded;
+  // Dropped weeks that may still be held elsewhere, until they are garbage collected
+  private final Map<IsoWeek, DroppedWeek> dropped;
+  private final ReferenceQueue<Week> collected;
+  // Metrics
+  private long weeksRead;
+
+  /**
+   * Creates a new journal over the given weeks.
+   *
+   * @param directory the journal directory
+   * @param maxLoadedWeeks number of unmodified week bodies kept loaded
+   * @param files the week files in the directory, by ISO week
+   */
+  private Journal(Path directory, int maxLoadedWeeks, TreeMap<IsoWeek, Path> files) {
+    this.directory = directory;
+    this.maxLoadedWeeks = maxLoadedWeeks;
+    this.files = files;
+    this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+    this.dropped = new HashMap<>();
+    this.collected = new ReferenceQueue<>();
+  }
+
+  /**
+   * Opens the journal in a directory, keeping the default number of weeks loaded.
+   *
+   * @param directory the journal directory
+   * @return the opened journal
+   * @throws IOException if the directory cannot be listed
+   */
+  public static Journal open(Path directory) throws IOException {
+    return open(directory, DEFAULT_MAX_LOADED_WEEKS);
+  }
+
+  /**
+   * Opens the journal in a directory, indexing its week files without reading them.
+   *
+   * @param directory the journal directory
+   * @param maxLoadedWeeks number of unmodified week bodies kept loaded
+   * @return the opened journal
+   * @throws IOException if the directory cannot be listed
+   */
+  public static Journal open(Path directory, int maxLoadedWeeks) throws IOException {
+    if (maxLoadedWeeks < 1) {
+      throw new IllegalArgumentException("At least one week must be kept loaded");
+    }
+    TreeMap<IsoWeek, Path> files = new TreeMap<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.bujo")) {
+      for (Path file : entries) {
+        IsoWeek isoWeek = weekOf(file);
+        if (isoWeek != null && Files.isRegularFile(file)) {
+          files.put(isoWeek, file);
+        }
+      }
+    }
+    return new Journal(directory, maxLoadedWeeks, files);
+  }
+
+  /**
+   * Returns the ISO week of a week file named after its Sunday.
+   *
+   * @param file the file
+   * @return the ISO week of the file, or null if it is not named as a journal week
+   */
+  static IsoWeek weekOf(Path file) {
+    String name = file.getFileName().toString();
+    try {
+      LocalDate sunday = LocalDate.parse(name.substring(0, name.length() - ".bujo".length()));
+      return IsoWeek.ofJournalWeek(sunday);
+    } catch (DateTimeParseException | IllegalArgumentException | IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  /**
+   *
+   * @param isoWeek an ISO week
+   * @return the file the week is stored in, in the journal directory
+   */
+  public Path fileOf(IsoWeek isoWeek) {
+    return directory.resolve(isoWeek.getJournalSunday() + ".bujo");
+  }
+
+  /**
+   *
+   * @return the weeks in this journal, in calendar order
+   */
+  public NavigableSet<IsoWeek> getWeeks() {
+    return Collections.unmodifiableNavigableSet(files.navigableKeySet());
+  }
+
+  /**
+   *
+   * @param isoWeek an ISO week
+   * @return true if this journal has a week stored for it
+   */
+  public boolean contains(IsoWeek isoWeek) {
+    return files.containsKey(isoWeek);
+  }
+
+  /**
+   * Returns a week, reading it from its file if it is not loaded and not held anywhere else.
+   *
+   * @param isoWeek the ISO week
+   * @return the week, or null if this journal has none for that ISO week
+   * @throws IOException if the week's file cannot be read
+   */
+  public Week getWeek(IsoWeek isoWeek) throws IOException {
+    Week week = loaded.get(isoWeek);
+    if (week != null) {
+      return week;
+    }
+    week = undrop(isoWeek);
+    if (week != null) {
+      loaded.put(isoWeek, week);
+      evict();
+      return week;
+    }
+    Path file = files.get(isoWeek);
+    if (file == null) {
+      return null;
+    }
+    week = StorageManager.readFile(file);
+    week.setPath(file);
+    weeksRead++;
+    load(isoWeek, week);
+    return week;
+  }
+
+  /**
+   * Creates an empty week and writes it to its file.
+   *
+   * @param isoWeek the ISO week
+   * @return the new week
+   * @throws IOException if the week's file cannot be written
+   * @throws IllegalArgumentException if this journal already has that week
+   */
+  public Week createWeek(IsoWeek isoWeek) throws IOException {
+    if (files.containsKey(isoWeek)) {
+      throw new IllegalArgumentException("Journal already has week " + isoWeek);
+    }
+    Path file = fileOf(isoWeek);
+    Week week = new Week("Week of " + isoWeek.getJournalSunday(), file);
+    StorageManager.writeFileAtomically(week, file);
+    files.put(isoWeek, file);
+    load(isoWeek, week);
+    return week;
+  }
+
+  /**
+   * Returns the weeks of this journal in a range, in calendar order. Each week is read when the
+   * iteration reaches it, so a long range holds no more weeks than a short one.
+   *
+   * @param from the first ISO week of the range
+   * @param to the last ISO week of the range, inclusive
+   * @return the weeks stored for the range; iterating throws an {@link UncheckedIOException} if a
+   *         week's file cannot be read
+   */
+  public Iterable<Week> weeks(IsoWeek from, IsoWeek to) {
+    NavigableMap<IsoWeek, Path> range = files.subMap(from, true, to, true);
+    return () -> new Iterator<>() {
+      private final Iterator<IsoWeek> keys = range.keySet().iterator();
+
+      @Override
+      public boolean hasNext() {
+        return keys.hasNext();
+      }
+
+      @Override
+      public Week next() {
+        if (!keys.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        IsoWeek isoWeek = keys.next();
+        try {
+          return getWeek(isoWeek);
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read week " + isoWeek, e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns the weeks of this journal between two dates, such as the weeks of a quarter.
+   *
+   * @param from a date in the first journal week of the range
+   * @param to a date in the last journal week of the range
+   * @return the weeks stored for the range, in calendar order
+   */
+  public Iterable<Week> weeks(LocalDate from, LocalDate to) {
+    return weeks(IsoWeek.ofJournalDate(from), IsoWeek.ofJournalDate(to));
+  }
+
+  /**
+   * Saves every week modified since it was read or last saved, loaded or dropped but still
+   * held elsewhere, then drops loaded weeks beyond the limit.
+   *
+   * @throws IOException if a week cannot be written
+   */
+  public void flush() throws IOException {
+    for (Map.Entry<IsoWeek, Week> entry : loaded.entrySet()) {
+      save(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<IsoWeek, DroppedWeek> entry : dropped.entrySet()) {
+      Week week = entry.getValue().get();
+      if (week != null) {
+        save(entry.getKey(), week);
+      }
+    }
+    evict();
+  }
+
+  /**
+   * Writes a week to its file if it was modified since it was read or last saved, replacing the
+   * file atomically so that evicting a week never leaves it half written.
+   *
+   * @param isoWeek the ISO week
+   * @param week the week
+   * @throws IOException if the week cannot be written
+   */
+  private void save(IsoWeek isoWeek, Week week) throws IOException {
+    if (week.isDirty()) {
+      long revision = week.getRevision();
+      StorageManager.writeFileAtomically(week, files.get(isoWeek));
+      week.markSaved(revision);
+    }
+  }
+
+  /**
+   *
+   * @return number of week bodies currently loaded
+   */
+  public int getLoadedWeeks() {
+    return loaded.size();
+  }
+
+  /**
+   *
+   * @return number of times a week was read from its file
+   */
+  public long getWeeksRead() {
+    return weeksRead;
+  }
+
+  /**
+   * Keeps a week loaded, dropping the weeks used longest ago beyond the limit, and loads it
+   * again whenever its items change after it was dropped.
+   *
+   * @param isoWeek the ISO week
+   * @param week the week
+   */
+  private void load(IsoWeek isoWeek, Week week) {
+    loaded.put(isoWeek, week);
+    week.addListener(new WeekListener() {
+      @Override
+      public void itemAdded(Item item) {
+        pin();
+      }
+
+      @Override
+      public void itemRemoved(Item item) {
+        pin();
+      }
+
+      @Override
+      public void taskCompleted(Task task) {
+        pin();
+      }
+
+      /**
+       * Loads the week again if it was dropped. Dropped weeks are handed back rather than read
+       * again, so any week loaded for this ISO week is this very instance.
+       */
+      private void pin() {
+        if (loaded.putIfAbsent(isoWeek, week) == null) {
+          dropped.remove(isoWeek);
+        }
+      }
+    });
+    evict();
+  }
+
+  /**
+   * Takes back a dropped week that is still held elsewhere.
+   *
+   * @param isoWeek the ISO week
+   * @return the dropped week, or null if it was never loaded or has been garbage collected
+   */
+  private Week undrop(IsoWeek isoWeek) {
+    expungeCollected();
+    DroppedWeek reference = dropped.remove(isoWeek);
+    return reference == null ? null : reference.get();
+  }
+
+  /**
+   * Forgets dropped weeks that have been garbage collected.
+   */
+  private void expungeCollected() {
+    Reference<? extends Week> reference;
+    while ((reference = collected.poll()) != null) {
+      DroppedWeek droppedWeek = (DroppedWeek) reference;
+      dropped.remove(droppedWeek.isoWeek, droppedWeek);
+    }
+  }
+
+  /**
+   * Drops unmodified weeks, used longest ago first, until no more than the limit are loaded.
+   * Modified weeks stay loaded until they are saved, as does the week used last.
+   */
+  private void evict() {
+    expungeCollected();
+    Iterator<Map.Entry<IsoWeek, Week>> eldest = loaded.entrySet().iterator();
+    int excess = loaded.size() - maxLoadedWeeks;
+    // The week used last is kept, whatever the others are
+    for (int i = loaded.size() - 1; excess > 0 && i > 0; i--) {
+      Map.Entry<IsoWeek, Week> entry = eldest.next();
+      if (!entry.getValue().isDirty()) {
+        dropped.put(entry.getKey(), new DroppedWeek(entry.getKey(), entry.getValue(), collected));
+        eldest.remove();
+        excess--;
+      }
+    }
+  }
+
+  /**
+   * Weak reference to a dropped week, remembering its ISO week
+   */
+  private static class DroppedWeek extends WeakReference<Week> {
+    private final IsoWeek isoWeek;
+
+    /**
+     * Creates a new reference to a dropped week.
+     *
+     * @param isoWeek the ISO week
+     * @param week the week
+     * @param queue queue the reference is put on once the week is garbage collected
+     */
+    DroppedWeek(IsoWeek isoWeek, Week week, ReferenceQueue<Week> queue) {
+      super(week, queue);
+      this.isoWeek = isoWeek;
+    }
+  }
+}
@@ -18,6 +18,8 @@ import javafx.stage.Stage;
 public class JournalAppController {
   private static MediaPlayer musicPlayer;
   private Stage primaryStage;
+  private final SaveService saveService;
+  private final AsyncStorage storage;
   Lockbox<Week> initWeekLockbox;
 
   /**
@@ -27,6 +29,8 @@ public class JournalAppController {
    */
   public JournalAppController(Stage primaryStage) {
     this.primaryStage = primaryStage;
+    this.saveService = new SaveService();
+    this.storage = new AsyncStorage();
   }
 
   /**
@@ -37,7 +41,7 @@ public class JournalAppController {
 
     initWeekLockbox = new Lockbox<>();
     ScreenController welcomeScreenController
-        = new WelcomeScreenController(primaryStage, initWeekLockbox, musicPlayer);
+        = new WelcomeScreenController(primaryStage, initWeekLockbox, musicPlayer, storage);
     welcomeScreenController.run();
     primaryStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
     primaryStage.setOnHiding(e -> handleTransitionToWeek());
@@ -52,7 +56,7 @@ public class JournalAppController {
 
       primaryStage = new Stage();
       ScreenController weekScreenController
-          = new WeekScreenController(primaryStage, week, musicPlayer);
+          = new WeekScreenController(primaryStage, week, musicPlayer, saveService, storage);
       weekScreenController.run();
     } catch (IllegalStateException ignored) {
       // Ignnored
@@ -0,0 +1,465 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import bujo.model.WeekListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Append-only log of the item mutations made to a week since its .bujo file was last written.
+ * Every add, remove and completion is appended as one JSON line to a log file beside the
+ * .bujo file, so recording a change costs the same no matter how large the week is.
+ * Once the log grows past a threshold, it is compacted into the .bujo file in the background.
+ * The log only makes each change durable right away; the .bujo file itself is still rewritten
+ * by autosave once edits settle, so that other programs reading it do not lag behind.
+ *
+ * <p>Replaying a record overwrites the item with the same day and ID, or failing that the same
+ * day and name, so replaying a log on top of a .bujo file that already contains some of its
+ * changes still yields the latest state. Records written before items had IDs carry only the
+ * name.
+ */
+public class MutationLog implements WeekListener, AutoCloseable {
+  /**
+   * Default log size, in bytes, above which the log is compacted into the .bujo file
+   */
+  public static final long DEFAULT_COMPACTION_THRESHOLD = 256 * 1024;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Week week;
+  private final Path weekPath;
+  private final Path logPath;
+  private final Path compactingPath;
+  private final SaveService saveService;
+  private final long compactionThreshold;
+  private FileChannel channel;
+  private long size;
+  private CompletableFuture<Void> compaction;
+  private boolean compactionSuspended;
+
+  /**
+   * Opens the mutation log of a week and starts recording its item mutations.
+   *
+   * @param week the week to record
+   * @param weekPath the path to the week's .bujo file
+   * @param saveService service used to write the .bujo file when compacting
+   * @param compactionThreshold log size, in bytes, above which the log is compacted
+   * @throws IOException if the log file cannot be opened
+   */
+  public MutationLog(Week week, Path weekPath, SaveService saveService,
+                     long compactionThreshold) throws IOException {
+    this.week = week;
+    this.weekPath = weekPath;
+    this.logPath = logPathFor(weekPath);
+    this.compactingPath = compactingPathFor(weekPath);
+    this.saveService = saveService;
+    this.compactionThreshold = compactionThreshold;
+    this.compaction = CompletableFuture.completedFuture(null);
+    openChannel();
+    week.addListener(this);
+  }
+
+  /**
+   * Returns the path of the log file kept beside a .bujo file
+   *
+   * @param weekPath the path to the .bujo file
+   * @return the path to its mutation log
+   */
+  public static Path logPathFor(Path weekPath) {
+    return weekPath.resolveSibling(weekPath.getFileName() + ".log");
+  }
+
+  /**
+   * Returns the path a log file is moved to while it is being compacted
+   *
+   * @param weekPath the path to the .bujo file
+   * @return the path to its mutation log under compaction
+   */
+  private static Path compactingPathFor(Path weekPath) {
+    return weekPath.resolveSibling(weekPath.getFileName() + ".log.compacting");
+  }
+
+  /**
+   * Applies the mutations logged beside a .bujo file to the week read from it.
+   * A torn record at the end of a log, left by a crash mid-append, is ignored, but a damaged
+   * record followed by others is reported rather than silently dropping the records after it.
+   *
+   * @param week the week read from the .bujo file
+   * @param weekPath the path to the .bujo file
+   * @throws IOException if a log exists but cannot be read, or holds a damaged record
+   */
+  public static void replay(Week week, Path weekPath) throws IOException {
+    replayFile(compactingPathFor(weekPath), record -> apply(week, record));
+    replayFile(logPathFor(weekPath), record -> apply(week, record));
+  }
+
+  /**
+   * Applies the mutations logged beside a .bujo file to a tally of its items, counting the week
+   * as a replay would leave it. The log never changes the week fields, so only the identity and
+   * type of each added or removed item is read.
+   *
+   * @param tally the tally of the items in the .bujo file, tracking items
+   * @param weekPath the path to the .bujo file
+   * @throws IOException if a log exists but cannot be read, or holds a damaged record
+   */
+  static void replay(ItemTally tally, Path weekPath) throws IOException {
+    replayFile(compactingPathFor(weekPath), record -> apply(tally, record));
+    replayFile(logPathFor(weekPath), record -> apply(tally, record));
+  }
+
+  /**
+   * Passes the records of one log file to the given handler, in order.
+   *
+   * @param logPath the log file to replay, if it exists
+   * @param handler applies each record
+   * @throws IOException if the log exists but cannot be read, or holds a damaged record
+   */
+  private static void replayFile(Path logPath, RecordHandler handler) throws IOException {
+    if (!Files.exists(logPath)) {
+      return;
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNumber = 0;
+      int tornLine = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (tornLine != 0) {
+          // Only the last record can be torn by a crash, anything else is corruption
+          throw new IOException("Damaged mutation log " + logPath + " at line " + tornLine);
+        }
+
+        JsonNode record;
+        try {
+          record = MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+          tornLine = lineNumber;
+          continue;
+        }
+
+        try {
+          handler.apply(record);
+        } catch (IOException e) {
+          throw new IOException("Damaged mutation log " + logPath + " at line " + lineNumber, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies a single log record to the week.
+   *
+   * @param week the week to apply the record to
+   * @param record the record to apply
+   * @throws IOException if the record is not a valid mutation
+   */
+  private static void apply(Week week, JsonNode record) throws IOException {
+    String op = record.path("op").asText();
+    try {
+      DayOfWeek day = DayOfWeek.valueOf(record.path("day").asText());
+      Task key = new Task(record.path("id").asText(null), record.path("name").asText(), "", day,
+          false, ItemType.TASK);
+      switch (op) {
+        case "add" -> {
+          removeIfPresent(week, key);
+          Item item = MAPPER.treeToValue(record.get("item"), Item.class);
+          if (item == null) {
+            throw new IOException("Mutation log record is missing its item");
+          }
+          week.addItem(item);
+        }
+        case "remove" -> removeIfPresent(week, key);
+        case "complete" -> week.markComplete(key);
+        default -> throw new IOException("Unknown mutation log operation: " + op);
+      }
+    } catch (IllegalAccessException ignored) {
+      // The item was already removed in the .bujo file
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid mutation log record: " + record, e);
+    }
+  }
+
+  /**
+   * Applies a single log record to a tally of the week's items.
+   *
+   * @param tally the tally to apply the record to
+   * @param record the record to apply
+   * @throws IOException if the record is not a valid mutation
+   */
+  private static void apply(ItemTally tally, JsonNode record) throws IOException {
+    String op = record.path("op").asText();
+    try {
+      DayOfWeek day = DayOfWeek.valueOf(record.path("day").asText());
+      String id = record.path("id").asText(null);
+      String name = record.path("name").asText();
+      switch (op) {
+        case "add" -> {
+          JsonNode item = record.path("item");
+          if (!item.isObject()) {
+            throw new IOException("Mutation log record is missing its item");
+          }
+          tally.remove(day, id, name);
+          tally.add(DayOfWeek.valueOf(item.path("day").asText()), item.path("id").asText(null),
+              item.path("name").asText(), "task".equals(item.path("itemType").asText()));
+        }
+        case "remove" -> tally.remove(day, id, name);
+        case "complete" -> {
+          // Completing a task leaves the counts as they are
+        }
+        default -> throw new IOException("Unknown mutation log operation: " + op);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid mutation log record: " + record, e);
+    }
+  }
+
+  /**
+   * Removes the item with the key's day and ID, or day and name, from the week, if there is one.
+   *
+   * @param week the week to remove the item from
+   * @param key an item carrying the day, ID and name to remove
+   */
+  private static void removeIfPresent(Week week, Item key) {
+    try {
+      week.removeItem(key);
+    } catch (IllegalAccessException ignored) {
+      // Nothing to overwrite
+    }
+  }
+
+  /**
+   * Records an added item
+   *
+   * @param item the item that was added
+   */
+  @Override
+  public void itemAdded(Item item) {
+    ObjectNode record = record("add", item);
+    record.set("item", MAPPER.valueToTree(item));
+    append(record);
+  }
+
+  /**
+   * Records a removed item
+   *
+   * @param item the item that was removed
+   */
+  @Override
+  public void itemRemoved(Item item) {
+    append(record("remove", item));
+  }
+
+  /**
+   * Records a completed task
+   *
+   * @param task the task that was completed
+   */
+  @Override
+  public void taskCompleted(Task task) {
+    append(record("complete", task));
+  }
+
+  /**
+   * Writes the whole week into its .bujo file and starts a fresh log. Must be called from the
+   * thread that edits the week.
+   *
+   * @return a future completed once the .bujo file holds every logged mutation
+   */
+  public CompletableFuture<Void> compact() {
+    if (!compaction.isDone()) {
+      // The log is already being compacted, the .bujo file just needs the latest state
+      return saveService.save(week, weekPath);
+    }
+
+    try {
+      channel.close();
+      if (Files.exists(compactingPath)) {
+        // A previous compaction failed, so its records must be kept ahead of the current ones
+        try (FileChannel in = FileChannel.open(logPath, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(compactingPath,
+                 StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+          dropTornTail(out);
+          in.transferTo(0, in.size(), out);
+          out.force(false);
+        }
+        Files.delete(logPath);
+      } else {
+        Files.move(logPath, compactingPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      openChannel();
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    compaction = saveService.save(week, weekPath).thenRun(() -> {
+      try {
+        Files.deleteIfExists(compactingPath);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return compaction;
+  }
+
+  /**
+   * Stops or resumes compacting the log once it passes the threshold. While suspended, mutations
+   * are still logged but the .bujo file is only written by an explicit compaction, such as while
+   * the file on disk holds changes the week in memory conflicts with. Must be called from the
+   * thread that edits the week.
+   *
+   * @param suspended true to stop compacting, false to resume
+   */
+  public void setCompactionSuspended(boolean suspended) {
+    this.compactionSuspended = suspended;
+  }
+
+  /**
+   * Stops recording the week and deletes its log once any compaction under way is done, so that
+   * the .bujo file alone holds the week again and the logged mutations are dropped. Must be
+   * called from the thread that edits the week.
+   *
+   * @return a future completed once the log is deleted
+   */
+  public CompletableFuture<Void> discard() {
+    week.removeListener(this);
+    try {
+      channel.close();
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    // A failed compaction leaves its records behind, which are dropped all the same
+    return compaction.handle((ignored, e) -> null).thenRun(() -> {
+      try {
+        Files.deleteIfExists(compactingPath);
+        Files.deleteIfExists(logPath);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  /**
+   * Stops recording the week and closes the log file.
+   *
+   * @throws IOException if the log file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    week.removeListener(this);
+    channel.close();
+  }
+
+  /**
+   * Creates a record for an operation on an item.
+   *
+   * @param op the operation name
+   * @param item the item the operation applies to
+   * @return the record
+   */
+  private ObjectNode record(String op, Item item) {
+    ObjectNode record = MAPPER.createObjectNode();
+    record.put("op", op);
+    record.put("day", item.getDay().name());
+    record.put("id", item.getId());
+    record.put("name", item.getName());
+    return record;
+  }
+
+  /**
+   * Appends a record to the log and forces it to disk, compacting the log if it grew too large.
+   *
+   * @param record the record to append
+   */
+  private void append(ObjectNode record) {
+    try {
+      byte[] line = (record.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+      ByteBuffer buffer = ByteBuffer.wrap(line);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+      size += line.length;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to the mutation log", e);
+    }
+
+    if (size > compactionThreshold && compaction.isDone() && !compactionSuspended) {
+      compact();
+    }
+  }
+
+  /**
+   * Opens the log file for appending.
+   *
+   * @throws IOException if the log file cannot be opened
+   */
+  private void openChannel() throws IOException {
+    channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    dropTornTail(channel);
+    size = channel.size();
+  }
+
+  /**
+   * Truncates a log file after its last complete line, so that a record torn by a crash is not
+   * joined by the next one appended into a damaged line in the middle of the log, and moves the
+   * channel to the end of the file for appending.
+   *
+   * @param log the log file, opened for reading and writing
+   * @throws IOException if the log file cannot be read or truncated
+   */
+  private static void dropTornTail(FileChannel log) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    long end = log.size();
+    while (end > 0) {
+      long start = Math.max(0, end - buffer.capacity());
+      buffer.clear().limit((int) (end - start));
+      while (buffer.hasRemaining()) {
+        if (log.read(buffer, start + buffer.position()) < 0) {
+          throw new IOException("Mutation log shrank while being read");
+        }
+      }
+      for (int i = buffer.limit() - 1; i >= 0; i--) {
+        if (buffer.get(i) == '\n') {
+          log.truncate(start + i + 1);
+          log.position(start + i + 1);
+          return;
+        }
+      }
+      end = start;
+    }
+    log.truncate(0);
+    log.position(0);
+  }
+
+  /**
+   * Applies one log record during a replay
+   */
+  private interface RecordHandler {
+    /**
+     * Applies a record.
+     *
+     * @param record the record to apply
+     * @throws IOException if the record is not a valid mutation
+     */
+    void apply(JsonNode record) throws IOException;
+  }
+}
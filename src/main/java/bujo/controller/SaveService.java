@@ -0,0 +1,164 @@
+package bujo.controller;
+
+import bujo.model.Week;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves weeks in the background on a single writer thread.
+ * Each save replaces the .bujo file atomically, and saves to the same path that are still
+ * waiting for the writer are coalesced so that only the latest state reaches the disk.
+ */
+public class SaveService implements AutoCloseable {
+  private final ExecutorService writer;
+  private final Map<Path, PendingSave> pending;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Creates a new save service. The writer thread is started on demand and stops when idle,
+   * so an unused service never keeps the application alive.
+   */
+  public SaveService() {
+    this.writer = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> new Thread(r, "bujo-save-writer"));
+    this.pending = new HashMap<>();
+  }
+
+  /**
+   * Schedules the week to be saved at the given path, in the storage format and compression it
+   * was read with. The week is captured before this method returns, so it must be called from
+   * the thread that edits the week, and the week may be edited again right away.
+   *
+   * @param week the week to save
+   * @param filePath the path to the file, including filename and extension
+   * @return a future completed once the captured state, or a later one, is on disk
+   */
+  public CompletableFuture<Void> save(Week week, Path filePath) {
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    SectionChecksums checksums;
+    try {
+      checksums = StorageManager.encode(week, snapshot, week.getStorageFormat(),
+          week.getCompression());
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    Path target = filePath.toAbsolutePath().normalize();
+    for (Listener listener : listeners) {
+      listener.saveScheduled(week, target);
+    }
+    synchronized (pending) {
+      PendingSave queued = pending.get(target);
+      if (queued != null) {
+        queued.contents = snapshot.toByteArray();
+        queued.checksums = checksums;
+        return queued.future.copy();
+      }
+
+      PendingSave save = new PendingSave(snapshot.toByteArray(), checksums);
+      try {
+        writer.execute(() -> flush(target));
+      } catch (RejectedExecutionException e) {
+        return CompletableFuture.failedFuture(new IOException("Save service is closed", e));
+      }
+      pending.put(target, save);
+      return save.future.copy();
+    }
+  }
+
+  /**
+   *
+   * @param listener listener to notify of every save scheduled on this service
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   *
+   * @param listener listener to no longer notify of saves
+   */
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Writes the latest pending state for the given path. Runs on the writer thread.
+   *
+   * @param target the path to write
+   */
+  private void flush(Path target) {
+    PendingSave save;
+    synchronized (pending) {
+      save = pending.remove(target);
+    }
+
+    try {
+      StorageManager.writeAtomically(target, save.contents);
+      SectionChecksums.write(target, save.checksums);
+      save.future.complete(null);
+    } catch (IOException | RuntimeException e) {
+      save.future.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * Stops accepting saves and waits for the ones already scheduled to reach the disk. If the
+   * calling thread is interrupted, it stops waiting and keeps its interrupt status, while the
+   * scheduled saves still finish on the writer thread.
+   */
+  @Override
+  public void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Listener told about the saves scheduled on the service
+   */
+  public interface Listener {
+    /**
+     * Called on the thread scheduling a save, with the week as it is being captured.
+     *
+     * @param week the week being saved
+     * @param filePath the absolute, normalized path it is saved to
+     */
+    void saveScheduled(Week week, Path filePath);
+  }
+
+  /**
+   * A save that has been scheduled but not yet picked up by the writer thread
+   */
+  private static class PendingSave {
+    private byte[] contents;
+    private SectionChecksums checksums;
+    private final CompletableFuture<Void> future;
+
+    /**
+     * Creates a new pending save.
+     *
+     * @param contents the serialized week to write
+     * @param checksums the checksums to store beside the file
+     */
+    PendingSave(byte[] contents, SectionChecksums checksums) {
+      this.contents = contents;
+      this.checksums = checksums;
+      this.future = new CompletableFuture<>();
+    }
+  }
+}
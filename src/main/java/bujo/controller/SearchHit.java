@@ -0,0 +1,39 @@
+package bujo.controller;
+
+import bujo.model.Item;
+import java.nio.file.Path;
+
+/**
+ * An item found by a search, and the .bujo file of the week it is in
+ */
+public class SearchHit {
+  private final Path file;
+  private final Item item;
+
+  /**
+   * Creates a new search hit.
+   *
+   * @param file path to the .bujo file of the item's week, or null if the week has no file
+   * @param item the item found
+   */
+  SearchHit(Path file, Item item) {
+    this.file = file;
+    this.item = item;
+  }
+
+  /**
+   *
+   * @return path to the .bujo file of the item's week, or null if the week has no file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   *
+   * @return the item found
+   */
+  public Item getItem() {
+    return item;
+  }
+}
@@ -0,0 +1,468 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Item;
+import bujo.model.Task;
+import bujo.model.Week;
+import bujo.model.WeekListener;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over the names and descriptions of the items of many weeks, for
+ * finding items by word or by word prefix.
+ *
+ * <p>Text is split into lower-case tokens of letters and digits. Every indexed item gets a
+ * number, and each token maps to the sorted numbers of the items holding it; tokens are kept
+ * sorted, so the tokens starting with a prefix are found by one range lookup. A removed item is
+ * only marked dead, and the index is rebuilt without the dead items once they outnumber the live
+ * ones, so adding and removing an item costs time proportional to its number of tokens.
+ *
+ * <p>Weeks are indexed either once, from the .bujo files of a directory, or followed as they
+ * change, through a listener on the open week. Following a week stored in a file replaces the
+ * items indexed from that file, and a followed week stays followed when it is saved elsewhere.
+ * The index is not thread-safe; it is meant to be used from the model thread.
+ */
+public class SearchIndex {
+  // Dead items tolerated before the index is rebuilt, whatever the number of live ones
+  private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+  // Sorted item numbers of every token
+  private TreeMap<String, Postings> postings = new TreeMap<>();
+  private Item[] items = new Item[64];
+  private Source[] itemSources = new Source[64];
+  private BitSet live = new BitSet();
+  private int itemCount;
+  private int deadCount;
+  // Weeks indexed once from their file, by normalized path of the file
+  private final Map<Path, Source> files = new HashMap<>();
+  // Followed weeks, by identity, since their path changes when they are saved elsewhere
+  private final Map<Week, Source> followed = new IdentityHashMap<>();
+  // Metrics
+  private long filesFailed;
+
+  /**
+   * Indexes the items of a week and follows its changes until it is removed. Items indexed
+   * from the week's file before are replaced.
+   *
+   * @param week the week
+   */
+  public void addWeek(Week week) {
+    removeSource(followed.get(week));
+    if (week.getPath() != null) {
+      removeSource(files.get(normalize(week.getPath())));
+    }
+    Source source = new Source(null, week);
+    followed.put(week, source);
+    indexItems(source, week);
+    source.listener = new WeekListener() {
+      @Override
+      public void itemAdded(Item item) {
+        add(source, item);
+      }
+
+      @Override
+      public void itemRemoved(Item item) {
+        remove(source, item);
+      }
+
+      @Override
+      public void taskCompleted(Task task) {
+        Integer number = source.numbers.get(task.getDay().ordinal()).get(task.getId());
+        if (number != null) {
+          items[number] = task;
+        }
+      }
+    };
+    week.addListener(source.listener);
+  }
+
+  /**
+   * Stops following a week and removes its items from the index.
+   *
+   * @param week the week
+   */
+  public void removeWeek(Week week) {
+    removeSource(followed.get(week));
+  }
+
+  /**
+   * Indexes the items of a .bujo file as they are now, replacing those indexed from it before.
+   * A file a followed week is stored in is left alone, since the week is newer than the file.
+   *
+   * @param file the .bujo file
+   * @throws IOException if the file cannot be read or does not hold a valid week
+   */
+  public void addFile(Path file) throws IOException {
+    Path key = normalize(file);
+    for (Week week : followed.keySet()) {
+      if (week.getPath() != null && normalize(week.getPath()).equals(key)) {
+        return;
+      }
+    }
+
+    Week week = StorageManager.readFile(file);
+    removeSource(files.get(key));
+    Source source = new Source(key, null);
+    files.put(key, source);
+    indexItems(source, week);
+  }
+
+  /**
+   * Indexes the items of every .bujo file in a directory. Files that cannot be read as a week
+   * are left out.
+   *
+   * @param directory the journal directory
+   * @return the number of files indexed
+   * @throws IOException if the directory cannot be listed
+   */
+  public int addDirectory(Path directory) throws IOException {
+    int indexed = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bujo")) {
+      for (Path file : files) {
+        if (!Files.isRegularFile(file)) {
+          continue;
+        }
+        try {
+          addFile(file);
+          indexed++;
+        } catch (IOException | RuntimeException e) {
+          filesFailed++;
+        }
+      }
+    }
+    return indexed;
+  }
+
+  /**
+   * Finds the items whose name or description holds every word of a query. A word ending with
+   * '*' matches every token starting with it, so "meet*" finds "meeting".
+   *
+   * @param query the words to look for, in any case
+   * @param limit the most hits returned
+   * @return the items found, in the order they were indexed
+   */
+  public List<SearchHit> search(String query, int limit) {
+    BitSet found = null;
+    for (String word : query.trim().split("\\s+")) {
+      boolean prefix = word.endsWith("*");
+      List<String> tokens = tokenize(prefix ? word.substring(0, word.length() - 1) : word);
+      for (int i = 0; i < tokens.size(); i++) {
+        BitSet matching = matching(tokens.get(i), prefix && i == tokens.size() - 1);
+        if (found == null) {
+          found = matching;
+        } else {
+          found.and(matching);
+        }
+      }
+    }
+
+    List<SearchHit> hits = new ArrayList<>();
+    if (found == null) {
+      return hits;
+    }
+    found.and(live);
+    for (int number = found.nextSetBit(0); number >= 0 && hits.size() < limit;
+         number = found.nextSetBit(number + 1)) {
+      hits.add(new SearchHit(itemSources[number].getFile(), items[number]));
+    }
+    return hits;
+  }
+
+  /**
+   *
+   * @return number of items in the index
+   */
+  public int getItemCount() {
+    return itemCount - deadCount;
+  }
+
+  /**
+   *
+   * @return number of distinct tokens in the index
+   */
+  public int getTokenCount() {
+    return postings.size();
+  }
+
+  /**
+   *
+   * @return number of .bujo files that could not be read while indexing a directory
+   */
+  public long getFilesFailed() {
+    return filesFailed;
+  }
+
+  /**
+   * Estimates the heap taken by the index itself, not counting the indexed items, assuming
+   * compressed object pointers: token strings, tree entries, item number arrays, and the
+   * tables mapping items to numbers.
+   *
+   * @return estimated size of the index, in bytes
+   */
+  public long getMemoryEstimate() {
+    long bytes = 0;
+    for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+      // Tree entry, string and its bytes, postings object and its array
+      bytes += 40 + 24 + 16 + entry.getKey().length() + 24 + 16
+          + 4L * entry.getValue().numbers.length;
+    }
+    bytes += 2 * (16 + 4L * items.length) + live.size() / 8;
+    // Hash map entry and boxed number of every item
+    bytes += 48L * getItemCount();
+    return bytes;
+  }
+
+  /**
+   * Splits text into lower-case tokens of letters and digits.
+   *
+   * @param text the text
+   * @return the tokens, in order
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        tokens.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Returns the items holding a token, or a token starting with a prefix.
+   *
+   * @param token the token or prefix
+   * @param prefix true to match every token starting with it
+   * @return the numbers of the matching items, dead ones included
+   */
+  private BitSet matching(String token, boolean prefix) {
+    BitSet matching = new BitSet(itemCount);
+    if (prefix) {
+      for (Postings list : postings.subMap(token, token + Character.MAX_VALUE).values()) {
+        list.addTo(matching);
+      }
+    } else {
+      Postings list = postings.get(token);
+      if (list != null) {
+        list.addTo(matching);
+      }
+    }
+    return matching;
+  }
+
+  /**
+   * Indexes every item of a week as coming from a source.
+   *
+   * @param source the source
+   * @param week the week
+   */
+  private void indexItems(Source source, Week week) {
+    for (Day day : week.getDays()) {
+      for (Item item : day.getItems()) {
+        add(source, item);
+      }
+    }
+  }
+
+  /**
+   * Numbers an item and adds it to the postings of its tokens.
+   *
+   * @param source the source of the item
+   * @param item the item
+   */
+  private void add(Source source, Item item) {
+    if (itemCount == items.length) {
+      items = Arrays.copyOf(items, itemCount * 2);
+      itemSources = Arrays.copyOf(itemSources, itemCount * 2);
+    }
+    int number = itemCount++;
+    items[number] = item;
+    itemSources[number] = source;
+    live.set(number);
+    source.numbers.get(item.getDay().ordinal()).put(item.getId(), number);
+    post(number, item.getName());
+    post(number, item.getDescription());
+  }
+
+  /**
+   * Adds an item number to the postings of every token of a text.
+   *
+   * @param number the item number, greater than every number posted before
+   * @param text the text
+   */
+  private void post(int number, String text) {
+    if (text == null) {
+      return;
+    }
+    for (String token : tokenize(text)) {
+      postings.computeIfAbsent(token, ignored -> new Postings()).add(number);
+    }
+  }
+
+  /**
+   * Marks an item of a source dead, rebuilding the index once dead items outnumber live ones.
+   *
+   * @param source the source of the item
+   * @param item the item
+   */
+  private void remove(Source source, Item item) {
+    Integer number = source.numbers.get(item.getDay().ordinal()).remove(item.getId());
+    if (number == null) {
+      return;
+    }
+    live.clear(number);
+    items[number] = null;
+    itemSources[number] = null;
+    deadCount++;
+    if (deadCount >= MIN_DEAD_TO_COMPACT && deadCount > itemCount - deadCount) {
+      compact();
+    }
+  }
+
+  /**
+   * Removes every item of a source and stops following its week.
+   *
+   * @param source the source, or null for none
+   */
+  private void removeSource(Source source) {
+    if (source == null) {
+      return;
+    }
+    if (source.week != null) {
+      followed.remove(source.week);
+      source.week.removeListener(source.listener);
+    } else {
+      files.remove(source.file);
+    }
+    for (Map<String, Integer> day : source.numbers) {
+      for (int number : day.values()) {
+        live.clear(number);
+        items[number] = null;
+        itemSources[number] = null;
+        deadCount++;
+      }
+      day.clear();
+    }
+    if (deadCount >= MIN_DEAD_TO_COMPACT && deadCount > itemCount - deadCount) {
+      compact();
+    }
+  }
+
+  /**
+   * Renumbers the live items and rebuilds the postings without the dead ones.
+   */
+  private void compact() {
+    Item[] oldItems = items;
+    Source[] oldSources = itemSources;
+    int oldCount = itemCount;
+    int capacity = Math.max(64, Integer.highestOneBit(Math.max(1, oldCount - deadCount)) * 2);
+    postings = new TreeMap<>();
+    items = new Item[capacity];
+    itemSources = new Source[capacity];
+    live = new BitSet();
+    itemCount = 0;
+    deadCount = 0;
+    for (int number = 0; number < oldCount; number++) {
+      if (oldItems[number] != null) {
+        add(oldSources[number], oldItems[number]);
+      }
+    }
+  }
+
+  /**
+   * Returns the key a file is indexed under.
+   *
+   * @param file path to a .bujo file
+   * @return the normalized absolute path of the file
+   */
+  private static Path normalize(Path file) {
+    return file.toAbsolutePath().normalize();
+  }
+
+  /**
+   * A week whose items are indexed: its file if it was indexed once, the week itself if it is
+   * followed, and the number of each of its items by day and ID
+   */
+  private static final class Source {
+    private final Path file;
+    private final Week week;
+    private final List<Map<String, Integer>> numbers = new ArrayList<>();
+    private WeekListener listener;
+
+    /**
+     * Creates a new source.
+     *
+     * @param file normalized path to the week's .bujo file, or null if the week is followed
+     * @param week the followed week, or null if it was indexed once from its file
+     */
+    private Source(Path file, Week week) {
+      this.file = file;
+      this.week = week;
+      for (int i = 0; i < DayOfWeek.values().length; i++) {
+        numbers.add(new HashMap<>());
+      }
+    }
+
+    /**
+     *
+     * @return path to the week's .bujo file as of now, or null if it has none
+     */
+    private Path getFile() {
+      return week != null ? week.getPath() : file;
+    }
+  }
+
+  /**
+   * Growable sorted array of the numbers of the items holding a token
+   */
+  private static final class Postings {
+    private int[] numbers = new int[2];
+    private int size;
+
+    /**
+     * Adds an item number, unless it is the last one added, as when a token appears twice in
+     * the same item.
+     *
+     * @param number the item number, no less than every number added before
+     */
+    private void add(int number) {
+      if (size > 0 && numbers[size - 1] == number) {
+        return;
+      }
+      if (size == numbers.length) {
+        numbers = Arrays.copyOf(numbers, size * 2);
+      }
+      numbers[size++] = number;
+    }
+
+    /**
+     * Sets the bit of every item number.
+     *
+     * @param set the bit set
+     */
+    private void addTo(BitSet set) {
+      for (int i = 0; i < size; i++) {
+        set.set(numbers[i]);
+      }
+    }
+  }
+}
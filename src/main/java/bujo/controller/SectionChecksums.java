@@ -0,0 +1,129 @@
+package bujo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * CRC32C checksums of the week fields and of each day of a .bujo JSON file.
+ *
+ * <p>The checksums are kept in a small file beside the .bujo file rather than in it, so the week
+ * document stays exactly what every version of the application reads. The checksum file records
+ * the size and modification time of the .bujo file it was written for. Once the .bujo file is
+ * replaced by anything that does not write checksums, such as another program or an older
+ * version, or a crash strikes between the two writes, the checksums no longer apply and are
+ * ignored.
+ */
+final class SectionChecksums {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final long header;
+  private final long[] days;
+
+  /**
+   * Creates a new set of section checksums.
+   *
+   * @param header the checksum of the week fields
+   * @param days the checksum of each day, in order
+   */
+  SectionChecksums(long header, long[] days) {
+    this.header = header;
+    this.days = days;
+  }
+
+  /**
+   * Returns the path of the checksum file kept beside a .bujo file
+   *
+   * @param weekPath the path to the .bujo file
+   * @return the path to its checksum file
+   */
+  static Path pathFor(Path weekPath) {
+    return weekPath.resolveSibling(weekPath.getFileName() + ".crc");
+  }
+
+  /**
+   * Stores the checksums of a .bujo file that was just written, or removes the checksum file
+   * when the format carries no separate checksums.
+   *
+   * @param weekPath the path to the .bujo file, already in place
+   * @param checksums the checksums the file was written with, or null for none
+   * @throws IOException if the checksum file cannot be written or removed
+   */
+  static void write(Path weekPath, SectionChecksums checksums) throws IOException {
+    Path path = pathFor(weekPath);
+    if (checksums == null) {
+      Files.deleteIfExists(path);
+      return;
+    }
+
+    ObjectNode node = MAPPER.createObjectNode();
+    node.put("size", Files.size(weekPath));
+    node.put("modified", Files.getLastModifiedTime(weekPath).toMillis());
+    node.put("header", checksums.header);
+    ArrayNode array = node.putArray("days");
+    for (long day : checksums.days) {
+      array.add(day);
+    }
+    // A torn checksum file does not parse, and is then ignored like a missing one
+    Files.write(path, MAPPER.writeValueAsBytes(node));
+  }
+
+  /**
+   * Reads the checksums stored beside a .bujo file.
+   *
+   * @param weekPath the path to the .bujo file
+   * @return the checksums, or null if there are none that apply to the file as it is now
+   * @throws IOException if the files exist but cannot be read
+   */
+  static SectionChecksums read(Path weekPath) throws IOException {
+    JsonNode node;
+    try {
+      node = MAPPER.readTree(Files.readAllBytes(pathFor(weekPath)));
+    } catch (NoSuchFileException | JsonProcessingException e) {
+      return null;
+    }
+    if (node == null || node.path("size").asLong(-1) != Files.size(weekPath)
+        || node.path("modified").asLong(-1)
+            != Files.getLastModifiedTime(weekPath).toMillis()) {
+      return null;
+    }
+
+    JsonNode storedDays = node.path("days");
+    long[] days = new long[storedDays.size()];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = storedDays.get(i).asLong(-1);
+    }
+    return new SectionChecksums(node.path("header").asLong(-1), days);
+  }
+
+  /**
+   *
+   * @return the checksum of the week fields
+   */
+  long getHeader() {
+    return header;
+  }
+
+  /**
+   *
+   * @return number of days checksummed
+   */
+  int getDayCount() {
+    return days.length;
+  }
+
+  /**
+   *
+   * @param index index of a day
+   * @return the checksum of that day
+   */
+  long getDay(int index) {
+    return days[index];
+  }
+}
@@ -0,0 +1,38 @@
+package bujo.controller;
+
+import java.time.Instant;
+
+/**
+ * A saved version of a week in its snapshot history
+ */
+public class Snapshot {
+  private final String id;
+  private final Instant createdAt;
+
+  /**
+   * Creates a new snapshot handle.
+   *
+   * @param id identifier of the snapshot within its history
+   * @param createdAt time the snapshot was taken
+   */
+  Snapshot(String id, Instant createdAt) {
+    this.id = id;
+    this.createdAt = createdAt;
+  }
+
+  /**
+   *
+   * @return identifier of the snapshot within its history
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   *
+   * @return time the snapshot was taken
+   */
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
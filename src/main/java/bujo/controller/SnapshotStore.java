@@ -0,0 +1,323 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.Week;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History of the saved versions of a week, kept in a directory beside its .bujo file.
+ *
+ * <p>Every day of a snapshot is stored once under the SHA-256 hash of its JSON, and a snapshot
+ * itself is a small manifest of the week fields and the hashes of its days. A day left unchanged
+ * between snapshots is therefore shared, and a snapshot costs only the days that changed.
+ * Snapshots are taken separately from the .bujo file, so saving a week is not slowed down.
+ */
+public class SnapshotStore implements AutoCloseable {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ObjectWriter DAY_WRITER = MAPPER.writerFor(Day.class);
+  private static final ObjectReader DAY_READER = MAPPER.readerFor(Day.class);
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final Path daysPath;
+  private final Path snapshotsPath;
+  private final ExecutorService writer;
+  private final Set<String> storedDays;
+  private byte[] lastManifest;
+  private Snapshot lastSnapshot;
+
+  /**
+   * Opens the snapshot history of the week stored at the given path.
+   * The history directory is created with the first snapshot.
+   *
+   * @param weekPath the path to the week's .bujo file
+   */
+  public SnapshotStore(Path weekPath) {
+    Path historyPath = historyPathFor(weekPath);
+    this.daysPath = historyPath.resolve("days");
+    this.snapshotsPath = historyPath.resolve("snapshots");
+    this.writer = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> new Thread(r, "bujo-snapshot-writer"));
+    this.storedDays = new HashSet<>();
+  }
+
+  /**
+   * Returns the path of the history directory kept beside a .bujo file
+   *
+   * @param weekPath the path to the .bujo file
+   * @return the path to its snapshot history
+   */
+  public static Path historyPathFor(Path weekPath) {
+    return weekPath.resolveSibling(weekPath.getFileName() + ".history");
+  }
+
+  /**
+   * Takes a snapshot of the week. The week is captured before this method returns, so it must
+   * be called from the thread that edits the week. A week identical to the latest snapshot
+   * taken through this store is not stored again.
+   *
+   * @param week the week to snapshot
+   * @return a future completed with the snapshot once it is on disk
+   */
+  public CompletableFuture<Snapshot> snapshot(Week week) {
+    List<byte[]> days = new ArrayList<>();
+    ObjectNode manifest = MAPPER.createObjectNode();
+    try {
+      manifest.put("name", week.getName());
+      manifest.put("hashedPassword", week.getHashedPassword());
+      manifest.put("saltPassword", week.getSaltPassword());
+      manifest.put("maxNumEvents", week.getMaxNumEvents());
+      manifest.put("maxNumTasks", week.getMaxNumTasks());
+      ArrayNode hashes = manifest.putArray("days");
+      for (Day day : week.getDays()) {
+        byte[] json = DAY_WRITER.writeValueAsBytes(day);
+        days.add(json);
+        hashes.add(hash(json));
+      }
+    } catch (JsonProcessingException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    CompletableFuture<Snapshot> future = new CompletableFuture<>();
+    try {
+      writer.execute(() -> {
+        try {
+          future.complete(store(MAPPER.writeValueAsBytes(manifest), manifest, days));
+        } catch (IOException | RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.failedFuture(new IOException("Snapshot store is closed", e));
+    }
+    return future;
+  }
+
+  /**
+   * Writes the days that are not stored yet, then the manifest. Runs on the writer thread.
+   *
+   * @param manifestBytes the encoded manifest
+   * @param manifest the manifest, holding the hash of each day
+   * @param days the JSON of each day, in manifest order
+   * @return the stored snapshot
+   * @throws IOException if the history cannot be written
+   */
+  private synchronized Snapshot store(byte[] manifestBytes, JsonNode manifest,
+                                      List<byte[]> days) throws IOException {
+    if (lastSnapshot != null && Arrays.equals(manifestBytes, lastManifest)) {
+      return lastSnapshot;
+    }
+
+    Files.createDirectories(daysPath);
+    Files.createDirectories(snapshotsPath);
+    JsonNode hashes = manifest.get("days");
+    for (int i = 0; i < days.size(); i++) {
+      String hash = hashes.get(i).asText();
+      if (storedDays.contains(hash)) {
+        continue;
+      }
+      Path dayPath = daysPath.resolve(hash);
+      if (!Files.exists(dayPath)) {
+        StorageManager.writeAtomically(dayPath, days.get(i));
+      }
+      storedDays.add(hash);
+    }
+
+    long millis = Instant.now().toEpochMilli();
+    while (Files.exists(manifestPath(idOf(millis)))) {
+      millis++;
+    }
+    String id = idOf(millis);
+    StorageManager.writeAtomically(manifestPath(id), manifestBytes);
+
+    lastManifest = manifestBytes;
+    lastSnapshot = new Snapshot(id, Instant.ofEpochMilli(millis));
+    return lastSnapshot;
+  }
+
+  /**
+   * Lists the snapshots in this history.
+   *
+   * @return the snapshots, oldest first
+   * @throws IOException if the history cannot be listed
+   */
+  public synchronized List<Snapshot> listSnapshots() throws IOException {
+    List<Snapshot> snapshots = new ArrayList<>();
+    if (!Files.isDirectory(snapshotsPath)) {
+      return snapshots;
+    }
+
+    try (DirectoryStream<Path> manifests = Files.newDirectoryStream(snapshotsPath, "*.json")) {
+      for (Path manifest : manifests) {
+        String fileName = manifest.getFileName().toString();
+        String id = fileName.substring(0, fileName.length() - ".json".length());
+        try {
+          snapshots.add(new Snapshot(id, Instant.ofEpochMilli(Long.parseLong(id))));
+        } catch (NumberFormatException ignored) {
+          // Not a snapshot manifest
+        }
+      }
+    }
+    snapshots.sort(Comparator.comparing(Snapshot::getId));
+    return snapshots;
+  }
+
+  /**
+   * Loads a week as it was in the given snapshot.
+   *
+   * @param snapshot the snapshot to load
+   * @return the week at the time of the snapshot, not tied to any path
+   * @throws IOException if the snapshot is missing or damaged
+   */
+  public synchronized Week loadSnapshot(Snapshot snapshot) throws IOException {
+    JsonNode manifest = MAPPER.readTree(Files.readAllBytes(manifestPath(snapshot.getId())));
+    ArrayList<Day> days = new ArrayList<>();
+    for (JsonNode hash : manifest.path("days")) {
+      byte[] json = Files.readAllBytes(daysPath.resolve(hash.asText()));
+      if (!hash.asText().equals(hash(json))) {
+        throw new IOException("Snapshot day " + hash.asText() + " is damaged");
+      }
+      days.add(DAY_READER.readValue(json));
+    }
+
+    // A null field must stay null, asText() would turn it into the text "null"
+    return new Week(manifest.path("name").textValue(),
+        manifest.path("hashedPassword").textValue(), manifest.path("saltPassword").textValue(),
+        manifest.path("maxNumEvents").asInt(), manifest.path("maxNumTasks").asInt(), days);
+  }
+
+  /**
+   * Removes the snapshots older than the given age, and then the oldest snapshots beyond the
+   * given count. Days no longer used by any remaining snapshot are removed as well.
+   *
+   * @param maxAge age beyond which snapshots are removed
+   * @param maxCount number of most recent snapshots to keep at most
+   * @return number of snapshots removed
+   * @throws IOException if the history cannot be pruned
+   */
+  public synchronized int prune(Duration maxAge, int maxCount) throws IOException {
+    List<Snapshot> snapshots = listSnapshots();
+    Instant cutoff = Instant.now().minus(maxAge);
+    int removed = 0;
+    for (int i = 0; i < snapshots.size(); i++) {
+      Snapshot snapshot = snapshots.get(i);
+      if (snapshot.getCreatedAt().isBefore(cutoff) || snapshots.size() - i > maxCount) {
+        Files.delete(manifestPath(snapshot.getId()));
+        if (lastSnapshot != null && lastSnapshot.getId().equals(snapshot.getId())) {
+          lastSnapshot = null;
+        }
+        removed++;
+      }
+    }
+
+    if (removed > 0) {
+      removeUnusedDays();
+    }
+    return removed;
+  }
+
+  /**
+   * Removes the stored days that no snapshot refers to.
+   *
+   * @throws IOException if the history cannot be read or the days cannot be removed
+   */
+  private void removeUnusedDays() throws IOException {
+    Set<String> used = new HashSet<>();
+    for (Snapshot snapshot : listSnapshots()) {
+      JsonNode manifest = MAPPER.readTree(Files.readAllBytes(manifestPath(snapshot.getId())));
+      for (JsonNode hash : manifest.path("days")) {
+        used.add(hash.asText());
+      }
+    }
+
+    try (DirectoryStream<Path> stored = Files.newDirectoryStream(daysPath)) {
+      for (Path day : stored) {
+        String hash = day.getFileName().toString();
+        if (!used.contains(hash)) {
+          try {
+            Files.delete(day);
+          } catch (NoSuchFileException ignored) {
+            // Already gone
+          }
+          storedDays.remove(hash);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finishes the pending snapshots and stops the writer thread. If the calling thread is
+   * interrupted, it stops waiting and keeps its interrupt status, while the pending snapshots
+   * still finish on the writer thread.
+   */
+  @Override
+  public void close() {
+    writer.shutdown();
+    try {
+      writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the path of a snapshot manifest
+   *
+   * @param id identifier of the snapshot
+   * @return the path to its manifest
+   */
+  private Path manifestPath(String id) {
+    return snapshotsPath.resolve(id + ".json");
+  }
+
+  /**
+   * Makes a snapshot identifier that sorts by creation time
+   *
+   * @param millis creation time in milliseconds since the epoch
+   * @return the identifier
+   */
+  private static String idOf(long millis) {
+    return String.format("%013d", millis);
+  }
+
+  /**
+   * Hashes stored bytes
+   *
+   * @param bytes the bytes to hash
+   * @return SHA-256 hash of the bytes, in hexadecimal
+   */
+  private static String hash(byte[] bytes) {
+    try {
+      return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
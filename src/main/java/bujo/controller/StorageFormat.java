@@ -0,0 +1,15 @@
+package bujo.controller;
+
+/**
+ * Enumeration of the encodings a .bujo file can be stored in.
+ */
+public enum StorageFormat {
+  /**
+   * Represents the original JSON encoding
+   */
+  JSON,
+  /**
+   * Represents the compact binary encoding
+   */
+  BINARY
+}
@@ -1,55 +1,473 @@
 package bujo.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import bujo.model.Day;
 import bujo.model.Week;
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * A utility class for accessing the file system.
  */
 public class StorageManager {
+  // ObjectMapper and ObjectWriter are thread-safe once configured, so one instance is shared
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ObjectWriter DAY_WRITER = MAPPER.writerFor(Day.class);
+  // Fields written by newer versions are not part of the week
+  private static final ObjectReader WEEK_READER = MAPPER.readerFor(Week.class)
+      .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private static final int BUFFER_SIZE = 8192;
 
   /**
-   * Reads a .bujo file from the file system.
+   * Reads a .bujo file from the file system, in either storage format.
+   * The week is bound in a single pass straight from the file, then any mutations
+   * logged beside the file since it was last written are replayed onto it.
    *
    * @param filePath the path to the file, including filename and extension
    * @return the week at the specified path
+   * @throws IOException if the file cannot be read or is not a valid .bujo file
    */
-  public static Week readFile(Path filePath) {
+  public static Week readFile(Path filePath) throws IOException {
+    Week week = readStoredFile(filePath);
+    MutationLog.replay(week, filePath);
+    return week;
+  }
+
+  /**
+   * Reads a .bujo file from the file system as it is stored, in either storage format, leaving
+   * out the mutations logged beside it. Those are the unsaved changes of whoever has the week
+   * open, not part of the file.
+   *
+   * @param filePath the path to the file, including filename and extension
+   * @return the week stored at the specified path
+   * @throws IOException if the file cannot be read or is not a valid .bujo file
+   */
+  static Week readStoredFile(Path filePath) throws IOException {
 
     if (!filePath.toString().endsWith(".bujo")) {
       throw new IllegalArgumentException("File must be a .bujo file");
     }
 
-    ObjectMapper mapper = new ObjectMapper();
-    File file = new File(filePath.toString());
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(filePath))) {
+      return decodeStoredFile(in, filePath);
+    }
+  }
+
+  /**
+   * Decodes the contents of a .bujo file, then replays the mutations logged beside it.
+   *
+   * @param in stream over the contents of the file, which must support mark and reset
+   * @param filePath the path the contents were read from
+   * @return the week stored in the file
+   * @throws IOException if the contents are not a valid week or the log cannot be read
+   */
+  static Week decodeFile(InputStream in, Path filePath) throws IOException {
+    Week week = decodeStoredFile(in, filePath);
+    MutationLog.replay(week, filePath);
+    return week;
+  }
+
+  /**
+   * Decodes the contents of a .bujo file.
+   *
+   * @param in stream over the contents of the file, which must support mark and reset
+   * @param filePath the path the contents were read from
+   * @return the week stored in the file
+   * @throws IOException if the contents are not a valid week
+   */
+  private static Week decodeStoredFile(InputStream in, Path filePath) throws IOException {
     try {
-      JsonNode weekSerialized = mapper.readTree(file);
-      return mapper.convertValue(weekSerialized, Week.class);
-    } catch (IOException e) {
-      throw new IllegalArgumentException("File not found");
+      return readAnyFormat(in);
+    } catch (JsonProcessingException e) {
+      // Jackson only knows where parsing stopped, the checksums tell which part is damaged
+      throw new IOException("Damaged .bujo file: "
+          + WeekVerifier.verify(filePath).getDescription(), e);
+    }
+  }
+
+  /**
+   * Reads a week from the given stream, detecting its compression and storage format from the
+   * leading bytes. The stream is closed.
+   *
+   * @param in the stream to read from, which must support mark and reset
+   * @return the week read from the stream
+   * @throws IOException if the stream cannot be read or does not hold a valid week
+   */
+  static Week readAnyFormat(InputStream in) throws IOException {
+    Compression compression = detectCompression(in);
+    try (InputStream plain = decompress(in, compression)) {
+      plain.mark(BinaryWeekCodec.MAGIC.length);
+      byte[] header = plain.readNBytes(BinaryWeekCodec.MAGIC.length);
+      plain.reset();
+
+      Week week;
+      if (BinaryWeekCodec.isBinary(header)) {
+        week = BinaryWeekCodec.read(plain);
+        week.setStorage(StorageFormat.BINARY, compression);
+      } else {
+        week = readWeek(plain);
+        week.setStorage(StorageFormat.JSON, compression);
+      }
+      return week;
     }
+  }
+
+  /**
+   * Wraps the given stream so that it yields the uncompressed payload, detecting the
+   * compression from the leading bytes.
+   *
+   * @param in the stream to read from, which must support mark and reset
+   * @return a stream over the uncompressed payload, with mark and reset support
+   * @throws IOException if the stream cannot be read
+   */
+  static InputStream decompress(InputStream in) throws IOException {
+    return decompress(in, detectCompression(in));
+  }
+
+  /**
+   * Detects the compression of the given stream from its leading bytes, without consuming them.
+   *
+   * @param in the stream to read from, which must support mark and reset
+   * @return the compression the stream is wrapped in
+   * @throws IOException if the stream cannot be read
+   */
+  private static Compression detectCompression(InputStream in) throws IOException {
+    in.mark(2);
+    byte[] header = in.readNBytes(2);
+    in.reset();
+    return Compression.detect(header);
+  }
+
+  /**
+   * Wraps the given stream so that it yields the uncompressed payload.
+   *
+   * @param in the stream to read from
+   * @param compression the compression the stream is wrapped in
+   * @return a stream over the uncompressed payload, with mark and reset support
+   * @throws IOException if the stream cannot be read
+   */
+  private static InputStream decompress(InputStream in, Compression compression)
+      throws IOException {
+    return switch (compression) {
+      case GZIP -> new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+      case DEFLATE -> new BufferedInputStream(new InflaterInputStream(in), BUFFER_SIZE);
+      default -> in;
+    };
+  }
 
+  /**
+   * Binds a week from .bujo JSON in the given input stream.
+   *
+   * @param in the stream to read from
+   * @return the week read from the stream
+   * @throws IOException if the stream cannot be read or does not hold a valid week
+   */
+  static Week readWeek(InputStream in) throws IOException {
+    try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+      return WEEK_READER.readValue(parser);
+    }
   }
 
   /**
-   * Writes a week to the file system, as a .bojo file.
+   * Writes a week to the file system, as a .bojo file in the storage format and compression
+   * the week was read with, JSON for a new week.
+   * The week is streamed through a JSON generator straight into the file channel,
+   * without building an intermediate tree or string.
    *
    * @param week the week to write
    * @param filePath the path to the file, including filename and extension
    * @throws IOException if the file cannot be written to the path
    */
   public static void writeFile(Week week, Path filePath) throws IOException {
-    ObjectMapper mapper = new ObjectMapper();
-    File file = new File(filePath.toString());
-    FileWriter writer = new FileWriter(file);
-    JsonNode weekSerialized = mapper.convertValue(week, JsonNode.class);
-    writer.write(weekSerialized.toString());
-    writer.close();
+    writeFile(week, filePath, week.getStorageFormat(), week.getCompression());
+  }
+
+  /**
+   * Writes a week to the file system, as a .bujo file in the given storage format.
+   *
+   * @param week the week to write
+   * @param filePath the path to the file, including filename and extension
+   * @param format the encoding to store the week in
+   * @throws IOException if the file cannot be written to the path
+   */
+  public static void writeFile(Week week, Path filePath, StorageFormat format)
+      throws IOException {
+    writeFile(week, filePath, format, Compression.NONE);
+  }
+
+  /**
+   * Writes a week to the file system, as a .bujo file in the given storage format and
+   * compression. The encoded week is compressed as it streams into the file, and the checksums
+   * of JSON weeks are stored beside it.
+   *
+   * @param week the week to write
+   * @param filePath the path to the file, including filename and extension
+   * @param format the encoding to store the week in
+   * @param compression the compression to wrap the encoded week in
+   * @throws IOException if the file cannot be written to the path
+   */
+  public static void writeFile(Week week, Path filePath, StorageFormat format,
+                               Compression compression) throws IOException {
+    SectionChecksums checksums;
+    try (OutputStream out = Files.newOutputStream(filePath)) {
+      checksums = encode(week, out, format, compression);
+    }
+    SectionChecksums.write(filePath, checksums);
   }
 
+  /**
+   * Writes a week to the file system in the storage format and compression it was read with,
+   * replacing the file atomically, so that a crash leaves either the old or the new week in
+   * place.
+   *
+   * @param week the week to write
+   * @param filePath the path to the file, including filename and extension
+   * @throws IOException if the file cannot be written to the path
+   */
+  static void writeFileAtomically(Week week, Path filePath) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SectionChecksums checksums = encode(week, out, week.getStorageFormat(),
+        week.getCompression());
+    writeAtomically(filePath, out.toByteArray());
+    SectionChecksums.write(filePath, checksums);
+  }
+
+  /**
+   * Converts a .bujo file of any storage format or compression into the given format.
+   *
+   * @param source the path of the .bujo file to convert
+   * @param target the path of the converted .bujo file, may be the same as source
+   * @param format the encoding to convert to
+   * @throws IOException if the source cannot be read or the target cannot be written
+   */
+  public static void convertFile(Path source, Path target, StorageFormat format)
+      throws IOException {
+    convertFile(source, target, format, Compression.NONE);
+  }
+
+  /**
+   * Converts a .bujo file of any storage format or compression into the given format and
+   * compression.
+   *
+   * @param source the path of the .bujo file to convert
+   * @param target the path of the converted .bujo file, may be the same as source
+   * @param format the encoding to convert to
+   * @param compression the compression to convert to
+   * @throws IOException if the source cannot be read or the target cannot be written
+   */
+  public static void convertFile(Path source, Path target, StorageFormat format,
+                                 Compression compression) throws IOException {
+    Week week = readFile(source);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SectionChecksums checksums = encode(week, out, format, compression);
+    writeAtomically(target, out.toByteArray());
+    SectionChecksums.write(target, checksums);
+  }
+
+  /**
+   * Encodes a week into the given stream in the given format and compression, then closes it.
+   *
+   * @param week the week to write
+   * @param out the stream to write to
+   * @param format the encoding to store the week in
+   * @param compression the compression to wrap the encoded week in
+   * @return the checksums to store beside the file, or null if the format carries its own
+   * @throws IOException if the stream cannot be written to
+   */
+  static SectionChecksums encode(Week week, OutputStream out, StorageFormat format,
+                             Compression compression) throws IOException {
+    try (OutputStream target = switch (compression) {
+      case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+      case DEFLATE -> new DeflaterOutputStream(out, new Deflater(), BUFFER_SIZE, false) {
+        @Override
+        public void close() throws IOException {
+          super.close();
+          def.end();
+        }
+      };
+      default -> out;
+    }) {
+      if (format == StorageFormat.BINARY) {
+        BinaryWeekCodec.write(week, target);
+        return null;
+      }
+      return writeWeek(week, target);
+    }
+  }
+
+  /**
+   * Streams a week as .bujo JSON into the given output stream. The stream is not closed.
+   * A CRC32C of the week fields and of the bytes of each day is taken on the way, for
+   * {@link WeekVerifier} to locate damage; the JSON itself holds only the week.
+   *
+   * @param week the week to write
+   * @param out the stream to write to
+   * @return the checksums of the JSON written, to be stored beside the file
+   * @throws IOException if the stream cannot be written to
+   */
+  static SectionChecksums writeWeek(Week week, OutputStream out) throws IOException {
+    ChecksumOutputStream checked = new ChecksumOutputStream(out);
+    List<Day> days = week.getDays();
+    long[] dayChecksums = new long[days.size()];
+
+    try (JsonGenerator generator = MAPPER.getFactory().createGenerator(checked)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+      generator.writeStartObject();
+      generator.writeStringField("name", week.getName());
+      generator.writeStringField("hashedPassword", week.getHashedPassword());
+      generator.writeNumberField("maxNumEvents", week.getMaxNumEvents());
+      generator.writeNumberField("maxNumTasks", week.getMaxNumTasks());
+      generator.writeArrayFieldStart("days");
+      for (int i = 0; i < dayChecksums.length; i++) {
+        generator.flush();
+        checked.startSection();
+        DAY_WRITER.writeValue(generator, days.get(i));
+        generator.flush();
+        dayChecksums[i] = checked.endSection();
+      }
+      generator.writeEndArray();
+      generator.writeStringField("saltPassword", week.getSaltPassword());
+      generator.writeEndObject();
+    }
+    return new SectionChecksums(WeekVerifier.headerChecksum(week.getName(),
+        week.getHashedPassword(), week.getSaltPassword(), week.getMaxNumEvents(),
+        week.getMaxNumTasks()), dayChecksums);
+  }
+
+  /**
+   * Replaces the file at the given path with the given contents, so that a crash leaves
+   * either the old or the new file in place. The contents go to a temporary file in the same
+   * directory, are forced to disk, and the temporary file is then renamed over the target.
+   *
+   * @param filePath the path to the file, including filename and extension
+   * @param contents the complete new contents of the file
+   * @throws IOException if the file cannot be written or replaced
+   */
+  static void writeAtomically(Path filePath, byte[] contents) throws IOException {
+    Path target = filePath.toAbsolutePath();
+    Path temp = createTempSibling(target);
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+      moveIntoPlace(temp, target);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Creates an empty temporary file in the directory of the target, to be moved over it.
+   *
+   * @param target absolute path to the file that will be replaced
+   * @return the path to the temporary file
+   * @throws IOException if the file cannot be created
+   */
+  static Path createTempSibling(Path target) throws IOException {
+    return Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+  }
+
+  /**
+   * Renames a fully written temporary file over the target, atomically where supported.
+   *
+   * @param temp the temporary file, already forced to disk
+   * @param target the file to replace
+   * @throws IOException if the file cannot be replaced
+   */
+  static void moveIntoPlace(Path temp, Path target) throws IOException {
+    try {
+      Files.move(temp, target,
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Output stream computing the CRC32C of one section of what passes through it. A section
+   * starts at the first '{' written after it is opened, so the separator the JSON generator
+   * writes ahead of an array element is left out.
+   */
+  private static class ChecksumOutputStream extends FilterOutputStream {
+    private final CRC32C crc = new CRC32C();
+    private boolean inSection;
+    private boolean started;
+
+    /**
+     * Creates a stream writing through to the given stream.
+     *
+     * @param out the stream to write to
+     */
+    ChecksumOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    /**
+     * Opens a section, starting at the next '{' written.
+     */
+    void startSection() {
+      crc.reset();
+      inSection = true;
+      started = false;
+    }
+
+    /**
+     * Closes the current section.
+     *
+     * @return the CRC32C of the section
+     */
+    long endSection() {
+      inSection = false;
+      return crc.getValue();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (inSection) {
+        int from = off;
+        if (!started) {
+          while (from < off + len && b[from] != '{') {
+            from++;
+          }
+          started = from < off + len;
+        }
+        crc.update(b, from, off + len - from);
+      }
+      out.write(b, off, len);
+    }
+  }
 }
@@ -0,0 +1,478 @@
+package bujo.controller;
+
+import bujo.model.Week;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single file holding many weeks, each stored as its own .bujo payload.
+ *
+ * <p>The file starts with a header, followed by the week payloads, each append adding its
+ * payload, an index mapping each week name to the offset and length of its payload, and a
+ * fixed-size footer pointing at that index. The index is read through a memory mapping when the
+ * archive is opened, so reading a week takes one lookup and decodes only that week's bytes.
+ *
+ * <p>Appending never writes over anything already in the file. The payload and new index go
+ * after the current footer and are forced to disk before the new footer is written, so a crash
+ * mid-append leaves a torn tail after the last complete footer. Opening such a file falls back to
+ * that footer, and the next append writes over the torn tail. Each append leaves the previous
+ * index behind as dead space, as replacing a week does with its old payload, until the archive
+ * is compacted.
+ */
+public class WeekArchive implements AutoCloseable {
+  private static final byte[] MAGIC = {(byte) 0x89, 'B', 'J', 'A'};
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = MAGIC.length + 1;
+  // Footer: index offset (long), entry count (int), magic
+  private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES + MAGIC.length;
+  // Index entry: name length (short), name, payload offset (long), payload length (int)
+  private static final int MIN_ENTRY_SIZE = Short.BYTES + Long.BYTES + Integer.BYTES;
+  // Bytes read at a time while searching backward for the last complete footer
+  private static final int SCAN_WINDOW = 64 * 1024;
+
+  private final Path archivePath;
+  private FileChannel channel;
+  private final Map<String, Entry> index;
+  // End of the last complete footer, where the next append starts
+  private long end;
+
+  /**
+   * Opens an archive over the given channel, reading its index.
+   *
+   * @param archivePath absolute path to the archive file
+   * @param channel channel over the archive file, open for reading and writing
+   * @throws IOException if the file is not a valid archive
+   */
+  private WeekArchive(Path archivePath, FileChannel channel) throws IOException {
+    this.archivePath = archivePath;
+    this.channel = channel;
+    this.index = new LinkedHashMap<>();
+
+    if (channel.size() == 0) {
+      writeFully(channel, header(), 0);
+      end = writeIndex(channel, index, HEADER_SIZE);
+    } else {
+      readIndex();
+    }
+  }
+
+  /**
+   * Opens the archive at the given path, creating an empty one if the file does not exist.
+   *
+   * @param archivePath the path to the archive file
+   * @return the opened archive
+   * @throws IOException if the file cannot be opened or is not a valid archive
+   */
+  public static WeekArchive open(Path archivePath) throws IOException {
+    FileChannel channel = FileChannel.open(archivePath, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new WeekArchive(archivePath.toAbsolutePath(), channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   *
+   * @return names of the weeks in this archive, in the order they were first added
+   */
+  public List<String> getWeekNames() {
+    return new ArrayList<>(index.keySet());
+  }
+
+  /**
+   *
+   * @param weekName name of a week
+   * @return true if a week by that name is in this archive
+   */
+  public boolean contains(String weekName) {
+    return index.containsKey(weekName);
+  }
+
+  /**
+   * Reads a single week out of the archive.
+   *
+   * @param weekName name of the week to read
+   * @return the week
+   * @throws IllegalArgumentException if no week by that name is in this archive
+   * @throws IOException if the week cannot be read
+   */
+  public Week readWeek(String weekName) throws IOException {
+    Entry entry = index.get(weekName);
+    if (entry == null) {
+      throw new IllegalArgumentException("No week by that name in this archive");
+    }
+
+    MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY,
+        entry.offset, entry.length);
+    return StorageManager.readAnyFormat(new ByteBufferInputStream(payload));
+  }
+
+  /**
+   * Adds a week to the archive, replacing any earlier week by the same name.
+   * The payloads of the other weeks are not rewritten.
+   *
+   * @param week the week to add
+   * @throws IOException if the archive cannot be written
+   */
+  public void appendWeek(Week week) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    StorageManager.writeWeek(week, payload);
+
+    long offset = end;
+    writeFully(channel, ByteBuffer.wrap(payload.toByteArray()), offset);
+    Entry replaced = index.put(week.getName(), new Entry(offset, payload.size()));
+    try {
+      end = writeIndex(channel, index, offset + payload.size());
+    } catch (IOException | RuntimeException e) {
+      // The footer was not published, so the archive still holds the previous index
+      if (replaced == null) {
+        index.remove(week.getName());
+      } else {
+        index.put(week.getName(), replaced);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Rewrites the archive with only the current payload of each week and a single index,
+   * reclaiming the space left behind by replaced weeks and earlier indexes. The compacted
+   * archive is written to a temporary file, forced to disk and renamed over this one, so a crash
+   * leaves either the old or the compacted archive in place.
+   *
+   * @throws IOException if the compacted archive cannot be written
+   */
+  public void compact() throws IOException {
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    long footerEnd;
+    Path temp = StorageManager.createTempSibling(archivePath);
+    try {
+      try (FileChannel out = FileChannel.open(temp,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        writeFully(out, header(), 0);
+        long position = HEADER_SIZE;
+        out.position(position);
+        for (Map.Entry<String, Entry> week : index.entrySet()) {
+          Entry entry = week.getValue();
+          for (long copied = 0; copied < entry.length; ) {
+            long transferred = channel.transferTo(entry.offset + copied,
+                entry.length - copied, out);
+            if (transferred <= 0) {
+              throw new EOFException("Week archive is truncated");
+            }
+            copied += transferred;
+          }
+          entries.put(week.getKey(), new Entry(position, entry.length));
+          position += entry.length;
+        }
+        footerEnd = writeIndex(out, entries, position);
+      }
+      StorageManager.moveIntoPlace(temp, archivePath);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+
+    FileChannel compacted = FileChannel.open(archivePath,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    channel.close();
+    channel = compacted;
+    index.clear();
+    index.putAll(entries);
+    end = footerEnd;
+  }
+
+  /**
+   * Closes the archive file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Reads the footer and maps the index of the archive. If the file does not end in a complete
+   * footer, an append was cut short, and the last complete footer before it is used instead.
+   *
+   * @throws IOException if the file is not a valid archive
+   */
+  private void readIndex() throws IOException {
+    long size = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    if (size < HEADER_SIZE + FOOTER_SIZE) {
+      throw new IOException("Not a week archive");
+    }
+    readFully(header, 0);
+    if (!hasMagic(header.flip()) || header.get() != VERSION) {
+      throw new IOException("Not a week archive");
+    }
+    if (loadIndex(size)) {
+      return;
+    }
+
+    // Search backward one window at a time, each overlapping the next by the magic less a byte
+    ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+    long minFooterEnd = HEADER_SIZE + FOOTER_SIZE;
+    for (long windowEnd = size - 1; windowEnd >= minFooterEnd; ) {
+      long windowStart = Math.max(minFooterEnd - MAGIC.length, windowEnd - SCAN_WINDOW);
+      window.clear().limit((int) (windowEnd - windowStart));
+      readFully(window, windowStart);
+      for (long footerEnd = windowEnd; footerEnd >= windowStart + MAGIC.length; footerEnd--) {
+        if (endsWithMagic(window, (int) (footerEnd - windowStart)) && loadIndex(footerEnd)) {
+          return;
+        }
+      }
+      windowEnd = windowStart + MAGIC.length - 1;
+    }
+    throw new IOException("Week archive index is damaged");
+  }
+
+  /**
+   * Loads the index whose footer ends at the given file position, if a well-formed one does.
+   * Nothing read from the file is trusted as a size or position before it is checked against
+   * the bounds of the file.
+   *
+   * @param footerEnd file position just past the footer
+   * @return true if a complete footer and index end there, and were loaded
+   * @throws IOException if the file cannot be read
+   */
+  private boolean loadIndex(long footerEnd) throws IOException {
+    long footerStart = footerEnd - FOOTER_SIZE;
+    ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+    readFully(footer, footerStart);
+    footer.flip();
+    long indexOffset = footer.getLong();
+    int count = footer.getInt();
+    if (!hasMagic(footer) || indexOffset < HEADER_SIZE || indexOffset > footerStart
+        || footerStart - indexOffset > Integer.MAX_VALUE
+        || count < 0 || count > (footerStart - indexOffset) / MIN_ENTRY_SIZE) {
+      return false;
+    }
+
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+        indexOffset, footerStart - indexOffset);
+    Map<String, Entry> entries = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      if (mapped.remaining() < MIN_ENTRY_SIZE) {
+        return false;
+      }
+      byte[] name = new byte[mapped.getShort() & 0xFFFF];
+      if (mapped.remaining() < name.length + Long.BYTES + Integer.BYTES) {
+        return false;
+      }
+      mapped.get(name);
+      long offset = mapped.getLong();
+      int length = mapped.getInt();
+      if (offset < HEADER_SIZE || length < 0 || offset + length > indexOffset) {
+        return false;
+      }
+      entries.put(new String(name, StandardCharsets.UTF_8), new Entry(offset, length));
+    }
+    if (mapped.hasRemaining()) {
+      return false;
+    }
+
+    index.clear();
+    index.putAll(entries);
+    end = footerEnd;
+    return true;
+  }
+
+  /**
+   * Creates the header the archive file starts with.
+   *
+   * @return the header, ready to be written
+   */
+  private static ByteBuffer header() {
+    return ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).put((byte) VERSION).flip();
+  }
+
+  /**
+   * Writes an index at the given offset and forces it, together with the payload before it, to
+   * disk. Only then is the footer pointing at it written and forced, so the archive switches
+   * from the previous index to this one in a single small write.
+   *
+   * @param target channel over the archive file
+   * @param entries the index to write
+   * @param indexOffset file position to write the index at, just past the last payload
+   * @return file position just past the footer, where the next append starts
+   * @throws IOException if the archive cannot be written
+   */
+  private static long writeIndex(FileChannel target, Map<String, Entry> entries,
+                                 long indexOffset) throws IOException {
+    int size = 0;
+    List<byte[]> names = new ArrayList<>(entries.size());
+    for (String name : entries.keySet()) {
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > 0xFFFF) {
+        throw new IOException("Week name too long for the archive index");
+      }
+      names.add(bytes);
+      size += MIN_ENTRY_SIZE + bytes.length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    int i = 0;
+    for (Entry entry : entries.values()) {
+      byte[] name = names.get(i++);
+      buffer.putShort((short) name.length).put(name).putLong(entry.offset).putInt(entry.length);
+    }
+    writeFully(target, buffer.flip(), indexOffset);
+    target.force(true);
+
+    ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE)
+        .putLong(indexOffset).putInt(entries.size()).put(MAGIC);
+    long footerEnd = indexOffset + size + FOOTER_SIZE;
+    writeFully(target, footer.flip(), indexOffset + size);
+    // Drops a torn tail left by an append that was cut short
+    target.truncate(footerEnd);
+    target.force(true);
+    return footerEnd;
+  }
+
+  /**
+   * Reads into the whole buffer from the given file position.
+   *
+   * @param buffer the buffer to fill
+   * @param position the file position to read from
+   * @throws IOException if the archive cannot be read or ends before the buffer is full
+   */
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Week archive is truncated");
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * Writes the whole buffer at the given file position.
+   *
+   * @param target channel over the archive file
+   * @param buffer the bytes to write
+   * @param position the file position to write at
+   * @throws IOException if the archive cannot be written
+   */
+  private static void writeFully(FileChannel target, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += target.write(buffer, position);
+    }
+  }
+
+  /**
+   * Checks whether the archive magic ends just before the given position of the buffer.
+   *
+   * @param buffer the buffer
+   * @param end the position just past the magic
+   * @return true if the magic matches
+   */
+  private static boolean endsWithMagic(ByteBuffer buffer, int end) {
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (buffer.get(end - MAGIC.length + i) != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Consumes and checks the archive magic at the buffer's position.
+   *
+   * @param buffer buffer positioned at the magic
+   * @return true if the magic matches
+   */
+  private static boolean hasMagic(ByteBuffer buffer) {
+    byte[] magic = new byte[MAGIC.length];
+    buffer.get(magic);
+    return Arrays.equals(magic, MAGIC);
+  }
+
+  /**
+   * Location of a week payload within the archive
+   */
+  private static class Entry {
+    private final long offset;
+    private final int length;
+
+    /**
+     * Creates a new index entry.
+     *
+     * @param offset file offset of the payload
+     * @param length length of the payload in bytes
+     */
+    Entry(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Input stream reading the remaining bytes of a buffer, with mark support
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a stream over the buffer's remaining bytes.
+     *
+     * @param buffer the buffer to read
+     */
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+      buffer.mark();
+    }
+
+    @Override
+    public synchronized void reset() {
+      buffer.reset();
+    }
+  }
+}
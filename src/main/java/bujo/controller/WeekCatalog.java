@@ -0,0 +1,367 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog of the .bujo files in a journal directory.
+ *
+ * <p>Files are summarized in parallel, and a JSON file is summarized with a streaming parser
+ * that counts items without binding them, a binary one by walking its items in place.
+ * Summaries are cached by file modification time and size, so rescanning a directory only reads
+ * the files that changed since the last scan.
+ */
+public class WeekCatalog implements AutoCloseable {
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final ThreadPoolExecutor readers;
+  private final Map<Path, CachedSummary> cache;
+  // Metrics
+  private final AtomicLong filesRead = new AtomicLong();
+
+  /**
+   * Creates a new catalog reading with one thread per available processor.
+   */
+  public WeekCatalog() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new catalog. Reader threads are started on demand and stop when idle.
+   *
+   * @param parallelism number of files read at the same time
+   */
+  public WeekCatalog(int parallelism) {
+    this.readers = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+          Thread thread = new Thread(r, "bujo-catalog-reader");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.readers.allowCoreThreadTimeOut(true);
+    this.cache = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Summarizes every .bujo file in the given directory. Files that cannot be read as a week
+   * are left out.
+   *
+   * @param directory the journal directory to scan
+   * @return a future completed with the summaries, sorted by file name
+   */
+  public CompletableFuture<List<WeekSummary>> scan(Path directory) {
+    List<CompletableFuture<WeekSummary>> summaries = new ArrayList<>();
+    Set<Path> seen = new HashSet<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bujo")) {
+      for (Path file : files) {
+        if (!Files.isRegularFile(file)) {
+          continue;
+        }
+        Path key = file.toAbsolutePath().normalize();
+        seen.add(key);
+        summaries.add(summarize(key));
+      }
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    Path scanned = directory.toAbsolutePath().normalize();
+    cache.keySet().removeIf(p -> scanned.equals(p.getParent()) && !seen.contains(p));
+
+    return CompletableFuture.allOf(summaries.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignored -> summaries.stream()
+            .map(CompletableFuture::join)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(summary -> summary.getPath().getFileName()))
+            .toList());
+  }
+
+  /**
+   * Summarizes one file, from the cache if it did not change since it was last read.
+   *
+   * @param file absolute path to the .bujo file
+   * @return a future completed with the summary, or null if the file cannot be read
+   */
+  private CompletableFuture<WeekSummary> summarize(Path file) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        FileStamp stamp = FileStamp.of(file);
+        CachedSummary cached = cache.get(file);
+        if (cached != null && cached.stamp.equals(stamp)) {
+          return cached.summary;
+        }
+
+        WeekSummary summary = readSummary(file);
+        filesRead.incrementAndGet();
+        cache.put(file, new CachedSummary(stamp, summary));
+        return summary;
+      } catch (IOException | RuntimeException e) {
+        cache.remove(file);
+        return null;
+      }
+    }, readers);
+  }
+
+  /**
+   * Reads the summary of a .bujo file without binding its items.
+   * For a week with unreplayed mutations, each item is remembered by its day, ID and name, and
+   * the log is replayed over them, so that its item counts are current.
+   *
+   * @param file path to the .bujo file
+   * @return the summary of the file
+   * @throws IOException if the file cannot be read or does not hold a valid week
+   */
+  static WeekSummary readSummary(Path file) throws IOException {
+    boolean logged = hasLog(file);
+    ItemTally tally = new ItemTally(logged);
+    WeekSummary summary;
+    try (InputStream plain = StorageManager.decompress(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      plain.mark(BinaryWeekCodec.MAGIC.length);
+      byte[] header = plain.readNBytes(BinaryWeekCodec.MAGIC.length);
+      plain.reset();
+
+      summary = BinaryWeekCodec.isBinary(header)
+          ? BinaryWeekCodec.summarize(plain, file, tally)
+          : parseSummary(file, plain, tally);
+    }
+    if (!logged) {
+      return summary;
+    }
+
+    MutationLog.replay(tally, file);
+    return new WeekSummary(file, summary.getName(), summary.isPasswordProtected(),
+        summary.getMaxNumEvents(), summary.getMaxNumTasks(), tally.getTaskCount(),
+        tally.getEventCount());
+  }
+
+  /**
+   * Streams through .bujo JSON, reading the week fields and counting items without binding them.
+   *
+   * @param file path to the .bujo file
+   * @param in stream over the JSON
+   * @param tally the tally to count the items into
+   * @return the summary of the file
+   * @throws IOException if the stream does not hold a valid week
+   */
+  private static WeekSummary parseSummary(Path file, InputStream in, ItemTally tally)
+      throws IOException {
+    String name = null;
+    boolean passwordProtected = false;
+    int maxNumEvents = 0;
+    int maxNumTasks = 0;
+
+    try (JsonParser parser = JSON.createParser(in)) {
+      expect(parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "name" -> name = parser.getValueAsString();
+          case "hashedPassword" -> passwordProtected = !parser.getValueAsString("").isEmpty();
+          case "maxNumEvents" -> maxNumEvents = parser.getIntValue();
+          case "maxNumTasks" -> maxNumTasks = parser.getIntValue();
+          case "days" -> {
+            expect(value, JsonToken.START_ARRAY);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean items = "items".equals(parser.getCurrentName());
+                if (parser.nextToken() == JsonToken.START_ARRAY && items) {
+                  while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    tallyItem(parser, tally);
+                  }
+                } else {
+                  parser.skipChildren();
+                }
+              }
+            }
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    }
+
+    if (name == null) {
+      throw new IOException("Not a .bujo file");
+    }
+    return new WeekSummary(file, name, passwordProtected, maxNumEvents, maxNumTasks,
+        tally.getTaskCount(), tally.getEventCount());
+  }
+
+  /**
+   * Reads through one item object and counts it into the tally.
+   *
+   * @param parser parser positioned at the start of the item object
+   * @param tally the tally to count the item into
+   * @throws IOException if the item is malformed
+   */
+  private static void tallyItem(JsonParser parser, ItemTally tally) throws IOException {
+    boolean task = false;
+    String id = null;
+    String name = null;
+    String day = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "itemType" -> task = "task".equals(parser.getValueAsString());
+        case "id" -> id = parser.getValueAsString();
+        case "name" -> name = parser.getValueAsString();
+        case "day" -> day = parser.getValueAsString();
+        default -> parser.skipChildren();
+      }
+    }
+
+    if (day == null) {
+      throw new IOException("Not a .bujo file");
+    }
+    try {
+      tally.add(DayOfWeek.valueOf(day), id, name, task);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Not a .bujo file", e);
+    }
+  }
+
+  /**
+   * Checks that the parser is at the expected token.
+   *
+   * @param actual the current token
+   * @param expected the expected token
+   * @throws IOException if the tokens differ
+   */
+  private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Not a .bujo file");
+    }
+  }
+
+  /**
+   * Checks whether a .bujo file has logged mutations that are not in the file yet.
+   *
+   * @param file path to the .bujo file
+   * @return true if a non-empty mutation log exists beside the file
+   * @throws IOException if the log cannot be inspected
+   */
+  private static boolean hasLog(Path file) throws IOException {
+    Path log = MutationLog.logPathFor(file);
+    return Files.exists(log) && Files.size(log) > 0
+        || Files.exists(log.resolveSibling(log.getFileName() + ".compacting"));
+  }
+
+  /**
+   * Stops the reader threads.
+   */
+  @Override
+  public void close() {
+    readers.shutdownNow();
+  }
+
+  /**
+   *
+   * @return number of files read, as opposed to served from the cache, since creation
+   */
+  public long getFilesRead() {
+    return filesRead.get();
+  }
+
+  /**
+   * Modification time and size of a .bujo file and its mutation log
+   */
+  private static class FileStamp {
+    private final long modified;
+    private final long size;
+    private final long logModified;
+    private final long logSize;
+
+    /**
+     * Creates a new file stamp.
+     *
+     * @param modified modification time of the file, in milliseconds
+     * @param size size of the file in bytes
+     * @param logModified modification time of the log, in milliseconds, or 0 if there is none
+     * @param logSize size of the log in bytes, or 0 if there is none
+     */
+    FileStamp(long modified, long size, long logModified, long logSize) {
+      this.modified = modified;
+      this.size = size;
+      this.logModified = logModified;
+      this.logSize = logSize;
+    }
+
+    /**
+     * Stamps a .bujo file as it is now.
+     *
+     * @param file path to the .bujo file
+     * @return the current stamp of the file
+     * @throws IOException if the file cannot be inspected
+     */
+    static FileStamp of(Path file) throws IOException {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      Path log = MutationLog.logPathFor(file);
+      long logModified = 0;
+      long logSize = 0;
+      if (Files.exists(log)) {
+        BasicFileAttributes logAttributes = Files.readAttributes(log, BasicFileAttributes.class);
+        logModified = logAttributes.lastModifiedTime().toMillis();
+        logSize = logAttributes.size();
+      }
+      return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size(),
+          logModified, logSize);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof FileStamp)) {
+        return false;
+      }
+      FileStamp that = (FileStamp) other;
+      return modified == that.modified && size == that.size
+          && logModified == that.logModified && logSize == that.logSize;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(modified, size, logModified, logSize);
+    }
+  }
+
+  /**
+   * Summary cached together with the stamp of the file it was read from
+   */
+  private static class CachedSummary {
+    private final FileStamp stamp;
+    private final WeekSummary summary;
+
+    /**
+     * Creates a new cache entry.
+     *
+     * @param stamp stamp of the file when it was read
+     * @param summary summary read from the file
+     */
+    CachedSummary(FileStamp stamp, WeekSummary summary) {
+      this.stamp = stamp;
+      this.summary = summary;
+    }
+  }
+}
@@ -0,0 +1,344 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the .bujo file of an open week for changes made by other programs, and merges them
+ * into the week.
+ *
+ * <p>Once the file settles after a change, it is re-read in the background and compared, day by
+ * day, with the week in memory and with the file's contents as of the previous check. A day
+ * changed only on disk is copied into the week. A day changed only in memory is left alone, as
+ * is a day equal on both sides. A file holding exactly what the app itself scheduled through
+ * its save service is the app's own save, even if the week was edited again since, and only
+ * becomes the new base. A day changed on
+ * both sides is a conflict: neither version is touched, and the listener is told so that the
+ * user can choose. So is a day changed only on disk that holds items the week refuses, such as
+ * events whose start time cannot be read, which load from a file but cannot be added.
+ */
+public class WeekFileWatcher implements AutoCloseable {
+  /**
+   * Default time the file must stay unchanged before it is re-read
+   */
+  public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(250);
+  // Own saves remembered until the file is seen holding them
+  private static final int MAX_OWN_SAVES = 16;
+
+  private final Week week;
+  private final Path file;
+  private final SaveService saveService;
+  private final SaveService.Listener saveListener = this::saveScheduled;
+  private final Executor modelThread;
+  private final Listener listener;
+  private final long quietPeriodMillis;
+  private final WatchService watchService;
+  private final Thread thread;
+  // Contents of each day as of the last check, only touched on the model thread
+  private final List<List<List<String>>> base;
+  // Contents of the week in the saves scheduled by the app, newest last
+  private final Deque<List<List<List<String>>>> ownSaves = new ArrayDeque<>();
+  // Metrics
+  private final AtomicLong reloads = new AtomicLong();
+  private final AtomicLong readFailures = new AtomicLong();
+
+  /**
+   * Starts watching the file of a week. Must be called from the model thread, while the week
+   * matches its file.
+   *
+   * @param week the open week
+   * @param file the week's .bujo file
+   * @param saveService service through which the app saves the week
+   * @param modelThread executor running tasks on the thread that edits the week
+   * @param quietPeriod time the file must stay unchanged before it is re-read
+   * @param listener listener told about the outcome of every re-read, on the model thread
+   * @throws IOException if the file's directory cannot be watched
+   */
+  public WeekFileWatcher(Week week, Path file, SaveService saveService, Executor modelThread,
+                         Duration quietPeriod, Listener listener) throws IOException {
+    this.week = week;
+    this.file = file.toAbsolutePath().normalize();
+    this.saveService = saveService;
+    this.modelThread = modelThread;
+    this.listener = listener;
+    this.quietPeriodMillis = quietPeriod.toMillis();
+    this.base = contentsOf(week);
+    this.watchService = this.file.getFileSystem().newWatchService();
+    try {
+      this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException | RuntimeException e) {
+      watchService.close();
+      throw e;
+    }
+    saveService.addListener(saveListener);
+    this.thread = new Thread(this::watch, "bujo-week-watcher");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Stops watching the file.
+   *
+   * @throws IOException if the watch service cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    saveService.removeListener(saveListener);
+    watchService.close();
+    thread.interrupt();
+  }
+
+  /**
+   *
+   * @return number of times the file was re-read after a change
+   */
+  public long getReloads() {
+    return reloads.get();
+  }
+
+  /**
+   * A file caught halfway through being replaced is read again on its next change
+   *
+   * @return number of re-reads that failed
+   */
+  public long getReadFailures() {
+    return readFailures.get();
+  }
+
+  /**
+   * Remembers the contents of a save of the week to its file, scheduled by the app.
+   *
+   * @param saved the week being saved
+   * @param filePath the path it is saved to
+   */
+  private void saveScheduled(Week saved, Path filePath) {
+    if (saved != week || !filePath.equals(file)) {
+      return;
+    }
+    List<List<List<String>>> contents = contentsOf(saved);
+    synchronized (ownSaves) {
+      if (ownSaves.size() == MAX_OWN_SAVES) {
+        ownSaves.removeFirst();
+      }
+      ownSaves.addLast(contents);
+    }
+  }
+
+  /**
+   * Checks whether the file holds one of the app's own saves, forgetting that save and the
+   * ones scheduled before it if so.
+   *
+   * @param disk contents of each day on disk
+   * @return true if the contents are those of a save scheduled by the app
+   */
+  private boolean isOwnSave(List<List<List<String>>> disk) {
+    synchronized (ownSaves) {
+      Iterator<List<List<List<String>>>> newestFirst = ownSaves.descendingIterator();
+      while (newestFirst.hasNext()) {
+        if (newestFirst.next().equals(disk)) {
+          newestFirst.remove();
+          while (newestFirst.hasNext()) {
+            newestFirst.next();
+            newestFirst.remove();
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Waits for changes to the file and re-reads it once they settle, until closed.
+   */
+  private void watch() {
+    try {
+      while (true) {
+        if (!isFileChanged(watchService.take())) {
+          continue;
+        }
+        // Wait for the burst of changes to end
+        WatchKey key;
+        while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+          isFileChanged(key);
+        }
+        reload();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Closed
+    }
+  }
+
+  /**
+   * Consumes the events of a watch key.
+   *
+   * @param key the signalled key
+   * @return true if any event may concern the watched file
+   */
+  private boolean isFileChanged(WatchKey key) {
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW
+          || file.getFileName().equals(event.context())) {
+        changed = true;
+      }
+    }
+    key.reset();
+    return changed;
+  }
+
+  /**
+   * Reads the file and merges it into the week on the model thread.
+   */
+  private void reload() {
+    if (!Files.exists(file)) {
+      return; // Deleted, or moved away while being replaced
+    }
+    Week onDisk;
+    try {
+      // The mutation log holds the changes made in memory, which are not changes on disk
+      onDisk = StorageManager.readStoredFile(file);
+    } catch (IOException | RuntimeException e) {
+      readFailures.incrementAndGet();
+      return;
+    }
+    reloads.incrementAndGet();
+    modelThread.execute(() -> merge(contentsOf(onDisk), onDisk));
+  }
+
+  /**
+   * Merges the days changed on disk into the week and tells the listener. Runs on the model
+   * thread.
+   *
+   * @param disk contents of each day on disk
+   * @param onDisk the week read from disk
+   */
+  private void merge(List<List<List<String>>> disk, Week onDisk) {
+    if (isOwnSave(disk)) {
+      // Edits made since the save are in memory only, as with any other unsaved edit
+      for (int i = 0; i < base.size(); i++) {
+        base.set(i, disk.get(i));
+      }
+      return;
+    }
+
+    List<List<List<String>>> memory = contentsOf(week);
+    List<DayOfWeek> refreshed = new ArrayList<>();
+    List<DayOfWeek> conflicting = new ArrayList<>();
+    boolean wasDirty = week.isDirty();
+
+    for (DayOfWeek day : DayOfWeek.values()) {
+      int i = day.ordinal();
+      if (disk.get(i).equals(memory.get(i)) || disk.get(i).equals(base.get(i))) {
+        continue; // Same on both sides, or changed only in memory
+      }
+      if (memory.get(i).equals(base.get(i)) && canReplaceDay(onDisk.getDays().get(i))) {
+        replaceDay(onDisk.getDays().get(i));
+        refreshed.add(day);
+      } else {
+        conflicting.add(day);
+      }
+    }
+    for (int i = 0; i < base.size(); i++) {
+      base.set(i, disk.get(i));
+    }
+
+    if (!wasDirty && conflicting.isEmpty()) {
+      week.markSaved(week.getRevision()); // The week matches its file again
+    }
+    if (!refreshed.isEmpty() || !conflicting.isEmpty()) {
+      listener.weekReloaded(refreshed, conflicting);
+    }
+  }
+
+  /**
+   * Checks that every item of a day on disk can be added to the week, before any item of the
+   * day in memory is removed.
+   *
+   * @param diskDay the day as read from disk
+   * @return true if the day can be copied into the week
+   */
+  private static boolean canReplaceDay(Day diskDay) {
+    for (Item item : diskDay.getItems()) {
+      if (item.getType() == ItemType.EVENT
+          && ((Event) item).getStartMinutes() == Event.UNKNOWN_MINUTES) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces the items of one day of the week with those of the same day on disk.
+   *
+   * @param diskDay the day as read from disk
+   */
+  private void replaceDay(Day diskDay) {
+    Day memoryDay = week.getDays().get(diskDay.getDayOfWeek().ordinal());
+    for (Item item : memoryDay.getItems()) {
+      try {
+        week.removeItem(item);
+      } catch (IllegalAccessException ignored) {
+        // Already gone
+      }
+    }
+    for (Item item : diskDay.getItems()) {
+      week.addItem(item);
+    }
+  }
+
+  /**
+   * Flattens the items of every day into comparable rows.
+   *
+   * @param week the week
+   * @return one list of rows per day, in week order
+   */
+  private static List<List<List<String>>> contentsOf(Week week) {
+    List<List<List<String>>> contents = new ArrayList<>();
+    for (Day day : week.getDays()) {
+      List<List<String>> rows = new ArrayList<>();
+      for (Item item : day.getItems()) {
+        rows.add(Arrays.asList(ItemRows.itemValues(item)));
+      }
+      contents.add(rows);
+    }
+    return contents;
+  }
+
+  /**
+   * Listener told about the outcome of merging changes made on disk
+   */
+  public interface Listener {
+    /**
+     * Called on the model thread after the file changed and differs from the week.
+     *
+     * @param refreshed days copied from disk into the week
+     * @param conflicting days changed both on disk and in memory, or changed on disk in a way
+     *                    that cannot be merged, left untouched
+     */
+    void weekReloaded(List<DayOfWeek> refreshed, List<DayOfWeek> conflicting);
+  }
+}
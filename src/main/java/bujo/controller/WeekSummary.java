@@ -0,0 +1,94 @@
+package bujo.controller;
+
+import java.nio.file.Path;
+
+/**
+ * Summary of a .bujo file, holding what is needed to list it without opening the week
+ */
+public class WeekSummary {
+  private final Path path;
+  private final String name;
+  private final boolean passwordProtected;
+  private final int maxNumEvents;
+  private final int maxNumTasks;
+  private final int taskCount;
+  private final int eventCount;
+
+  /**
+   * Creates a new week summary.
+   *
+   * @param path path to the .bujo file
+   * @param name the name of the week
+   * @param passwordProtected true if the week is protected by a password
+   * @param maxNumEvents the maximum number of events allowed on the week
+   * @param maxNumTasks the maximum number of tasks allowed on the week
+   * @param taskCount number of tasks in the week
+   * @param eventCount number of events in the week
+   */
+  public WeekSummary(Path path, String name, boolean passwordProtected, int maxNumEvents,
+                     int maxNumTasks, int taskCount, int eventCount) {
+    this.path = path;
+    this.name = name;
+    this.passwordProtected = passwordProtected;
+    this.maxNumEvents = maxNumEvents;
+    this.maxNumTasks = maxNumTasks;
+    this.taskCount = taskCount;
+    this.eventCount = eventCount;
+  }
+
+  /**
+   *
+   * @return the path to the .bujo file
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   *
+   * @return the name of the week
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   *
+   * @return true if the week is protected by a password
+   */
+  public boolean isPasswordProtected() {
+    return passwordProtected;
+  }
+
+  /**
+   *
+   * @return the maximum number of events allowed on the week without being overbooked
+   */
+  public int getMaxNumEvents() {
+    return maxNumEvents;
+  }
+
+  /**
+   *
+   * @return the maximum number of tasks allowed on the week without being overbooked
+   */
+  public int getMaxNumTasks() {
+    return maxNumTasks;
+  }
+
+  /**
+   *
+   * @return number of tasks in the week
+   */
+  public int getTaskCount() {
+    return taskCount;
+  }
+
+  /**
+   *
+   * @return number of events in the week
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+}
@@ -0,0 +1,177 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.ZipException;
+
+/**
+ * Checks .bujo files against the CRC32C checksums stored for their week fields and each day,
+ * inside binary files and beside JSON ones.
+ *
+ * <p>Verification only tokenizes the file and checksums its sections, without binding any week,
+ * day or item, so it is cheap enough to run over a whole journal. A damaged file is reported
+ * day by day, so the rest of the week can still be trusted.
+ */
+public final class WeekVerifier {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+  /**
+   * Private constructor to prevent class from instantiation
+   */
+  private WeekVerifier() {}
+
+  /**
+   * Verifies a .bujo file of any storage format or compression. Mutations logged beside the
+   * file are not part of it, and are not checked.
+   *
+   * @param filePath the path to the file
+   * @return the report of what is damaged in the file
+   * @throws IOException if the file cannot be read at all
+   */
+  public static IntegrityReport verify(Path filePath) throws IOException {
+    ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    String problem = null;
+    try (InputStream in = StorageManager.decompress(
+        new BufferedInputStream(Files.newInputStream(filePath)))) {
+      in.transferTo(contents);
+    } catch (ZipException | EOFException e) {
+      // Keep what could be decompressed, the damage is located below
+      problem = "compressed data is damaged";
+    }
+
+    byte[] bytes = contents.toByteArray();
+    IntegrityReport report = BinaryWeekCodec.isBinary(bytes)
+        ? BinaryWeekCodec.verify(new ByteArrayInputStream(bytes))
+        : verifyJson(bytes, SectionChecksums.read(filePath));
+    if (problem != null && report.isIntact()) {
+      return new IntegrityReport(report.isChecksummed(), false, List.of(), problem);
+    }
+    return report;
+  }
+
+  /**
+   * Verifies .bujo JSON held in memory.
+   *
+   * @param bytes the JSON of the week
+   * @param stored the checksums the JSON was written with, or null if there are none
+   * @return the report of what is damaged in the JSON
+   */
+  static IntegrityReport verifyJson(byte[] bytes, SectionChecksums stored) {
+    CRC32C crc = new CRC32C();
+    List<Long> dayChecksums = new ArrayList<>();
+    String name = null;
+    String hashedPassword = null;
+    String saltPassword = null;
+    int maxNumEvents = 0;
+    int maxNumTasks = 0;
+    boolean inDays = false;
+    boolean daysSeen = false;
+
+    try (JsonParser parser = MAPPER.getFactory().createParser(bytes)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return new IntegrityReport(false, true, Arrays.asList(DAYS), "not a .bujo file");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        switch (field) {
+          case "name" -> name = parser.getValueAsString();
+          case "hashedPassword" -> hashedPassword = parser.getValueAsString();
+          case "saltPassword" -> saltPassword = parser.getValueAsString();
+          case "maxNumEvents" -> maxNumEvents = parser.getIntValue();
+          case "maxNumTasks" -> maxNumTasks = parser.getIntValue();
+          case "days" -> {
+            if (value != JsonToken.START_ARRAY) {
+              parser.skipChildren();
+              continue;
+            }
+            inDays = true;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              int start = (int) parser.getTokenLocation().getByteOffset();
+              parser.skipChildren();
+              int end = (int) parser.getCurrentLocation().getByteOffset();
+              crc.reset();
+              crc.update(bytes, start, end - start);
+              dayChecksums.add(crc.getValue());
+            }
+            inDays = false;
+            daysSeen = true;
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    } catch (IOException e) {
+      String problem = e instanceof JsonProcessingException
+          ? "file is truncated or malformed at byte "
+              + ((JsonProcessingException) e).getLocation().getByteOffset()
+          : "file cannot be parsed";
+      // Days before the break are well-formed
+      List<DayOfWeek> damaged = inDays || !daysSeen
+          ? Arrays.asList(DAYS).subList(Math.min(dayChecksums.size(), DAYS.length), DAYS.length)
+          : List.of();
+      return new IntegrityReport(false, !daysSeen || name == null, damaged, problem);
+    }
+
+    if (stored == null) {
+      return new IntegrityReport(false, false, List.of(), null);
+    }
+
+    boolean headerDamaged = stored.getHeader()
+        != headerChecksum(name, hashedPassword, saltPassword, maxNumEvents, maxNumTasks);
+    List<DayOfWeek> damaged = new ArrayList<>();
+    for (int i = 0; i < Math.max(stored.getDayCount(), dayChecksums.size()); i++) {
+      boolean matches = i < stored.getDayCount() && i < dayChecksums.size()
+          && stored.getDay(i) == dayChecksums.get(i);
+      if (!matches && i < DAYS.length) {
+        damaged.add(DAYS[i]);
+      }
+    }
+    return new IntegrityReport(true, headerDamaged, damaged, null);
+  }
+
+  /**
+   * Computes the checksum of the week fields stored in .bujo JSON. The fields are checksummed
+   * by value rather than by their bytes in the file, so the checksum does not depend on where
+   * each field is written.
+   *
+   * @param name the name of the week
+   * @param hashedPassword hashed password of the week
+   * @param saltPassword salt of the password
+   * @param maxNumEvents the maximum number of events allowed on the week
+   * @param maxNumTasks the maximum number of tasks allowed on the week
+   * @return the CRC32C of the fields
+   */
+  static long headerChecksum(String name, String hashedPassword, String saltPassword,
+                             int maxNumEvents, int maxNumTasks) {
+    CRC32C crc = new CRC32C();
+    for (String field : new String[] {name, hashedPassword, saltPassword}) {
+      // Null and empty are distinguished, and the separator keeps fields from running together
+      crc.update(field == null ? 0 : 1);
+      if (field != null) {
+        crc.update(field.getBytes(StandardCharsets.UTF_8));
+      }
+      crc.update(0);
+    }
+    crc.update(Integer.toString(maxNumEvents).getBytes(StandardCharsets.US_ASCII));
+    crc.update(0);
+    crc.update(Integer.toString(maxNumTasks).getBytes(StandardCharsets.US_ASCII));
+    return crc.getValue();
+  }
+}
@@ -10,8 +10,6 @@ import bujo.model.ItemType;
 import bujo.view.ScreenView;
 
 import java.awt.event.KeyEvent;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -222,10 +220,9 @@ public class EventScreenController implements ScreenController {
         amPmSelector.setText(time.substring(colonIndex + 4));
         this.eventTimeHour.setText(hour);
         this.eventTimeMinutes.setText(minutes);
-        String duration = event.getDuration();
-        int[] parsedDuration = parseTime(duration);
-        this.eventDurationHour.setText(Integer.toString(parsedDuration[0]));
-        this.eventDurationMinutes.setText(Integer.toString(parsedDuration[1]));
+        int duration = Math.max(event.getDurationMinutes(), 0);
+        this.eventDurationHour.setText(Integer.toString(duration / 60));
+        this.eventDurationMinutes.setText(Integer.toString(duration % 60));
         this.eventDescriptionField.setText(event.getDescription());
       }
     } catch (IllegalStateException ignored) {
@@ -339,13 +336,18 @@ public class EventScreenController implements ScreenController {
       formattedDuration += ((durMinute % 10) == 1) ? (durMinute + " min") : (durMinute + " mins");
     }
 
-    Event event = new Event(
-            eventName,
-            this.eventDescriptionField.getText(),
-            dayEnum,
-            formattedStartTime,
-            formattedDuration,
-            ItemType.EVENT);
+    // An edited event keeps the ID of the event it replaces
+    String id;
+    try {
+      id = this.eventLockbox.getItemInLockbox().getId();
+    } catch (IllegalStateException ignored) {
+      id = null;
+    }
+    Event event = id != null
+        ? new Event(id, eventName, this.eventDescriptionField.getText(), dayEnum,
+            formattedStartTime, formattedDuration, ItemType.EVENT)
+        : new Event(eventName, this.eventDescriptionField.getText(), dayEnum,
+            formattedStartTime, formattedDuration, ItemType.EVENT);
 
     this.eventLockbox.putItemInLockbox(event);
     this.primaryStage.close();
@@ -359,29 +361,4 @@ public class EventScreenController implements ScreenController {
     this.primaryStage.hide();
   }
 
-  /**
-   * Parses a string of the form "Hr Min" into an array of ints of the form [Hr, Min]
-   *
-   * @param time string to be parsed
-   * @return array of ints representing the hours and minutes
-   */
-  private int[] parseTime(String time) {
-    int hours = 0;
-    int minutes = 0;
-
-    // Regular expression pattern for extracting hours and minutes
-    String pattern = "(?:(\\d+) hr)?\\s*(?:(\\d+) mins)?";
-
-    Matcher matcher = Pattern.compile(pattern).matcher(time);
-    if (matcher.find()) {
-      if (matcher.group(1) != null) {
-        hours = Integer.parseInt(matcher.group(1));
-      }
-      if (matcher.group(2) != null) {
-        minutes = Integer.parseInt(matcher.group(2));
-      }
-    }
-    return new int[]{hours, minutes};
-  }
-
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package bujo.controller.screenctrls;
 import bujo.controller.AppUtils;
 import bujo.controller.Lockbox;
 import bujo.model.DayOfWeek;
+import bujo.model.ItemType;
 import bujo.model.Task;
 import bujo.view.ScreenView;
 
@@ -194,9 +195,17 @@ public class TaskScreenController implements ScreenController {
       return;
     }
 
-    Task saveTask = new Task(
-            this.taskNameEditField.getText(),
-            this.taskDescriptionField.getText(),
+    // An edited task keeps the ID of the task it replaces
+    String id;
+    try {
+      id = this.taskLockbox.getItemInLockbox().getId();
+    } catch (IllegalStateException ignored) {
+      id = null;
+    }
+    Task saveTask = id != null
+        ? new Task(id, this.taskNameEditField.getText(), this.taskDescriptionField.getText(),
+            dayEnum, false, ItemType.TASK)
+        : new Task(this.taskNameEditField.getText(), this.taskDescriptionField.getText(),
             dayEnum);
 
     // Set the lockbox to the new task if the input is valid
@@ -6,10 +6,16 @@ import static bujo.controller.AppUtils.raisePopup;
 import static bujo.controller.AppUtils.setCommitmentIndicator;
 import static bujo.controller.AppUtils.setupSplashScreenTimeline;
 
+import bujo.controller.AsyncStorage;
+import bujo.controller.AutosaveScheduler;
 import bujo.controller.Lockbox;
-import bujo.controller.StorageManager;
+import bujo.controller.MutationLog;
+import bujo.controller.SaveService;
+import bujo.controller.SnapshotStore;
+import bujo.controller.WeekFileWatcher;
 import bujo.view.ScreenView;
 import bujo.model.Day;
+import bujo.model.DayOfWeek;
 import bujo.model.Event;
 import bujo.model.Item;
 import bujo.model.ItemType;
@@ -19,7 +25,9 @@ import bujo.model.Week;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -53,6 +61,8 @@ public class WeekScreenController implements ScreenController {
   @FXML
   private MenuItem saveFileAsMenuItem;
   @FXML
+  private MenuItem loadDiskVersionMenuItem;
+  @FXML
   private MenuItem newTaskMenuItem;
   @FXML
   private MenuItem newEventMenuItem;
@@ -107,6 +117,12 @@ public class WeekScreenController implements ScreenController {
   private VBox[] weekDayBars;
   // Internal fields
   private final MediaPlayer player;
+  private final SaveService saveService;
+  private final AsyncStorage storage;
+  private final AutosaveScheduler autosave;
+  private MutationLog mutationLog;
+  private SnapshotStore snapshots;
+  private WeekFileWatcher watcher;
   private Stage primaryStage;
   private Week week;
 
@@ -116,11 +132,18 @@ public class WeekScreenController implements ScreenController {
    * @param primaryStage stage on which the welcome screen is to be displayed
    * @param week to be displayed in the week view
    * @param player media player
+   * @param saveService service writing .bujo files in the background
+   * @param storage storage loading weeks off the FX thread
    */
-  public WeekScreenController(Stage primaryStage, Week week, MediaPlayer player) {
+  public WeekScreenController(Stage primaryStage, Week week, MediaPlayer player,
+                              SaveService saveService, AsyncStorage storage) {
     this.primaryStage = primaryStage;
     this.week = week;
     this.player = player;
+    this.saveService = saveService;
+    this.storage = storage;
+    this.autosave = new AutosaveScheduler(week, saveService, Platform::runLater,
+        AutosaveScheduler.DEFAULT_QUIET_PERIOD, AutosaveScheduler.DEFAULT_MAX_DELAY);
   }
 
   /**
@@ -128,13 +151,13 @@ public class WeekScreenController implements ScreenController {
    */
   @Override
   public void run() {
-    try {
-      StorageManager.writeFile(week, week.getPath());
-    } catch (IOException e) {
-      raisePopup("Warning - Failed to save",
-          "Failed to write to provided file,"
-              + " consider using Save As not to lose progeress");
-    }
+    openMutationLog().whenComplete((ignored, e) -> {
+      if (e != null) {
+        Platform.runLater(() -> raisePopup("Warning - Failed to save",
+            "Failed to write to provided file,"
+                + " consider using Save As not to lose progeress"));
+      }
+    });
 
     primaryStage.setTitle("Week View");
     primaryStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
@@ -151,6 +174,10 @@ public class WeekScreenController implements ScreenController {
     primaryStage.setScene(
         new ScreenView(this, "weekScreen.fxml").load());
     primaryStage.getScene().setOnKeyPressed(e -> handleKeyPress(e.getCode()));
+    primaryStage.setOnHiding(e -> {
+      autosave.close();
+      closeMutationLog();
+    });
     primaryStage.show();
 
     initConvenienceFields();
@@ -178,71 +205,78 @@ public class WeekScreenController implements ScreenController {
    * Displays current state of the week
    */
   private void displayWeekItems() {
+    List<Day> days = week.getDays();
     for (int i = 0; i < weekDayBars.length; i++) {
-      Day thisDay = week.getDays().get(i);
-      ArrayList<Item> itemsThisDay = thisDay.getItems();
-
-      VBox dayColumn = weekDayBars[i];
-      double columnWidth = dayColumn.getWidth();
-      dayColumn.getChildren().clear();
-      weekDayBars[i].setSpacing(5);
-
-      for (Item item : itemsThisDay) {
-        if (item.getType().equals(ItemType.TASK)) {
-          VBox itemCard = createTaskCard(columnWidth
-              - dayColumn.getPadding().getLeft() - dayColumn.getPadding().getRight(), (Task) item);
-          weekDayBars[i].getChildren().add(itemCard);
-          itemCard.setOnMouseClicked(e -> handleItemView(item));
-        } else {
-          VBox itemCard = createEventCard(columnWidth
-              - dayColumn.getPadding().getLeft() - dayColumn.getPadding().getRight(), (Event) item);
-          weekDayBars[i].getChildren().add(itemCard);
-          itemCard.setOnMouseClicked(e -> handleItemView(item));
-        }
-
-
+      displayDayItems(i, days.get(i));
+    }
+  }
 
+  /**
+   * Displays current state of one day of the week
+   *
+   * @param i index of the day within the week
+   * @param thisDay the day
+   */
+  private void displayDayItems(int i, Day thisDay) {
+    List<Item> itemsThisDay = thisDay.getItems();
+
+    VBox dayColumn = weekDayBars[i];
+    double cardWidth = dayColumn.getWidth()
+        - dayColumn.getPadding().getLeft() - dayColumn.getPadding().getRight();
+    dayColumn.getChildren().clear();
+    weekDayBars[i].setSpacing(5);
+
+    for (Item item : itemsThisDay) {
+      if (item.getType().equals(ItemType.TASK)) {
+        VBox itemCard = createTaskCard(cardWidth, (Task) item);
+        weekDayBars[i].getChildren().add(itemCard);
+        itemCard.setOnMouseClicked(e -> handleItemView(item));
+      } else {
+        VBox itemCard = createEventCard(cardWidth, (Event) item);
+        weekDayBars[i].getChildren().add(itemCard);
+        itemCard.setOnMouseClicked(e -> handleItemView(item));
       }
-
-      setCommitmentIndicator(weekDayCommitmentStatuses[i],
-          thisDay.getOverbooked(week.getMaxNumEvents(), week.getMaxNumTasks()));
     }
+
+    setCommitmentIndicator(weekDayCommitmentStatuses[i],
+        thisDay.getOverbooked(week.getMaxNumEvents(), week.getMaxNumTasks()),
+        thisDay.hasConflicts());
   }
 
   /**
    * Displays the task bar
    */
   private void displayTaskbarItems() {
-    ArrayList<Task> taskList = week.getTaskList();
+    List<Task> taskList = week.getTaskList();
 
     double taskBarWidth = taskbar.getWidth();
     taskbar.getChildren().clear();
     taskbar.setSpacing(5);
 
-    int completedCount = 0;
     for (Task task : taskList) {
-      if (task.getComplete()) {
-        completedCount++;
-      }
-
       VBox taskCard = createTaskbarCard(taskBarWidth, task);
       taskbar.getChildren().add(taskCard);
       taskCard.getChildren().get(0).setOnMouseClicked(e -> {
         try {
-          week.removeItem(task);
-          Task completed = new Task(task.getName(),
-              task.getDescription(), task.getDay(), !task.getComplete(), ItemType.TASK);
-          week.addItem(completed);
+          if (task.getComplete()) {
+            week.removeItem(task.getDay(), task.getId());
+            Task reopened = new Task(task.getId(), task.getName(),
+                task.getDescription(), task.getDay(), false, ItemType.TASK);
+            week.addItem(reopened);
+          } else {
+            week.markComplete(task);
+          }
         } catch (IllegalAccessException ex) {
           throw new RuntimeException(ex);
         }
+        autosave.notifyChanged();
         displayTaskbarItems();
         displayWeekItems();
       });
     }
 
     // Update the completion bar
-    progressBar.setProgress((double) completedCount / taskList.size());
+    progressBar.setProgress((double) week.getCompletedTaskCount() / week.getTaskCount());
   }
 
   /**
@@ -254,6 +288,7 @@ public class WeekScreenController implements ScreenController {
     this.openFileMenuItem.setOnAction(e -> handleOpenAnotherWeek());
     this.saveFileMenuItem.setOnAction(e -> handleSaveInPlace());
     this.saveFileAsMenuItem.setOnAction(e -> handleSaveAs());
+    this.loadDiskVersionMenuItem.setOnAction(e -> handleLoadDiskVersion());
     this.newEventMenuItem.setOnAction(e -> handleAddEvent());
     this.newTaskMenuItem.setOnAction(e -> handleAddTask());
     this.editWeekParamsMenuItem.setOnAction(e -> handleEditWeekParams());
@@ -284,6 +319,7 @@ public class WeekScreenController implements ScreenController {
     taskScreenController.run();
 
     editCommStage.setOnHiding(e -> {
+      autosave.notifyChanged();
       displayWeekItems();
       weekName.setText(week.getName());
     });
@@ -308,6 +344,7 @@ public class WeekScreenController implements ScreenController {
             "Task could not be added, please try a different task name");
         handleAddTask();
       }
+      autosave.notifyChanged();
       displayWeekItems();
       displayTaskbarItems();
     });
@@ -332,6 +369,7 @@ public class WeekScreenController implements ScreenController {
             "Event could not be added, please try a different event name");
         handleAddEvent();
       }
+      autosave.notifyChanged();
       displayWeekItems();
       displayTaskbarItems();
     });
@@ -354,7 +392,7 @@ public class WeekScreenController implements ScreenController {
 
         primaryStage = new Stage();
         ScreenController weekScreenController
-            = new WeekScreenController(primaryStage, week, player);
+            = new WeekScreenController(primaryStage, week, player, saveService, storage);
         weekScreenController.run();
       } catch (IllegalStateException ignored) {
         // Ignore
@@ -368,39 +406,54 @@ public class WeekScreenController implements ScreenController {
   private void handleOpenAnotherWeek() {
     Path weekPath;
     if ((weekPath = getUserChosenFile(true, primaryStage)) != null) {
-      week = StorageManager.readFile(weekPath);
-      week.setPath(weekPath);
-
-      if (!week.getHashedPassword().isEmpty()) {
-        Stage popUpStage = new Stage();
-        popUpStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
-
-        Lockbox<Week> passwordAuthLockbox = new Lockbox<>();
-        passwordAuthLockbox.putItemInLockbox(week);
-        ScreenController checkPassController
-            = new CheckPasswordScreenController(popUpStage, passwordAuthLockbox);
-        checkPassController.run();
-
-        popUpStage.setOnHiding(e -> {
-          try {
-            passwordAuthLockbox.getItemInLockbox();
-            primaryStage.hide();
-
-            primaryStage = new Stage();
-            ScreenController weekScreenController
-                = new WeekScreenController(primaryStage, week, player);
-            weekScreenController.run();
-          } catch (IllegalStateException ignored) {
-            // Ignore
-          }
-        });
-      } else {
-        primaryStage.hide();
-        primaryStage = new Stage();
-        ScreenController weekScreenController
-            = new WeekScreenController(primaryStage, week, player);
-        weekScreenController.run();
-      }
+      storage.load(weekPath).whenComplete((opened, e) -> Platform.runLater(() -> {
+        if (e != null) {
+          raisePopup("Error - Failed to open",
+              "Failed to read the selected .bujo file: " + e.getMessage());
+        } else {
+          opened.setPath(weekPath);
+          showOpenedWeek(opened);
+        }
+      }));
+    }
+  }
+
+  /**
+   * Replaces this week screen with one for a loaded week, asking for its password if it has one
+   *
+   * @param opened the loaded week
+   */
+  private void showOpenedWeek(Week opened) {
+    week = opened;
+    if (!week.getHashedPassword().isEmpty()) {
+      Stage popUpStage = new Stage();
+      popUpStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
+
+      Lockbox<Week> passwordAuthLockbox = new Lockbox<>();
+      passwordAuthLockbox.putItemInLockbox(week);
+      ScreenController checkPassController
+          = new CheckPasswordScreenController(popUpStage, passwordAuthLockbox);
+      checkPassController.run();
+
+      popUpStage.setOnHiding(e -> {
+        try {
+          passwordAuthLockbox.getItemInLockbox();
+          primaryStage.hide();
+
+          primaryStage = new Stage();
+          ScreenController weekScreenController
+              = new WeekScreenController(primaryStage, week, player, saveService, storage);
+          weekScreenController.run();
+        } catch (IllegalStateException ignored) {
+          // Ignore
+        }
+      });
+    } else {
+      primaryStage.hide();
+      primaryStage = new Stage();
+      ScreenController weekScreenController
+          = new WeekScreenController(primaryStage, week, player, saveService, storage);
+      weekScreenController.run();
     }
   }
 
@@ -408,14 +461,12 @@ public class WeekScreenController implements ScreenController {
    * Handles saving the .bujo week file in place
    */
   private void handleSaveInPlace() {
-    try {
-      StorageManager.writeFile(week, week.getPath());
-      raisePopup("Success",
-          "This week's .bujo file is saved successfully");
-    } catch (IOException e) {
-      raisePopup("Error - Failed to save",
-          "Failed to save this week's .bujo file."
-              + " Try saving at another location through Save As...");
+    // Saving explicitly keeps this version over any conflicting one on disk
+    setSavingSuspended(false);
+    if (mutationLog != null) {
+      reportSave(mutationLog.compact());
+    } else {
+      reportSave(openMutationLog());
     }
   }
 
@@ -426,7 +477,155 @@ public class WeekScreenController implements ScreenController {
     Path userChosenPath;
     if ((userChosenPath = getUserChosenFile(false, primaryStage)) != null) {
       week.setPath(userChosenPath);
-      handleSaveInPlace();
+      setSavingSuspended(false);
+      reportSave(openMutationLog());
+    }
+  }
+
+  /**
+   * Handles replacing the week with the version another program saved in its .bujo file,
+   * dropping the changes made here since it was last saved
+   */
+  private void handleLoadDiskVersion() {
+    Path weekPath = week.getPath();
+    // Saving is suspended while in conflict, so closing writes nothing over the other version
+    setSavingSuspended(true);
+    autosave.close();
+    MutationLog log = mutationLog;
+    mutationLog = null;
+    closeMutationLog();
+
+    CompletableFuture<Void> discarded = log != null
+        ? log.discard() : CompletableFuture.completedFuture(null);
+    discarded.thenCompose(ignored -> storage.load(weekPath))
+        .whenComplete((opened, e) -> Platform.runLater(() -> {
+          if (e != null) {
+            raisePopup("Error - Failed to open",
+                "Failed to read this week's .bujo file: " + e.getMessage());
+          } else {
+            opened.setPath(weekPath);
+            showOpenedWeek(opened);
+          }
+        }));
+  }
+
+  /**
+   * Stops or resumes writing the week's .bujo file on its own, through autosave and through
+   * compaction of its mutation log
+   *
+   * @param suspended true to stop writing, false to resume
+   */
+  private void setSavingSuspended(boolean suspended) {
+    autosave.setSuspended(suspended);
+    if (mutationLog != null) {
+      mutationLog.setCompactionSuspended(suspended);
+    }
+    if (loadDiskVersionMenuItem != null) {
+      loadDiskVersionMenuItem.setDisable(!suspended);
+    }
+  }
+
+  /**
+   * Informs the user about the outcome of a save once it completes
+   *
+   * @param save future of the save to report on
+   */
+  private void reportSave(CompletableFuture<Void> save) {
+    Week savedWeek = week;
+    long revision = savedWeek.getRevision();
+    save.whenComplete((ignored, e) -> Platform.runLater(() -> {
+      if (e == null) {
+        savedWeek.markSaved(revision);
+        if (snapshots != null && savedWeek.getRevision() == revision) {
+          // History is best effort, a failed snapshot does not fail the save
+          snapshots.snapshot(savedWeek);
+        }
+        raisePopup("Success",
+            "This week's .bujo file is saved successfully");
+      } else {
+        raisePopup("Error - Failed to save",
+            "Failed to save this week's .bujo file."
+                + " Try saving at another location through Save As...");
+      }
+    }));
+  }
+
+  /**
+   * Starts logging item mutations beside the week's current .bujo file and watching it for
+   * changes made by other programs, and writes the file so that it holds everything logged
+   * before
+   *
+   * @return future completed once the .bujo file is written
+   */
+  private CompletableFuture<Void> openMutationLog() {
+    closeMutationLog();
+    try {
+      mutationLog = new MutationLog(week, week.getPath(), saveService,
+          MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    snapshots = new SnapshotStore(week.getPath());
+    CompletableFuture<Void> written = mutationLog.compact();
+    try {
+      watcher = new WeekFileWatcher(week, week.getPath(), saveService, Platform::runLater,
+          WeekFileWatcher.DEFAULT_QUIET_PERIOD, this::handleWeekReloaded);
+    } catch (IOException ignored) {
+      // Live reload is best effort, the week still works without it
+    }
+    return written;
+  }
+
+  /**
+   * Shows the days another program changed in the week's file, and warns about days changed
+   * there that cannot be merged with this version
+   *
+   * @param refreshed days copied from the file into the week
+   * @param conflicting days changed in the file that cannot be merged, left as they are here
+   */
+  private void handleWeekReloaded(List<DayOfWeek> refreshed, List<DayOfWeek> conflicting) {
+    if (weekDayBars != null) {
+      for (DayOfWeek day : refreshed) {
+        displayDayItems(day.ordinal(), week.getDays().get(day.ordinal()));
+      }
+      displayTaskbarItems();
+    }
+
+    if (!conflicting.isEmpty()) {
+      setSavingSuspended(true);
+      raisePopup("Warning - Changed on disk",
+          "Another program changed " + conflicting + " in this week's .bujo file"
+              + " in a way that cannot be merged with the version shown here, usually because"
+              + " they also have unsaved changes here. Autosave is paused so that neither"
+              + " version is lost. Save to keep the version shown here,"
+              + " or choose File > Load Version on Disk to drop it and load the other one.");
+    }
+  }
+
+  /**
+   * Stops logging item mutations of the week, if they are being logged, stops watching its
+   * file and lets pending snapshots finish
+   */
+  private void closeMutationLog() {
+    if (watcher != null) {
+      try {
+        watcher.close();
+      } catch (IOException ignored) {
+        // Nothing is written by the watcher
+      }
+      watcher = null;
+    }
+    if (snapshots != null) {
+      snapshots.close();
+      snapshots = null;
+    }
+    if (mutationLog != null) {
+      try {
+        mutationLog.close();
+      } catch (IOException ignored) {
+        // Every record was already forced to disk
+      }
+      mutationLog = null;
     }
   }
 
@@ -441,25 +640,12 @@ public class WeekScreenController implements ScreenController {
       Stage addTaskStage = new Stage();
       Lockbox<Task> newTaskLockbox = new Lockbox<>();
       newTaskLockbox.putItemInLockbox((Task) item);
-      try {
-        week.removeItem(item);
-      } catch (IllegalAccessException e) {
-        throw new RuntimeException("Error removing item from week");
-      }
       ScreenController taskScreenController =
           new TaskScreenController(addTaskStage, newTaskLockbox);
       taskScreenController.run();
 
       addTaskStage.setOnHiding(e -> {
-        try {
-          Item newItem = newTaskLockbox.getItemInLockbox();
-          if (newTaskLockbox.getItemInLockbox() != null) {
-            week.addItem(newItem);
-          }
-
-        } catch (IllegalStateException ignored) {
-          // Ignore
-        }
+        applyItemEdit(item, newTaskLockbox);
         displayTaskbarItems();
         displayWeekItems();
       });
@@ -469,24 +655,12 @@ public class WeekScreenController implements ScreenController {
       Stage addEventStage = new Stage();
       Lockbox<Event> newEventLockbox = new Lockbox<>();
       newEventLockbox.putItemInLockbox((Event) item);
-      try {
-        week.removeItem(item);
-      } catch (IllegalAccessException e) {
-        throw new RuntimeException("Error removing item from week");
-      }
       ScreenController eventScreenController =
           new EventScreenController(addEventStage, newEventLockbox);
       eventScreenController.run();
 
       addEventStage.setOnHiding(e -> {
-        try {
-          Item newItem = newEventLockbox.getItemInLockbox();
-          if (newEventLockbox.getItemInLockbox() != null) {
-            week.addItem(newItem);
-          }
-        } catch (IllegalStateException ignored) {
-          // Ignore
-        }
+        applyItemEdit(item, newEventLockbox);
         displayWeekItems();
         displayTaskbarItems();
       });
@@ -496,6 +670,39 @@ public class WeekScreenController implements ScreenController {
 
   }
 
+  /**
+   * Applies the outcome of an item's dialog to the week once the dialog is closed, in a single
+   * step, so that the item is never missing from the week or its log while the dialog is open
+   *
+   * @param original the item shown in the dialog
+   * @param lockbox the lockbox the dialog returned the item in: still holding the original one
+   *                if it was left as it was, or emptied if it was deleted
+   */
+  private void applyItemEdit(Item original, Lockbox<? extends Item> lockbox) {
+    Item edited;
+    try {
+      edited = lockbox.getItemInLockbox();
+    } catch (IllegalStateException deleted) {
+      edited = null;
+    }
+    if (edited == original) {
+      return;
+    }
+    try {
+      if (edited == null) {
+        week.removeItem(original.getDay(), original.getId());
+      } else {
+        week.replaceItem(original, edited);
+      }
+    } catch (IllegalAccessException e) {
+      // The day was reloaded from disk meanwhile, so the edit applies to nothing
+    } catch (IllegalArgumentException e) {
+      raisePopup("Error",
+          "The item could not be changed, please try a different name or start time");
+    }
+    autosave.notifyChanged();
+  }
+
   /**
    * Handles key press events
    *
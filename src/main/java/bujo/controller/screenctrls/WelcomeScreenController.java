@@ -1,18 +1,28 @@
 package bujo.controller.screenctrls;
 
+import static bujo.controller.AppUtils.getUserChosenDirectory;
 import static bujo.controller.AppUtils.getUserChosenFile;
 import static bujo.controller.AppUtils.handleTogglePlayer;
+import static bujo.controller.AppUtils.raisePopup;
 import static bujo.controller.AppUtils.setupSplashScreenTimeline;
 
+import bujo.controller.AsyncStorage;
 import bujo.controller.Lockbox;
-import bujo.controller.StorageManager;
+import bujo.controller.WeekCatalog;
+import bujo.controller.WeekSummary;
 import bujo.model.Week;
 import bujo.view.ScreenView;
 
 import java.awt.event.KeyEvent;
 import java.nio.file.Path;
+import java.util.List;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.media.MediaPlayer;
@@ -26,9 +36,13 @@ public class WelcomeScreenController implements ScreenController {
   private Button createNewWeekButton;
   @FXML
   private Button openWeekButton;
+  @FXML
+  private Button browseJournalButton;
   private final Stage primaryStage;
   private final Lockbox<Week> weekLockbox;
   private final MediaPlayer player;
+  private final AsyncStorage storage;
+  private final WeekCatalog catalog;
 
   /**
    * Constructor for WelcomeScreenController
@@ -36,12 +50,15 @@ public class WelcomeScreenController implements ScreenController {
    * @param primaryStage stage on which the welcome screen is to be displayed
    * @param weekLockbox lockbox for transferring entry point week into the main controller
    * @param player the media player
+   * @param storage storage loading weeks off the FX thread
    */
   public WelcomeScreenController(Stage primaryStage, Lockbox<Week> weekLockbox,
-                                 MediaPlayer player) {
+                                 MediaPlayer player, AsyncStorage storage) {
     this.primaryStage = primaryStage;
     this.weekLockbox = weekLockbox;
     this.player = player;
+    this.storage = storage;
+    this.catalog = new WeekCatalog();
   }
 
   /**
@@ -74,6 +91,7 @@ public class WelcomeScreenController implements ScreenController {
   private void initButtons() {
     this.createNewWeekButton.setOnAction(e -> handleNewWeek());
     this.openWeekButton.setOnAction(e -> handleOpenWeek());
+    this.browseJournalButton.setOnAction(e -> handleBrowseJournal());
   }
 
   /**
@@ -104,31 +122,109 @@ public class WelcomeScreenController implements ScreenController {
   private void handleOpenWeek() {
     Path weekPath = getUserChosenFile(true, primaryStage);
     if (weekPath != null) {
-      Week week = StorageManager.readFile(weekPath);
-      week.setPath(weekPath);
-
-      if (!week.getHashedPassword().isEmpty()) {
-        Stage popUpStage = new Stage();
-        popUpStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
-
-        Lockbox<Week> passwordAuthLockbox = new Lockbox<>();
-        passwordAuthLockbox.putItemInLockbox(week);
-        ScreenController checkPassController
-            = new CheckPasswordScreenController(popUpStage, passwordAuthLockbox);
-        checkPassController.run();
-
-        popUpStage.setOnHiding(e -> {
-          try {
-            weekLockbox.putItemInLockbox(passwordAuthLockbox.getItemInLockbox());
-            primaryStage.hide();
-          } catch (IllegalStateException ignored) {
-            // Ignore
-          }
-        });
+      openWeek(weekPath);
+    }
+  }
+
+  /**
+   * Handler for "browse journal" option
+   * Opens a directory chooser and lists the weeks in the chosen journal directory
+   */
+  private void handleBrowseJournal() {
+    Path directory = getUserChosenDirectory(primaryStage);
+    if (directory != null) {
+      catalog.scan(directory).whenComplete((summaries, e) -> Platform.runLater(() -> {
+        if (e != null) {
+          raisePopup("Error - Failed to browse",
+              "Failed to list the selected folder: " + e.getMessage());
+        } else {
+          showCatalog(directory, summaries);
+        }
+      }));
+    }
+  }
+
+  /**
+   * Shows the weeks of a journal directory in a pop-up, opening a week when it is double-clicked
+   *
+   * @param directory the journal directory
+   * @param summaries summaries of the weeks in the directory
+   */
+  private void showCatalog(Path directory, List<WeekSummary> summaries) {
+    ListView<WeekSummary> weekList = new ListView<>(FXCollections.observableList(summaries));
+    weekList.setCellFactory(view -> new ListCell<>() {
+      @Override
+      protected void updateItem(WeekSummary summary, boolean empty) {
+        super.updateItem(summary, empty);
+        if (empty || summary == null) {
+          setText(null);
+        } else if (summary.isPasswordProtected()) {
+          setText(summary.getName() + " (locked)");
+        } else {
+          setText(summary.getName() + " - " + summary.getTaskCount() + " tasks, "
+              + summary.getEventCount() + " events");
+        }
+      }
+    });
+
+    Stage popUpStage = new Stage();
+    popUpStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
+    popUpStage.setTitle("Journal - " + directory.getFileName());
+    popUpStage.setScene(new Scene(weekList, 500, 600));
+    weekList.setOnMouseClicked(e -> {
+      WeekSummary selected = weekList.getSelectionModel().getSelectedItem();
+      if (e.getClickCount() == 2 && selected != null) {
+        popUpStage.hide();
+        openWeek(selected.getPath());
+      }
+    });
+    popUpStage.show();
+  }
+
+  /**
+   * Opens the week at the given path, asking for its password if it has one
+   *
+   * @param weekPath path to the .bujo file
+   */
+  private void openWeek(Path weekPath) {
+    storage.load(weekPath).whenComplete((week, e) -> Platform.runLater(() -> {
+      if (e != null) {
+        raisePopup("Error - Failed to open",
+            "Failed to read the selected .bujo file: " + e.getMessage());
       } else {
-        weekLockbox.putItemInLockbox(week);
-        primaryStage.hide();
+        week.setPath(weekPath);
+        showWeek(week);
       }
+    }));
+  }
+
+  /**
+   * Hands a loaded week over to the week screen, asking for its password if it has one
+   *
+   * @param week the loaded week
+   */
+  private void showWeek(Week week) {
+    if (!week.getHashedPassword().isEmpty()) {
+      Stage popUpStage = new Stage();
+      popUpStage.getIcons().add(new Image("file:src/main/resources/media/icon.png"));
+
+      Lockbox<Week> passwordAuthLockbox = new Lockbox<>();
+      passwordAuthLockbox.putItemInLockbox(week);
+      ScreenController checkPassController
+          = new CheckPasswordScreenController(popUpStage, passwordAuthLockbox);
+      checkPassController.run();
+
+      popUpStage.setOnHiding(e -> {
+        try {
+          weekLockbox.putItemInLockbox(passwordAuthLockbox.getItemInLockbox());
+          primaryStage.hide();
+        } catch (IllegalStateException ignored) {
+          // Ignore
+        }
+      });
+    } else {
+      weekLockbox.putItemInLockbox(week);
+      primaryStage.hide();
     }
   }
 
@@ -142,6 +238,7 @@ public class WelcomeScreenController implements ScreenController {
     switch (keyCode) {
       case KeyEvent.VK_N -> handleNewWeek();
       case KeyEvent.VK_O -> handleOpenWeek();
+      case KeyEvent.VK_B -> handleBrowseJournal();
       case KeyEvent.VK_M -> handleTogglePlayer(player);
       case KeyEvent.VK_Q -> primaryStage.hide();
       default -> {
@@ -2,18 +2,50 @@ package bujo.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * A day in the week
+ *
+ * <p>Items are kept in display order as they are added, events by start time followed by tasks
+ * in the order they were added, so no mutation re-sorts the day. Items are also indexed by name
+ * and by ID, and counted by type, so lookups, duplicate checks and overbooking checks take
+ * constant time and adding or removing an item takes logarithmic time whatever the size of the
+ * day.
+ *
+ * <p>Stored items never change, a completed task being replaced by a completed copy, so readers
+ * are handed the stored items themselves, in a read-only list that is only rebuilt after the
+ * day changed.
+ *
+ * <p>Events are also kept in an interval tree, along with a running count of the pairs of
+ * events that overlap in time, so finding the events overlapping one takes O(log n + k) time for
+ * k of them and telling whether the day has any conflict takes constant time.
+ *
+ * <p>Free time is found by sweeping the events in start order, in time linear in the number of
+ * events and without allocating anything but the result.
  */
 public class Day {
-  private ArrayList<Item> items;
+  // Position keys: tasks after every event, then start minute, then order of addition
+  private static final long TASK_POSITION = 1L << 52;
+  private static final int START_SHIFT = 40;
+  // Events whose start time cannot be read sort after the last minute of the day
+  private static final int UNREADABLE_START = 24 * 60;
+
+  private final TreeMap<Long, Item> items = new TreeMap<>();
+  private final Map<String, Slot> itemsByName = new HashMap<>();
+  private final Map<String, Slot> itemsById = new HashMap<>();
+  private long nextSequence;
+  private int eventCount;
+  private int taskCount;
+  // Events that take up time, and the number of pairs of them that overlap
+  private final EventIntervals eventIntervals = new EventIntervals();
+  private int conflictCount;
+  // Read-only snapshot of the items in display order, null once the day changed
+  private List<Item> snapshot;
   private DayOfWeek dayOfWeek;
   private boolean eventsOverbooked;
   private boolean tasksOverbooked;
@@ -26,20 +58,24 @@ public class Day {
   public Day(DayOfWeek day) {
 
     this.dayOfWeek = day;
-    this.items = new ArrayList<>();
   }
 
   /**
-   * Creates a new day.
+   * Creates a new day. Events whose start time cannot be read are kept, after all other events.
    *
    * @param day the day of the week
    * @param items the items on the day
+   * @throws IllegalArgumentException if two items share a name or an ID
    */
   @JsonCreator
   public Day(@JsonProperty ("day") DayOfWeek day,
-             @JsonProperty("items") ArrayList<Item> items) {
+             @JsonProperty("items") List<Item> items) {
     this.dayOfWeek = day;
-    this.items = items;
+    if (items != null) {
+      for (Item item : items) {
+        insert(item, startMinutesOrLast(item));
+      }
+    }
   }
 
   /**
@@ -48,13 +84,7 @@ public class Day {
    * @return true if the number of tasks on this day is greater than maxTasks
    */
   public boolean checkTasksOverbooked(int maxTasks) {
-    int count = 0;
-    for (Item i : items) {
-      if (i.getType() == ItemType.TASK) {
-        count++;
-      }
-    }
-    tasksOverbooked = (count > maxTasks);
+    tasksOverbooked = (taskCount > maxTasks);
     return tasksOverbooked;
   }
 
@@ -64,13 +94,7 @@ public class Day {
    * @return true if the number of events on this day is greater than maxEvents
    */
   public boolean checkEventsOverbooked(int maxEvents) {
-    int count = 0;
-    for (Item i : items) {
-      if (i.getType() == ItemType.EVENT) {
-        count++;
-      }
-    }
-    eventsOverbooked = (count > maxEvents);
+    eventsOverbooked = (eventCount > maxEvents);
     return eventsOverbooked;
   }
 
@@ -80,18 +104,21 @@ public class Day {
    * @param item the item to add to the day
    * @param maxEvents the maximum number of events allowed on this day
    * @param maxTasks the maximum number of tasks allowed on this day
-   * @throws IllegalArgumentException if the item already exists in the day
+   * @throws IllegalArgumentException if the item already exists in the day, or it is an event
+   *                                  whose start time cannot be read
    */
   public void addItem(Item item, int maxEvents, int maxTasks) throws IllegalArgumentException {
-    for (Item i : items) {
-      if (i.getName().equals(item.getName())) {
-        throw new IllegalArgumentException("Item by that name already exists in this day");
+    int startMinutes = 0;
+    if (item.getType() == ItemType.EVENT) {
+      startMinutes = ((Event) item).getStartMinutes();
+      if (startMinutes == Event.UNKNOWN_MINUTES) {
+        throw new IllegalArgumentException("Invalid start time: "
+            + ((Event) item).getStartTime());
       }
     }
-    items.add(item);
+    insert(item, startMinutes);
     checkEventsOverbooked(maxEvents);
     checkTasksOverbooked(maxTasks);
-    sortItems();
   }
 
   /**
@@ -104,33 +131,145 @@ public class Day {
     return checkEventsOverbooked(maxEvents) || checkTasksOverbooked(maxTasks);
   }
 
+  /**
+   *
+   * @return true if any two events on this day overlap in time
+   */
+  public boolean hasConflicts() {
+    return conflictCount > 0;
+  }
+
+  /**
+   * Returns the events on this day that overlap an event in time, in order of their start.
+   *
+   * @param event the event, on this day or not
+   * @return the other events overlapping it; none if it takes up no time
+   */
+  public List<Event> getConflicts(Event event) {
+    if (!EventIntervals.takesTime(event)) {
+      return List.of();
+    }
+    List<Event> conflicts = eventIntervals.overlapping(event.getStartMinutes(),
+        EventIntervals.endMinutes(event));
+    conflicts.removeIf(other -> other.getId().equals(event.getId()));
+    return conflicts;
+  }
+
+  /**
+   * Returns the earliest window of free time of at least the given length within a span of the
+   * day. Events whose start time or duration cannot be read take up no time.
+   *
+   * @param minutes the length of the window, in minutes
+   * @param fromMinutes start of the span searched, such as the start of working hours
+   * @param toMinutes end of the span searched, exclusive
+   * @return the earliest free interval at least that long, or null if there is none
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  the day
+   */
+  public TimeSlot findFreeSlot(int minutes, int fromMinutes, int toMinutes) {
+    return sweepFreeSlots(minutes, fromMinutes, toMinutes, null);
+  }
+
+  /**
+   * Returns the intervals of free time of at least the given length within a span of the day,
+   * in order. Events whose start time or duration cannot be read take up no time.
+   *
+   * @param minMinutes the shortest interval returned, in minutes
+   * @param fromMinutes start of the span searched, such as the start of working hours
+   * @param toMinutes end of the span searched, exclusive
+   * @return the free intervals
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  the day
+   */
+  public List<TimeSlot> getFreeSlots(int minMinutes, int fromMinutes, int toMinutes) {
+    List<TimeSlot> slots = new ArrayList<>();
+    sweepFreeSlots(minMinutes, fromMinutes, toMinutes, slots);
+    return slots;
+  }
+
   /**
    *
    * @param itemName the name of the item to remove
    * @throws IllegalAccessException if the item does not exist in the day
    */
   public void removeItem(String itemName) throws IllegalAccessException {
-    for (Item i : items) {
-      if (i.getName().equals(itemName)) {
-        items.remove(i);
-        sortItems();
-        return;
-      }
+    Slot slot = itemsByName.get(itemName);
+    if (slot == null) {
+      throw new IllegalAccessException("Item does not exist in this day, cannot remove it");
     }
-    throw new IllegalAccessException("Item does not exist in this day, cannot remove it");
+    remove(slot);
   }
 
   /**
-   * Returns a deep copy of the item list
+   * Removes the item with the given ID.
    *
-   * @return deep copy of item list
+   * @param itemId the ID of the item to remove
+   * @return the removed item
+   * @throws IllegalAccessException if the item does not exist in the day
    */
-  public ArrayList<Item> getItems() {
-    ArrayList<Item> copy = new ArrayList<>();
-    for (Item item : items) {
-      copy.add(item.copy());
+  public Item removeItemById(String itemId) throws IllegalAccessException {
+    Slot slot = itemsById.get(itemId);
+    if (slot == null) {
+      throw new IllegalAccessException("Item does not exist in this day, cannot remove it");
     }
-    return copy;
+    remove(slot);
+    return slot.item;
+  }
+
+  /**
+   * Returns the item with the given ID
+   *
+   * @param itemId the ID of the item
+   * @return the item with that ID, or null if the day has none
+   */
+  public Item getItemById(String itemId) {
+    Slot slot = itemsById.get(itemId);
+    return slot != null ? slot.item : null;
+  }
+
+  /**
+   *
+   * @param itemName the name of an item
+   * @return the ID of the item by that name, or null if the day has none
+   */
+  public String getItemId(String itemName) {
+    Slot slot = itemsByName.get(itemName);
+    return slot != null ? slot.item.getId() : null;
+  }
+
+  /**
+   * Looks up the stored item with the given name, without copying it
+   *
+   * @param itemName the name of the item
+   * @return the item by that name, or null if the day has none
+   */
+  Item getItem(String itemName) {
+    Slot slot = itemsByName.get(itemName);
+    return slot != null ? slot.item : null;
+  }
+
+  /**
+   * Looks up the stored item with the given ID, without copying it
+   *
+   * @param itemId the ID of the item
+   * @return the item with that ID, or null if the day has none
+   */
+  Item getStoredItemById(String itemId) {
+    Slot slot = itemsById.get(itemId);
+    return slot != null ? slot.item : null;
+  }
+
+  /**
+   * Returns the items in display order. The list is read-only and does not follow later changes
+   * to the day; reading it again without changes in between costs nothing.
+   *
+   * @return read-only snapshot of the item list
+   */
+  public List<Item> getItems() {
+    if (snapshot == null) {
+      snapshot = List.copyOf(items.values());
+    }
+    return snapshot;
   }
 
   /**
@@ -142,33 +281,185 @@ public class Day {
   }
 
   /**
-   * Sorts the items in the day by date and type
+   * Replaces a stored item with a changed version of it, at the same position in display order.
+   *
+   * @param stored the stored item
+   * @param replacement the new version of the item, with the same ID, name and type
    */
-  private void sortItems() {
-    // Put the Events first, by date order
-    List<Event> events = new ArrayList<>();
-    List<Item> tasks = new ArrayList<>();
-    for (Item i : items) {
-      if (i.getType() == ItemType.EVENT) {
-        events.add((Event) i);
-      } else {
-        tasks.add(i);
-      }
+  void replaceItem(Item stored, Item replacement) {
+    Slot slot = itemsById.get(stored.getId());
+    Slot replaced = new Slot(replacement, slot.position);
+    if (stored.getType() == ItemType.EVENT) {
+      unindexEvent((Event) stored, slot.position);
+      indexEvent((Event) replacement, slot.position);
+    }
+    replacement.markStored();
+    items.put(slot.position, replacement);
+    itemsByName.put(replacement.getName(), replaced);
+    itemsById.put(replacement.getId(), replaced);
+    snapshot = null;
+  }
+
+  /**
+   * Adds an item at its position in display order and to the indexes and counts.
+   *
+   * @param item the item to add
+   * @param startMinutes start of the item if it is an event, in minutes from midnight
+   * @throws IllegalArgumentException if the day already has an item with its name or ID
+   */
+  private void insert(Item item, int startMinutes) {
+    if (itemsByName.containsKey(item.getName())) {
+      throw new IllegalArgumentException("Item by that name already exists in this day");
+    }
+    if (itemsById.containsKey(item.getId())) {
+      throw new IllegalArgumentException("Item with that ID already exists in this day");
     }
 
-    // Sort the events by date
-    Collections.sort(events, new Comparator<Event>() {
-      @Override
-      public int compare(Event o1, Event o2) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mm a");
-        LocalTime o1Time = LocalTime.parse(o1.getStartTime(), formatter);
-        LocalTime o2Time = LocalTime.parse(o2.getStartTime(), formatter);
-        return o1Time.compareTo(o2Time);
+    long sequence = nextSequence++;
+    long position;
+    if (item.getType() == ItemType.EVENT) {
+      position = ((long) startMinutes << START_SHIFT) | sequence;
+      eventCount++;
+      indexEvent((Event) item, position);
+    } else {
+      position = TASK_POSITION | sequence;
+      taskCount++;
+    }
+    Slot slot = new Slot(item, position);
+    item.markStored();
+    items.put(position, item);
+    itemsByName.put(item.getName(), slot);
+    itemsById.put(item.getId(), slot);
+    snapshot = null;
+  }
+
+  /**
+   * Removes an item from the day, its indexes and counts. The order of the other items is kept.
+   *
+   * @param slot the slot of the stored item to remove
+   */
+  private void remove(Slot slot) {
+    items.remove(slot.position);
+    snapshot = null;
+    itemsByName.remove(slot.item.getName());
+    itemsById.remove(slot.item.getId());
+    if (slot.item.getType() == ItemType.EVENT) {
+      eventCount--;
+      unindexEvent((Event) slot.item, slot.position);
+    } else {
+      taskCount--;
+    }
+  }
+
+  /**
+   * Sweeps the events in start order, keeping track of the end of the time taken so far, and
+   * reports the gaps of at least the given length between it and the next event.
+   *
+   * @param minMinutes the shortest gap reported
+   * @param fromMinutes start of the span searched
+   * @param toMinutes end of the span searched, exclusive
+   * @param slots list every gap is added to, or null to stop at the first one
+   * @return the first gap if slots is null, otherwise null
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  the day
+   */
+  private TimeSlot sweepFreeSlots(int minMinutes, int fromMinutes, int toMinutes,
+                                  List<TimeSlot> slots) {
+    if (minMinutes < 1 || fromMinutes < TimeSlot.START_OF_DAY || toMinutes > TimeSlot.END_OF_DAY
+        || fromMinutes > toMinutes) {
+      throw new IllegalArgumentException("Invalid free time search: " + minMinutes
+          + " minutes between " + fromMinutes + " and " + toMinutes);
+    }
+    // Events come first in display order, by start time
+    List<Item> ordered = getItems();
+    int free = fromMinutes;
+    for (int i = 0; i < eventCount && free < toMinutes; i++) {
+      Event event = (Event) ordered.get(i);
+      if (!EventIntervals.takesTime(event)) {
+        continue;
+      }
+      int start = event.getStartMinutes();
+      if (start >= toMinutes) {
+        break;
+      }
+      if (start - free >= minMinutes) {
+        TimeSlot slot = new TimeSlot(dayOfWeek, free, start);
+        if (slots == null) {
+          return slot;
+        }
+        slots.add(slot);
       }
-    });
+      free = Math.max(free, EventIntervals.endMinutes(event));
+    }
+    if (toMinutes - free >= minMinutes) {
+      TimeSlot slot = new TimeSlot(dayOfWeek, free, toMinutes);
+      if (slots == null) {
+        return slot;
+      }
+      slots.add(slot);
+    }
+    return null;
+  }
+
+  /**
+   * Adds an event to the interval index if it takes up time, counting the events it overlaps.
+   *
+   * @param event the event
+   * @param position the event's key in display order
+   */
+  private void indexEvent(Event event, long position) {
+    if (EventIntervals.takesTime(event)) {
+      conflictCount += eventIntervals.overlapping(event.getStartMinutes(),
+          EventIntervals.endMinutes(event)).size();
+      eventIntervals.add(position, event);
+    }
+  }
+
+  /**
+   * Removes an event from the interval index, no longer counting the events it overlaps.
+   *
+   * @param event the event
+   * @param position the event's key in display order
+   */
+  private void unindexEvent(Event event, long position) {
+    if (eventIntervals.remove(position)) {
+      conflictCount -= eventIntervals.overlapping(event.getStartMinutes(),
+          EventIntervals.endMinutes(event)).size();
+    }
+  }
 
-    items = new ArrayList<>(); //purge the old list
-    items.addAll(events);
-    items.addAll(tasks);
+  /**
+   * Returns the start of an item read from a file, which may hold a start time the editor would
+   * not have accepted.
+   *
+   * @param item the item
+   * @return start of the item if it is an event with a readable start time, in minutes from
+   *         midnight, after the end of the day if it is an event without one, and 0 otherwise
+   */
+  private static int startMinutesOrLast(Item item) {
+    if (item.getType() != ItemType.EVENT) {
+      return 0;
+    }
+    int startMinutes = ((Event) item).getStartMinutes();
+    return startMinutes == Event.UNKNOWN_MINUTES ? UNREADABLE_START : startMinutes;
+  }
+
+  /**
+   * A stored item and its key in display order
+   */
+  private static final class Slot {
+    private final Item item;
+    private final long position;
+
+    /**
+     * Creates a new slot.
+     *
+     * @param item the stored item
+     * @param position the item's key in display order
+     */
+    private Slot(Item item, long position) {
+      this.item = item;
+      this.position = position;
+    }
   }
 }
@@ -1,15 +1,31 @@
 package bujo.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 /**
  * An event that can be added to a day in the calendar.
+ *
+ * <p>The start time and duration are stored as the strings the user sees, and also parsed once,
+ * when the event is created, into minutes, so that sorting and arithmetic on events never
+ * parse strings.
  */
+// Keeps the field order of files written before the creator read the start time
+@JsonPropertyOrder({"id", "name", "description", "day", "duration", "type", "startTime"})
 public class Event extends Item {
 
+  /**
+   * Minutes returned for a start time or duration that cannot be read
+   */
+  public static final int UNKNOWN_MINUTES = -1;
+
   private String startTime;
   private String duration;
+  private final int startMinutes;
+  private final int durationMinutes;
 
   /**
    * Creates a new event.
@@ -21,18 +37,54 @@ public class Event extends Item {
    * @param duration the duration of the event, formatted as: "XX Min" or "XX Hr YY Min" or "XX Hr"
    * @param type type of item
    */
+  public Event(String name, String description, DayOfWeek day, String startTime,
+               String duration, ItemType type) {
+    super(name, description, day);
+    this.startTime = startTime;
+    this.duration = duration;
+    this.startMinutes = readStartMinutes(startTime);
+    this.durationMinutes = readDurationMinutes(duration);
+  }
+
+  /**
+   * Creates an event with a known ID, with JSON creation capabilities.
+   *
+   * @param id the stable ID of the event, or null to derive one for an event stored without it
+   * @param name the name of the event
+   * @param description the description of the event (OPTIONAL)
+   * @param day the day of the week the event is on
+   * @param startTime the start time of the event, formatted as: "HH:MM AM/PM"
+   * @param duration the duration of the event, formatted as: "XX Min" or "XX Hr YY Min" or "XX Hr"
+   * @param type type of item
+   */
   @JsonCreator
   public Event(
+      @JsonProperty("id") String id,
       @JsonProperty("name") String name,
       @JsonProperty ("description") String description,
       @JsonProperty ("day") DayOfWeek day,
-      @JsonProperty ("start-time") String startTime,
+      @JsonProperty ("startTime") @JsonAlias("start-time") String startTime,
       @JsonProperty ("duration") String duration,
       @JsonProperty ("type") ItemType type
   ) {
-    super(name, description, day);
+    super(id, name, description, day);
     this.startTime = startTime;
     this.duration = duration;
+    this.startMinutes = readStartMinutes(startTime);
+    this.durationMinutes = readDurationMinutes(duration);
+  }
+
+  /**
+   * Creates a copy of an event, reusing its parsed times.
+   *
+   * @param event the event to copy
+   */
+  private Event(Event event) {
+    super(event.getId(), event.getName(), event.getDescription(), event.getDay());
+    this.startTime = event.startTime;
+    this.duration = event.duration;
+    this.startMinutes = event.startMinutes;
+    this.durationMinutes = event.durationMinutes;
   }
 
   /**
@@ -51,6 +103,25 @@ public class Event extends Item {
     return duration;
   }
 
+  /**
+   *
+   * @return the event's start in minutes from midnight, or UNKNOWN_MINUTES if the start time
+   *         cannot be read
+   */
+  @JsonIgnore
+  public int getStartMinutes() {
+    return startMinutes;
+  }
+
+  /**
+   *
+   * @return the event's duration in minutes, or UNKNOWN_MINUTES if the duration cannot be read
+   */
+  @JsonIgnore
+  public int getDurationMinutes() {
+    return durationMinutes;
+  }
+
   /**
    *
    * @return the type of the item
@@ -66,8 +137,35 @@ public class Event extends Item {
    */
   @Override
   public Item copy() {
-    return new Event(this.getName(), this.getDescription(), this.getDay(),
-        this.getStartTime(), this.getDuration(), this.getType());
+    return new Event(this);
+  }
+
+  /**
+   * Parses a start time, tolerating ones that cannot be read.
+   *
+   * @param startTime the start time, formatted as: "HH:MM AM/PM"
+   * @return minutes from midnight until the start time, or UNKNOWN_MINUTES
+   */
+  private static int readStartMinutes(String startTime) {
+    try {
+      return startTime == null ? UNKNOWN_MINUTES : EventTimes.parseStartMinutes(startTime);
+    } catch (IllegalArgumentException e) {
+      return UNKNOWN_MINUTES;
+    }
+  }
+
+  /**
+   * Parses a duration, tolerating ones that cannot be read.
+   *
+   * @param duration the duration, formatted as: "XX Min" or "XX Hr YY Min" or "XX Hr"
+   * @return the duration in minutes, or UNKNOWN_MINUTES
+   */
+  private static int readDurationMinutes(String duration) {
+    try {
+      return duration == null ? UNKNOWN_MINUTES : EventTimes.parseDurationMinutes(duration);
+    } catch (IllegalArgumentException e) {
+      return UNKNOWN_MINUTES;
+    }
   }
 
 }
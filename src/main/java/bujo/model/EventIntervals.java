@@ -0,0 +1,268 @@
+package bujo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interval tree of the events of a day, finding the events that overlap a span of time in
+ * O(log n + k) time for k overlapping events.
+ *
+ * <p>Events are kept in an AVL tree ordered by their key in the day's display order, which orders
+ * them by start time. Every node also holds the latest end in its subtree, so that a search skips
+ * the subtrees ending before the span. An event spans [start, start + duration) in minutes from
+ * midnight; events whose start or duration is unknown, or whose duration is zero, take up no time
+ * and are not indexed.
+ */
+final class EventIntervals {
+  private Node root;
+  private boolean removed;
+
+  /**
+   *
+   * @param event an event
+   * @return true if the event takes up time and can be indexed
+   */
+  static boolean takesTime(Event event) {
+    return event.getStartMinutes() != Event.UNKNOWN_MINUTES && event.getDurationMinutes() > 0;
+  }
+
+  /**
+   *
+   * @param event an event that takes up time
+   * @return end of the event, in minutes from midnight of its day
+   */
+  static int endMinutes(Event event) {
+    return event.getStartMinutes() + event.getDurationMinutes();
+  }
+
+  /**
+   * Adds an event that takes up time.
+   *
+   * @param key the event's key in display order, unique within the day
+   * @param event the event
+   */
+  void add(long key, Event event) {
+    root = insert(root, new Node(key, event));
+  }
+
+  /**
+   * Removes the event with the given key, if it is indexed.
+   *
+   * @param key the event's key in display order
+   * @return true if an event was removed
+   */
+  boolean remove(long key) {
+    removed = false;
+    root = delete(root, key);
+    return removed;
+  }
+
+  /**
+   * Returns the events overlapping a span of time, in order of their start.
+   *
+   * @param startMinutes start of the span, in minutes from midnight
+   * @param endMinutes end of the span, exclusive
+   * @return the indexed events that overlap the span
+   */
+  List<Event> overlapping(int startMinutes, int endMinutes) {
+    List<Event> events = new ArrayList<>();
+    collect(root, startMinutes, endMinutes, events);
+    return events;
+  }
+
+  /**
+   * Collects the events of a subtree that overlap a span, skipping the subtrees that end
+   * before it or start after it.
+   *
+   * @param node root of the subtree
+   * @param startMinutes start of the span
+   * @param endMinutes end of the span, exclusive
+   * @param events list the overlapping events are added to
+   */
+  private static void collect(Node node, int startMinutes, int endMinutes, List<Event> events) {
+    if (node == null || node.maxEnd <= startMinutes) {
+      return;
+    }
+    collect(node.left, startMinutes, endMinutes, events);
+    if (node.start < endMinutes) {
+      if (node.end > startMinutes) {
+        events.add(node.event);
+      }
+      collect(node.right, startMinutes, endMinutes, events);
+    }
+  }
+
+  /**
+   * Inserts a node into a subtree.
+   *
+   * @param node root of the subtree
+   * @param added the node to insert
+   * @return the new root of the subtree
+   */
+  private static Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (added.key < node.key) {
+      node.left = insert(node.left, added);
+    } else {
+      node.right = insert(node.right, added);
+    }
+    return balance(node);
+  }
+
+  /**
+   * Deletes the node with the given key from a subtree, recording whether there was one.
+   *
+   * @param node root of the subtree
+   * @param key the key to delete
+   * @return the new root of the subtree
+   */
+  private Node delete(Node node, long key) {
+    if (node == null) {
+      return null;
+    }
+    if (key < node.key) {
+      node.left = delete(node.left, key);
+    } else if (key > node.key) {
+      node.right = delete(node.right, key);
+    } else {
+      removed = true;
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      successor.right = deleteFirst(node.right);
+      successor.left = node.left;
+      node = successor;
+    }
+    return balance(node);
+  }
+
+  /**
+   * Deletes the first node of a subtree.
+   *
+   * @param node root of the subtree
+   * @return the new root of the subtree
+   */
+  private static Node deleteFirst(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = deleteFirst(node.left);
+    return balance(node);
+  }
+
+  /**
+   * Updates a node from its children and rotates it if its subtrees differ in height by two.
+   *
+   * @param node the node
+   * @return the new root of the node's subtree
+   */
+  private static Node balance(Node node) {
+    update(node);
+    int skew = height(node.left) - height(node.right);
+    if (skew > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (skew < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  /**
+   * Rotates a node down to the left.
+   *
+   * @param node the node
+   * @return its right child, the new root of the subtree
+   */
+  private static Node rotateLeft(Node node) {
+    Node right = node.right;
+    node.right = right.left;
+    update(node);
+    right.left = node;
+    update(right);
+    return right;
+  }
+
+  /**
+   * Rotates a node down to the right.
+   *
+   * @param node the node
+   * @return its left child, the new root of the subtree
+   */
+  private static Node rotateRight(Node node) {
+    Node left = node.left;
+    node.left = left.right;
+    update(node);
+    left.right = node;
+    update(left);
+    return left;
+  }
+
+  /**
+   * Recomputes the height and latest end of a node's subtree from its children.
+   *
+   * @param node the node
+   */
+  private static void update(Node node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxEnd = node.end;
+    if (node.left != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.left.maxEnd);
+    }
+    if (node.right != null) {
+      node.maxEnd = Math.max(node.maxEnd, node.right.maxEnd);
+    }
+  }
+
+  /**
+   *
+   * @param node a node, or null
+   * @return height of the node's subtree, 0 for an empty one
+   */
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * An indexed event, and the height and latest end of its subtree
+   */
+  private static final class Node {
+    private final long key;
+    private final int start;
+    private final int end;
+    private final Event event;
+    private Node left;
+    private Node right;
+    private int height = 1;
+    private int maxEnd;
+
+    /**
+     * Creates a new leaf.
+     *
+     * @param key the event's key in display order
+     * @param event the event
+     */
+    private Node(long key, Event event) {
+      this.key = key;
+      this.start = event.getStartMinutes();
+      this.end = endMinutes(event);
+      this.event = event;
+      this.maxEnd = end;
+    }
+  }
+}
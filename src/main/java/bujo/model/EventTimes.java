@@ -0,0 +1,205 @@
+package bujo.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses the display strings events store their start time and duration as, such as "6:45 PM"
+ * and "2 hrs 15 mins", into minutes, and formats minutes back into such strings.
+ *
+ * <p>A journal only ever holds a few distinct such strings, so parsed values are cached by
+ * string and repeated lookups cost one hash map hit. The caches stop growing at a fixed size,
+ * so unusual input cannot make them grow without bound.
+ */
+public final class EventTimes {
+  private static final int CACHE_LIMIT = 4096;
+  private static final Map<String, Integer> START_TIMES = new ConcurrentHashMap<>();
+  private static final Map<String, Integer> DURATIONS = new ConcurrentHashMap<>();
+
+  private EventTimes() {
+  }
+
+  /**
+   * Parses a start time formatted as: "HH:MM AM/PM"
+   *
+   * @param startTime the start time
+   * @return minutes from midnight until the start time
+   * @throws IllegalArgumentException if the start time is not formatted as expected
+   */
+  public static int parseStartMinutes(String startTime) {
+    Integer cached = START_TIMES.get(startTime);
+    if (cached != null) {
+      return cached;
+    }
+
+    int minutes = readStartMinutes(startTime);
+    if (START_TIMES.size() < CACHE_LIMIT) {
+      START_TIMES.put(startTime, minutes);
+    }
+    return minutes;
+  }
+
+  /**
+   * Parses a duration formatted as: "XX Min" or "XX Hr YY Min" or "XX Hr", where the units may
+   * be written in any case, abbreviated or in plural
+   *
+   * @param duration the duration
+   * @return the duration in minutes
+   * @throws IllegalArgumentException if the duration is not formatted as expected
+   */
+  public static int parseDurationMinutes(String duration) {
+    Integer cached = DURATIONS.get(duration);
+    if (cached != null) {
+      return cached;
+    }
+
+    int minutes = readDurationMinutes(duration);
+    if (DURATIONS.size() < CACHE_LIMIT) {
+      DURATIONS.put(duration, minutes);
+    }
+    return minutes;
+  }
+
+  /**
+   * Formats minutes from midnight as a start time, the way the event editor does: "H:MM AM/PM"
+   *
+   * @param minutes minutes from midnight, from 0 to 1439
+   * @return the start time
+   * @throws IllegalArgumentException if the minutes are not within a day
+   */
+  public static String formatStartTime(int minutes) {
+    if (minutes < 0 || minutes >= 24 * 60) {
+      throw new IllegalArgumentException("Not a time of day: " + minutes);
+    }
+    int hour = minutes / 60 % 12;
+    int minute = minutes % 60;
+    return (hour == 0 ? 12 : hour) + (minute < 10 ? ":0" : ":") + minute
+        + (minutes < 12 * 60 ? " AM" : " PM");
+  }
+
+  /**
+   * Formats a number of minutes as a duration, such as "2 hrs 15 mins" or "1 hr"
+   *
+   * @param minutes the duration in minutes
+   * @return the duration
+   * @throws IllegalArgumentException if the duration is negative
+   */
+  public static String formatDuration(int minutes) {
+    if (minutes < 0) {
+      throw new IllegalArgumentException("Negative duration: " + minutes);
+    }
+    int hours = minutes / 60;
+    int rest = minutes % 60;
+    String hourPart = hours == 1 ? "1 hr" : hours + " hrs";
+    String minutePart = rest == 1 ? "1 min" : rest + " mins";
+    if (hours == 0) {
+      return minutePart;
+    }
+    return rest == 0 ? hourPart : hourPart + " " + minutePart;
+  }
+
+  /**
+   * Parses a start time without the cache.
+   *
+   * @param text the start time
+   * @return minutes from midnight until the start time
+   * @throws IllegalArgumentException if the start time is not formatted as expected
+   */
+  private static int readStartMinutes(String text) {
+    String s = text.strip();
+    int colon = s.indexOf(':');
+    if (colon < 1 || colon > 2 || s.length() < colon + 5) {
+      throw new IllegalArgumentException("Invalid start time: " + text);
+    }
+
+    int hour = digits(s, 0, colon, text);
+    int minute = digits(s, colon + 1, colon + 3, text);
+    String amPm = s.substring(colon + 3).strip();
+    if (hour < 1 || hour > 12 || minute > 59) {
+      throw new IllegalArgumentException("Invalid start time: " + text);
+    }
+
+    hour %= 12;
+    if (amPm.equalsIgnoreCase("PM")) {
+      hour += 12;
+    } else if (!amPm.equalsIgnoreCase("AM")) {
+      throw new IllegalArgumentException("Invalid start time: " + text);
+    }
+    return hour * 60 + minute;
+  }
+
+  /**
+   * Parses a duration without the cache.
+   *
+   * @param text the duration
+   * @return the duration in minutes
+   * @throws IllegalArgumentException if the duration is not formatted as expected
+   */
+  private static int readDurationMinutes(String text) {
+    int total = 0;
+    int i = 0;
+    int n = text.length();
+    boolean any = false;
+    while (true) {
+      while (i < n && Character.isWhitespace(text.charAt(i))) {
+        i++;
+      }
+      if (i == n) {
+        break;
+      }
+
+      int numberStart = i;
+      while (i < n && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+        i++;
+      }
+      if (i == numberStart || i - numberStart > 6) {
+        throw new IllegalArgumentException("Invalid duration: " + text);
+      }
+      int amount = digits(text, numberStart, i, text);
+      while (i < n && Character.isWhitespace(text.charAt(i))) {
+        i++;
+      }
+
+      int unitStart = i;
+      while (i < n && Character.isLetter(text.charAt(i))) {
+        i++;
+      }
+      char unit = i > unitStart ? Character.toLowerCase(text.charAt(unitStart)) : ' ';
+      if (unit == 'h') {
+        total += amount * 60;
+      } else if (unit == 'm') {
+        total += amount;
+      } else {
+        throw new IllegalArgumentException("Invalid duration: " + text);
+      }
+      any = true;
+    }
+
+    if (!any) {
+      throw new IllegalArgumentException("Invalid duration: " + text);
+    }
+    return total;
+  }
+
+  /**
+   * Parses a run of decimal digits.
+   *
+   * @param s the string holding the digits
+   * @param from index of the first digit
+   * @param to index after the last digit
+   * @param text the whole text being parsed, for the error message
+   * @return the value of the digits
+   * @throws IllegalArgumentException if a character in the range is not a digit
+   */
+  private static int digits(String s, int from, int to, String text) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        throw new IllegalArgumentException("Invalid time: " + text);
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
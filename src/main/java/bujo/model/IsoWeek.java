@@ -0,0 +1,164 @@
+package bujo.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoField;
+import java.time.temporal.IsoFields;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An ISO-8601 week of a week-based year, such as 2023-W36.
+ *
+ * <p>Journal weeks run from Sunday to Saturday while ISO weeks run from Monday to Sunday, so a
+ * journal week is identified with the ISO week holding its Monday, and the journal week of an ISO
+ * week starts on the Sunday before its Monday. Weeks compare in calendar order.
+ */
+public final class IsoWeek implements Comparable<IsoWeek> {
+  private static final Pattern FORMAT = Pattern.compile("(\\d{4})-W(\\d{2})");
+
+  private final int year;
+  private final int week;
+
+  /**
+   * Creates a new ISO week.
+   *
+   * @param year the week-based year
+   * @param week the week of the year
+   */
+  private IsoWeek(int year, int week) {
+    this.year = year;
+    this.week = week;
+  }
+
+  /**
+   * Returns the given week of a week-based year.
+   *
+   * @param year the week-based year
+   * @param week the week of the year, from 1 to 52 or 53
+   * @return the ISO week
+   * @throws IllegalArgumentException if the year has no such week
+   */
+  public static IsoWeek of(int year, int week) {
+    LocalDate midYear = LocalDate.of(year, 6, 1);
+    if (week < 1 || week > midYear.range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum()) {
+      throw new IllegalArgumentException("Year " + year + " has no week " + week);
+    }
+    return new IsoWeek(year, week);
+  }
+
+  /**
+   * Returns the ISO week holding a date.
+   *
+   * @param date the date
+   * @return the ISO week the date is in
+   */
+  public static IsoWeek of(LocalDate date) {
+    return new IsoWeek(date.get(IsoFields.WEEK_BASED_YEAR),
+        date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+  }
+
+  /**
+   * Returns the ISO week identified with the journal week starting on a Sunday.
+   *
+   * @param sunday the first day of the journal week
+   * @return the ISO week holding the following Monday
+   * @throws IllegalArgumentException if the date is not a Sunday
+   */
+  public static IsoWeek ofJournalWeek(LocalDate sunday) {
+    if (sunday.get(ChronoField.DAY_OF_WEEK) != 7) {
+      throw new IllegalArgumentException("Journal weeks start on a Sunday: " + sunday);
+    }
+    return of(sunday.plusDays(1));
+  }
+
+  /**
+   * Returns the ISO week identified with the journal week holding a date. A journal week runs
+   * from Sunday to Saturday, so a Sunday belongs to the ISO week starting the next day.
+   *
+   * @param date any date of the journal week
+   * @return the ISO week holding the journal week's Monday
+   */
+  public static IsoWeek ofJournalDate(LocalDate date) {
+    return of(date.plusDays(1));
+  }
+
+  /**
+   * Parses a week formatted as: "YYYY-Www"
+   *
+   * @param text the formatted week
+   * @return the ISO week
+   * @throws IllegalArgumentException if the text is not a valid week
+   */
+  public static IsoWeek parse(String text) {
+    Matcher matcher = FORMAT.matcher(text);
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not an ISO week: " + text);
+    }
+    return of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+  }
+
+  /**
+   *
+   * @return the week-based year
+   */
+  public int getYear() {
+    return year;
+  }
+
+  /**
+   *
+   * @return the week of the week-based year
+   */
+  public int getWeek() {
+    return week;
+  }
+
+  /**
+   *
+   * @return the Monday starting this ISO week
+   */
+  public LocalDate getMonday() {
+    // January 4th is always in the first week of its week-based year
+    return LocalDate.of(year, 1, 4)
+        .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week)
+        .with(ChronoField.DAY_OF_WEEK, 1);
+  }
+
+  /**
+   *
+   * @return the Sunday starting the journal week of this ISO week
+   */
+  public LocalDate getJournalSunday() {
+    return getMonday().minusDays(1);
+  }
+
+  /**
+   *
+   * @param weeks number of weeks to add, negative to go back
+   * @return the ISO week that many weeks later
+   */
+  public IsoWeek plusWeeks(long weeks) {
+    return of(getMonday().plusWeeks(weeks));
+  }
+
+  @Override
+  public int compareTo(IsoWeek other) {
+    return year != other.year ? Integer.compare(year, other.year)
+        : Integer.compare(week, other.week);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IsoWeek isoWeek && year == isoWeek.year && week == isoWeek.week;
+  }
+
+  @Override
+  public int hashCode() {
+    return year * 64 + week;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%04d-W%02d", year, week);
+  }
+}
@@ -2,6 +2,9 @@ package bujo.model;
 
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An item that can be added to a day in the calendar.
@@ -16,9 +19,11 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 })
 public abstract class Item {
 
+  private final String id;
   private String name;
   private String description;
   private DayOfWeek day;
+  private boolean stored;
 
   /**
    * Creates a new item.
@@ -28,11 +33,60 @@ public abstract class Item {
    * @param day the day of the week the item is on
    */
   public Item(String name, String description, DayOfWeek day) {
+    this(newId(), name, description, day);
+  }
+
+  /**
+   * Creates an item with a known ID.
+   *
+   * @param id the stable ID of the item, or null for an item of a file written before items had
+   *           IDs, which is then given an ID derived from its day and name
+   * @param name the name of the item
+   * @param description the description of the item (OPTIONAL)
+   * @param day the day of the week the item is on
+   */
+  public Item(String id, String name, String description, DayOfWeek day) {
+    this.id = id != null ? id : legacyId(day, name);
     this.name = name;
     this.description = description;
     this.day = day;
   }
 
+  /**
+   * Generates a random ID. Items only need to be told apart within their week, so the cheaper
+   * thread-local generator is used instead of the secure one behind UUID.randomUUID().
+   *
+   * @return a new random (version 4) UUID string
+   */
+  private static String newId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long low = (random.nextLong() & ~(3L << 62)) | (1L << 63);
+    return new UUID(high, low).toString();
+  }
+
+  /**
+   * Derives the ID of an item stored without one. Names are unique within a day, so the same
+   * legacy file always gives its items the same, distinct IDs.
+   *
+   * @param day the day of the week the item is on
+   * @param name the name of the item
+   * @return a name-based (version 3) UUID string
+   */
+  private static String legacyId(DayOfWeek day, String name) {
+    return UUID.nameUUIDFromBytes((day + "\n" + name).getBytes(StandardCharsets.UTF_8))
+        .toString();
+  }
+
+  /**
+   * Returns the ID of the item, which stays the same across copies, edits and saves
+   *
+   * @return the stable ID of the item
+   */
+  public String getId() {
+    return id;
+  }
+
   /**
    *
    * @return the name of the item
@@ -57,6 +111,22 @@ public abstract class Item {
     return day;
   }
 
+  /**
+   * Marks the item as stored in a day. A stored item is shared, uncopied, with every reader of
+   * the day, so it must not change any more.
+   */
+  void markStored() {
+    stored = true;
+  }
+
+  /**
+   *
+   * @return true if the item was ever stored in a day
+   */
+  boolean isStored() {
+    return stored;
+  }
+
   /**
    *
    * @return the type of the item
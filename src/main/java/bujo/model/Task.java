@@ -22,7 +22,7 @@ public class Task extends Item {
   }
 
   /**
-   * Creates a new task, with JSON creation capabilities.
+   * Creates a new task.
    *
    * @param name the name of the task
    * @param description the description of the task
@@ -30,15 +30,32 @@ public class Task extends Item {
    * @param complete true if the task is complete, false otherwise
    * @param type type of item
    */
+  public Task(String name, String description, DayOfWeek day, boolean complete,
+              ItemType type) {
+    super(name, description, day);
+    this.complete = complete;
+  }
+
+  /**
+   * Creates a task with a known ID, with JSON creation capabilities.
+   *
+   * @param id the stable ID of the task, or null to derive one for a task stored without it
+   * @param name the name of the task
+   * @param description the description of the task
+   * @param day the day of the task
+   * @param complete true if the task is complete, false otherwise
+   * @param type type of item
+   */
   @JsonCreator
   public Task(
+      @JsonProperty("id") String id,
       @JsonProperty("name") String name,
       @JsonProperty ("description") String description,
       @JsonProperty ("day") DayOfWeek day,
       @JsonProperty ("complete") boolean complete,
       @JsonProperty ("type") ItemType type
   ) {
-    super(name, description, day);
+    super(id, name, description, day);
     this.complete = complete;
   }
 
@@ -52,9 +69,15 @@ public class Task extends Item {
   }
 
   /**
-   * Marks the task as complete.
+   * Marks the task as complete. Only a task not yet added to a week can be changed; a stored
+   * task is completed through {@link Week#markComplete(Task)}.
+   *
+   * @throws IllegalStateException if the task is stored in a day
    */
   public void markComplete() {
+    if (isStored()) {
+      throw new IllegalStateException("Stored tasks are read-only, complete them in their week");
+    }
     this.complete = true;
   }
 
@@ -72,7 +95,7 @@ public class Task extends Item {
    */
   @Override
   public Item copy() {
-    return new Task(this.getName(), this.getDescription(), this.getDay(),
+    return new Task(this.getId(), this.getName(), this.getDescription(), this.getDay(),
         this.getComplete(), this.getType());
   }
 
@@ -0,0 +1,83 @@
+package bujo.model;
+
+import java.util.Objects;
+
+/**
+ * A span of time on one day of the week, in minutes from midnight
+ */
+public final class TimeSlot {
+  /**
+   * Start of every day, in minutes from midnight
+   */
+  public static final int START_OF_DAY = 0;
+  /**
+   * End of every day, in minutes from midnight
+   */
+  public static final int END_OF_DAY = 24 * 60;
+
+  private final DayOfWeek day;
+  private final int startMinutes;
+  private final int endMinutes;
+
+  /**
+   * Creates a new time slot.
+   *
+   * @param day the day of the slot
+   * @param startMinutes start of the slot, in minutes from midnight
+   * @param endMinutes end of the slot, exclusive
+   */
+  public TimeSlot(DayOfWeek day, int startMinutes, int endMinutes) {
+    this.day = day;
+    this.startMinutes = startMinutes;
+    this.endMinutes = endMinutes;
+  }
+
+  /**
+   *
+   * @return the day of the slot
+   */
+  public DayOfWeek getDay() {
+    return day;
+  }
+
+  /**
+   *
+   * @return start of the slot, in minutes from midnight
+   */
+  public int getStartMinutes() {
+    return startMinutes;
+  }
+
+  /**
+   *
+   * @return end of the slot, exclusive, in minutes from midnight
+   */
+  public int getEndMinutes() {
+    return endMinutes;
+  }
+
+  /**
+   *
+   * @return length of the slot, in minutes
+   */
+  public int getMinutes() {
+    return endMinutes - startMinutes;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TimeSlot slot && day == slot.day
+        && startMinutes == slot.startMinutes && endMinutes == slot.endMinutes;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(day, startMinutes, endMinutes);
+  }
+
+  @Override
+  public String toString() {
+    return day + " " + EventTimes.formatStartTime(startMinutes) + " for "
+        + EventTimes.formatDuration(getMinutes());
+  }
+}
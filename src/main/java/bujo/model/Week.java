@@ -1,6 +1,8 @@
 package bujo.model;
 
+import bujo.controller.Compression;
 import bujo.controller.PasswordEncoder;
+import bujo.controller.StorageFormat;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -13,14 +15,42 @@ import java.util.*;
  * Represents a week in the bullet journal
  */
 public class Week {
-  private ArrayList<Day> days;
+  // Completed tasks first, then by name; the day and ID only tell apart tasks of the same name
+  private static final Comparator<Task> TASK_ORDER = Comparator
+      .comparing((Task task) -> !task.getComplete())
+      .thenComparing(Task::getName)
+      .thenComparing(Task::getDay)
+      .thenComparing(Task::getId);
+
+  private List<Day> days;
+  @JsonIgnore
+  private List<Day> daysView;
   private String name;
   private final String hashedPassword;
   private final String saltPassword;
   @JsonIgnore
   private Path path;
+  // How the .bujo file was encoded, so that saving keeps it that way
+  @JsonIgnore
+  private StorageFormat storageFormat = StorageFormat.JSON;
+  @JsonIgnore
+  private Compression compression = Compression.NONE;
   private int maxNumEvents;
   private int maxNumTasks;
+  @JsonIgnore
+  private long revision;
+  @JsonIgnore
+  private long savedRevision;
+  @JsonIgnore
+  private final List<WeekListener> listeners = new ArrayList<>();
+  // Tasks in task list order, built on first use and then kept up to date
+  @JsonIgnore
+  private TreeSet<Task> taskQueue;
+  @JsonIgnore
+  private int completedTaskCount;
+  // Read-only snapshot of the task queue, null once it changed
+  @JsonIgnore
+  private List<Task> taskList;
 
   /**
    * Creates a new week.
@@ -92,7 +122,7 @@ public class Week {
       @JsonProperty("salt") String saltPassword,
       @JsonProperty("maxNumEvents") int maxNumEvents,
       @JsonProperty("maxNumTasks") int maxNumTasks,
-      @JsonProperty("days") ArrayList<Day> days) {
+      @JsonProperty("days") List<Day> days) {
     this.path = null;
     this.hashedPassword = hashedPassword;
     this.saltPassword = saltPassword;
@@ -109,6 +139,7 @@ public class Week {
    */
   public void setName(String name) {
     this.name = name;
+    revision++;
   }
 
   /**
@@ -118,6 +149,7 @@ public class Week {
    */
   public void setMaxNumEvents(int maxNumEvents) {
     this.maxNumEvents = maxNumEvents;
+    revision++;
   }
 
   /**
@@ -127,6 +159,7 @@ public class Week {
    */
   public void setMaxNumTasks(int maxNumTasks) {
     this.maxNumTasks = maxNumTasks;
+    revision++;
   }
 
   /**
@@ -169,10 +202,40 @@ public class Week {
 
   /**
    *
-   * @return a deep copy of the days in this week
+   * @return the encoding the .bujo file of this week is stored in
+   */
+  public StorageFormat getStorageFormat() {
+    return storageFormat;
+  }
+
+  /**
+   *
+   * @return the compression the .bujo file of this week is wrapped in
+   */
+  public Compression getCompression() {
+    return compression;
+  }
+
+  /**
+   * Sets how the .bujo file of this week is stored, such as it was found when read
+   *
+   * @param storageFormat the encoding of the file
+   * @param compression the compression of the file
    */
-  public ArrayList<Day> getDays() {
-    return new ArrayList<>(days);
+  public void setStorage(StorageFormat storageFormat, Compression compression) {
+    this.storageFormat = storageFormat;
+    this.compression = compression;
+  }
+
+  /**
+   *
+   * @return read-only view of the days in this week, Sunday first
+   */
+  public List<Day> getDays() {
+    if (daysView == null) {
+      daysView = Collections.unmodifiableList(days);
+    }
+    return daysView;
   }
 
   /**
@@ -192,40 +255,91 @@ public class Week {
   }
 
   /**
-   * Collects a task list for the current week and sorts it so that completed tasks are on top in alphabetical order
+   * Returns the tasks of the week, completed tasks first, each group in alphabetical order. The
+   * list is read-only and kept up to date as tasks are added, removed and completed, so reading
+   * it again without changes in between costs nothing.
    *
    * @return sorted task list for the current week
    */
   @JsonIgnore
-  public ArrayList<Task> getTaskList() {
-    ArrayList<Task> taskList = new ArrayList<>();
-    for (Day day : days) {
-      for (Item item : day.getItems()) {
-        if (item.getType().equals(ItemType.TASK)) {
-          taskList.add((Task) item);
-        }
-      }
+  public List<Task> getTaskList() {
+    if (taskList == null) {
+      taskList = List.copyOf(taskQueue());
     }
+    return taskList;
+  }
 
-    Collections.sort(taskList, new Comparator<Task>() {
-      @Override
-      public int compare(Task t1, Task t2) {
-        if(t1.getComplete()) {
-          if(t2.getComplete()) {
-            return t1.getName().compareTo(t2.getName());
-          } else {
-            return -1;
-          }
-        } else {
-          if(t2.getComplete()) {
-            return 1;
-          } else {
-            return t1.getName().compareTo(t2.getName());
-          }
-        }
+  /**
+   *
+   * @return the number of tasks in this week
+   */
+  @JsonIgnore
+  public int getTaskCount() {
+    return taskQueue().size();
+  }
+
+  /**
+   *
+   * @return the number of completed tasks in this week
+   */
+  @JsonIgnore
+  public int getCompletedTaskCount() {
+    taskQueue();
+    return completedTaskCount;
+  }
+
+  /**
+   * Returns the intervals of free time of at least the given length on a day, within a span
+   * such as working hours.
+   *
+   * @param day the day
+   * @param minMinutes the shortest interval returned, in minutes
+   * @param fromMinutes start of the span searched, {@link TimeSlot#START_OF_DAY} for no limit
+   * @param toMinutes end of the span searched, {@link TimeSlot#END_OF_DAY} for no limit
+   * @return the free intervals, in order
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  a day
+   */
+  public List<TimeSlot> getFreeSlots(DayOfWeek day, int minMinutes, int fromMinutes,
+                                     int toMinutes) {
+    return days.get(day.ordinal()).getFreeSlots(minMinutes, fromMinutes, toMinutes);
+  }
+
+  /**
+   * Returns the earliest window of free time of at least the given length on a day, within a
+   * span such as working hours.
+   *
+   * @param day the day
+   * @param minutes the length of the window, in minutes
+   * @param fromMinutes start of the span searched, {@link TimeSlot#START_OF_DAY} for no limit
+   * @param toMinutes end of the span searched, {@link TimeSlot#END_OF_DAY} for no limit
+   * @return the earliest free interval at least that long, or null if there is none
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  a day
+   */
+  public TimeSlot findFreeSlot(DayOfWeek day, int minutes, int fromMinutes, int toMinutes) {
+    return days.get(day.ordinal()).findFreeSlot(minutes, fromMinutes, toMinutes);
+  }
+
+  /**
+   * Returns the earliest window of free time of at least the given length in the week, Sunday
+   * first, within the same span of every day such as working hours.
+   *
+   * @param minutes the length of the window, in minutes
+   * @param fromMinutes start of the span searched, {@link TimeSlot#START_OF_DAY} for no limit
+   * @param toMinutes end of the span searched, {@link TimeSlot#END_OF_DAY} for no limit
+   * @return the earliest free interval at least that long, or null if there is none
+   * @throws IllegalArgumentException if the length is not positive or the span is not within
+   *                                  a day
+   */
+  public TimeSlot findFreeSlot(int minutes, int fromMinutes, int toMinutes) {
+    for (Day day : days) {
+      TimeSlot slot = day.findFreeSlot(minutes, fromMinutes, toMinutes);
+      if (slot != null) {
+        return slot;
       }
-    });
-    return taskList;
+    }
+    return null;
   }
 
   /**
@@ -235,15 +349,184 @@ public class Week {
    */
   public void addItem(Item item) throws IllegalArgumentException {
     days.get(item.getDay().ordinal()).addItem(item, maxNumEvents, maxNumTasks);
+    queueTask(item);
+    revision++;
+    for (WeekListener listener : listeners) {
+      listener.itemAdded(item);
+    }
   }
 
   /**
+   * Removes the item with the given item's ID from its day, or, if the day holds no item with
+   * that ID, the item with its name
    *
    * @param item the item to remove from the week
    * @throws IllegalAccessException if the item is not in this week
    */
   public void removeItem(Item item) throws IllegalAccessException {
-    days.get(item.getDay().ordinal()).removeItem(item.getName());
+    Item stored = find(item);
+    if (stored == null) {
+      throw new IllegalAccessException("Item does not exist in this week");
+    }
+    removeItem(stored.getDay(), stored.getId());
+  }
+
+  /**
+   * Removes the item with the given ID from a day of this week
+   *
+   * @param day the day the item is on
+   * @param itemId the ID of the item
+   * @return the removed item
+   * @throws IllegalAccessException if the day holds no item with that ID
+   */
+  public Item removeItem(DayOfWeek day, String itemId) throws IllegalAccessException {
+    Item removed = days.get(day.ordinal()).removeItemById(itemId);
+    dequeueTask(removed);
+    revision++;
+    for (WeekListener listener : listeners) {
+      listener.itemRemoved(removed);
+    }
+    return removed;
+  }
+
+  /**
+   * Replaces an item of this week with an edited version of it, which may be on another day.
+   * If the edited item cannot be added, the original one is put back.
+   *
+   * @param original the item to replace
+   * @param replacement the edited item
+   * @throws IllegalAccessException if the original item is not in this week
+   * @throws IllegalArgumentException if the edited item cannot be added to its day
+   */
+  public void replaceItem(Item original, Item replacement) throws IllegalAccessException {
+    Item removed = removeItem(original.getDay(), original.getId());
+    try {
+      addItem(replacement);
+    } catch (IllegalArgumentException e) {
+      addItem(removed);
+      throw e;
+    }
+  }
+
+  /**
+   * Marks the task with the given task's ID, or failing that its name, complete in this week
+   *
+   * @param task the task to mark complete
+   * @throws IllegalAccessException if the task is not in this week
+   */
+  public void markComplete(Task task) throws IllegalAccessException {
+    Item stored = find(task);
+    if (!(stored instanceof Task)) {
+      throw new IllegalAccessException("Task does not exist in this week");
+    }
+    Task completed = new Task(stored.getId(), stored.getName(), stored.getDescription(),
+        stored.getDay(), true, ItemType.TASK);
+    days.get(stored.getDay().ordinal()).replaceItem(stored, completed);
+    dequeueTask(stored);
+    queueTask(completed);
+    revision++;
+    for (WeekListener listener : listeners) {
+      listener.taskCompleted(completed);
+    }
+  }
+
+  /**
+   *
+   * @param listener listener to notify of item mutations in this week
+   */
+  public void addListener(WeekListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   *
+   * @param listener listener to no longer notify of item mutations in this week
+   */
+  public void removeListener(WeekListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Returns the revision of this week, which changes with every modification
+   *
+   * @return the current revision of this week
+   */
+  @JsonIgnore
+  public long getRevision() {
+    return revision;
+  }
+
+  /**
+   * Records that the given revision of this week has been saved
+   *
+   * @param revision the revision that reached the .bujo file
+   */
+  public void markSaved(long revision) {
+    this.savedRevision = Math.max(savedRevision, revision);
+  }
+
+  /**
+   *
+   * @return true if this week was modified since it was last saved
+   */
+  @JsonIgnore
+  public boolean isDirty() {
+    return revision != savedRevision;
+  }
+
+  /**
+   * Returns the task queue, building it from the days on first use.
+   *
+   * @return the tasks of this week in task list order
+   */
+  private TreeSet<Task> taskQueue() {
+    if (taskQueue == null) {
+      taskQueue = new TreeSet<>(TASK_ORDER);
+      for (Day day : days) {
+        for (Item item : day.getItems()) {
+          queueTask(item);
+        }
+      }
+    }
+    return taskQueue;
+  }
+
+  /**
+   * Adds an item to the task queue and counts if it is a task and the queue was built.
+   *
+   * @param item the item added to the week
+   */
+  private void queueTask(Item item) {
+    if (taskQueue != null && item instanceof Task task) {
+      taskQueue.add(task);
+      completedTaskCount += task.getComplete() ? 1 : 0;
+      taskList = null;
+    }
+  }
+
+  /**
+   * Removes an item from the task queue and counts if it is a task and the queue was built.
+   *
+   * @param item the item removed from the week
+   */
+  private void dequeueTask(Item item) {
+    if (taskQueue != null && item instanceof Task task && taskQueue.remove(task)) {
+      completedTaskCount -= task.getComplete() ? 1 : 0;
+      taskList = null;
+    }
+  }
+
+  /**
+   * Looks up the stored item matching the given item: the one with its ID on its day, or the one
+   * with its name if the day has no item with that ID.
+   *
+   * @param item the item to look up
+   * @return the stored item, or null if there is none
+   */
+  private Item find(Item item) {
+    Day day = days.get(item.getDay().ordinal());
+    Item stored = day.getStoredItemById(item.getId());
+    return stored != null ? stored : day.getItem(item.getName());
   }
 
   /**
@@ -0,0 +1,27 @@
+package bujo.model;
+
+/**
+ * Listener notified of the item mutations applied to a week
+ */
+public interface WeekListener {
+  /**
+   * Called after an item was added to the week
+   *
+   * @param item the item that was added
+   */
+  void itemAdded(Item item);
+
+  /**
+   * Called after an item was removed from the week
+   *
+   * @param item the item that was removed
+   */
+  void itemRemoved(Item item);
+
+  /**
+   * Called after a task in the week was marked complete
+   *
+   * @param task the task that was completed
+   */
+  void taskCompleted(Task task);
+}
@@ -0,0 +1,147 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the AsyncStorage class.
+ */
+class AsyncStorageTest {
+  private AsyncStorage storage;
+  private Path directory;
+
+  /**
+   * Sets up a storage limited to two operations and a scratch directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    storage = new AsyncStorage(2);
+    directory = Files.createTempDirectory("async-storage");
+  }
+
+  /**
+   * Stops the storage and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    storage.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Creates a week with one task per day.
+   *
+   * @param name the name of the week
+   * @return the week
+   */
+  private static Week week(String name) {
+    Week week = new Week(name, null);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      week.addItem(new Task("task", "", day));
+    }
+    return week;
+  }
+
+  /**
+   * Tests that many weeks saved and loaded at once all arrive, within the concurrency limit.
+   */
+  @Test
+  public void testManyOperationsWithinLimit() throws Exception {
+    Week first = week("week 0");
+    List<CompletableFuture<Void>> saves = new ArrayList<>();
+    saves.add(storage.save(first, directory.resolve("0.bujo")));
+    for (int i = 1; i < 20; i++) {
+      saves.add(storage.save(week("week " + i), directory.resolve(i + ".bujo")));
+    }
+    CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0])).get();
+
+    List<CompletableFuture<Week>> loads = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      loads.add(storage.load(directory.resolve(i + ".bujo")));
+    }
+    for (int i = 0; i < 20; i++) {
+      Week loaded = loads.get(i).get();
+      Assertions.assertEquals("week " + i, loaded.getName());
+      Assertions.assertEquals(1, loaded.getDays().get(6).getItems().size());
+    }
+    Assertions.assertTrue(storage.getPeakInFlight() <= 2);
+    Assertions.assertArrayEquals(Files.readAllBytes(directory.resolve("0.bujo")),
+        writeSynchronously(first));
+  }
+
+  /**
+   * Serializes a week the way the blocking API does.
+   *
+   * @param week the week to serialize
+   * @return its bytes
+   */
+  private byte[] writeSynchronously(Week week) throws IOException {
+    Path file = directory.resolve("blocking.bujo");
+    StorageManager.writeFile(week, file);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.delete(file);
+    return bytes;
+  }
+
+  /**
+   * Tests that a cancelled save never leaves its file or a temporary file behind.
+   */
+  @Test
+  public void testCancelledSaveLeavesNothing() throws Exception {
+    Week week = week("week");
+    Path cancelledPath = directory.resolve("cancelled.bujo");
+    List<CompletableFuture<Void>> busy = new ArrayList<>();
+    CompletableFuture<Void> cancelled;
+    while (true) {
+      for (int i = 0; i < 4; i++) {
+        busy.add(storage.save(week, directory.resolve("busy" + busy.size() + ".bujo")));
+      }
+      cancelled = storage.save(week, cancelledPath);
+      if (cancelled.cancel(true)) {
+        break;
+      }
+      // The busy saves all finished before the cancel, so queue behind new ones
+      cancelled.get();
+      Files.delete(cancelledPath);
+    }
+    CompletableFuture.allOf(busy.toArray(new CompletableFuture<?>[0])).get();
+
+    // A fresh operation still gets a slot once the cancelled one gave its own back
+    storage.save(week, directory.resolve("after.bujo")).get();
+    Assertions.assertTrue(cancelled.isCancelled());
+    Assertions.assertFalse(Files.exists(cancelledPath));
+    try (Stream<Path> files = Files.list(directory)) {
+      Assertions.assertEquals(0, files.filter(f -> f.toString().endsWith(".tmp")).count());
+    }
+  }
+
+  /**
+   * Tests that failures are reported through the future.
+   */
+  @Test
+  public void testFailuresCompleteExceptionally() {
+    ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+        () -> storage.load(directory.resolve("missing.bujo")).get());
+    Assertions.assertTrue(e.getCause() instanceof IOException);
+    Assertions.assertThrows(ExecutionException.class,
+        () -> storage.load(directory.resolve("week.txt")).get());
+  }
+}
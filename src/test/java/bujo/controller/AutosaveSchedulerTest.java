@@ -0,0 +1,141 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the AutosaveScheduler class.
+ */
+class AutosaveSchedulerTest {
+  private SaveService saveService;
+  private Path filePath;
+  private Week week;
+
+  /**
+   * Sets up a week backed by a scratch file.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    saveService = new SaveService();
+    filePath = Files.createTempFile("autosave", ".bujo");
+    week = new Week("week", filePath);
+  }
+
+  /**
+   * Removes the scratch file.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    saveService.close();
+    Files.deleteIfExists(filePath);
+  }
+
+  /**
+   * Tests that a burst of changes is written once, after the quiet period. The week is only
+   * touched on its own model thread, as in the application, and marked saved there after the
+   * save completes.
+   */
+  @Test
+  public void testBurstIsCoalesced() throws Exception {
+    ExecutorService model = Executors.newSingleThreadExecutor();
+    AutosaveScheduler autosave = new AutosaveScheduler(week, saveService, model,
+        Duration.ofMillis(100), Duration.ofSeconds(10));
+
+    boolean dirty = onModel(model, () -> {
+      for (int i = 0; i < 10; i++) {
+        week.addItem(new Task("task " + i, "", DayOfWeek.MONDAY));
+        autosave.notifyChanged();
+      }
+      return week.isDirty();
+    });
+    Assertions.assertTrue(dirty);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (onModel(model, week::isDirty) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+
+    Assertions.assertFalse(onModel(model, week::isDirty));
+    Assertions.assertEquals(1, autosave.getSavesPerformed());
+    Assertions.assertEquals(9, autosave.getSavesCoalesced());
+    Assertions.assertEquals(10,
+        StorageManager.readFile(filePath).getDays().get(1).getItems().size());
+    onModel(model, () -> {
+      autosave.close();
+      return null;
+    });
+    model.shutdown();
+  }
+
+  /**
+   * Runs a task on the model thread and waits for its result.
+   *
+   * @param model the model thread
+   * @param task the task to run
+   * @param <T> the result type of the task
+   * @return the result of the task
+   */
+  private static <T> T onModel(ExecutorService model, Callable<T> task) throws Exception {
+    return model.submit(task).get();
+  }
+
+  /**
+   * Tests that flushing a clean week does not write anything.
+   */
+  @Test
+  public void testCleanWeekIsNotSaved() throws Exception {
+    AutosaveScheduler autosave = new AutosaveScheduler(week, saveService, Runnable::run,
+        AutosaveScheduler.DEFAULT_QUIET_PERIOD, AutosaveScheduler.DEFAULT_MAX_DELAY);
+
+    autosave.flush().get();
+    Assertions.assertEquals(0, autosave.getSavesPerformed());
+
+    week.setName("renamed");
+    autosave.flush().get();
+    Assertions.assertEquals(1, autosave.getSavesPerformed());
+    Assertions.assertEquals("renamed", StorageManager.readFile(filePath).getName());
+    autosave.close();
+  }
+
+  /**
+   * Tests that nothing is written while saving is suspended.
+   */
+  @Test
+  public void testSuspendedFlushDoesNotSave() throws Exception {
+    AutosaveScheduler autosave = new AutosaveScheduler(week, saveService, Runnable::run,
+        AutosaveScheduler.DEFAULT_QUIET_PERIOD, AutosaveScheduler.DEFAULT_MAX_DELAY);
+
+    autosave.setSuspended(true);
+    week.setName("renamed");
+    autosave.flush().get();
+    Assertions.assertEquals(0, autosave.getSavesPerformed());
+    Assertions.assertTrue(week.isDirty());
+
+    autosave.setSuspended(false);
+    autosave.flush().get();
+    Assertions.assertEquals(1, autosave.getSavesPerformed());
+    autosave.close();
+  }
+
+  /**
+   * Tests that the max delay cannot be shorter than the quiet period.
+   */
+  @Test
+  public void testInvalidDelays() {
+    Assertions.assertThrows(IllegalArgumentException.class, () ->
+        new AutosaveScheduler(week, saveService, Runnable::run,
+            Duration.ofSeconds(5), Duration.ofSeconds(1)));
+  }
+}
@@ -0,0 +1,143 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the BinaryWeekCodec class.
+ */
+class BinaryWeekCodecTest {
+
+  /**
+   * Tests that limits, item IDs, null strings and repeated strings survive a round trip.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Week week = new Week("week", null, null, Integer.MAX_VALUE, -1, emptyDays());
+    week.addItem(new Task("same", "same", DayOfWeek.SATURDAY));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryWeekCodec.write(week, out);
+    byte[] bytes = out.toByteArray();
+    Assertions.assertTrue(BinaryWeekCodec.isBinary(bytes));
+
+    Week copy = BinaryWeekCodec.read(new ByteArrayInputStream(bytes));
+    Assertions.assertEquals(week.getDays().get(6).getItems().get(0).getId(),
+        copy.getDays().get(6).getItems().get(0).getId());
+    Assertions.assertEquals(Integer.MAX_VALUE, copy.getMaxNumEvents());
+    Assertions.assertEquals(-1, copy.getMaxNumTasks());
+    Assertions.assertNull(copy.getHashedPassword());
+    Assertions.assertEquals("same", copy.getDays().get(6).getItems().get(0).getDescription());
+  }
+
+  /**
+   * Tests that truncated and foreign data is rejected with an IO failure.
+   */
+  @Test
+  public void testCorruptDataIsRejected() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryWeekCodec.write(new Week("week", null, null, 1, 1, emptyDays()), out);
+    byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+
+    Assertions.assertThrows(IOException.class,
+        () -> BinaryWeekCodec.read(new ByteArrayInputStream(truncated)));
+    Assertions.assertThrows(IOException.class,
+        () -> BinaryWeekCodec.read(new ByteArrayInputStream("{\"name\"".getBytes())));
+  }
+
+  /**
+   * Tests that damaged counts and string references are rejected with an IO failure, by both
+   * the reader and the verifier, instead of being trusted as sizes or indices.
+   */
+  @Test
+  public void testDamagedCountsAreRejected() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryWeekCodec.write(new Week("week", null, null, 1, 1, emptyDays()), out);
+    byte[] bytes = out.toByteArray();
+    // Magic and version, then the string count at 5, the string "week" and its reference at 11
+    Assertions.assertEquals(1, bytes[5]);
+    Assertions.assertEquals(1, bytes[11]);
+
+    List<byte[]> damaged = List.of(
+        splice(bytes, 5, 0xFF, 0xFF, 0xFF, 0x7F),
+        splice(bytes, 5, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F),
+        splice(bytes, 5, 0xFF, 0xFF, 0xFF, 0xFF, 0x7F),
+        splice(bytes, 5, 0x80, 0x80, 0x80, 0x08),
+        splice(bytes, 11, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F));
+    for (byte[] data : damaged) {
+      Assertions.assertThrows(IOException.class,
+          () -> BinaryWeekCodec.read(new ByteArrayInputStream(data)));
+      IntegrityReport report = BinaryWeekCodec.verify(new ByteArrayInputStream(data));
+      Assertions.assertFalse(report.isIntact());
+      Assertions.assertTrue(report.isHeaderDamaged());
+    }
+  }
+
+  /**
+   * Tests that a flipped byte inside a day fails that day's checksum.
+   */
+  @Test
+  public void testDamagedDayIsDetected() throws IOException {
+    ArrayList<Day> days = emptyDays();
+    days.set(3, new Day(DayOfWeek.WEDNESDAY, new ArrayList<>(List.of(
+        new Task("task", "", DayOfWeek.WEDNESDAY, false, ItemType.TASK)))));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryWeekCodec.write(new Week("week", "", "", 1, 1, days), out);
+    Assertions.assertTrue(BinaryWeekCodec.verify(
+        new ByteArrayInputStream(out.toByteArray())).isIntact());
+
+    // Every empty day takes 2 bytes and a 4-byte checksum; the task's completion flag is
+    // the last byte before Wednesday's checksum
+    byte[] damaged = out.toByteArray();
+    damaged[damaged.length - 3 * 6 - 4 - 1] ^= 1;
+
+    IntegrityReport report = BinaryWeekCodec.verify(new ByteArrayInputStream(damaged));
+    Assertions.assertEquals(List.of(DayOfWeek.WEDNESDAY), report.getDamagedDays());
+    IOException e = Assertions.assertThrows(IOException.class,
+        () -> BinaryWeekCodec.read(new ByteArrayInputStream(damaged)));
+    Assertions.assertTrue(e.getMessage().contains("WEDNESDAY"));
+  }
+
+  /**
+   * Replaces one byte of the data with the given bytes.
+   *
+   * @param data the data
+   * @param offset offset of the byte to replace
+   * @param replacement the bytes to put in its place
+   * @return the changed copy of the data
+   */
+  private static byte[] splice(byte[] data, int offset, int... replacement) {
+    byte[] spliced = new byte[data.length - 1 + replacement.length];
+    System.arraycopy(data, 0, spliced, 0, offset);
+    for (int i = 0; i < replacement.length; i++) {
+      spliced[offset + i] = (byte) replacement[i];
+    }
+    System.arraycopy(data, offset + 1, spliced, offset + replacement.length,
+        data.length - offset - 1);
+    return spliced;
+  }
+
+  /**
+   * Creates the seven empty days of a week.
+   *
+   * @return the days
+   */
+  private static ArrayList<Day> emptyDays() {
+    ArrayList<Day> days = new ArrayList<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      days.add(new Day(day));
+    }
+    return days;
+  }
+}
@@ -0,0 +1,179 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the BulkTransfer class.
+ */
+class BulkTransferTest {
+  private BulkTransfer transfer;
+  private Path directory;
+  private Path journal;
+
+  /**
+   * Sets up a transfer and a journal directory holding a few weeks.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    transfer = new BulkTransfer(2);
+    directory = Files.createTempDirectory("bulk");
+    journal = Files.createDirectory(directory.resolve("journal"));
+
+    for (int w = 0; w < 5; w++) {
+      Week week = new Week("week " + w, null);
+      for (int i = 0; i < 10; i++) {
+        Task task = new Task("task " + i, "with, \"quotes\"\nand lines", DayOfWeek.MONDAY);
+        if (i % 3 == 0) {
+          task.markComplete();
+        }
+        week.addItem(task);
+      }
+      week.addItem(new Event("event", "", DayOfWeek.FRIDAY, "3:00 PM", "1 Hr", ItemType.EVENT));
+      StorageManager.writeFile(week, journal.resolve("w" + w + ".bujo"));
+    }
+  }
+
+  /**
+   * Stops the transfer and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    transfer.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Tests that exporting, importing and exporting again gives the same rows, in both formats.
+   */
+  @Test
+  public void testRoundTrip() throws Exception {
+    for (String extension : List.of(".csv", ".jsonl")) {
+      Path rows = directory.resolve("rows" + extension);
+      BulkReport exported = transfer.exportDirectory(journal, rows);
+      Assertions.assertEquals(5, exported.getFiles());
+      Assertions.assertEquals(55, exported.getItems());
+
+      Path imported = Files.createDirectory(directory.resolve("imported" + extension));
+      BulkReport report = transfer.importRows(rows, imported, StorageFormat.BINARY);
+      Assertions.assertEquals(5, report.getFiles());
+      Assertions.assertEquals(55, report.getItems());
+
+      Path again = directory.resolve("again" + extension);
+      transfer.exportDirectory(imported, again);
+      Assertions.assertEquals(Files.readString(rows, StandardCharsets.UTF_8),
+          Files.readString(again, StandardCharsets.UTF_8));
+
+      Week week = StorageManager.readFile(imported.resolve("w0.bujo"));
+      Task task = (Task) week.getDays().get(1).getItems().get(0);
+      Assertions.assertEquals("with, \"quotes\"\nand lines", task.getDescription());
+      Assertions.assertTrue(task.getComplete());
+    }
+  }
+
+  /**
+   * Tests that weeks sharing a name stay apart, and that empty weeks and limits come back.
+   */
+  @Test
+  public void testWeeksAreKeyedByFile() throws Exception {
+    Week copy = StorageManager.readFile(journal.resolve("w0.bujo"));
+    copy.setMaxNumEvents(3);
+    StorageManager.writeFile(copy, journal.resolve("w0 copy.bujo"));
+    StorageManager.writeFile(new Week("week 0", null), journal.resolve("w0 empty.bujo"));
+
+    Path rows = directory.resolve("rows.csv");
+    BulkReport exported = transfer.exportDirectory(journal, rows);
+    Assertions.assertEquals(7, exported.getFiles());
+    Assertions.assertEquals(66, exported.getItems());
+
+    Path imported = Files.createDirectory(directory.resolve("imported"));
+    BulkReport report = transfer.importRows(rows, imported, StorageFormat.JSON);
+    Assertions.assertEquals(7, report.getFiles());
+    Assertions.assertEquals(66, report.getItems());
+
+    Week original = StorageManager.readFile(imported.resolve("w0.bujo"));
+    Week copied = StorageManager.readFile(imported.resolve("w0 copy.bujo"));
+    Week empty = StorageManager.readFile(imported.resolve("w0 empty.bujo"));
+    Assertions.assertEquals("week 0", copied.getName());
+    Assertions.assertEquals(11, original.getTaskCount() + original.getDays().get(5)
+        .getItems().size());
+    Assertions.assertEquals(Integer.MAX_VALUE, original.getMaxNumEvents());
+    Assertions.assertEquals(3, copied.getMaxNumEvents());
+    Assertions.assertEquals("week 0", empty.getName());
+    for (int i = 0; i < 7; i++) {
+      Assertions.assertTrue(empty.getDays().get(i).getItems().isEmpty());
+    }
+  }
+
+  /**
+   * Tests that weeks named after their Sunday are exported on their own dates, and other weeks
+   * on consecutive weeks from the given date.
+   */
+  @Test
+  public void testCalendarUsesFileDates() throws Exception {
+    Path dated = Files.createDirectory(directory.resolve("dated"));
+    for (String sunday : List.of("2024-01-07", "2024-01-21")) {
+      Week week = new Week(sunday, null);
+      week.addItem(new Event("event", "", DayOfWeek.MONDAY, "9:00 AM", "1 Hr", ItemType.EVENT));
+      StorageManager.writeFile(week, dated.resolve(sunday + ".bujo"));
+    }
+    Files.copy(journal.resolve("w0.bujo"), dated.resolve("w0.bujo"));
+    Files.copy(journal.resolve("w1.bujo"), dated.resolve("w1.bujo"));
+
+    Path calendar = directory.resolve("events.ics");
+    transfer.exportCalendar(dated, calendar, LocalDate.of(2024, 3, 3));
+    List<String> starts = Files.readAllLines(calendar, StandardCharsets.UTF_8).stream()
+        .filter(line -> line.startsWith("DTSTART:")).toList();
+    Assertions.assertEquals(List.of("DTSTART:20240108T090000", "DTSTART:20240122T090000",
+        "DTSTART:20240308T150000", "DTSTART:20240315T150000"), starts);
+  }
+
+  /**
+   * Tests that the rows of a week must be next to each other.
+   */
+  @Test
+  public void testScatteredWeekIsRejected() throws Exception {
+    Path rows = directory.resolve("rows.jsonl");
+    transfer.exportDirectory(journal, rows);
+    List<String> lines = Files.readAllLines(rows, StandardCharsets.UTF_8);
+    lines.add(lines.get(0));
+    Files.write(rows, lines, StandardCharsets.UTF_8);
+
+    Path imported = Files.createDirectory(directory.resolve("imported"));
+    Assertions.assertThrows(IOException.class,
+        () -> transfer.importRows(rows, imported, StorageFormat.JSON));
+  }
+
+  /**
+   * Tests that week names mapping to the same file name get numbered suffixes.
+   */
+  @Test
+  public void testUniqueFileNames() {
+    Set<String> taken = new HashSet<>();
+    Assertions.assertEquals("a_b.bujo", BulkTransfer.uniqueFileName("a/b", taken));
+    Assertions.assertEquals("a_b-2.bujo", BulkTransfer.uniqueFileName("a_b", taken));
+    Assertions.assertEquals("A_B-3.bujo", BulkTransfer.uniqueFileName("A:B", taken));
+    Assertions.assertEquals("week...bujo", BulkTransfer.uniqueFileName("..", taken));
+  }
+}
@@ -0,0 +1,187 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Week;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IcsImporter class.
+ */
+class IcsImporterTest {
+  private IcsImporter importer;
+  private Path directory;
+
+  /**
+   * Sets up an importer with a tiny event buffer and an empty journal directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    importer = new IcsImporter(2, 2);
+    directory = Files.createTempDirectory("ics-import");
+  }
+
+  /**
+   * Stops the importer and removes the journal directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    importer.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Writes a calendar holding the given events.
+   *
+   * @param events the VEVENT bodies, one content line per element
+   * @return the calendar file
+   */
+  private Path calendar(List<List<String>> events) throws IOException {
+    StringBuilder text = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+    for (List<String> event : events) {
+      text.append("BEGIN:VEVENT\r\n");
+      event.forEach(line -> text.append(line).append("\r\n"));
+      text.append("END:VEVENT\r\n");
+    }
+    text.append("END:VCALENDAR\r\n");
+    Path file = directory.resolve("calendar.ics");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  /**
+   * Finds an event of a week by name.
+   *
+   * @param week the week
+   * @param day the day of the event
+   * @param name the name of the event
+   * @return the event, or null if there is none
+   */
+  private Event event(Week week, DayOfWeek day, String name) {
+    for (Item item : week.getDays().get(day.ordinal()).getItems()) {
+      if (item.getName().equals(name)) {
+        return (Event) item;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tests that events of an unsorted calendar are bucketed into weeks, merging weeks written
+   * out early and renaming events whose name is taken.
+   */
+  @Test
+  public void testEventsAreBucketedIntoWeeks() throws Exception {
+    Path file = calendar(List.of(
+        List.of("SUMMARY:Standup", "DTSTART:20230904T090000", "DURATION:PT15M"),
+        List.of("SUMMARY:Trip", "DTSTART;VALUE=DATE:20230920"),
+        List.of("SUMMARY:Standup", "DTSTART:20230904T170000Z", "DTEND:20230904T180000Z",
+            "BEGIN:VALARM", "TRIGGER:-PT5M", "END:VALARM"),
+        List.of("SUMMARY:No start"),
+        List.of("SUMMARY:Dinner\\, late", "DESCRIPTION:Bring\\nwine",
+            "DTSTART;TZID=America/New_York:20230909T", " 190000", "DURATION:PT2H30M"),
+        List.of("SUMMARY:Standup", "DTSTART:20230904T100000", "DURATION:PT1H")));
+
+    BulkReport report = importer.importCalendar(file, directory, ZoneOffset.UTC);
+    Assertions.assertEquals(5, report.getItems());
+    Assertions.assertEquals(2, report.getFiles());
+    Assertions.assertEquals(1, importer.getEventsSkipped());
+    Assertions.assertEquals(2, importer.getEventsRenamed());
+
+    Week first = StorageManager.readFile(directory.resolve("2023-09-03.bujo"));
+    Assertions.assertEquals("Week of 2023-09-03", first.getName());
+    Event standup = event(first, DayOfWeek.MONDAY, "Standup");
+    Assertions.assertEquals("9:00 AM", standup.getStartTime());
+    Assertions.assertEquals("15 mins", standup.getDuration());
+    Assertions.assertEquals("5:00 PM", event(first, DayOfWeek.MONDAY, "Standup (2)")
+        .getStartTime());
+    Assertions.assertEquals("1 hr", event(first, DayOfWeek.MONDAY, "Standup (3)")
+        .getDuration());
+    Event dinner = event(first, DayOfWeek.SATURDAY, "Dinner, late");
+    Assertions.assertEquals("11:00 PM", dinner.getStartTime());
+    Assertions.assertEquals("2 hrs 30 mins", dinner.getDuration());
+    Assertions.assertEquals("Bring\nwine", dinner.getDescription());
+
+    Week second = StorageManager.readFile(directory.resolve("2023-09-17.bujo"));
+    Event trip = event(second, DayOfWeek.WEDNESDAY, "Trip");
+    Assertions.assertEquals("12:00 AM", trip.getStartTime());
+    Assertions.assertEquals("24 hrs", trip.getDuration());
+  }
+
+  /**
+   * Tests that a content line longer than the limit is rejected, whether it runs to the end of
+   * the file unbroken or is folded over many lines.
+   */
+  @Test
+  public void testOverlongLineIsRejected() throws IOException {
+    Path file = directory.resolve("calendar.ics");
+    Files.writeString(file, "BEGIN:VCALENDAR\r\nX-JUNK:"
+        + "a".repeat(IcsReader.MAX_LINE_LENGTH), StandardCharsets.UTF_8);
+    Assertions.assertThrows(IOException.class,
+        () -> importer.importCalendar(file, directory, ZoneOffset.UTC));
+
+    String fold = "\r\n " + "a".repeat(1000);
+    Files.writeString(file, "BEGIN:VCALENDAR\r\nX-JUNK:"
+        + fold.repeat(IcsReader.MAX_LINE_LENGTH / 1000 + 1) + "\r\nEND:VCALENDAR\r\n",
+        StandardCharsets.UTF_8);
+    Assertions.assertThrows(IOException.class,
+        () -> importer.importCalendar(file, directory, ZoneOffset.UTC));
+  }
+
+  /**
+   * Tests that a calendar exported from a week imports back into the same events.
+   */
+  @Test
+  public void testExportedCalendarImportsBack() throws Exception {
+    Week week = new Week("week", null);
+    week.addItem(new Event("Gym", "Leg day; squats", DayOfWeek.MONDAY, "6:45 PM",
+        "2 hrs 15 mins", ItemType.EVENT));
+    week.addItem(new Event("Laundry", "", DayOfWeek.SUNDAY, "11:00 AM", "1 hr ",
+        ItemType.EVENT));
+    Path file = directory.resolve("week.ics");
+    try (OutputStream out = Files.newOutputStream(file);
+         IcsWriter writer = new IcsWriter(out)) {
+      writer.writeWeek(week, LocalDate.of(2023, 9, 3));
+    }
+
+    importer.importCalendar(file, directory, ZoneOffset.UTC);
+    Week imported = StorageManager.readFile(directory.resolve("2023-09-03.bujo"));
+    Event gym = event(imported, DayOfWeek.MONDAY, "Gym");
+    Assertions.assertEquals("6:45 PM", gym.getStartTime());
+    Assertions.assertEquals("2 hrs 15 mins", gym.getDuration());
+    Assertions.assertEquals("Leg day; squats", gym.getDescription());
+    Assertions.assertEquals("1 hr", event(imported, DayOfWeek.SUNDAY, "Laundry").getDuration());
+  }
+
+  /**
+   * Tests that suffixes are picked in order, skipping names already taken.
+   */
+  @Test
+  public void testUniqueItemNames() {
+    Set<String> taken = new HashSet<>(List.of("a", "a (2)"));
+    Assertions.assertEquals("b", IcsImporter.uniqueItemName("b", taken));
+    Assertions.assertEquals("a (3)", IcsImporter.uniqueItemName("a", taken));
+    Assertions.assertEquals("a (4)", IcsImporter.uniqueItemName("a", taken));
+  }
+}
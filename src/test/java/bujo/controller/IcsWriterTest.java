@@ -0,0 +1,118 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IcsWriter class.
+ */
+class IcsWriterTest {
+
+  /**
+   * Writes a week starting on 2023-09-03 and returns the calendar text.
+   *
+   * @param week the week to write
+   * @return the calendar text
+   */
+  private String write(Week week) throws Exception {
+    return write(week, LocalDate.of(2023, 9, 3));
+  }
+
+  /**
+   * Writes a week and returns the calendar text.
+   *
+   * @param week the week to write
+   * @param weekStart the date of the week's Sunday
+   * @return the calendar text
+   */
+  private String write(Week week, LocalDate weekStart) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (IcsWriter writer = new IcsWriter(bytes)) {
+      writer.writeWeek(week, weekStart);
+    }
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the UIDs in a calendar text.
+   *
+   * @param text the calendar text
+   * @return the UIDs, in order
+   */
+  private static List<String> uids(String text) {
+    return Stream.of(text.split("\r\n")).filter(line -> line.startsWith("UID:")).toList();
+  }
+
+  /**
+   * Tests that events become dated VEVENTs and tasks are left out.
+   */
+  @Test
+  public void testEventsAreWritten() throws Exception {
+    Week week = new Week("week", null);
+    week.addItem(new Event("Gym", "Leg day; squats, lunges", DayOfWeek.MONDAY, "6:45 PM",
+        "2 hrs 15 mins", ItemType.EVENT));
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    week.addItem(new Event("broken", "", DayOfWeek.MONDAY, "9:00 AM", "a while",
+        ItemType.EVENT));
+
+    String text = write(week);
+    List<String> lines = List.of(text.split("\r\n"));
+    Assertions.assertEquals("BEGIN:VCALENDAR", lines.get(0));
+    Assertions.assertEquals("END:VCALENDAR", lines.get(lines.size() - 1));
+    Assertions.assertEquals(1, lines.stream().filter("BEGIN:VEVENT"::equals).count());
+    Assertions.assertTrue(lines.contains("DTSTART:20230904T184500"));
+    Assertions.assertTrue(lines.contains("DURATION:PT2H15M"));
+    Assertions.assertTrue(lines.contains("SUMMARY:Gym"));
+    Assertions.assertTrue(lines.contains("DESCRIPTION:Leg day\\; squats\\, lunges"));
+  }
+
+  /**
+   * Tests that an event keeps its UID when it is renamed, moved and reordered, so that exporting
+   * again updates it, while the same event in another week gets another UID.
+   */
+  @Test
+  public void testUidFollowsItemId() throws Exception {
+    Week week = new Week("week", null);
+    Event event = new Event("Gym", "", DayOfWeek.MONDAY, "6:45 PM", "1 hr", ItemType.EVENT);
+    week.addItem(event);
+    List<String> before = uids(write(week));
+
+    week.removeItem(event);
+    week.addItem(new Event("Gym", "", DayOfWeek.TUESDAY, "8:00 AM", "1 hr", ItemType.EVENT));
+    week.addItem(new Event(event.getId(), "Pool", "", DayOfWeek.TUESDAY, "9:00 AM", "1 hr",
+        ItemType.EVENT));
+    List<String> after = uids(write(week));
+
+    Assertions.assertEquals(1, before.size());
+    Assertions.assertEquals(2, after.size());
+    Assertions.assertEquals(before.get(0), after.get(1));
+    Assertions.assertNotEquals(after.get(0), after.get(1));
+    Assertions.assertFalse(uids(write(week, LocalDate.of(2023, 9, 10))).contains(before.get(0)));
+  }
+
+  /**
+   * Tests that long lines are folded at 75 octets without splitting a character.
+   */
+  @Test
+  public void testLongLinesAreFolded() throws Exception {
+    Week week = new Week("week", null);
+    String name = "\u00e9".repeat(100);
+    week.addItem(new Event(name, "", DayOfWeek.SUNDAY, "9:00 AM", "30 mins", ItemType.EVENT));
+
+    String text = write(week);
+    for (String line : text.split("\r\n")) {
+      Assertions.assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+    }
+    Assertions.assertTrue(text.replace("\r\n ", "").contains("SUMMARY:" + name + "\r\n"));
+  }
+}
@@ -0,0 +1,170 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.IsoWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the Journal class.
+ */
+class JournalTest {
+  private Path directory;
+
+  /**
+   * Sets up an empty journal directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal");
+  }
+
+  /**
+   * Removes the journal directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Tests that opening a journal indexes its week files, including imported ones, without
+   * reading them, and leaves other files out.
+   */
+  @Test
+  public void testOpenIndexesWeeks() throws IOException {
+    Journal journal = Journal.open(directory);
+    journal.createWeek(IsoWeek.of(2023, 36));
+    StorageManager.writeFile(new Week("imported", null), directory.resolve("2024-01-07.bujo"));
+    StorageManager.writeFile(new Week("other", null), directory.resolve("notes.bujo"));
+    StorageManager.writeFile(new Week("tuesday", null), directory.resolve("2023-09-05.bujo"));
+
+    Journal reopened = Journal.open(directory);
+    Assertions.assertEquals(List.of(IsoWeek.of(2023, 36), IsoWeek.of(2024, 2)),
+        List.copyOf(reopened.getWeeks()));
+    Assertions.assertEquals(0, reopened.getLoadedWeeks());
+    Assertions.assertEquals("imported", reopened.getWeek(IsoWeek.of(2024, 2)).getName());
+    Assertions.assertEquals("Week of 2023-09-03",
+        reopened.getWeek(IsoWeek.of(2023, 36)).getName());
+    Assertions.assertNull(reopened.getWeek(IsoWeek.of(2023, 37)));
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> reopened.createWeek(IsoWeek.of(2023, 36)));
+  }
+
+  /**
+   * Tests iterating over ten years of weeks, and over one quarter, while only a few weeks are
+   * kept loaded.
+   */
+  @Test
+  public void testRangesStayBounded() throws IOException {
+    Journal journal = Journal.open(directory, 4);
+    IsoWeek first = IsoWeek.of(2014, 1);
+    for (int i = 0; i < 530; i++) {
+      Week week = journal.createWeek(first.plusWeeks(i));
+      week.addItem(new Task("task " + i, "", DayOfWeek.MONDAY));
+      journal.flush();
+    }
+
+    Journal reopened = Journal.open(directory, 4);
+    int count = 0;
+    for (Week week : reopened.weeks(first, first.plusWeeks(529))) {
+      Assertions.assertEquals("task " + count,
+          week.getDays().get(1).getItems().get(0).getName());
+      Assertions.assertTrue(reopened.getLoadedWeeks() <= 4);
+      count++;
+    }
+    Assertions.assertEquals(530, count);
+    Assertions.assertEquals(530, reopened.getWeeksRead());
+
+    int quarter = 0;
+    for (Week ignored : reopened.weeks(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 3, 31))) {
+      quarter++;
+    }
+    Assertions.assertEquals(14, quarter);
+
+    // Q4 2023 starts and ends on a Sunday, each the first day of a journal week
+    List<String> q4 = new ArrayList<>();
+    for (Week week : reopened.weeks(LocalDate.of(2023, 10, 1), LocalDate.of(2023, 12, 31))) {
+      q4.add(week.getName());
+    }
+    Assertions.assertEquals(14, q4.size());
+    Assertions.assertEquals("Week of 2023-10-01", q4.get(0));
+    Assertions.assertEquals("Week of 2023-12-31", q4.get(13));
+  }
+
+  /**
+   * Tests that modified weeks stay loaded until flushed, even when used longest ago, and that
+   * a week modified after it was dropped is flushed too.
+   */
+  @Test
+  public void testModifiedWeeksAreFlushed() throws IOException {
+    Journal journal = Journal.open(directory, 1);
+    IsoWeek first = IsoWeek.of(2023, 1);
+    for (int i = 0; i < 3; i++) {
+      journal.createWeek(first.plusWeeks(i));
+    }
+    Week modified = journal.getWeek(first);
+    modified.addItem(new Task("kept", "", DayOfWeek.MONDAY));
+    Week dropped = journal.getWeek(first.plusWeeks(1));
+    journal.getWeek(first.plusWeeks(2));
+    Assertions.assertEquals(2, journal.getLoadedWeeks());
+
+    dropped.addItem(new Task("late", "", DayOfWeek.FRIDAY));
+    journal.flush();
+    Assertions.assertEquals(1, journal.getLoadedWeeks());
+
+    Journal reopened = Journal.open(directory);
+    Assertions.assertEquals("kept", reopened.getWeek(first).getDays().get(1).getItems().get(0)
+        .getName());
+    Assertions.assertEquals(1, reopened.getWeek(first.plusWeeks(1)).getDays().get(5)
+        .getItems().size());
+  }
+
+  /**
+   * Tests that a dropped week still held by a caller is handed back rather than read again, so
+   * edits made to it are saved.
+   */
+  @Test
+  public void testDroppedWeekIsNotReadTwice() throws IOException {
+    Journal journal = Journal.open(directory, 1);
+    IsoWeek first = IsoWeek.of(2023, 1);
+    journal.createWeek(first);
+    journal.createWeek(first.plusWeeks(1));
+
+    Journal reopened = Journal.open(directory, 1);
+    Week held = reopened.getWeek(first);
+    reopened.getWeek(first.plusWeeks(1));
+    Assertions.assertEquals(1, reopened.getLoadedWeeks());
+    Assertions.assertSame(held, reopened.getWeek(first));
+    Assertions.assertEquals(2, reopened.getWeeksRead());
+
+    // Renaming is not an item change, so the week stays dropped
+    reopened.getWeek(first.plusWeeks(1));
+    held.setName("renamed");
+    reopened.flush();
+    Assertions.assertEquals(1, reopened.getLoadedWeeks());
+    held.addItem(new Task("added", "", DayOfWeek.MONDAY));
+    reopened.getWeek(first.plusWeeks(1));
+    reopened.flush();
+
+    Week saved = Journal.open(directory).getWeek(first);
+    Assertions.assertEquals("renamed", saved.getName());
+    Assertions.assertEquals("added", saved.getDays().get(1).getItems().get(0).getName());
+  }
+}
@@ -0,0 +1,253 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MutationLog class.
+ */
+class MutationLogTest {
+  private SaveService saveService;
+  private Path directory;
+  private Path filePath;
+  private Week week;
+
+  /**
+   * Sets up a week with a written .bujo file in a scratch directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    saveService = new SaveService();
+    directory = Files.createTempDirectory("mutation-log");
+    filePath = directory.resolve("week.bujo");
+    week = new Week("week", filePath);
+    week.addItem(new Task("base task", "", DayOfWeek.SUNDAY));
+    StorageManager.writeFile(week, filePath);
+  }
+
+  /**
+   * Stops the service and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    saveService.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Tests that logged mutations are replayed when the week is read back.
+   */
+  @Test
+  public void testMutationsAreReplayed() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "description", DayOfWeek.MONDAY));
+    week.addItem(new Event("event", "", DayOfWeek.MONDAY, "3:00 PM", "1 hr", ItemType.EVENT));
+    week.removeItem(new Task("base task", "", DayOfWeek.SUNDAY));
+    week.markComplete(new Task("task", "", DayOfWeek.MONDAY));
+    log.close();
+
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertTrue(copy.getDays().get(0).getItems().isEmpty());
+    List<Item> monday = copy.getDays().get(1).getItems();
+    Assertions.assertEquals(2, monday.size());
+    Assertions.assertEquals("event", monday.get(0).getName());
+    Assertions.assertTrue(((Task) monday.get(1)).getComplete());
+  }
+
+  /**
+   * Tests that replaying a log over a .bujo file that already holds its changes is harmless,
+   * as happens after a crash between writing the .bujo file and discarding the log.
+   */
+  @Test
+  public void testReplayIsIdempotent() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    week.removeItem(new Task("base task", "", DayOfWeek.SUNDAY));
+    log.close();
+    StorageManager.writeFile(week, filePath);
+
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertTrue(copy.getDays().get(0).getItems().isEmpty());
+    Assertions.assertEquals(1, copy.getDays().get(1).getItems().size());
+  }
+
+  /**
+   * Tests that an item edited in place, as the screens do, is replayed by its ID even though its
+   * name changed.
+   */
+  @Test
+  public void testRenamedItemIsReplayedById() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    Item base = week.getDays().get(0).getItems().get(0);
+    week.removeItem(base.getDay(), base.getId());
+    week.addItem(new Task(base.getId(), "renamed", "", DayOfWeek.SUNDAY, false, ItemType.TASK));
+    log.close();
+
+    List<Item> sunday = StorageManager.readFile(filePath).getDays().get(0).getItems();
+    Assertions.assertEquals(1, sunday.size());
+    Assertions.assertEquals("renamed", sunday.get(0).getName());
+    Assertions.assertEquals(base.getId(), sunday.get(0).getId());
+  }
+
+  /**
+   * Tests that a record torn by a crash mid-append is ignored.
+   */
+  @Test
+  public void testTornRecordIsIgnored() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.close();
+    Files.write(MutationLog.logPathFor(filePath), "{\"op\":\"remove\",\"da".getBytes(
+        StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertEquals(1, copy.getDays().get(1).getItems().size());
+  }
+
+  /**
+   * Tests that a log reopened after a crash mid-append drops the torn record, so the records
+   * appended after it are still replayed.
+   */
+  @Test
+  public void testAppendAfterTornRecord() throws Exception {
+    Files.write(MutationLog.logPathFor(filePath), "{\"op\":\"remove\",\"da".getBytes(
+        StandardCharsets.UTF_8));
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.close();
+
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertEquals(1, copy.getDays().get(0).getItems().size());
+    Assertions.assertEquals(1, copy.getDays().get(1).getItems().size());
+  }
+
+  /**
+   * Tests that a damaged record followed by others is reported instead of dropping the rest of
+   * the log.
+   */
+  @Test
+  public void testDamagedRecordIsReported() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.close();
+    Path logPath = MutationLog.logPathFor(filePath);
+    String records = Files.readString(logPath);
+    Files.writeString(logPath, "{\"op\":\"remove\",\"da\n" + records);
+
+    Assertions.assertThrows(IOException.class, () -> StorageManager.readFile(filePath));
+  }
+
+  /**
+   * Tests that a record that parses but names no valid day is reported as an IOException.
+   */
+  @Test
+  public void testInvalidDayIsReported() throws Exception {
+    Files.writeString(MutationLog.logPathFor(filePath),
+        "{\"op\":\"remove\",\"day\":\"FUNDAY\",\"name\":\"task\"}\n");
+
+    Assertions.assertThrows(IOException.class, () -> StorageManager.readFile(filePath));
+  }
+
+  /**
+   * Tests that the log is compacted into the .bujo file once it passes the threshold.
+   */
+  @Test
+  public void testCompactionPastThreshold() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService, 1);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.compact().get();
+    log.close();
+
+    Assertions.assertEquals(0, Files.size(MutationLog.logPathFor(filePath)));
+    Assertions.assertEquals(1, StorageManager.readFile(filePath).getDays().get(1)
+        .getItems().size());
+  }
+
+  /**
+   * Tests that a log past the threshold is not compacted while compaction is suspended, so the
+   * .bujo file keeps what another program wrote, and that an explicit compaction still is.
+   */
+  @Test
+  public void testSuspendedCompaction() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService, 1);
+    log.setCompactionSuspended(true);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    week.addItem(new Task("other task", "", DayOfWeek.MONDAY));
+
+    Assertions.assertTrue(StorageManager.readStoredFile(filePath).getDays().get(1)
+        .getItems().isEmpty());
+    Assertions.assertTrue(Files.size(MutationLog.logPathFor(filePath)) > 0);
+
+    log.compact().get();
+    log.close();
+    Assertions.assertEquals(2, StorageManager.readStoredFile(filePath).getDays().get(1)
+        .getItems().size());
+  }
+
+  /**
+   * Tests that discarding the log drops the logged mutations and stops recording.
+   */
+  @Test
+  public void testDiscardDropsMutations() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.discard().get();
+    week.addItem(new Task("other task", "", DayOfWeek.MONDAY));
+
+    Assertions.assertFalse(Files.exists(MutationLog.logPathFor(filePath)));
+    Assertions.assertTrue(StorageManager.readFile(filePath).getDays().get(1)
+        .getItems().isEmpty());
+  }
+
+  /**
+   * Tests that compacting the log of a week read from a compressed binary file writes it back
+   * in that format and compression, as opening it in the application does.
+   */
+  @Test
+  public void testCompactionKeepsStorageFormat() throws Exception {
+    StorageManager.writeFile(week, filePath, StorageFormat.BINARY, Compression.GZIP);
+    Week opened = StorageManager.readFile(filePath);
+    Assertions.assertEquals(StorageFormat.BINARY, opened.getStorageFormat());
+    Assertions.assertEquals(Compression.GZIP, opened.getCompression());
+
+    MutationLog log = new MutationLog(opened, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    opened.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    log.compact().get();
+    log.close();
+
+    byte[] bytes = Files.readAllBytes(filePath);
+    Assertions.assertEquals(Compression.GZIP, Compression.detect(bytes));
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertEquals(StorageFormat.BINARY, copy.getStorageFormat());
+    Assertions.assertEquals(1, copy.getDays().get(1).getItems().size());
+    Assertions.assertFalse(Files.exists(SectionChecksums.pathFor(filePath)));
+  }
+}
@@ -0,0 +1,101 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SaveService class.
+ */
+class SaveServiceTest {
+  private SaveService saveService;
+  private Path directory;
+
+  /**
+   * Sets up a fresh service and scratch directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    saveService = new SaveService();
+    directory = Files.createTempDirectory("save-service");
+  }
+
+  /**
+   * Stops the service and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    saveService.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Tests that a saved week can be read back and no temporary files are left behind.
+   */
+  @Test
+  public void testSaveIsReadable() throws Exception {
+    Path filePath = directory.resolve("week.bujo");
+    Week week = new Week("week", filePath);
+    week.addItem(new Task("task", "description", DayOfWeek.MONDAY));
+
+    saveService.save(week, filePath).get();
+
+    Week copy = StorageManager.readFile(filePath);
+    Assertions.assertEquals("week", copy.getName());
+    Assertions.assertEquals("task", copy.getDays().get(1).getItems().get(0).getName());
+    try (Stream<Path> files = Files.list(directory)) {
+      Assertions.assertEquals(Set.of(filePath, SectionChecksums.pathFor(filePath)),
+          files.collect(Collectors.toSet()));
+    }
+  }
+
+  /**
+   * Tests that a burst of saves to one path ends with the latest state on disk.
+   */
+  @Test
+  public void testOverlappingSavesKeepLatestState() throws Exception {
+    Path filePath = directory.resolve("week.bujo");
+    Week week = new Week("week", filePath);
+
+    List<CompletableFuture<Void>> saves = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      week.setName("week " + i);
+      saves.add(saveService.save(week, filePath));
+    }
+    CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0])).get();
+
+    Assertions.assertEquals("week 49", StorageManager.readFile(filePath).getName());
+  }
+
+  /**
+   * Tests that a failed write completes the future exceptionally.
+   */
+  @Test
+  public void testFailedSaveIsReported() {
+    Path filePath = directory.resolve("missing").resolve("week.bujo");
+    Week week = new Week("week", filePath);
+
+    ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+        () -> saveService.save(week, filePath).get());
+    Assertions.assertTrue(e.getCause() instanceof IOException);
+  }
+}
@@ -0,0 +1,171 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SearchIndex class.
+ */
+class SearchIndexTest {
+  private SearchIndex index;
+  private Path directory;
+
+  /**
+   * Sets up an empty index and an empty journal directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    index = new SearchIndex();
+    directory = Files.createTempDirectory("search");
+  }
+
+  /**
+   * Removes the journal directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Returns the names of the items found by a query, in order.
+   *
+   * @param query the query
+   * @return the names of the items found
+   */
+  private List<String> names(String query) {
+    List<String> names = new ArrayList<>();
+    for (SearchHit hit : index.search(query, 100)) {
+      names.add(hit.getItem().getName());
+    }
+    return names;
+  }
+
+  /**
+   * Tests splitting text into tokens.
+   */
+  @Test
+  public void testTokenize() {
+    Assertions.assertEquals(List.of("call", "bob", "re", "q3", "plan"),
+        SearchIndex.tokenize("Call Bob -- re: Q3 plan!"));
+    Assertions.assertTrue(SearchIndex.tokenize(" ,; ").isEmpty());
+  }
+
+  /**
+   * Tests token, prefix and multi-word queries on a followed week, as its items change.
+   */
+  @Test
+  public void testFollowsWeek() throws IllegalAccessException {
+    Week week = new Week("week", null);
+    week.addItem(new Task("Buy milk", "and bread", DayOfWeek.MONDAY));
+    week.addItem(new Event("Team meeting", "Planning", DayOfWeek.TUESDAY, "9:00 AM", "1 hr",
+        ItemType.EVENT));
+    index.addWeek(week);
+    week.addItem(new Task("Meet Ann", "Bread recipe", DayOfWeek.FRIDAY));
+
+    Assertions.assertEquals(List.of("Buy milk", "Meet Ann"), names("BREAD"));
+    Assertions.assertEquals(List.of("Team meeting", "Meet Ann"), names("meet*"));
+    Assertions.assertEquals(List.of("Meet Ann"), names("meet"));
+    Assertions.assertEquals(List.of("Team meeting"), names("team plan*"));
+    Assertions.assertTrue(names("team milk").isEmpty());
+    Assertions.assertTrue(names("").isEmpty());
+
+    week.markComplete(new Task("Buy milk", "", DayOfWeek.MONDAY));
+    Assertions.assertTrue(((Task) index.search("milk", 1).get(0).getItem()).getComplete());
+    week.removeItem(new Task("Meet Ann", "", DayOfWeek.FRIDAY));
+    Assertions.assertEquals(List.of("Buy milk"), names("bread"));
+    Assertions.assertEquals(2, index.getItemCount());
+
+    index.removeWeek(week);
+    week.addItem(new Task("Bread again", "", DayOfWeek.SUNDAY));
+    Assertions.assertTrue(names("bread").isEmpty());
+    Assertions.assertEquals(0, index.getItemCount());
+  }
+
+  /**
+   * Tests indexing a directory, and following a week of it once it is opened.
+   */
+  @Test
+  public void testIndexesDirectory() throws IOException {
+    for (int w = 0; w < 3; w++) {
+      Week week = new Week("week " + w, null);
+      week.addItem(new Task("report " + w, "weekly", DayOfWeek.MONDAY));
+      StorageManager.writeFile(week, directory.resolve("week" + w + ".bujo"));
+    }
+    Files.writeString(directory.resolve("broken.bujo"), "not a week");
+
+    Assertions.assertEquals(3, index.addDirectory(directory));
+    Assertions.assertEquals(1, index.getFilesFailed());
+    Assertions.assertEquals(3, index.search("weekly", 100).size());
+    Assertions.assertEquals(directory.resolve("week1.bujo"),
+        index.search("1", 100).get(0).getFile());
+
+    Path file = directory.resolve("week1.bujo");
+    Week opened = StorageManager.readFile(file);
+    opened.setPath(file);
+    index.addWeek(opened);
+    opened.addItem(new Task("extra", "weekly", DayOfWeek.FRIDAY));
+    Assertions.assertEquals(4, index.search("weekly", 100).size());
+    Assertions.assertEquals(2, index.search("weekly", 2).size());
+    Assertions.assertEquals(4, index.getItemCount());
+  }
+
+  /**
+   * Tests that a followed week saved elsewhere is still followed, indexed once when added
+   * again, and forgotten when removed.
+   */
+  @Test
+  public void testFollowsWeekAcrossSaveAs() {
+    Week week = new Week("week", directory.resolve("old.bujo"));
+    week.addItem(new Task("report", "", DayOfWeek.MONDAY));
+    index.addWeek(week);
+
+    week.setPath(directory.resolve("new.bujo"));
+    index.addWeek(week);
+    Assertions.assertEquals(1, index.search("report", 100).size());
+    Assertions.assertEquals(directory.resolve("new.bujo"),
+        index.search("report", 100).get(0).getFile());
+
+    index.removeWeek(week);
+    week.addItem(new Task("second report", "", DayOfWeek.MONDAY));
+    Assertions.assertTrue(index.search("report", 100).isEmpty());
+    Assertions.assertEquals(0, index.getItemCount());
+  }
+
+  /**
+   * Tests that results stay right after the index drops its dead items.
+   */
+  @Test
+  public void testCompaction() throws IllegalAccessException {
+    Week week = new Week("week", null);
+    index.addWeek(week);
+    for (int i = 0; i < 3000; i++) {
+      week.addItem(new Task("item " + i, i % 2 == 0 ? "even" : "odd", DayOfWeek.MONDAY));
+    }
+    for (int i = 0; i < 2500; i++) {
+      week.removeItem(new Task("item " + i, "", DayOfWeek.MONDAY));
+    }
+    Assertions.assertEquals(500, index.getItemCount());
+    Assertions.assertEquals(250, index.search("even", 1000).size());
+    Assertions.assertEquals(List.of("item 2999"), names("2999"));
+    Assertions.assertTrue(index.getMemoryEstimate() > 0);
+  }
+}
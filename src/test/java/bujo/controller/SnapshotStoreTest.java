@@ -0,0 +1,150 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SnapshotStore class.
+ */
+class SnapshotStoreTest {
+  private Path directory;
+  private Path filePath;
+  private SnapshotStore store;
+  private Week week;
+
+  /**
+   * Sets up a week and its snapshot store in a scratch directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("snapshots");
+    filePath = directory.resolve("week.bujo");
+    store = new SnapshotStore(filePath);
+    week = new Week("week", filePath);
+    week.addItem(new Task("task", "", DayOfWeek.MONDAY));
+  }
+
+  /**
+   * Stops the store and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    store.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Counts the days stored in the history.
+   *
+   * @return number of stored days
+   */
+  private long storedDays() throws IOException {
+    try (Stream<Path> days = Files.list(SnapshotStore.historyPathFor(filePath).resolve("days"))) {
+      return days.count();
+    }
+  }
+
+  /**
+   * Tests that earlier versions can be loaded back and unchanged days are shared.
+   */
+  @Test
+  public void testSnapshotsShareUnchangedDays() throws Exception {
+    Snapshot first = store.snapshot(week).get();
+    Assertions.assertEquals(7, storedDays());
+
+    week.addItem(new Task("other task", "", DayOfWeek.FRIDAY));
+    Snapshot second = store.snapshot(week).get();
+    Assertions.assertEquals(8, storedDays());
+
+    List<Snapshot> snapshots = store.listSnapshots();
+    Assertions.assertEquals(2, snapshots.size());
+    Assertions.assertEquals(first.getId(), snapshots.get(0).getId());
+    Assertions.assertEquals(second.getId(), snapshots.get(1).getId());
+
+    Week old = store.loadSnapshot(first);
+    Assertions.assertEquals("week", old.getName());
+    Assertions.assertEquals(1, old.getDays().get(1).getItems().size());
+    Assertions.assertTrue(old.getDays().get(5).getItems().isEmpty());
+    Assertions.assertEquals(1, store.loadSnapshot(second).getDays().get(5).getItems().size());
+  }
+
+  /**
+   * Tests that the week fields are loaded back as they were, with a null password and salt
+   * kept null rather than turned into text.
+   */
+  @Test
+  public void testWeekFieldsAreKept() throws Exception {
+    Week unprotected = new Week("week", null, null, 3, 4, store.loadSnapshot(
+        store.snapshot(week).get()).getDays());
+    Week loaded = store.loadSnapshot(store.snapshot(unprotected).get());
+    Assertions.assertEquals("week", loaded.getName());
+    Assertions.assertNull(loaded.getHashedPassword());
+    Assertions.assertNull(loaded.getSaltPassword());
+    Assertions.assertEquals(3, loaded.getMaxNumEvents());
+    Assertions.assertEquals(4, loaded.getMaxNumTasks());
+
+    Week protectedWeek = new Week("secret", filePath, "password", 1, 1);
+    loaded = store.loadSnapshot(store.snapshot(protectedWeek).get());
+    Assertions.assertEquals(protectedWeek.getHashedPassword(), loaded.getHashedPassword());
+    Assertions.assertEquals(protectedWeek.getSaltPassword(), loaded.getSaltPassword());
+  }
+
+  /**
+   * Tests that an unchanged week is not stored twice.
+   */
+  @Test
+  public void testUnchangedWeekIsNotStoredAgain() throws Exception {
+    Snapshot first = store.snapshot(week).get();
+    Snapshot second = store.snapshot(week).get();
+    Assertions.assertEquals(first.getId(), second.getId());
+    Assertions.assertEquals(1, store.listSnapshots().size());
+  }
+
+  /**
+   * Tests that pruning by count removes the oldest snapshots and the days only they used.
+   */
+  @Test
+  public void testPruneByCount() throws Exception {
+    store.snapshot(week).get();
+    week.addItem(new Task("second", "", DayOfWeek.MONDAY));
+    store.snapshot(week).get();
+    week.addItem(new Task("third", "", DayOfWeek.MONDAY));
+    Snapshot last = store.snapshot(week).get();
+    Assertions.assertEquals(9, storedDays());
+
+    Assertions.assertEquals(2, store.prune(Duration.ofDays(365), 1));
+    List<Snapshot> snapshots = store.listSnapshots();
+    Assertions.assertEquals(1, snapshots.size());
+    Assertions.assertEquals(last.getId(), snapshots.get(0).getId());
+    Assertions.assertEquals(7, storedDays());
+    Assertions.assertEquals(3, store.loadSnapshot(last).getDays().get(1).getItems().size());
+  }
+
+  /**
+   * Tests that pruning by age removes every snapshot older than the age.
+   */
+  @Test
+  public void testPruneByAge() throws Exception {
+    store.snapshot(week).get();
+    Thread.sleep(20);
+    Assertions.assertEquals(1, store.prune(Duration.ofMillis(10), Integer.MAX_VALUE));
+    Assertions.assertTrue(store.listSnapshots().isEmpty());
+    Assertions.assertEquals(0, storedDays());
+  }
+}
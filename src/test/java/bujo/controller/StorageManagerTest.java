@@ -2,10 +2,20 @@ package bujo.controller;
 
 import bujo.model.DayOfWeek;
 import bujo.model.Event;
+import bujo.model.Item;
 import bujo.model.ItemType;
 import bujo.model.Task;
 import bujo.model.Week;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -18,13 +28,14 @@ class StorageManagerTest {
    * Tests that a week can be written to and read from the file system.
    */
   @Test
-  public void testFileInteractions() {
+  public void testFileInteractions() throws IOException {
     // Set up a week with some sample contents
     Week original = new Week("week", Path.of("src/test/artifacts/"));
     original.setMaxNumEvents(10);
     original.setMaxNumTasks(10);
-    original.addItem(new Task("task", "description", DayOfWeek.MONDAY));
-    original.addItem(new Event("event", "description", DayOfWeek.THURSDAY,
+    original.addItem(new Task("task-1", "task", "description", DayOfWeek.MONDAY, false,
+        ItemType.TASK));
+    original.addItem(new Event("event-1", "event", "description", DayOfWeek.THURSDAY,
         "3:00 PM", "30 Min", ItemType.EVENT));
 
     // Write a week to the file system
@@ -46,9 +57,132 @@ class StorageManagerTest {
         copy.getDays().get(1).getItems().get(0).getName());
     Assertions.assertEquals(original.getDays().get(4).getItems().get(0).getName(),
         copy.getDays().get(4).getItems().get(0).getName());
+    Assertions.assertEquals("task-1", copy.getDays().get(1).getItems().get(0).getId());
 
   }
 
+  /**
+   * Tests that the streaming writer produces the same bytes as the tree-based serialization.
+   */
+  @Test
+  public void testStreamingWriteMatchesTreeSerialization() throws Exception {
+    Week week = new Week("week", Path.of("src/test/artifacts/"));
+    week.addItem(new Task("task", "description with \"quotes\"", DayOfWeek.SUNDAY));
+    week.addItem(new Event("event", "", DayOfWeek.SATURDAY,
+        "9:15 AM", "1 hr 5 mins", ItemType.EVENT));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StorageManager.writeWeek(week, out);
+
+    JsonNode tree = new ObjectMapper().convertValue(week, JsonNode.class);
+    Assertions.assertEquals(tree.toString(), out.toString(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Tests that items of a file written before items had IDs are given the same distinct IDs on
+   * every read.
+   */
+  @Test
+  public void testLegacyItemsGetStableIds() throws Exception {
+    byte[] legacy = ("{\"name\":\"week\",\"days\":[{\"dayOfWeek\":\"MONDAY\",\"items\":["
+        + "{\"itemType\":\"task\",\"name\":\"a\",\"day\":\"MONDAY\"},"
+        + "{\"itemType\":\"task\",\"name\":\"b\",\"day\":\"MONDAY\"}]}]}")
+        .getBytes(StandardCharsets.UTF_8);
+    List<Item> first = StorageManager.readWeek(new ByteArrayInputStream(legacy))
+        .getDays().get(0).getItems();
+    List<Item> second = StorageManager.readWeek(new ByteArrayInputStream(legacy))
+        .getDays().get(0).getItems();
+
+    Assertions.assertNotNull(first.get(0).getId());
+    Assertions.assertNotEquals(first.get(0).getId(), first.get(1).getId());
+    Assertions.assertEquals(first.get(0).getId(), second.get(0).getId());
+    Assertions.assertEquals(first.get(1).getId(), second.get(1).getId());
+  }
+
+  /**
+   * Tests that malformed content is reported as an IO failure.
+   */
+  @Test
+  public void checkMalformedContent() {
+    byte[] truncated = "{\"name\":\"week\",\"days\":[{\"items\":["
+        .getBytes(StandardCharsets.UTF_8);
+    Assertions.assertThrows(IOException.class, () ->
+        StorageManager.readWeek(new ByteArrayInputStream(truncated)));
+  }
+
+  /**
+   * Tests that binary files are detected on read and converted back to identical JSON.
+   */
+  @Test
+  public void testBinaryRoundTripAndConversion() throws Exception {
+    Week original = new Week("week", Path.of("src/test/artifacts/"), "", 3, 4);
+    original.addItem(new Task("task", "a long description", DayOfWeek.MONDAY));
+    original.addItem(new Task("other task", "a long description", DayOfWeek.MONDAY));
+    original.addItem(new Event("event", "", DayOfWeek.THURSDAY,
+        "3:00 PM", "30 mins", ItemType.EVENT));
+
+    Path json = Files.createTempFile("json", ".bujo");
+    Path binary = Files.createTempFile("binary", ".bujo");
+    try {
+      StorageManager.writeFile(original, json);
+      StorageManager.convertFile(json, binary, StorageFormat.BINARY);
+      Assertions.assertTrue(Files.size(binary) < Files.size(json));
+
+      Week copy = StorageManager.readFile(binary);
+      Assertions.assertEquals(3, copy.getMaxNumEvents());
+      Assertions.assertEquals(4, copy.getMaxNumTasks());
+      Assertions.assertEquals("a long description",
+          copy.getDays().get(1).getItems().get(1).getDescription());
+
+      byte[] before = Files.readAllBytes(json);
+      StorageManager.convertFile(binary, json, StorageFormat.JSON);
+      Assertions.assertArrayEquals(before, Files.readAllBytes(json));
+    } finally {
+      Files.deleteIfExists(json);
+      Files.deleteIfExists(binary);
+    }
+  }
+
+  /**
+   * Tests that compressed files of both formats are detected and read back transparently.
+   */
+  @Test
+  public void testCompressedRoundTrip() throws Exception {
+    Week original = new Week("week", Path.of("src/test/artifacts/"), "", 3, 4);
+    for (int i = 0; i < 20; i++) {
+      original.addItem(new Task("task " + i, "a long description", DayOfWeek.MONDAY));
+    }
+
+    Path plain = Files.createTempFile("plain", ".bujo");
+    Path compressed = Files.createTempFile("compressed", ".bujo");
+    try {
+      StorageManager.writeFile(original, plain);
+      for (StorageFormat format : StorageFormat.values()) {
+        for (Compression compression : Compression.values()) {
+          StorageManager.writeFile(original, compressed, format, compression);
+          byte[] header = Files.readAllBytes(compressed);
+          Assertions.assertEquals(compression, Compression.detect(header));
+
+          Week copy = StorageManager.readFile(compressed);
+          Assertions.assertEquals(20, copy.getDays().get(1).getItems().size());
+          Assertions.assertEquals("a long description",
+              copy.getDays().get(1).getItems().get(0).getDescription());
+          if (compression != Compression.NONE) {
+            Assertions.assertTrue(Files.size(compressed) < Files.size(plain));
+          }
+        }
+      }
+
+      byte[] before = Files.readAllBytes(plain);
+      StorageManager.convertFile(plain, compressed, StorageFormat.JSON, Compression.GZIP);
+      StorageManager.convertFile(compressed, plain, StorageFormat.JSON);
+      Assertions.assertArrayEquals(before, Files.readAllBytes(plain));
+    } finally {
+      Files.deleteIfExists(plain);
+      Files.deleteIfExists(compressed);
+    }
+  }
+
   /**
    * Tests that an exception is thrown when a file with an illegal extension is read.
    */
@@ -60,11 +194,11 @@ class StorageManagerTest {
   }
 
   /**
-   * Tests that an exception is thrown when a nonexistent file is selected
+   * Tests that an IO exception is thrown when a nonexistent file is selected
    */
   @Test
   public void checkNonExistentFile() {
-    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+    Assertions.assertThrows(NoSuchFileException.class, () -> {
       StorageManager.readFile(Path.of("src/test/artifacts/nonExistentFile.bujo"));
     });
   }
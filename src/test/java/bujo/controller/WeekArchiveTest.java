@@ -0,0 +1,185 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the WeekArchive class.
+ */
+class WeekArchiveTest {
+  private Path archivePath;
+
+  /**
+   * Sets up a scratch archive path.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    archivePath = Files.createTempFile("weeks", ".bujoar");
+    Files.delete(archivePath);
+  }
+
+  /**
+   * Removes the scratch archive.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(archivePath);
+  }
+
+  /**
+   * Tests that appended weeks can be read back individually after reopening.
+   */
+  @Test
+  public void testAppendAndRead() throws IOException {
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      for (int i = 0; i < 3; i++) {
+        Week week = new Week("week " + i, null);
+        week.addItem(new Task("task " + i, "", DayOfWeek.MONDAY));
+        archive.appendWeek(week);
+      }
+    }
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Assertions.assertEquals(List.of("week 0", "week 1", "week 2"), archive.getWeekNames());
+      Week week = archive.readWeek("week 1");
+      Assertions.assertEquals("week 1", week.getName());
+      Assertions.assertEquals("task 1", week.getDays().get(1).getItems().get(0).getName());
+      Assertions.assertThrows(IllegalArgumentException.class, () -> archive.readWeek("week 3"));
+    }
+  }
+
+  /**
+   * Tests that appending leaves everything already in the archive untouched, and that appending
+   * a week by an existing name replaces it.
+   */
+  @Test
+  public void testAppendKeepsEarlierPayloads() throws IOException {
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      archive.appendWeek(new Week("first", null));
+    }
+    byte[] before = Files.readAllBytes(archivePath);
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Week replacement = new Week("first", null);
+      replacement.setMaxNumTasks(3);
+      archive.appendWeek(new Week("second", null));
+      archive.appendWeek(replacement);
+      Assertions.assertEquals(3, archive.readWeek("first").getMaxNumTasks());
+      Assertions.assertEquals(2, archive.getWeekNames().size());
+    }
+
+    byte[] after = Files.readAllBytes(archivePath);
+    Assertions.assertArrayEquals(before, Arrays.copyOf(after, before.length));
+  }
+
+  /**
+   * Tests that an append cut short by a crash leaves the weeks committed before it readable,
+   * and that the next append writes over the torn tail.
+   */
+  @Test
+  public void testTornAppendFallsBackToLastFooter() throws IOException {
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      archive.appendWeek(new Week("first", null));
+      archive.appendWeek(new Week("second", null));
+    }
+    byte[] committed = Files.readAllBytes(archivePath);
+    // A payload and part of an index written, but no footer
+    Files.write(archivePath, Arrays.copyOf(committed, committed.length + 40));
+    Files.write(archivePath, "{\"name\":\"third\"".getBytes(), StandardOpenOption.APPEND);
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Assertions.assertEquals(List.of("first", "second"), archive.getWeekNames());
+      Assertions.assertEquals("second", archive.readWeek("second").getName());
+      archive.appendWeek(new Week("third", null));
+    }
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Assertions.assertEquals(List.of("first", "second", "third"), archive.getWeekNames());
+      Assertions.assertEquals("third", archive.readWeek("third").getName());
+    }
+    byte[] after = Files.readAllBytes(archivePath);
+    Assertions.assertArrayEquals(committed, Arrays.copyOf(after, committed.length));
+  }
+
+  /**
+   * Tests that the last complete footer is found behind a torn tail longer than one search
+   * window.
+   */
+  @Test
+  public void testLongTornTailFallsBackToLastFooter() throws IOException {
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      archive.appendWeek(new Week("first", null));
+    }
+    byte[] committed = Files.readAllBytes(archivePath);
+    Files.write(archivePath, Arrays.copyOf(committed, committed.length + 200_000));
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Assertions.assertEquals(List.of("first"), archive.getWeekNames());
+      Assertions.assertEquals("first", archive.readWeek("first").getName());
+    }
+  }
+
+  /**
+   * Tests that compacting drops replaced payloads and earlier indexes, keeps every week readable,
+   * and leaves the archive open for further appends.
+   */
+  @Test
+  public void testCompactReclaimsDeadSpace() throws IOException {
+    Week first = new Week("first", null);
+    first.addItem(new Task("task", "", DayOfWeek.MONDAY));
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      archive.appendWeek(first);
+      for (int i = 0; i < 10; i++) {
+        archive.appendWeek(new Week("second", null));
+      }
+      long before = Files.size(archivePath);
+      archive.compact();
+      Assertions.assertTrue(Files.size(archivePath) < before);
+      Assertions.assertEquals(1,
+          archive.readWeek("first").getDays().get(1).getItems().size());
+      archive.appendWeek(new Week("third", null));
+    }
+
+    try (WeekArchive archive = WeekArchive.open(archivePath)) {
+      Assertions.assertEquals(List.of("first", "second", "third"), archive.getWeekNames());
+      Assertions.assertEquals("second", archive.readWeek("second").getName());
+      Assertions.assertEquals(1,
+          archive.readWeek("first").getDays().get(1).getItems().size());
+    }
+  }
+
+  /**
+   * Tests that a damaged index is rejected with an IO failure rather than read past its end.
+   */
+  @Test
+  public void testDamagedIndexIsRejected() throws IOException {
+    WeekArchive.open(archivePath).close();
+    byte[] bytes = Files.readAllBytes(archivePath);
+    // The entry count of the empty index, just before the magic
+    bytes[bytes.length - 5] = 1;
+    Files.write(archivePath, bytes);
+    IOException e = Assertions.assertThrows(IOException.class,
+        () -> WeekArchive.open(archivePath));
+    Assertions.assertTrue(e.getMessage().contains("damaged"));
+  }
+
+  /**
+   * Tests that a file that is not an archive is rejected.
+   */
+  @Test
+  public void testInvalidArchive() throws IOException {
+    Files.writeString(archivePath, "{\"name\":\"not an archive\"}");
+    Assertions.assertThrows(IOException.class, () -> WeekArchive.open(archivePath));
+  }
+}
@@ -0,0 +1,161 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the WeekCatalog class.
+ */
+class WeekCatalogTest {
+  private WeekCatalog catalog;
+  private Path directory;
+
+  /**
+   * Sets up a catalog and an empty journal directory.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    catalog = new WeekCatalog(2);
+    directory = Files.createTempDirectory("catalog");
+  }
+
+  /**
+   * Stops the catalog and removes the journal directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    catalog.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Creates a week with the given number of tasks and one event.
+   *
+   * @param name the name of the week
+   * @param password the password of the week, empty for none
+   * @param tasks number of tasks to add
+   * @return the week
+   */
+  private Week week(String name, String password, int tasks) {
+    Week week = new Week(name, null, password, 5, 6);
+    for (int i = 0; i < tasks; i++) {
+      week.addItem(new Task("task " + i, "description", DayOfWeek.MONDAY));
+    }
+    week.addItem(new Event("event", "", DayOfWeek.FRIDAY, "3:00 PM", "1 hr", ItemType.EVENT));
+    return week;
+  }
+
+  /**
+   * Tests that weeks of every format are summarized and unreadable files are left out.
+   */
+  @Test
+  public void testScanSummarizesEveryFormat() throws Exception {
+    StorageManager.writeFile(week("plain", "", 2), directory.resolve("a.bujo"));
+    StorageManager.writeFile(week("binary", "", 3), directory.resolve("b.bujo"),
+        StorageFormat.BINARY, Compression.GZIP);
+    StorageManager.writeFile(week("locked", "secret", 0), directory.resolve("c.bujo"));
+    Files.writeString(directory.resolve("d.bujo"), "not a week", StandardCharsets.UTF_8);
+    Files.writeString(directory.resolve("notes.txt"), "ignored", StandardCharsets.UTF_8);
+
+    List<WeekSummary> summaries = catalog.scan(directory).get();
+    Assertions.assertEquals(3, summaries.size());
+
+    WeekSummary plain = summaries.get(0);
+    Assertions.assertEquals("plain", plain.getName());
+    Assertions.assertFalse(plain.isPasswordProtected());
+    Assertions.assertEquals(5, plain.getMaxNumEvents());
+    Assertions.assertEquals(6, plain.getMaxNumTasks());
+    Assertions.assertEquals(2, plain.getTaskCount());
+    Assertions.assertEquals(1, plain.getEventCount());
+
+    Assertions.assertEquals("binary", summaries.get(1).getName());
+    Assertions.assertEquals(3, summaries.get(1).getTaskCount());
+    Assertions.assertTrue(summaries.get(2).isPasswordProtected());
+  }
+
+  /**
+   * Tests that a rescan only reads the files that changed.
+   */
+  @Test
+  public void testRescanIsIncremental() throws Exception {
+    Path first = directory.resolve("a.bujo");
+    StorageManager.writeFile(week("first", "", 1), first);
+    StorageManager.writeFile(week("second", "", 1), directory.resolve("b.bujo"));
+
+    catalog.scan(directory).get();
+    Assertions.assertEquals(2, catalog.getFilesRead());
+    catalog.scan(directory).get();
+    Assertions.assertEquals(2, catalog.getFilesRead());
+
+    StorageManager.writeFile(week("first", "", 4), first);
+    Files.setLastModifiedTime(first, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+    List<WeekSummary> summaries = catalog.scan(directory).get();
+    Assertions.assertEquals(3, catalog.getFilesRead());
+    Assertions.assertEquals(4, summaries.get(0).getTaskCount());
+  }
+
+  /**
+   * Tests that logged mutations not yet compacted are counted.
+   */
+  @Test
+  public void testMutationLogIsCounted() throws Exception {
+    Path file = directory.resolve("a.bujo");
+    Week week = week("logged", "", 1);
+    StorageManager.writeFile(week, file);
+    try (SaveService saveService = new SaveService()) {
+      MutationLog log = new MutationLog(week, file, saveService,
+          MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+      week.addItem(new Task("logged task", "", DayOfWeek.TUESDAY));
+      log.close();
+    }
+
+    Assertions.assertEquals(2, catalog.scan(directory).get().get(0).getTaskCount());
+  }
+
+  /**
+   * Tests that a log whose mutations are partly in the .bujo file already, as after an autosave,
+   * is counted the way replaying it would leave the week.
+   */
+  @Test
+  public void testOverlappingMutationLogIsCounted() throws Exception {
+    Path file = directory.resolve("a.bujo");
+    Week week = week("logged", "", 2);
+    StorageManager.writeFile(week, file, StorageFormat.BINARY);
+    try (SaveService saveService = new SaveService()) {
+      MutationLog log = new MutationLog(week, file, saveService,
+          MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+      week.addItem(new Task("saved task", "", DayOfWeek.TUESDAY));
+      week.removeItem(new Task("task 0", "", DayOfWeek.MONDAY));
+      StorageManager.writeFile(week, file, StorageFormat.BINARY);
+      week.addItem(new Event("logged event", "", DayOfWeek.SUNDAY, "1:00 PM", "1 hr",
+          ItemType.EVENT));
+      week.removeItem(new Event("event", "", DayOfWeek.FRIDAY, "3:00 PM", "1 hr",
+          ItemType.EVENT));
+      log.close();
+    }
+
+    WeekSummary summary = catalog.scan(directory).get().get(0);
+    Assertions.assertEquals("logged", summary.getName());
+    Assertions.assertEquals(2, summary.getTaskCount());
+    Assertions.assertEquals(1, summary.getEventCount());
+  }
+}
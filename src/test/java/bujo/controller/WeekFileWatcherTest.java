@@ -0,0 +1,203 @@
+package bujo.controller;
+
+import bujo.model.Day;
+import bujo.model.DayOfWeek;
+import bujo.model.Event;
+import bujo.model.Item;
+import bujo.model.ItemType;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the WeekFileWatcher class.
+ */
+class WeekFileWatcherTest {
+  private Path directory;
+  private Path filePath;
+  private Week week;
+  private SaveService saveService;
+  private WeekFileWatcher watcher;
+  private BlockingQueue<List<List<DayOfWeek>>> reloads;
+
+  /**
+   * Sets up a week written to a scratch directory and a watcher on its file.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("watcher");
+    filePath = directory.resolve("week.bujo");
+    week = new Week("week", filePath);
+    week.addItem(new Task("monday", "", DayOfWeek.MONDAY));
+    week.addItem(new Task("tuesday", "", DayOfWeek.TUESDAY));
+    StorageManager.writeFile(week, filePath);
+    week.markSaved(week.getRevision());
+
+    saveService = new SaveService();
+    reloads = new ArrayBlockingQueue<>(10);
+    watcher = new WeekFileWatcher(week, filePath, saveService, Runnable::run,
+        Duration.ofMillis(50),
+        (refreshed, conflicting) -> reloads.add(List.of(refreshed, conflicting)));
+  }
+
+  /**
+   * Stops the watcher and removes the scratch directory.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    watcher.close();
+    saveService.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Writes a changed copy of the week to its file, as another program would.
+   *
+   * @param day the day to add a task to
+   * @param name the name of the task
+   */
+  private void changeOnDisk(DayOfWeek day, String name) throws IOException {
+    Week copy = StorageManager.readStoredFile(filePath);
+    copy.addItem(new Task(name, "", day));
+    StorageManager.writeFile(copy, filePath);
+  }
+
+  /**
+   * Tests that a day changed on disk is copied into the week and nothing else is reported.
+   */
+  @Test
+  public void testChangedDayIsReloaded() throws Exception {
+    changeOnDisk(DayOfWeek.MONDAY, "from disk");
+
+    List<List<DayOfWeek>> reload = reloads.poll(10, TimeUnit.SECONDS);
+    Assertions.assertNotNull(reload);
+    Assertions.assertEquals(List.of(DayOfWeek.MONDAY), reload.get(0));
+    Assertions.assertTrue(reload.get(1).isEmpty());
+    Assertions.assertEquals(2, week.getDays().get(1).getItems().size());
+    Assertions.assertFalse(week.isDirty());
+  }
+
+  /**
+   * Tests that a day changed on both sides is flagged and kept as it is in memory, while a day
+   * changed only in memory is kept as well.
+   */
+  @Test
+  public void testConflictIsFlagged() throws Exception {
+    week.addItem(new Task("local", "", DayOfWeek.MONDAY));
+    week.addItem(new Task("local", "", DayOfWeek.FRIDAY));
+    changeOnDisk(DayOfWeek.MONDAY, "from disk");
+
+    List<List<DayOfWeek>> reload = reloads.poll(10, TimeUnit.SECONDS);
+    Assertions.assertNotNull(reload);
+    Assertions.assertTrue(reload.get(0).isEmpty());
+    Assertions.assertEquals(List.of(DayOfWeek.MONDAY), reload.get(1));
+    Assertions.assertEquals("local", week.getDays().get(1).getItems().get(1).getName());
+    Assertions.assertEquals(1, week.getDays().get(5).getItems().size());
+    Assertions.assertTrue(week.isDirty());
+  }
+
+  /**
+   * Tests that an item edited both on disk and in memory is flagged while the edit made in
+   * memory is only in the mutation log, which must not be taken for part of the file.
+   */
+  @Test
+  public void testLoggedEditIsNotTakenForDiskChange() throws Exception {
+    MutationLog log = new MutationLog(week, filePath, saveService,
+        MutationLog.DEFAULT_COMPACTION_THRESHOLD);
+    week.removeItem(new Task("monday", "", DayOfWeek.MONDAY));
+    week.addItem(new Task("monday", "here", DayOfWeek.MONDAY));
+    log.close();
+
+    Week copy = StorageManager.readStoredFile(filePath);
+    copy.removeItem(new Task("monday", "", DayOfWeek.MONDAY));
+    copy.addItem(new Task("monday", "there", DayOfWeek.MONDAY));
+    StorageManager.writeFile(copy, filePath);
+
+    List<List<DayOfWeek>> reload = reloads.poll(10, TimeUnit.SECONDS);
+    Assertions.assertNotNull(reload);
+    Assertions.assertTrue(reload.get(0).isEmpty());
+    Assertions.assertEquals(List.of(DayOfWeek.MONDAY), reload.get(1));
+    Assertions.assertEquals("here", week.getDays().get(1).getItems().get(0).getDescription());
+  }
+
+  /**
+   * Tests that a day changed on disk to hold an event the week refuses to add is flagged and
+   * left whole, rather than emptied before the event is refused.
+   */
+  @Test
+  public void testUnaddableDayIsLeftWhole() throws Exception {
+    Week copy = StorageManager.readStoredFile(filePath);
+    List<Day> days = new ArrayList<>(copy.getDays());
+    List<Item> monday = new ArrayList<>(days.get(1).getItems());
+    monday.add(new Event("later", "", DayOfWeek.MONDAY, "later", "1 hr", ItemType.EVENT));
+    days.set(1, new Day(DayOfWeek.MONDAY, monday));
+    StorageManager.writeFile(new Week(copy.getName(), copy.getHashedPassword(),
+        copy.getSaltPassword(), copy.getMaxNumEvents(), copy.getMaxNumTasks(), days), filePath);
+
+    List<List<DayOfWeek>> reload = reloads.poll(10, TimeUnit.SECONDS);
+    Assertions.assertNotNull(reload);
+    Assertions.assertTrue(reload.get(0).isEmpty());
+    Assertions.assertEquals(List.of(DayOfWeek.MONDAY), reload.get(1));
+    Assertions.assertEquals(1, week.getDays().get(1).getItems().size());
+    Assertions.assertEquals("monday", week.getDays().get(1).getItems().get(0).getName());
+  }
+
+  /**
+   * Tests that the app's own save of the week is not reported as a change.
+   */
+  @Test
+  public void testOwnSaveIsIgnored() throws Exception {
+    week.addItem(new Task("local", "", DayOfWeek.MONDAY));
+    StorageManager.writeFile(week, filePath);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (watcher.getReloads() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assertions.assertTrue(watcher.getReloads() > 0);
+    Assertions.assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Tests that a save made by the app is not reported as a change when the same day is edited
+   * again before the file is re-read.
+   */
+  @Test
+  public void testOwnSaveFollowedByEditIsIgnored() throws Exception {
+    week.addItem(new Task("saved", "", DayOfWeek.MONDAY));
+    saveService.save(week, filePath).get();
+    week.addItem(new Task("unsaved", "", DayOfWeek.MONDAY));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (watcher.getReloads() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assertions.assertTrue(watcher.getReloads() > 0);
+    Assertions.assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+    Assertions.assertEquals(3, week.getDays().get(1).getItems().size());
+
+    changeOnDisk(DayOfWeek.TUESDAY, "from disk");
+    List<List<DayOfWeek>> reload = reloads.poll(10, TimeUnit.SECONDS);
+    Assertions.assertNotNull(reload);
+    Assertions.assertEquals(List.of(DayOfWeek.TUESDAY), reload.get(0));
+    Assertions.assertTrue(reload.get(1).isEmpty());
+  }
+}
@@ -0,0 +1,159 @@
+package bujo.controller;
+
+import bujo.model.DayOfWeek;
+import bujo.model.Task;
+import bujo.model.Week;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the WeekVerifier class.
+ */
+class WeekVerifierTest {
+  private Path filePath;
+  private Week week;
+  private SectionChecksums checksums;
+
+  /**
+   * Sets up a week and a scratch file.
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    filePath = Files.createTempFile("verify", ".bujo");
+    week = new Week("week", filePath);
+    week.addItem(new Task("monday task", "description", DayOfWeek.MONDAY));
+    week.addItem(new Task("friday task", "description", DayOfWeek.FRIDAY));
+  }
+
+  /**
+   * Removes the scratch file.
+   */
+  @AfterEach
+  void tearDown() throws IOException {
+    Files.deleteIfExists(filePath);
+    Files.deleteIfExists(SectionChecksums.pathFor(filePath));
+  }
+
+  /**
+   * Replaces the first occurrence of a string in the JSON of the week.
+   *
+   * @param target the string to replace
+   * @param replacement its replacement
+   * @return the damaged JSON
+   */
+  private byte[] damagedJson(String target, String replacement) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    checksums = StorageManager.writeWeek(week, out);
+    return out.toString(StandardCharsets.UTF_8).replaceFirst(target, replacement)
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Tests that intact files of every format and compression pass.
+   */
+  @Test
+  public void testIntactFilesPass() throws IOException {
+    for (StorageFormat format : StorageFormat.values()) {
+      for (Compression compression : Compression.values()) {
+        StorageManager.writeFile(week, filePath, format, compression);
+        IntegrityReport report = WeekVerifier.verify(filePath);
+        Assertions.assertTrue(report.isIntact());
+        Assertions.assertTrue(report.isChecksummed());
+      }
+    }
+  }
+
+  /**
+   * Tests that damage to a saved file is found through the checksums stored beside it, and
+   * that the checksums are ignored once the file is replaced by a program that does not write
+   * them.
+   */
+  @Test
+  public void testChecksumsBesideFile() throws IOException {
+    StorageManager.writeFile(week, filePath);
+    FileTime modified = Files.getLastModifiedTime(filePath);
+    String text = Files.readString(filePath);
+    Assertions.assertFalse(text.contains("checksums"));
+
+    // Bit rot keeps the size and modification time
+    Files.writeString(filePath, text.replace("friday task", "fridax task"));
+    Files.setLastModifiedTime(filePath, modified);
+    IntegrityReport report = WeekVerifier.verify(filePath);
+    Assertions.assertTrue(report.isChecksummed());
+    Assertions.assertEquals(List.of(DayOfWeek.FRIDAY), report.getDamagedDays());
+
+    // An edit by another program moves the modification time
+    Files.setLastModifiedTime(filePath, FileTime.fromMillis(modified.toMillis() + 2000));
+    report = WeekVerifier.verify(filePath);
+    Assertions.assertTrue(report.isIntact());
+    Assertions.assertFalse(report.isChecksummed());
+  }
+
+  /**
+   * Tests that a change inside a day is pinned to that day.
+   */
+  @Test
+  public void testDamagedDayIsNamed() throws IOException {
+    IntegrityReport report = WeekVerifier.verifyJson(damagedJson("friday task", "fridax task"),
+        checksums);
+    Assertions.assertFalse(report.isIntact());
+    Assertions.assertFalse(report.isHeaderDamaged());
+    Assertions.assertEquals(List.of(DayOfWeek.FRIDAY), report.getDamagedDays());
+
+    report = WeekVerifier.verifyJson(damagedJson("\"maxNumTasks\":2147483647",
+        "\"maxNumTasks\":2147483640"), checksums);
+    Assertions.assertTrue(report.isHeaderDamaged());
+    Assertions.assertTrue(report.getDamagedDays().isEmpty());
+  }
+
+  /**
+   * Tests that a truncated file names the day it was cut in and every day after it.
+   */
+  @Test
+  public void testTruncatedFileNamesMissingDays() throws IOException {
+    byte[] json = damagedJson("x", "x");
+    String text = new String(json, StandardCharsets.UTF_8);
+    byte[] truncated = Arrays.copyOf(json, text.indexOf("monday task"));
+
+    IntegrityReport report = WeekVerifier.verifyJson(truncated, checksums);
+    Assertions.assertFalse(report.isIntact());
+    Assertions.assertEquals(List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+        DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY), report.getDamagedDays());
+  }
+
+  /**
+   * Tests that files written before checksums are still checked for well-formedness.
+   */
+  @Test
+  public void testLegacyFileIsWellFormed() throws IOException {
+    IntegrityReport report = WeekVerifier.verify(
+        Path.of("src/test/resources/artifacts/legacyWeek.bujo"));
+    Assertions.assertTrue(report.isIntact());
+    Assertions.assertFalse(report.isChecksummed());
+  }
+
+  /**
+   * Tests that reading a damaged file reports the damaged days.
+   */
+  @Test
+  public void testReadFileNamesDamage() throws IOException {
+    StorageManager.writeFile(week, filePath);
+    byte[] json = Files.readAllBytes(filePath);
+    String text = new String(json, StandardCharsets.UTF_8);
+    Files.write(filePath, Arrays.copyOf(json, text.indexOf("friday task")));
+
+    IOException e = Assertions.assertThrows(IOException.class,
+        () -> StorageManager.readFile(filePath));
+    Assertions.assertTrue(e.getMessage().contains("FRIDAY"));
+  }
+}
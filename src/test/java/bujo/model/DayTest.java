@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -24,9 +26,9 @@ class DayTest {
   @BeforeEach
   void setUp() {
     day = new Day(DayOfWeek.MONDAY);
-    day.addItem(new Task("task1", "description", DayOfWeek.FRIDAY),
-        1, 1);
-    day.addItem(new Event("event1", "description",
+    day.addItem(new Task("task-1", "task1", "description", DayOfWeek.FRIDAY, false,
+        ItemType.TASK), 1, 1);
+    day.addItem(new Event("event-1", "event1", "description",
         DayOfWeek.FRIDAY, "9:00 AM",
         "1 HR", ItemType.EVENT), 1, 1);
   }
@@ -39,10 +41,11 @@ class DayTest {
     Day dayCopy = new Day(day.getDayOfWeek(), day.getItems());
     ObjectMapper mapper = new ObjectMapper();
     JsonNode serializedDay = mapper.convertValue(dayCopy, JsonNode.class);
-    String expected = "{\"items\":[{\"itemType\":\"event\","
+    String expected = "{\"items\":[{\"itemType\":\"event\",\"id\":\"event-1\","
         + "\"name\":\"event1\",\"description\":\"description\","
         + "\"day\":\"FRIDAY\",\"duration\":\"1 HR\",\"type\":\"EVENT\","
-        + "\"startTime\":\"9:00 AM\"},{\"itemType\":\"task\",\"name\":\"task1\","
+        + "\"startTime\":\"9:00 AM\"},{\"itemType\":\"task\",\"id\":\"task-1\","
+        + "\"name\":\"task1\","
         + "\"description\":\"description\",\"day\":\"FRIDAY\",\"complete\":false,"
         + "\"type\":\"TASK\"}],\"dayOfWeek\":\"MONDAY\"}";
     String actual = serializedDay.toString();
@@ -127,6 +130,71 @@ class DayTest {
     assertThrows(IllegalAccessException.class, () -> day.removeItem("task1"));
   }
 
+  /**
+   * Tests looking up and removing items by ID
+   */
+  @Test
+  void itemsById() throws IllegalAccessException {
+    assertEquals("task1", day.getItemById("task-1").getName());
+    assertEquals("event-1", day.getItemId("event1"));
+    assertEquals(null, day.getItemById("missing"));
+
+    assertEquals("event1", day.removeItemById("event-1").getName());
+    assertEquals(null, day.getItemId("event1"));
+    assertEquals(1, day.getItems().size());
+    assertThrows(IllegalAccessException.class, () -> day.removeItemById("event-1"));
+  }
+
+  /**
+   * Tests that an item reusing an ID on the day is rejected
+   */
+  @Test
+  void duplicateIdRejected() {
+    assertThrows(IllegalArgumentException.class, () -> day.addItem(new Task("task-1",
+        "other", "", DayOfWeek.FRIDAY, false, ItemType.TASK), 5, 5));
+    assertEquals(2, day.getItems().size());
+  }
+
+  /**
+   * Tests that events are kept in start time order, ties in the order they were added, with the
+   * tasks after them in the order they were added, across removals
+   */
+  @Test
+  void itemsStayOrdered() throws IllegalAccessException {
+    day.addItem(new Task("task2", "", DayOfWeek.FRIDAY), 5, 5);
+    day.addItem(new Event("late", "", DayOfWeek.FRIDAY, "1:30 PM", "1 hr", ItemType.EVENT),
+        5, 5);
+    day.addItem(new Event("early", "", DayOfWeek.FRIDAY, "12:05 AM", "1 hr", ItemType.EVENT),
+        5, 5);
+    day.addItem(new Event("tie", "", DayOfWeek.FRIDAY, "9:00 AM", "1 hr", ItemType.EVENT),
+        5, 5);
+    day.removeItem("late");
+
+    StringBuilder names = new StringBuilder();
+    for (Item item : day.getItems()) {
+      names.append(item.getName()).append(' ');
+    }
+    assertEquals("early event1 tie task1 task2 ", names.toString());
+    assertFalse(day.checkEventsOverbooked(3));
+    assertTrue(day.checkEventsOverbooked(2));
+  }
+
+  /**
+   * Tests that an event whose start time cannot be read is rejected when added, but kept last
+   * among the events when read from a file
+   */
+  @Test
+  void unreadableStartTime() {
+    Event unreadable = new Event("later", "", DayOfWeek.FRIDAY, "later", "1 hr", ItemType.EVENT);
+    assertThrows(IllegalArgumentException.class, () -> day.addItem(unreadable, 5, 5));
+    assertEquals(2, day.getItems().size());
+
+    List<Item> items = new ArrayList<>(day.getItems());
+    items.add(0, unreadable);
+    Day loaded = new Day(DayOfWeek.FRIDAY, items);
+    assertEquals("later", loaded.getItems().get(1).getName());
+  }
+
   /**
    * Tests getting items
    */
@@ -134,4 +202,75 @@ class DayTest {
   void getItems() {
     assertEquals(2, day.getItems().size());
   }
+
+  /**
+   * Tests that overlapping events are reported as conflicts, following adds and removes
+   */
+  @Test
+  void conflicts() throws IllegalAccessException {
+    Event standup = new Event("standup", "", DayOfWeek.FRIDAY, "9:30 AM", "15 mins",
+        ItemType.EVENT);
+    assertFalse(day.hasConflicts());
+    assertEquals("event1", day.getConflicts(standup).get(0).getName());
+
+    day.addItem(standup, 5, 5);
+    day.addItem(new Event("lunch", "", DayOfWeek.FRIDAY, "12:00 PM", "1 hr", ItemType.EVENT),
+        5, 5);
+    day.addItem(new Event("after", "", DayOfWeek.FRIDAY, "10:00 AM", "2 hrs", ItemType.EVENT),
+        5, 5);
+    assertTrue(day.hasConflicts());
+    assertEquals(1, day.getConflicts(standup).size());
+    assertTrue(day.getConflicts((Event) day.getItemById(
+        day.getItemId("lunch"))).isEmpty());
+
+    day.removeItem("standup");
+    assertFalse(day.hasConflicts());
+    assertTrue(day.getConflicts(new Event("unknown", "", DayOfWeek.FRIDAY, "later", "1 hr",
+        ItemType.EVENT)).isEmpty());
+  }
+
+  /**
+   * Tests sweeping the events for free time, with and without working hours
+   */
+  @Test
+  void freeSlots() {
+    // event1 takes 9:00 to 10:00
+    day.addItem(new Event("long", "", DayOfWeek.FRIDAY, "9:30 AM", "2 hrs", ItemType.EVENT),
+        5, 5);
+    day.addItem(new Event("inside", "", DayOfWeek.FRIDAY, "10:00 AM", "30 mins",
+        ItemType.EVENT), 5, 5);
+    day.addItem(new Event("lunch", "", DayOfWeek.FRIDAY, "12:15 PM", "45 mins",
+        ItemType.EVENT), 5, 5);
+    day.addItem(new Event("evening", "", DayOfWeek.FRIDAY, "6:00 PM", "", ItemType.EVENT),
+        5, 5);
+
+    assertEquals(List.of(new TimeSlot(DayOfWeek.MONDAY, 0, 9 * 60),
+            new TimeSlot(DayOfWeek.MONDAY, 11 * 60 + 30, 12 * 60 + 15),
+            new TimeSlot(DayOfWeek.MONDAY, 13 * 60, TimeSlot.END_OF_DAY)),
+        day.getFreeSlots(1, TimeSlot.START_OF_DAY, TimeSlot.END_OF_DAY));
+    assertEquals(List.of(new TimeSlot(DayOfWeek.MONDAY, 13 * 60, 17 * 60)),
+        day.getFreeSlots(60, 9 * 60, 17 * 60));
+    assertEquals(new TimeSlot(DayOfWeek.MONDAY, 11 * 60 + 30, 12 * 60 + 15),
+        day.findFreeSlot(45, 9 * 60, 17 * 60));
+    assertEquals(null, day.findFreeSlot(4 * 60 + 1, 9 * 60, 17 * 60));
+    assertEquals(List.of(), day.getFreeSlots(1, 9 * 60 + 15, 11 * 60));
+    assertThrows(IllegalArgumentException.class, () -> day.findFreeSlot(0, 0, 60));
+    assertThrows(IllegalArgumentException.class, () -> day.findFreeSlot(5, 60, 0));
+  }
+
+  /**
+   * Tests that items are shared read-only, and that the list is only rebuilt after a change
+   */
+  @Test
+  void itemsAreReadOnly() throws IllegalAccessException {
+    List<Item> items = day.getItems();
+    assertTrue(items == day.getItems());
+    assertThrows(UnsupportedOperationException.class, () -> items.remove(0));
+    assertThrows(IllegalStateException.class, () -> ((Task) items.get(1)).markComplete());
+    assertTrue(items.get(1) == day.getItemById("task-1"));
+
+    day.removeItem("event1");
+    assertEquals(2, items.size());
+    assertEquals(1, day.getItems().size());
+  }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package bujo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the EventIntervals class.
+ */
+class EventIntervalsTest {
+
+  /**
+   * Creates an event.
+   *
+   * @param name the name of the event
+   * @param startMinutes start of the event, in minutes from midnight
+   * @param durationMinutes duration of the event, in minutes
+   * @return the event
+   */
+  private static Event event(String name, int startMinutes, int durationMinutes) {
+    return new Event(name, "", DayOfWeek.MONDAY, EventTimes.formatStartTime(startMinutes),
+        EventTimes.formatDuration(durationMinutes), ItemType.EVENT);
+  }
+
+  /**
+   * Tests that spans touching at their ends do not overlap.
+   */
+  @Test
+  void testTouchingSpans() {
+    EventIntervals intervals = new EventIntervals();
+    intervals.add(1, event("morning", 9 * 60, 60));
+    intervals.add(2, event("noon", 12 * 60, 30));
+    assertTrue(intervals.overlapping(10 * 60, 12 * 60).isEmpty());
+    assertEquals(1, intervals.overlapping(9 * 60 + 59, 10 * 60).size());
+    assertEquals(2, intervals.overlapping(0, 24 * 60).size());
+    assertTrue(intervals.remove(1));
+    assertFalse(intervals.remove(1));
+    assertTrue(intervals.overlapping(9 * 60, 10 * 60).isEmpty());
+  }
+
+  /**
+   * Tests random adds, removes and queries against a scan of every event.
+   */
+  @Test
+  void testMatchesScan() {
+    Random random = new Random(7);
+    EventIntervals intervals = new EventIntervals();
+    TreeMap<Long, Event> events = new TreeMap<>();
+    for (int i = 0; i < 2000; i++) {
+      if (!events.isEmpty() && random.nextInt(3) == 0) {
+        long key = events.keySet().stream().skip(random.nextInt(events.size())).findFirst()
+            .orElseThrow();
+        events.remove(key);
+        assertTrue(intervals.remove(key));
+      } else {
+        Event event = event("event " + i, random.nextInt(24 * 60), 1 + random.nextInt(180));
+        long key = ((long) event.getStartMinutes() << 40) | i;
+        events.put(key, event);
+        intervals.add(key, event);
+      }
+
+      int start = random.nextInt(24 * 60);
+      int end = start + 1 + random.nextInt(120);
+      List<Event> expected = new ArrayList<>();
+      for (Event event : events.values()) {
+        if (event.getStartMinutes() < end && EventIntervals.endMinutes(event) > start) {
+          expected.add(event);
+        }
+      }
+      assertEquals(expected, intervals.overlapping(start, end));
+    }
+  }
+}
@@ -28,13 +28,14 @@ class EventTest {
    */
   @Test
   void testSerialization() {
-    Event eventCopy = new Event(event.getName(),
+    Event eventCopy = new Event(event.getId(), event.getName(),
         event.getDescription(), event.getDay(), event.getStartTime(),
         event.getDuration(), event.getType());
 
     ObjectMapper mapper = new ObjectMapper();
     JsonNode serializedEvent = mapper.convertValue(eventCopy, JsonNode.class);
-    String expected = "{\"itemType\":\"event\",\"name\":\"event\",\"description"
+    String expected = "{\"itemType\":\"event\",\"id\":\"" + event.getId()
+        + "\",\"name\":\"event\",\"description"
         + "\":\"description\",\"day\":\"MONDAY\",\"duration\":\"1 Hr\",\"type\":"
         + "\"EVENT\",\"startTime\":\"12:00 PM\"}";
     String actual = serializedEvent.toString();
@@ -57,6 +58,24 @@ class EventTest {
     assertEquals("1 Hr", event.getDuration());
   }
 
+  /**
+   * Tests that the start time and duration are parsed into minutes, also when read from JSON
+   */
+  @Test
+  void parsedMinutes() throws Exception {
+    assertEquals(12 * 60, event.getStartMinutes());
+    assertEquals(60, event.getDurationMinutes());
+
+    ObjectMapper mapper = new ObjectMapper();
+    Event read = (Event) mapper.readValue(mapper.writeValueAsString(event), Item.class);
+    assertEquals(12 * 60, read.getStartMinutes());
+    assertEquals(60, ((Event) read.copy()).getDurationMinutes());
+
+    Event unreadable = new Event("event", "", DayOfWeek.MONDAY, "noon", null, ItemType.EVENT);
+    assertEquals(Event.UNKNOWN_MINUTES, unreadable.getStartMinutes());
+    assertEquals(Event.UNKNOWN_MINUTES, unreadable.getDurationMinutes());
+  }
+
   /**
    * Tests the getType method.
    */
@@ -0,0 +1,59 @@
+package bujo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the EventTimes class.
+ */
+class EventTimesTest {
+
+  /**
+   * Tests parsing start times, including around midnight and noon.
+   */
+  @Test
+  void testParseStartMinutes() {
+    assertEquals(18 * 60 + 45, EventTimes.parseStartMinutes("6:45 PM"));
+    assertEquals(0, EventTimes.parseStartMinutes("12:00 AM"));
+    assertEquals(12 * 60 + 5, EventTimes.parseStartMinutes("12:05 PM"));
+    assertEquals(11 * 60, EventTimes.parseStartMinutes(" 11:00 am "));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseStartMinutes("13:00 PM"));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseStartMinutes("6:45"));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseStartMinutes("6:4x PM"));
+  }
+
+  /**
+   * Tests parsing every duration spelling the app has written.
+   */
+  @Test
+  void testParseDurationMinutes() {
+    assertEquals(135, EventTimes.parseDurationMinutes("2 hrs 15 mins"));
+    assertEquals(60, EventTimes.parseDurationMinutes("1 hr "));
+    assertEquals(60, EventTimes.parseDurationMinutes("1 Hr"));
+    assertEquals(45, EventTimes.parseDurationMinutes("45 Min"));
+    assertEquals(90, EventTimes.parseDurationMinutes("1 Hr 30 Min"));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseDurationMinutes(""));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseDurationMinutes("2 days"));
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.parseDurationMinutes("hr"));
+  }
+
+  /**
+   * Tests that formatted times and durations parse back to the same minutes.
+   */
+  @Test
+  void testFormatRoundTrips() {
+    assertEquals("12:00 AM", EventTimes.formatStartTime(0));
+    assertEquals("12:05 PM", EventTimes.formatStartTime(12 * 60 + 5));
+    assertEquals("6:45 PM", EventTimes.formatStartTime(18 * 60 + 45));
+    assertEquals("1 min", EventTimes.formatDuration(1));
+    assertEquals("1 hr", EventTimes.formatDuration(60));
+    assertEquals("2 hrs 15 mins", EventTimes.formatDuration(135));
+    for (int minutes = 0; minutes < 24 * 60; minutes += 7) {
+      assertEquals(minutes, EventTimes.parseStartMinutes(EventTimes.formatStartTime(minutes)));
+      assertEquals(minutes, EventTimes.parseDurationMinutes(EventTimes.formatDuration(minutes)));
+    }
+    assertThrows(IllegalArgumentException.class, () -> EventTimes.formatStartTime(24 * 60));
+  }
+}
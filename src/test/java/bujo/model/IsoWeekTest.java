@@ -0,0 +1,62 @@
+package bujo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IsoWeek class.
+ */
+class IsoWeekTest {
+
+  /**
+   * Tests weeks around the turn of week-based years.
+   */
+  @Test
+  void testYearBoundaries() {
+    assertEquals(IsoWeek.of(2020, 53), IsoWeek.of(LocalDate.of(2021, 1, 3)));
+    assertEquals(IsoWeek.of(2021, 1), IsoWeek.of(LocalDate.of(2021, 1, 4)));
+    assertEquals(IsoWeek.of(2025, 1), IsoWeek.of(LocalDate.of(2024, 12, 30)));
+    assertEquals(LocalDate.of(2024, 12, 30), IsoWeek.of(2025, 1).getMonday());
+    assertEquals(IsoWeek.of(2021, 1), IsoWeek.of(2020, 53).plusWeeks(1));
+    assertThrows(IllegalArgumentException.class, () -> IsoWeek.of(2021, 53));
+    assertThrows(IllegalArgumentException.class, () -> IsoWeek.of(2021, 0));
+  }
+
+  /**
+   * Tests that a journal week maps to the ISO week of its Monday and back.
+   */
+  @Test
+  void testJournalWeeks() {
+    LocalDate sunday = LocalDate.of(2023, 9, 3);
+    IsoWeek isoWeek = IsoWeek.ofJournalWeek(sunday);
+    assertEquals("2023-W36", isoWeek.toString());
+    assertEquals(sunday, isoWeek.getJournalSunday());
+    assertThrows(IllegalArgumentException.class,
+        () -> IsoWeek.ofJournalWeek(LocalDate.of(2023, 9, 4)));
+    for (int i = 0; i < 600; i++) {
+      LocalDate later = sunday.plusWeeks(i);
+      assertEquals(later, IsoWeek.ofJournalWeek(later).getJournalSunday());
+    }
+    // Every day from Sunday to Saturday belongs to the same journal week
+    for (int i = 0; i < 7; i++) {
+      assertEquals(isoWeek, IsoWeek.ofJournalDate(sunday.plusDays(i)));
+    }
+    assertEquals(isoWeek.plusWeeks(1), IsoWeek.ofJournalDate(sunday.plusDays(7)));
+  }
+
+  /**
+   * Tests parsing and ordering.
+   */
+  @Test
+  void testParseAndCompare() {
+    assertEquals(IsoWeek.of(2009, 7), IsoWeek.parse("2009-W07"));
+    assertEquals("2009-W07", IsoWeek.parse("2009-W07").toString());
+    assertTrue(IsoWeek.of(2009, 52).compareTo(IsoWeek.of(2010, 1)) < 0);
+    assertTrue(IsoWeek.of(2010, 2).compareTo(IsoWeek.of(2010, 1)) > 0);
+    assertThrows(IllegalArgumentException.class, () -> IsoWeek.parse("2009-7"));
+  }
+}
@@ -31,12 +31,13 @@ class TaskTest {
    */
   @Test
   void testSerialization() {
-    Task taskCopy = new Task(task.getName(),
+    Task taskCopy = new Task(task.getId(), task.getName(),
         task.getDescription(), task.getDay(), task.getComplete(), task.getType());
 
     ObjectMapper mapper = new ObjectMapper();
     JsonNode serializedTask = mapper.convertValue(taskCopy, JsonNode.class);
-    String expected = "{\"itemType\":\"task\",\"name\":\"task\",\"description\":\"description"
+    String expected = "{\"itemType\":\"task\",\"id\":\"" + task.getId()
+        + "\",\"name\":\"task\",\"description\":\"description"
         + "\",\"day\":\"MONDAY\",\"complete\":false,\"type\":\"TASK\"}";
     String actual = serializedTask.toString();
     assertEquals(expected, actual);
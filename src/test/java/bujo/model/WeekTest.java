@@ -3,6 +3,7 @@ package bujo.model;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -25,8 +26,9 @@ class WeekTest {
   @BeforeEach
   void setUp() {
     week = new Week("Week 1", Path.of("src"));
-    Item task = new Task("task", "description", DayOfWeek.MONDAY);
-    Item event = new Event("event", "description", DayOfWeek.MONDAY,
+    Item task = new Task("task-1", "task", "description", DayOfWeek.MONDAY, false,
+        ItemType.TASK);
+    Item event = new Event("event-1", "event", "description", DayOfWeek.MONDAY,
         "3:00 PM", "30 Min", ItemType.EVENT);
     week.addItem(task);
     week.addItem(event);
@@ -43,9 +45,11 @@ class WeekTest {
     JsonNode weekSerialized = mapper.convertValue(weekCopy, JsonNode.class);
     String expected = "{\"name\":\"Week 1\",\"hashedPassword\":\"\",\"maxNumEvents\":2147483647,"
         + "\"maxNumTasks\":2147483647,\"days\":[{\"items\":[],\"dayOfWeek\":\"SUNDAY\"},"
-        + "{\"items\":[{\"itemType\":\"event\",\"name\":\"event\",\"description\":\"description\","
+        + "{\"items\":[{\"itemType\":\"event\",\"id\":\"event-1\",\"name\":\"event\","
+        + "\"description\":\"description\","
         + "\"day\":\"MONDAY\",\"duration\":\"30 Min\",\"type\":\"EVENT\",\"startTime\":\"3:00 PM\""
-        + "},{\"itemType\":\"task\",\"name\":\"task\",\"description\":\"description\","
+        + "},{\"itemType\":\"task\",\"id\":\"task-1\",\"name\":\"task\","
+        + "\"description\":\"description\","
         + "\"day\":\"MONDAY\",\"complete\":false,\"type\":\"TASK\"}],\"dayOfWeek\":\"MONDAY\"},"
         + "{\"items\":[],\"dayOfWeek\":\"TUESDAY\"},{\"items\":[],\"dayOfWeek\":\"WEDNESDAY\"},"
         + "{\"items\":[],\"dayOfWeek\":\"THURSDAY\"},{\"items\":[],\"dayOfWeek\":\"FRIDAY\"},"
@@ -97,6 +101,81 @@ class WeekTest {
     assertEquals(1, week.getTaskList().size()); // 1 task in this week of 2 Items
   }
 
+  /**
+   * Tests that an item is replaced by its edited version, possibly on another day, and that
+   * the original is kept when the edited version cannot be added
+   */
+  @Test
+  void testReplaceItem() throws IllegalAccessException {
+    Item task = week.getDays().get(1).getItems().get(1);
+    week.replaceItem(task, new Task(task.getId(), "renamed", "", DayOfWeek.FRIDAY, false,
+        ItemType.TASK));
+    assertEquals(1, week.getDays().get(1).getItems().size());
+    assertEquals("renamed", week.getDays().get(5).getItems().get(0).getName());
+
+    Item event = week.getDays().get(1).getItems().get(0);
+    week.addItem(new Task("taken", "", DayOfWeek.SUNDAY));
+    assertThrows(IllegalArgumentException.class, () -> week.replaceItem(event,
+        new Event(event.getId(), "taken", "", DayOfWeek.SUNDAY, "9:00 AM", "1 hr",
+            ItemType.EVENT)));
+    assertEquals("event", week.getDays().get(1).getItems().get(0).getName());
+    assertEquals(1, week.getDays().get(0).getItems().size());
+  }
+
+  /**
+   * Tests that the task list and counts follow adds, removes, completions and edits
+   */
+  @Test
+  void testTaskQueue() throws IllegalAccessException {
+    assertEquals(0, week.getCompletedTaskCount());
+    week.addItem(new Task("b", "", DayOfWeek.SUNDAY));
+    week.addItem(new Task("a", "", DayOfWeek.FRIDAY));
+    week.addItem(new Task("a", "", DayOfWeek.TUESDAY));
+    week.markComplete(new Task("b", "", DayOfWeek.SUNDAY));
+
+    StringBuilder order = new StringBuilder();
+    for (Task task : week.getTaskList()) {
+      order.append(task.getName()).append(task.getDay().ordinal()).append(' ');
+    }
+    assertEquals("b0 a2 a5 task1 ", order.toString());
+    assertEquals(4, week.getTaskCount());
+    assertEquals(1, week.getCompletedTaskCount());
+
+    // Edited through a screen: removed, then added back under a new name
+    Item edited = week.removeItem(DayOfWeek.SUNDAY, week.getTaskList().get(0).getId());
+    week.addItem(new Task(edited.getId(), "z", "", DayOfWeek.SUNDAY, true, ItemType.TASK));
+    assertEquals("z", week.getTaskList().get(0).getName());
+    assertEquals(1, week.getCompletedTaskCount());
+    week.removeItem(week.getTaskList().get(0));
+    assertEquals(3, week.getTaskCount());
+    assertEquals(0, week.getCompletedTaskCount());
+
+    Week loaded = new Week("copy", "", "", Integer.MAX_VALUE, Integer.MAX_VALUE,
+        week.getDays());
+    assertEquals(3, loaded.getTaskCount());
+  }
+
+  /**
+   * Tests finding the earliest free window across the week
+   */
+  @Test
+  void testFindFreeSlot() {
+    // Monday holds an event from 3:00 PM to 3:30 PM
+    assertEquals(new TimeSlot(DayOfWeek.SUNDAY, 9 * 60, 17 * 60),
+        week.findFreeSlot(60, 9 * 60, 17 * 60));
+    week.addItem(new Event("all day", "", DayOfWeek.SUNDAY, "12:00 AM", "24 hrs",
+        ItemType.EVENT));
+    assertEquals(new TimeSlot(DayOfWeek.MONDAY, 9 * 60, 15 * 60),
+        week.findFreeSlot(60, 9 * 60, 17 * 60));
+    assertEquals(new TimeSlot(DayOfWeek.MONDAY, 15 * 60 + 30, 17 * 60),
+        week.findFreeSlot(DayOfWeek.MONDAY, 60, 14 * 60 + 30, 17 * 60));
+    assertEquals(new TimeSlot(DayOfWeek.TUESDAY, 9 * 60, 17 * 60),
+        week.findFreeSlot(7 * 60, 9 * 60, 17 * 60));
+    assertEquals(2, week.getFreeSlots(DayOfWeek.MONDAY, 30, TimeSlot.START_OF_DAY,
+        TimeSlot.END_OF_DAY).size());
+    assertEquals(null, week.findFreeSlot(9 * 60, 9 * 60, 17 * 60));
+  }
+
   /**
    * Tests the password constructor
    */
@@ -123,4 +202,71 @@ class WeekTest {
     assertEquals(0, week.getTaskList().size());
   }
 
-}
\ No newline at end of file
+  /**
+   * Tests that items are addressed by ID, so that an edited item keeps its identity
+   */
+  @Test
+  void testAddressItemsById() throws IllegalAccessException {
+    Item removed = week.removeItem(DayOfWeek.MONDAY, "task-1");
+    assertEquals("task", removed.getName());
+    assertThrows(IllegalAccessException.class,
+        () -> week.removeItem(DayOfWeek.MONDAY, "task-1"));
+
+    week.addItem(new Task("task-1", "renamed", "", DayOfWeek.MONDAY, false, ItemType.TASK));
+    week.markComplete(new Task("task-1", "old name", "", DayOfWeek.MONDAY, false,
+        ItemType.TASK));
+    assertTrue(week.getTaskList().get(0).getComplete());
+    week.removeItem(week.getTaskList().get(0));
+    assertEquals(0, week.getTaskList().size());
+  }
+
+  /**
+   * Tests that modifications mark the week dirty until the revision is saved
+   */
+  @Test
+  void testDirtyTracking() {
+    long revision = week.getRevision();
+    assertTrue(week.isDirty());
+    week.markSaved(revision);
+    assertFalse(week.isDirty());
+
+    week.addItem(new Task("another task", "", DayOfWeek.TUESDAY));
+    assertTrue(week.isDirty());
+    week.markSaved(revision);
+    assertTrue(week.isDirty());
+    week.markSaved(week.getRevision());
+    assertFalse(week.isDirty());
+  }
+
+  /**
+   * Tests marking a task complete and notifying listeners
+   */
+  @Test
+  void testMarkComplete() throws IllegalAccessException {
+    int[] completions = {0};
+    week.addListener(new WeekListener() {
+      @Override
+      public void itemAdded(Item item) {
+      }
+
+      @Override
+      public void itemRemoved(Item item) {
+      }
+
+      @Override
+      public void taskCompleted(Task task) {
+        completions[0]++;
+      }
+    });
+
+    Item before = week.getDays().get(1).getItems().get(1);
+    week.markComplete(new Task("task", "", DayOfWeek.MONDAY));
+    assertTrue(week.getTaskList().get(0).getComplete());
+    assertFalse(((Task) before).getComplete());
+    assertEquals(before.getId(), week.getDays().get(1).getItems().get(1).getId());
+    assertEquals(1, completions[0]);
+    assertThrows(IllegalAccessException.class,
+        () -> week.markComplete(new Task("event", "", DayOfWeek.MONDAY)));
+  }
+
+}